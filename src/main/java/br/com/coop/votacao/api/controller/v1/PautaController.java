@@ -1,27 +1,48 @@
 package br.com.coop.votacao.api.controller.v1;
 
 
+import br.com.coop.votacao.api.dto.ListaAptosResponse;
+import br.com.coop.votacao.api.dto.PaginaPautasResponse;
 import br.com.coop.votacao.api.dto.PautaRequest;
 import br.com.coop.votacao.api.dto.PautaResponse;
 import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.repository.PautaConsultaRepository.Filtro;
 import br.com.coop.votacao.service.PautaService;
+import br.com.coop.votacao.service.PautaService.PaginaPautas;
+import br.com.coop.votacao.service.RegistroAptos;
+import br.com.coop.votacao.service.RegistroAptos.Carga;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.List;
+import java.time.Instant;
 
 @RestController
 @RequestMapping("/api/v1/pautas")
 @Tag(name = "Pautas")
 public class PautaController {
+    private static final int LIMITE_MAXIMO = 500;
+
     private final PautaService pautaService;
+    private final ObjectMapper objectMapper;
+    private final RegistroAptos registroAptos;
 
-    public PautaController(PautaService pautaService) {
+    public PautaController(PautaService pautaService, ObjectMapper objectMapper, RegistroAptos registroAptos) {
         this.pautaService = pautaService;
+        this.objectMapper = objectMapper;
+        this.registroAptos = registroAptos;
     }
 
     @Operation(summary = "Cria uma nova pauta")
@@ -40,12 +61,44 @@ public class PautaController {
                 .body(response);
     }
 
-    @Operation(summary = "Lista todas as pautas")
+    @Operation(summary = "Lista as pautas da mais recente para a mais antiga, paginadas por cursor")
     @GetMapping
-    public List<PautaResponse> listar() {
-        return pautaService.listar().stream()
-                .map(this::toResponse)
-                .toList();
+    public PaginaPautasResponse listar(@RequestParam(required = false) Long cursor,
+                                       @RequestParam(defaultValue = "50") int limite,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadaDe,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadaAte,
+                                       @RequestParam(required = false) Boolean sessaoAberta) {
+        PaginaPautas pagina = pautaService.listar(new Filtro(criadaDe, criadaAte, sessaoAberta), cursor,
+                Math.min(Math.max(limite, 1), LIMITE_MAXIMO));
+
+        PaginaPautasResponse response = new PaginaPautasResponse();
+        response.setItens(pagina.itens().stream().map(this::toResponse).toList());
+        response.setProximoCursor(pagina.proximoCursor());
+        return response;
+    }
+
+    @Operation(summary = "Exporta todas as pautas do filtro em um único array JSON, escrito à medida que é lido do banco")
+    @GetMapping("/exportar")
+    public void exportar(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadaDe,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadaAte,
+                         @RequestParam(required = false) Boolean sessaoAberta,
+                         HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        try (JsonGenerator gerador = objectMapper.createGenerator(response.getOutputStream(), JsonEncoding.UTF8)) {
+            gerador.writeStartArray();
+            pautaService.exportar(new Filtro(criadaDe, criadaAte, sessaoAberta), pauta -> escrever(gerador, pauta));
+            gerador.writeEndArray();
+        }
+    }
+
+    private void escrever(JsonGenerator gerador, Pauta pauta) {
+        try {
+            gerador.writeObject(toResponse(pauta));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Operation(summary = "Busca pauta por ID")
@@ -55,6 +108,26 @@ public class PautaController {
         return toResponse(pauta);
     }
 
+    @Operation(summary = "Substitui a lista de CPFs aptos a votar na pauta (texto, um CPF por linha)")
+    @PutMapping(value = "/{id}/aptos", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ListaAptosResponse carregarAptos(@PathVariable Long id, HttpServletRequest request) throws IOException {
+        pautaService.buscarPorId(id);
+        Carga carga = registroAptos.carregar(id, request.getInputStream());
+
+        ListaAptosResponse response = new ListaAptosResponse();
+        response.setPautaId(id);
+        response.setTotal(carga.total());
+        response.setLinhasIgnoradas(carga.ignoradas());
+        return response;
+    }
+
+    @Operation(summary = "Remove a lista de aptos da pauta, voltando à verificação pelo serviço de CPF")
+    @DeleteMapping("/{id}/aptos")
+    public ResponseEntity<Void> removerAptos(@PathVariable Long id) throws IOException {
+        registroAptos.remover(id);
+        return ResponseEntity.noContent().build();
+    }
+
     private PautaResponse toResponse(Pauta pauta) {
         PautaResponse dto = new PautaResponse();
         dto.setId(pauta.getId());
@@ -1,29 +1,52 @@
 package br.com.coop.votacao.api.controller.v1;
 
+import br.com.coop.votacao.api.dto.ResultadoParcialResponse;
 import br.com.coop.votacao.api.dto.ResultadoPautaResponse;
 import br.com.coop.votacao.api.dto.SessaoVotacaoRequest;
 import br.com.coop.votacao.api.dto.SessaoVotacaoResponse;
+import br.com.coop.votacao.config.ResultadosProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.exception.NotFoundException;
 import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import br.com.coop.votacao.service.CacheResultados;
+import br.com.coop.votacao.service.CacheResultados.ResultadoEncerrado;
+import br.com.coop.votacao.service.ResultadoParcialService;
+import br.com.coop.votacao.service.ResultadoParcialService.Parcial;
 import br.com.coop.votacao.service.SessaoVotacaoService;
+import br.com.coop.votacao.service.TransmissaoResultados;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.net.URI;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/pautas")
 @Tag(name = "Sessões de Votação")
 public class SessaoVotacaoController {
     private final SessaoVotacaoService sessaoVotacaoService;
+    private final CacheResultados cacheResultados;
+    private final ResultadoParcialService resultadoParcialService;
+    private final TransmissaoResultados transmissaoResultados;
+    private final ResultadosProperties resultadosProperties;
 
-    public SessaoVotacaoController(SessaoVotacaoService sessaoVotacaoService) {
+    public SessaoVotacaoController(SessaoVotacaoService sessaoVotacaoService,
+                                   CacheResultados cacheResultados,
+                                   ResultadoParcialService resultadoParcialService,
+                                   TransmissaoResultados transmissaoResultados,
+                                   ResultadosProperties resultadosProperties) {
         this.sessaoVotacaoService = sessaoVotacaoService;
+        this.cacheResultados = cacheResultados;
+        this.resultadoParcialService = resultadoParcialService;
+        this.transmissaoResultados = transmissaoResultados;
+        this.resultadosProperties = resultadosProperties;
     }
 
     @Operation(summary = "Abre uma sessão de votação para a pauta")
@@ -31,7 +54,8 @@ public class SessaoVotacaoController {
     public ResponseEntity<SessaoVotacaoResponse> abrirSessao(@PathVariable Long pautaId,
                                                              @Valid @RequestBody(required = false) SessaoVotacaoRequest request) {
         Long duracao = request != null ? request.getDuracaoSegundos() : null;
-        SessaoVotacao sessao = sessaoVotacaoService.abrirSessao(pautaId, duracao);
+        Integer shardsContador = request != null ? request.getShardsContador() : null;
+        SessaoVotacao sessao = sessaoVotacaoService.abrirSessao(pautaId, duracao, shardsContador);
         SessaoVotacaoResponse response = toResponse(sessao);
 
         return ResponseEntity
@@ -48,16 +72,57 @@ public class SessaoVotacaoController {
 
     @Operation(summary = "Obtém o resultado da votação da pauta")
     @GetMapping("/resultado/{pautaId}")
-    public ResultadoPautaResponse resultado(@PathVariable Long pautaId) {
+    public ResponseEntity<ResultadoPautaResponse> resultado(@PathVariable Long pautaId) {
+        // Resultado encerrado não muda: ETag forte e If-None-Match respondido sem consultar o banco
+        Optional<ResultadoEncerrado> encerrado = cacheResultados.buscar(pautaId);
+        if (encerrado.isPresent()) {
+            return resultadoEncerrado(pautaId, encerrado.get());
+        }
+
         SessaoVotacao sessao = sessaoVotacaoService.resultado(pautaId);
+        if (sessao.getStatus() == SessaoStatus.ENCERRADA) {
+            cacheResultados.registrar(sessao);
+            return resultadoEncerrado(pautaId, new ResultadoEncerrado(sessao.getId(), sessao.getTotalSim(), sessao.getTotalNao()));
+        }
+
+        return ResponseEntity.ok()
+                .eTag("W/\"" + sessao.getId() + "-" + sessao.getStatus() + "-" + sessao.getTotalSim() + "-" + sessao.getTotalNao() + "\"")
+                .cacheControl(CacheControl.maxAge(resultadosProperties.maxAgeAberta()))
+                .body(toResultado(pautaId, sessao.getId(), sessao.getTotalSim(), sessao.getTotalNao()));
+    }
+
+    @Operation(summary = "Obtém os totais parciais da sessão aberta, lidos dos contadores")
+    @GetMapping("/resultado/{pautaId}/parcial")
+    public ResponseEntity<ResultadoParcialResponse> parcial(@PathVariable Long pautaId) {
+        Parcial parcial = resultadoParcialService.parcial(pautaId);
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(parcial.provisorio()
+                        ? resultadosProperties.intervaloParcial()
+                        : resultadosProperties.maxAgeEncerrada()))
+                .body(parcial.toResponse());
+    }
 
+    @Operation(summary = "Acompanha os totais parciais da pauta por Server-Sent Events")
+    @GetMapping(path = "/resultado/{pautaId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanhar(@PathVariable Long pautaId) {
+        return transmissaoResultados.assinar(pautaId);
+    }
+
+    private ResponseEntity<ResultadoPautaResponse> resultadoEncerrado(Long pautaId, ResultadoEncerrado encerrado) {
+        return ResponseEntity.ok()
+                .eTag("\"" + encerrado.sessaoId() + "-" + SessaoStatus.ENCERRADA + "\"")
+                .cacheControl(CacheControl.maxAge(resultadosProperties.maxAgeEncerrada()))
+                .body(toResultado(pautaId, encerrado.sessaoId(), encerrado.totalSim(), encerrado.totalNao()));
+    }
+
+    private ResultadoPautaResponse toResultado(Long pautaId, Long sessaoId, long totalSim, long totalNao) {
         ResultadoPautaResponse resp = new ResultadoPautaResponse();
         resp.setPautaId(pautaId);
-        resp.setSessaoId(sessao.getId());
-        resp.setTotalSim(sessao.getTotalSim());
-        resp.setTotalNao(sessao.getTotalNao());
-        resp.setResultado(calcularResultado(sessao.getTotalSim(), sessao.getTotalNao()));
-
+        resp.setSessaoId(sessaoId);
+        resp.setTotalSim(totalSim);
+        resp.setTotalNao(totalNao);
+        resp.setResultado(calcularResultado(totalSim, totalNao));
         return resp;
     }
 
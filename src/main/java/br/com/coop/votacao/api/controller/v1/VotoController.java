@@ -1,34 +1,79 @@
 package br.com.coop.votacao.api.controller.v1;
 
 
+import br.com.coop.votacao.api.dto.VotoLoteResultado;
 import br.com.coop.votacao.api.dto.VotoRequest;
 import br.com.coop.votacao.entity.Voto;
+import br.com.coop.votacao.service.VotoLoteService;
 import br.com.coop.votacao.service.VotoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/pautas")
 @Tag(name = "Votos")
 public class VotoController {
     private final VotoService votoService;
+    private final VotoLoteService votoLoteService;
+    private final ObjectWriter resultadoWriter;
 
-    public VotoController(VotoService votoService) {
+    public VotoController(VotoService votoService, VotoLoteService votoLoteService, ObjectMapper objectMapper) {
         this.votoService = votoService;
+        this.votoLoteService = votoLoteService;
+        this.resultadoWriter = objectMapper.writerFor(VotoLoteResultado.class);
     }
 
     @Operation(summary = "Registra o voto de um associado em uma pauta")
     @PostMapping("/votos/{pautaId}")
     public ResponseEntity<Void> votar(@PathVariable Long pautaId,
                                       @Valid @RequestBody VotoRequest request) {
+        if (votoService.isIngestaoAssincrona()) {
+            votoService.enfileirarVoto(pautaId, request.getCpf(), request.getVoto());
+            return ResponseEntity.accepted().build();
+        }
+
         Voto voto = votoService.registrarVoto(pautaId, request.getCpf(), request.getVoto());
         return ResponseEntity
                 .created(URI.create("/api/v1/pautas/votos/" + pautaId + "/" + voto.getId()))
                 .build();
     }
+
+    @Operation(summary = "Registra votos em lote (JSON array ou NDJSON), devolvendo um resultado NDJSON por item")
+    @PostMapping(value = "/votos/{pautaId}/lote",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public void votarEmLote(@PathVariable Long pautaId,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        votoLoteService.registrar(pautaId, request.getInputStream(), resultados -> escrever(response, resultados));
+    }
+
+    private void escrever(HttpServletResponse response, List<VotoLoteResultado> resultados) {
+        try {
+            ServletOutputStream out = response.getOutputStream();
+            for (VotoLoteResultado resultado : resultados) {
+                out.write(resultadoWriter.writeValueAsBytes(resultado));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
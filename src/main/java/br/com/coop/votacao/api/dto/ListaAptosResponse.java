@@ -0,0 +1,31 @@
+package br.com.coop.votacao.api.dto;
+
+public class ListaAptosResponse {
+    private Long pautaId;
+    private int total;
+    private int linhasIgnoradas;
+
+    public Long getPautaId() {
+        return pautaId;
+    }
+
+    public void setPautaId(Long pautaId) {
+        this.pautaId = pautaId;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getLinhasIgnoradas() {
+        return linhasIgnoradas;
+    }
+
+    public void setLinhasIgnoradas(int linhasIgnoradas) {
+        this.linhasIgnoradas = linhasIgnoradas;
+    }
+}
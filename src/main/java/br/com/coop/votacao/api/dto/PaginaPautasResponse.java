@@ -0,0 +1,24 @@
+package br.com.coop.votacao.api.dto;
+
+import java.util.List;
+
+public class PaginaPautasResponse {
+    private List<PautaResponse> itens;
+    private Long proximoCursor;
+
+    public List<PautaResponse> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<PautaResponse> itens) {
+        this.itens = itens;
+    }
+
+    public Long getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(Long proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
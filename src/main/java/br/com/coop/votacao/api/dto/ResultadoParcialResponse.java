@@ -0,0 +1,72 @@
+package br.com.coop.votacao.api.dto;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+
+import java.time.Instant;
+
+public class ResultadoParcialResponse {
+
+    private Long pautaId;
+    private Long sessaoId;
+    private SessaoStatus status;
+    private long totalSim;
+    private long totalNao;
+    private boolean provisorio;
+    private Instant atualizadoEm;
+
+    public Long getPautaId() {
+        return pautaId;
+    }
+
+    public void setPautaId(Long pautaId) {
+        this.pautaId = pautaId;
+    }
+
+    public Long getSessaoId() {
+        return sessaoId;
+    }
+
+    public void setSessaoId(Long sessaoId) {
+        this.sessaoId = sessaoId;
+    }
+
+    public SessaoStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(SessaoStatus status) {
+        this.status = status;
+    }
+
+    public long getTotalSim() {
+        return totalSim;
+    }
+
+    public void setTotalSim(long totalSim) {
+        this.totalSim = totalSim;
+    }
+
+    public long getTotalNao() {
+        return totalNao;
+    }
+
+    public void setTotalNao(long totalNao) {
+        this.totalNao = totalNao;
+    }
+
+    public boolean isProvisorio() {
+        return provisorio;
+    }
+
+    public void setProvisorio(boolean provisorio) {
+        this.provisorio = provisorio;
+    }
+
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(Instant atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
+}
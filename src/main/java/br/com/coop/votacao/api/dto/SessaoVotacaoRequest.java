@@ -1,8 +1,15 @@
 package br.com.coop.votacao.api.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
 public class SessaoVotacaoRequest {
     private Long duracaoSegundos;
 
+    @Min(1)
+    @Max(64)
+    private Integer shardsContador;
+
     public Long getDuracaoSegundos() {
         return duracaoSegundos;
     }
@@ -10,4 +17,12 @@ public class SessaoVotacaoRequest {
     public void setDuracaoSegundos(Long duracaoSegundos) {
         this.duracaoSegundos = duracaoSegundos;
     }
+
+    public Integer getShardsContador() {
+        return shardsContador;
+    }
+
+    public void setShardsContador(Integer shardsContador) {
+        this.shardsContador = shardsContador;
+    }
 }
@@ -0,0 +1,55 @@
+package br.com.coop.votacao.api.dto;
+
+import br.com.coop.votacao.domain.SituacaoVotoLote;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class VotoLoteResultado {
+
+    private int indice;
+    private String cpf;
+    private SituacaoVotoLote situacao;
+    private String mensagem;
+
+    public VotoLoteResultado() {
+    }
+
+    public VotoLoteResultado(int indice, String cpf, SituacaoVotoLote situacao, String mensagem) {
+        this.indice = indice;
+        this.cpf = cpf;
+        this.situacao = situacao;
+        this.mensagem = mensagem;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+
+    public SituacaoVotoLote getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(SituacaoVotoLote situacao) {
+        this.situacao = situacao;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
@@ -1,10 +1,20 @@
 package br.com.coop.votacao.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "api")
 public record ApiProperties(
         String cpfValidationUrl,
-        String votingResultTopic
+        String votingResultTopic,
+        @DefaultValue("JSON") FormatoEvento votingResultFormat
 ) {
+    /**
+     * Formato dos eventos no tópico de resultados. JSON mantém o formato anterior para consumidores
+     * que ainda não leem o binário ({@code ResultadoPautaEventCodec}).
+     */
+    public enum FormatoEvento {
+        JSON,
+        BINARIO
+    }
 }
@@ -0,0 +1,11 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "votacao.aptos")
+public record AptosProperties(
+        @DefaultValue("aptos") String diretorio,
+        @DefaultValue("10") int bitsBloomPorCpf
+) {
+}
@@ -0,0 +1,183 @@
+package br.com.coop.votacao.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Cache em duas camadas: um Caffeine limitado por tamanho e TTL no heap (L1) na frente do cache
+ * Redis (L2). O L1 é indexado pela chave em texto, a mesma usada no Redis e nas mensagens de
+ * invalidação, que chegam de outros nós por {@link CacheManagerDoisNiveis}.
+ */
+public class CacheDoisNiveis implements org.springframework.cache.Cache {
+
+    private final String nome;
+    private final org.springframework.cache.Cache l2;
+    private final Cache<String, Object> l1;
+    // Recebe a chave alterada, ou null quando o cache inteiro foi limpo
+    private final Consumer<String> aoAlterar;
+    private final Counter acertosL2;
+    private final Counter falhasL2;
+    private final Counter remocoesL2;
+    private final Counter invalidacoesRecebidas;
+
+    public CacheDoisNiveis(String nome,
+                           org.springframework.cache.Cache l2,
+                           Cache<String, Object> l1,
+                           Consumer<String> aoAlterar,
+                           MeterRegistry meterRegistry) {
+        this.nome = nome;
+        this.l2 = l2;
+        this.l1 = l1;
+        this.aoAlterar = aoAlterar;
+
+        Tags tagsL1 = Tags.of("cache", nome, "nivel", "l1");
+        Tags tagsL2 = Tags.of("cache", nome, "nivel", "l2");
+        FunctionCounter.builder("votacao.cache.acessos", l1, c -> c.stats().hitCount())
+                .tags(tagsL1).tag("resultado", "acerto").register(meterRegistry);
+        FunctionCounter.builder("votacao.cache.acessos", l1, c -> c.stats().missCount())
+                .tags(tagsL1).tag("resultado", "falha").register(meterRegistry);
+        FunctionCounter.builder("votacao.cache.remocoes", l1, c -> c.stats().evictionCount())
+                .tags(tagsL1).register(meterRegistry);
+        Gauge.builder("votacao.cache.tamanho", l1, Cache::estimatedSize)
+                .tags(tagsL1).register(meterRegistry);
+        acertosL2 = Counter.builder("votacao.cache.acessos").tags(tagsL2).tag("resultado", "acerto").register(meterRegistry);
+        falhasL2 = Counter.builder("votacao.cache.acessos").tags(tagsL2).tag("resultado", "falha").register(meterRegistry);
+        remocoesL2 = Counter.builder("votacao.cache.remocoes").tags(tagsL2).register(meterRegistry);
+        invalidacoesRecebidas = Counter.builder("votacao.cache.invalidacoes").tags(tagsL1).register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return nome;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String chave = chave(key);
+        Object valor = l1.getIfPresent(chave);
+        if (valor != null) {
+            return new SimpleValueWrapper(valor);
+        }
+
+        ValueWrapper remoto = l2.get(key);
+        if (remoto == null || remoto.get() == null) {
+            falhasL2.increment();
+            return null;
+        }
+        acertosL2.increment();
+        l1.put(chave, remoto.get());
+        return remoto;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper valor = get(key);
+        if (valor == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(valor.get())) {
+            throw new IllegalStateException("Valor em cache '" + nome + "' não é do tipo " + type.getName());
+        }
+        return (T) valor.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) l1.get(chave(key), chave -> {
+            ValueWrapper remoto = l2.get(key);
+            if (remoto != null && remoto.get() != null) {
+                acertosL2.increment();
+                return remoto.get();
+            }
+            falhasL2.increment();
+            T valor;
+            try {
+                valor = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            if (valor != null) {
+                l2.put(key, valor);
+            }
+            return valor;
+        });
+    }
+
+    /**
+     * Só publica a invalidação quando substitui um valor diferente: o preenchimento de uma chave
+     * ausente (o caso comum, vindo de {@code @Cacheable}) não deixa cópia desatualizada em outro nó.
+     */
+    @Override
+    public void put(Object key, Object value) {
+        String chave = chave(key);
+        if (value == null) {
+            l2.put(key, null);
+            l1.invalidate(chave);
+            aoAlterar.accept(chave);
+            return;
+        }
+
+        Object local = l1.getIfPresent(chave);
+        ValueWrapper anterior = l2.putIfAbsent(key, value);
+        l1.put(chave, value);
+        if (anterior == null) {
+            if (local != null && !Objects.equals(local, value)) {
+                aoAlterar.accept(chave);
+            }
+            return;
+        }
+        if (!Objects.equals(anterior.get(), value)) {
+            l2.put(key, value);
+            aoAlterar.accept(chave);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        l2.evict(key);
+        remocoesL2.increment();
+        String chave = chave(key);
+        l1.invalidate(chave);
+        aoAlterar.accept(chave);
+    }
+
+    @Override
+    public void clear() {
+        l2.clear();
+        remocoesL2.increment();
+        l1.invalidateAll();
+        aoAlterar.accept(null);
+    }
+
+    /**
+     * Invalidação vinda de outro nó: só o L1 é descartado, o L2 já foi alterado pela origem.
+     */
+    void invalidarLocal(String chave) {
+        invalidacoesRecebidas.increment();
+        if (chave == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(chave);
+        }
+    }
+
+    private static String chave(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "votacao.cache-local")
+public record CacheLocalProperties(
+        @DefaultValue("pautas") Set<String> caches,
+        @DefaultValue("10000") long tamanhoMaximo,
+        @DefaultValue("5m") Duration ttl
+) {
+}
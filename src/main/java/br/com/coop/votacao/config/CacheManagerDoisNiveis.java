@@ -0,0 +1,96 @@
+package br.com.coop.votacao.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Envolve o cache manager do Redis e coloca um L1 Caffeine na frente dos caches listados em
+ * {@code votacao.cache-local.caches}; os demais continuam só no Redis. Toda escrita ou remoção
+ * em um cache de dois níveis é publicada em {@value #CANAL} para que os outros nós descartem
+ * a cópia local da chave.
+ */
+public class CacheManagerDoisNiveis implements CacheManager, MessageListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheManagerDoisNiveis.class);
+    public static final String CANAL = "votacao:cache:invalidacao";
+
+    private final CacheManager l2;
+    private final CacheLocalProperties cacheLocalProperties;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String origem = UUID.randomUUID().toString();
+    private final Map<String, CacheDoisNiveis> caches = new ConcurrentHashMap<>();
+
+    public CacheManagerDoisNiveis(CacheManager l2,
+                                  CacheLocalProperties cacheLocalProperties,
+                                  StringRedisTemplate redisTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.l2 = l2;
+        this.cacheLocalProperties = cacheLocalProperties;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!cacheLocalProperties.caches().contains(name)) {
+            return l2.getCache(name);
+        }
+        return caches.computeIfAbsent(name, this::criar);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return l2.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // origem|cache[|chave] - sem chave, o cache inteiro foi limpo
+        String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (partes.length < 2 || origem.equals(partes[0])) {
+            return;
+        }
+        CacheDoisNiveis cache = caches.get(partes[1]);
+        if (cache != null) {
+            cache.invalidarLocal(partes.length == 3 ? partes[2] : null);
+        }
+    }
+
+    private CacheDoisNiveis criar(String nome) {
+        Cache remoto = l2.getCache(nome);
+        if (remoto == null) {
+            throw new IllegalStateException("Cache '" + nome + "' não existe no Redis");
+        }
+        return new CacheDoisNiveis(nome, remoto,
+                Caffeine.newBuilder()
+                        .maximumSize(cacheLocalProperties.tamanhoMaximo())
+                        .expireAfterWrite(cacheLocalProperties.ttl())
+                        .recordStats()
+                        .build(),
+                chave -> publicarInvalidacao(nome, chave),
+                meterRegistry);
+    }
+
+    private void publicarInvalidacao(String nome, String chave) {
+        String mensagem = origem + "|" + nome + (chave == null ? "" : "|" + chave);
+        try {
+            redisTemplate.convertAndSend(CANAL, mensagem);
+        } catch (Exception e) {
+            // Os outros nós ficam com a cópia antiga até o TTL do L1
+            LOGGER.warn("Erro ao publicar invalidação do cache {}: {}", nome, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.coop.votacao.config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Formato binário de um tipo guardado em cache. {@link #versao()} é gravada junto com cada valor;
+ * ao mudar os campos, incremente a versão e mantenha em {@link #ler(int, DataInput)} a leitura
+ * das versões anteriores que ainda possam estar no Redis.
+ */
+public interface CodecBinario<T> {
+
+    int versao();
+
+    void escrever(T valor, DataOutput out) throws IOException;
+
+    /**
+     * Devolve null para versões que não sabe mais ler, o que faz a entrada ser tratada como ausente.
+     */
+    T ler(int versao, DataInput in) throws IOException;
+
+    static void escreverTexto(DataOutput out, String texto) throws IOException {
+        if (texto == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String lerTexto(DataInput in) throws IOException {
+        int tamanho = in.readInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void escreverInstante(DataOutput out, Instant instante) throws IOException {
+        out.writeBoolean(instante != null);
+        if (instante != null) {
+            out.writeLong(instante.getEpochSecond());
+            out.writeInt(instante.getNano());
+        }
+    }
+
+    static Instant lerInstante(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
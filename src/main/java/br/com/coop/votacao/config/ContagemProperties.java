@@ -0,0 +1,27 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.contagem")
+public record ContagemProperties(
+        @DefaultValue("DIRETO") Modo modo,
+        @DefaultValue("5s") Duration timeoutDescarga,
+        @DefaultValue("1ms") Duration janelaAgrupamento,
+        @DefaultValue("64") int tamanhoMaximoAgrupamento,
+        @DefaultValue("1") int shardsPadrao,
+        @DefaultValue("0") int slotsTabela
+) {
+
+    public enum Modo {
+        DIRETO,
+        AGRUPADO,
+        ACUMULADO
+    }
+
+    public boolean isAcumulado() {
+        return modo == Modo.ACUMULADO;
+    }
+}
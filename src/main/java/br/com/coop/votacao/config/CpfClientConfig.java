@@ -1,6 +1,8 @@
 package br.com.coop.votacao.config;
 
 import org.springframework.boot.autoconfigure.web.client.RestClientBuilderConfigurer;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
@@ -9,8 +11,14 @@ import org.springframework.web.client.RestClient;
 public class CpfClientConfig {
 
     @Bean
-    public RestClient cpfRestClient(RestClientBuilderConfigurer configurer) {
-        return configurer.configure(RestClient.builder()).build();
+    public RestClient cpfRestClient(RestClientBuilderConfigurer configurer, CpfProperties cpfProperties) {
+        // Sem timeout, um serviço lento seguraria as threads do voto até o circuito abrir
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(cpfProperties.timeout())
+                .withReadTimeout(cpfProperties.timeout());
+        return configurer.configure(RestClient.builder())
+                .requestFactory(ClientHttpRequestFactories.get(settings))
+                .build();
     }
 
 }
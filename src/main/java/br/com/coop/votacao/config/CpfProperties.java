@@ -0,0 +1,41 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.cpf")
+public record CpfProperties(
+        @DefaultValue("false") boolean habilitado,
+        @DefaultValue("PERMITIR") PoliticaFalha politicaFalha,
+        @DefaultValue("2s") Duration timeout,
+        @DefaultValue("100000") long tamanhoCacheLocal,
+        @DefaultValue("1h") Duration ttlHabilitado,
+        @DefaultValue("10m") Duration ttlInabilitado,
+        String urlLote,
+        @DefaultValue("100") int tamanhoMaximoLote,
+        @DefaultValue("5ms") Duration janelaLote,
+        @DefaultValue("5") int falhasParaAbrir,
+        @DefaultValue("30s") Duration tempoCircuitoAberto
+) {
+
+    /**
+     * O que fazer com o voto quando o serviço de CPF falha ou o circuito está aberto.
+     */
+    public enum PoliticaFalha {
+        PERMITIR,
+        BLOQUEAR
+    }
+
+    /**
+     * Validade do resultado da consulta nos caches local e compartilhado.
+     */
+    public Duration ttlResultado(boolean podeVotar) {
+        return podeVotar ? ttlHabilitado : ttlInabilitado;
+    }
+
+    public boolean isLote() {
+        return urlLote != null && !urlLote.isBlank() && tamanhoMaximoLote > 1;
+    }
+}
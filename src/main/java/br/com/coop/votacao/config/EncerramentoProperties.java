@@ -0,0 +1,18 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.encerramento")
+public record EncerramentoProperties(
+        @DefaultValue("5s") Duration esperaMaxima,
+        @DefaultValue("100") int tamanhoLote,
+        @DefaultValue("5s") Duration novaTentativa,
+        @DefaultValue("8") int paralelismo,
+        @DefaultValue("60s") Duration orcamentoVarredura,
+        @DefaultValue("64") int particoes,
+        @DefaultValue("15s") Duration lease
+) {
+}
@@ -0,0 +1,19 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.eventos-voto")
+public record EventosVotoProperties(
+        @DefaultValue("false") boolean habilitado,
+        @DefaultValue("votos") String topico,
+        @DefaultValue("votos-totais") String topicoTotais,
+        @DefaultValue("votacao-agregador-totais") String grupoAgregador,
+        @DefaultValue("12") int particoes,
+        @DefaultValue("1") int replicas,
+        @DefaultValue("3") int tentativasPublicacao,
+        @DefaultValue("500ms") Duration esperaRetentativa
+) {
+}
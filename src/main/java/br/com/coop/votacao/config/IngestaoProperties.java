@@ -0,0 +1,36 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.ingestao")
+public record IngestaoProperties(
+        @DefaultValue("SINCRONO") Modo modo,
+        @DefaultValue("votacao:ingestao:votos") String streamKey,
+        @DefaultValue("votacao-ingestao") String consumerGroup,
+        @DefaultValue("500") int tamanhoLote,
+        @DefaultValue("1s") Duration bloqueioLeitura,
+        @DefaultValue("60s") Duration ociosidadeMaxima,
+        @DefaultValue("30s") Duration timeoutDrenagem,
+        @DefaultValue("5") int maximoEntregas
+) {
+
+    public enum Modo {
+        SINCRONO,
+        STREAM
+    }
+
+    public boolean isStream() {
+        return modo == Modo.STREAM;
+    }
+
+    public String pendentesKey() {
+        return streamKey + ":pendentes";
+    }
+
+    public String descartadosKey() {
+        return streamKey + ":descartados";
+    }
+}
@@ -1,9 +1,78 @@
 package br.com.coop.votacao.config;
 
+import br.com.coop.votacao.messaging.AgregadorTotaisVotos;
+import br.com.coop.votacao.messaging.TotaisSessaoEvento;
+import br.com.coop.votacao.messaging.VotoEvento;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "votacao.eventos-voto", name = "habilitado", havingValue = "true")
+    public NewTopic topicoVotos(EventosVotoProperties eventosVotoProperties) {
+        return TopicBuilder.name(eventosVotoProperties.topico())
+                .partitions(eventosVotoProperties.particoes())
+                .replicas(eventosVotoProperties.replicas())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "votacao.eventos-voto", name = "habilitado", havingValue = "true")
+    public NewTopic topicoTotaisVotos(EventosVotoProperties eventosVotoProperties) {
+        // Mesmo número de partições do tópico de votos: a partição N de totais guarda as pautas da partição N de votos
+        return TopicBuilder.name(eventosVotoProperties.topicoTotais())
+                .partitions(eventosVotoProperties.particoes())
+                .replicas(eventosVotoProperties.replicas())
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "votacao.eventos-voto", name = "habilitado", havingValue = "true")
+    public AgregadorTotaisVotos.Fabricas fabricasAgregadorTotais(KafkaProperties kafkaProperties,
+                                                                EventosVotoProperties eventosVotoProperties) {
+        // Produtor próprio e transacional: o KafkaTemplate da aplicação continua sem transações
+        DefaultKafkaProducerFactory<String, Object> producerFactory =
+                new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null));
+        producerFactory.setTransactionIdPrefix(eventosVotoProperties.grupoAgregador() + "-");
+
+        Map<String, Object> leitura = consumoTransacional(kafkaProperties);
+        leitura.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        Map<String, Object> consumo = consumoTransacional(kafkaProperties);
+        consumo.put(ConsumerConfig.GROUP_ID_CONFIG, eventosVotoProperties.grupoAgregador());
+
+        return new AgregadorTotaisVotos.Fabricas(
+                new KafkaTemplate<>(producerFactory),
+                new DefaultKafkaConsumerFactory<>(leitura, new StringDeserializer(),
+                        new JsonDeserializer<>(TotaisSessaoEvento.class, false)),
+                new DefaultKafkaConsumerFactory<>(consumo, new StringDeserializer(),
+                        new ErrorHandlingDeserializer<>(new JsonDeserializer<>(VotoEvento.class, false))));
+    }
+
+    private static Map<String, Object> consumoTransacional(KafkaProperties kafkaProperties) {
+        Map<String, Object> consumo = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        consumo.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        consumo.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumo.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return consumo;
+    }
 }
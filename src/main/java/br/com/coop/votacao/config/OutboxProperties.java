@@ -0,0 +1,16 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.outbox")
+public record OutboxProperties(
+        @DefaultValue("100") int tamanhoLote,
+        @DefaultValue("30s") Duration timeoutEnvio,
+        @DefaultValue("1s") Duration tentativaInicial,
+        @DefaultValue("5m") Duration tentativaMaxima,
+        @DefaultValue("7d") Duration retencao
+) {
+}
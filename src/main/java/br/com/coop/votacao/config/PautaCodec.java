@@ -0,0 +1,36 @@
+package br.com.coop.votacao.config;
+
+import br.com.coop.votacao.entity.Pauta;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class PautaCodec implements CodecBinario<Pauta> {
+
+    @Override
+    public int versao() {
+        return 1;
+    }
+
+    @Override
+    public void escrever(Pauta pauta, DataOutput out) throws IOException {
+        out.writeLong(pauta.getId());
+        CodecBinario.escreverTexto(out, pauta.getTitulo());
+        CodecBinario.escreverTexto(out, pauta.getDescricao());
+        CodecBinario.escreverInstante(out, pauta.getDataCriacao());
+    }
+
+    @Override
+    public Pauta ler(int versao, DataInput in) throws IOException {
+        if (versao != 1) {
+            return null;
+        }
+        Pauta pauta = new Pauta();
+        pauta.setId(in.readLong());
+        pauta.setTitulo(CodecBinario.lerTexto(in));
+        pauta.setDescricao(CodecBinario.lerTexto(in));
+        pauta.setDataCriacao(CodecBinario.lerInstante(in));
+        return pauta;
+    }
+}
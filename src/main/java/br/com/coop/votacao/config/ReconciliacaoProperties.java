@@ -0,0 +1,12 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.reconciliacao")
+public record ReconciliacaoProperties(
+        @DefaultValue("10s") Duration margemConfirmacao
+) {
+}
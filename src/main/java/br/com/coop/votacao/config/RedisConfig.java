@@ -1,52 +1,72 @@
 package br.com.coop.votacao.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import br.com.coop.votacao.integration.CpfStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
+    private static final int LIMIAR_COMPRESSAO_CACHE = 512;
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
-        
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-        
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     CacheLocalProperties cacheLocalProperties,
+                                     CpfProperties cpfProperties,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     MeterRegistry meterRegistry) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .disableCachingNullValues();
 
-        RedisCacheConfiguration jsonConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
-                .disableCachingNullValues();
-
+        // Serializador escolhido por cache: texto puro ou codec binário versionado (LZ4 acima do limiar)
         Map<String, RedisCacheConfiguration> cacheConfigs = Map.of(
-                "cpf-status", defaultConfig.entryTtl(Duration.ofHours(1)),
-                "pautas", jsonConfig.entryTtl(Duration.ofMinutes(30))
+                "cpf-status", defaultConfig.entryTtl(ttlCpfStatus(cpfProperties)),
+                "pautas", binario(defaultConfig, new PautaCodec()).entryTtl(Duration.ofMinutes(30))
         );
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig.entryTtl(Duration.ofMinutes(10)))
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        CacheManagerDoisNiveis cacheManager = new CacheManagerDoisNiveis(
+                redisCacheManager, cacheLocalProperties, redisTemplate, meterRegistry);
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(CacheManagerDoisNiveis.CANAL));
+        return cacheManager;
+    }
+
+    /**
+     * TTL de cada entrada do {@code cpf-status} pelo status gravado, o mesmo do cache local do
+     * verificador: um "não habilitado" não pode durar mais no Redis do que em memória.
+     */
+    static RedisCacheWriter.TtlFunction ttlCpfStatus(CpfProperties cpfProperties) {
+        return (chave, valor) -> cpfProperties.ttlResultado(CpfStatus.ABLE_TO_VOTE.name().equals(valor));
+    }
+
+    private static RedisCacheConfiguration binario(RedisCacheConfiguration base, CodecBinario<?> codec) {
+        return base.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                new SerializadorBinario<>(codec, LIMIAR_COMPRESSAO_CACHE)));
     }
 
     @Bean
@@ -62,4 +82,107 @@ public class RedisConfig {
         script.setResultType(Long.class);
         return script;
     }
+
+    @Bean
+    public DefaultRedisScript<Long> reservarVotanteScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local novo = redis.call('SADD', KEYS[1], ARGV[1])\n" +
+            "if novo == 1 and redis.call('TTL', KEYS[1]) == -1 then\n" +
+            "    redis.call('EXPIRE', KEYS[1], ARGV[2])\n" +
+            "end\n" +
+            "return novo"
+        );
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    @Bean
+    public DefaultRedisScript<Long> publicarVersionadoScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local versao = redis.call('INCR', KEYS[1])\n" +
+            "redis.call('PUBLISH', ARGV[1], versao .. ':' .. ARGV[2])\n" +
+            "return versao"
+        );
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Grava ARGV[2] com TTL de ARGV[3] ms, a menos que a chave já tenha o valor de uma sessão mais nova
+     * que ARGV[1] (o valor começa pelo id da sessão).
+     */
+    @Bean
+    public DefaultRedisScript<Long> registrarResultadoScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local atual = redis.call('GET', KEYS[1])\n" +
+            "if atual and tonumber(string.match(atual, '^%d+')) > tonumber(ARGV[1]) then\n" +
+            "    return 0\n" +
+            "end\n" +
+            "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])\n" +
+            "return 1"
+        );
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Renova o lease de ARGV[1] por ARGV[2] ms, remove os vencidos e devolve os membros vivos. O
+     * instante vem do TIME do Redis, então relógios desencontrados entre os nós não afetam os leases.
+     */
+    @Bean
+    public DefaultRedisScript<List> renovarMembroEncerramentoScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local tempo = redis.call('TIME')\n" +
+            "local agora = tonumber(tempo[1]) * 1000 + math.floor(tonumber(tempo[2]) / 1000)\n" +
+            "redis.call('ZADD', KEYS[1], agora + tonumber(ARGV[2]), ARGV[1])\n" +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', agora)\n" +
+            "return redis.call('ZRANGE', KEYS[1], 0, -1)"
+        );
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    public DefaultRedisScript<List> reivindicarEncerramentosScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])\n" +
+            "for _, id in ipairs(ids) do\n" +
+            "    redis.call('ZREM', KEYS[1], id)\n" +
+            "end\n" +
+            "return ids"
+        );
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        // Iniciado por RegistroSessoesAbertas, que tolera o Redis indisponível na subida
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    public DefaultRedisScript<String> enfileirarVotoScript() {
+        DefaultRedisScript<String> script = new DefaultRedisScript<>();
+        script.setScriptText(
+            "local id = redis.call('XADD', KEYS[1], '*', 'pautaId', ARGV[1], 'sessaoId', ARGV[2],\n" +
+            "    'associadoId', ARGV[3], 'valor', ARGV[4], 'dataHora', ARGV[5])\n" +
+            "redis.call('HINCRBY', KEYS[2], ARGV[2], 1)\n" +
+            "return id"
+        );
+        script.setResultType(String.class);
+        return script;
+    }
 }
@@ -0,0 +1,17 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.resultados")
+public record ResultadosProperties(
+        @DefaultValue("10000") int tamanhoCacheLocal,
+        @DefaultValue("7d") Duration ttlRedis,
+        @DefaultValue("60s") Duration maxAgeEncerrada,
+        @DefaultValue("2s") Duration maxAgeAberta,
+        @DefaultValue("1s") Duration intervaloParcial,
+        @DefaultValue("30s") Duration defasagemMaximaParcial
+) {
+}
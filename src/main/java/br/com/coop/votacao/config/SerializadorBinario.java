@@ -0,0 +1,107 @@
+package br.com.coop.votacao.config;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializa valores com um {@link CodecBinario}, sem nomes de classe no payload (cache Redis e
+ * eventos de resultado no Kafka).
+ * Cabeçalho: marcador, versão do codec e flags; acima de {@code limiarCompressao} bytes o corpo
+ * é comprimido com LZ4 e precedido do tamanho original. Valores em outro formato (por exemplo o
+ * JSON gravado antes da troca de serializador) são tratados como ausentes e regravados.
+ */
+public class SerializadorBinario<T> implements RedisSerializer<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerializadorBinario.class);
+    public static final byte MARCADOR = (byte) 0xB1;
+    static final byte FLAG_LZ4 = 0x01;
+    private static final int CABECALHO = 3;
+    private static final byte[] VAZIO = new byte[0];
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DESCOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final CodecBinario<T> codec;
+    private final int limiarCompressao;
+
+    /**
+     * @param limiarCompressao tamanho a partir do qual o corpo é comprimido; 0 desliga a compressão
+     */
+    public SerializadorBinario(CodecBinario<T> codec, int limiarCompressao) {
+        if (codec.versao() < 0 || codec.versao() > 255) {
+            throw new IllegalArgumentException("Versão do codec deve estar entre 0 e 255");
+        }
+        this.codec = codec;
+        this.limiarCompressao = limiarCompressao;
+    }
+
+    @Override
+    public byte[] serialize(T valor) {
+        if (valor == null) {
+            return VAZIO;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.escrever(valor, out);
+        } catch (IOException e) {
+            throw new SerializationException("Erro ao serializar " + valor.getClass().getSimpleName(), e);
+        }
+        byte[] corpo = bytes.toByteArray();
+
+        if (limiarCompressao <= 0 || corpo.length < limiarCompressao) {
+            ByteBuffer saida = ByteBuffer.allocate(CABECALHO + corpo.length);
+            cabecalho(saida, (byte) 0);
+            return saida.put(corpo).array();
+        }
+
+        byte[] comprimido = new byte[COMPRESSOR.maxCompressedLength(corpo.length)];
+        int tamanho = COMPRESSOR.compress(corpo, 0, corpo.length, comprimido, 0);
+        ByteBuffer saida = ByteBuffer.allocate(CABECALHO + Integer.BYTES + tamanho);
+        cabecalho(saida, FLAG_LZ4);
+        return saida.putInt(corpo.length).put(comprimido, 0, tamanho).array();
+    }
+
+    @Override
+    public T deserialize(byte[] dados) {
+        if (dados == null || dados.length == 0) {
+            return null;
+        }
+        if (dados.length < CABECALHO || dados[0] != MARCADOR) {
+            LOGGER.debug("Valor de cache em formato desconhecido ignorado ({} bytes)", dados.length);
+            return null;
+        }
+
+        int versao = Byte.toUnsignedInt(dados[1]);
+        byte[] corpo = dados;
+        int inicio = CABECALHO;
+        int tamanho = dados.length - CABECALHO;
+        try {
+            if ((dados[2] & FLAG_LZ4) != 0) {
+                int original = ByteBuffer.wrap(dados, CABECALHO, Integer.BYTES).getInt();
+                corpo = new byte[original];
+                DESCOMPRESSOR.decompress(dados, CABECALHO + Integer.BYTES, corpo, 0, original);
+                inicio = 0;
+                tamanho = original;
+            }
+            return codec.ler(versao, new DataInputStream(new ByteArrayInputStream(corpo, inicio, tamanho)));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Erro ao desserializar valor de cache (versão " + versao + ")", e);
+        }
+    }
+
+    private void cabecalho(ByteBuffer saida, byte flags) {
+        saida.put(MARCADOR).put((byte) codec.versao()).put(flags);
+    }
+}
@@ -0,0 +1,15 @@
+package br.com.coop.votacao.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "votacao.transmissao")
+public record TransmissaoProperties(
+        @DefaultValue("2") int eventosPorSegundo,
+        @DefaultValue("30m") Duration timeoutConexao,
+        @DefaultValue("4") int entregadores,
+        @DefaultValue("5s") Duration timeoutEnvio
+) {
+}
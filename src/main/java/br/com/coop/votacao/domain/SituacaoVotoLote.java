@@ -0,0 +1,7 @@
+package br.com.coop.votacao.domain;
+
+public enum SituacaoVotoLote {
+    CRIADO,
+    DUPLICADO,
+    REJEITADO
+}
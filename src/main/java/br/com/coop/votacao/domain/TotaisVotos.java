@@ -0,0 +1,22 @@
+package br.com.coop.votacao.domain;
+
+public record TotaisVotos(long sim, long nao) {
+
+    public static final TotaisVotos ZERO = new TotaisVotos(0L, 0L);
+
+    public static TotaisVotos de(VotoValor valor, long quantidade) {
+        return valor == VotoValor.SIM ? new TotaisVotos(quantidade, 0L) : new TotaisVotos(0L, quantidade);
+    }
+
+    public TotaisVotos somar(TotaisVotos outros) {
+        return new TotaisVotos(sim + outros.sim, nao + outros.nao);
+    }
+
+    public TotaisVotos menos(TotaisVotos outros) {
+        return new TotaisVotos(sim - outros.sim, nao - outros.nao);
+    }
+
+    public boolean isZero() {
+        return sim == 0 && nao == 0;
+    }
+}
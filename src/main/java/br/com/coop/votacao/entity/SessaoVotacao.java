@@ -31,6 +31,21 @@ public class SessaoVotacao {
     @Column(nullable = false)
     private long totalNao = 0L;
 
+    @Column(nullable = false)
+    private int shardsContador = 1;
+
+    @Column(nullable = false)
+    private int slotsContagem = 0;
+
+    @Column(nullable = false)
+    private long votoIdReconciliado = 0L;
+
+    @Column(nullable = false)
+    private long reconciliadoSim = 0L;
+
+    @Column(nullable = false)
+    private long reconciliadoNao = 0L;
+
     public boolean isAbertaEm(Instant momento) {
         return status == SessaoStatus.ABERTA
                 && !momento.isBefore(inicio)
@@ -92,4 +107,44 @@ public class SessaoVotacao {
     public void setTotalNao(long totalNao) {
         this.totalNao = totalNao;
     }
+
+    public int getShardsContador() {
+        return shardsContador;
+    }
+
+    public void setShardsContador(int shardsContador) {
+        this.shardsContador = shardsContador;
+    }
+
+    public int getSlotsContagem() {
+        return slotsContagem;
+    }
+
+    public void setSlotsContagem(int slotsContagem) {
+        this.slotsContagem = slotsContagem;
+    }
+
+    public long getVotoIdReconciliado() {
+        return votoIdReconciliado;
+    }
+
+    public void setVotoIdReconciliado(long votoIdReconciliado) {
+        this.votoIdReconciliado = votoIdReconciliado;
+    }
+
+    public long getReconciliadoSim() {
+        return reconciliadoSim;
+    }
+
+    public void setReconciliadoSim(long reconciliadoSim) {
+        this.reconciliadoSim = reconciliadoSim;
+    }
+
+    public long getReconciliadoNao() {
+        return reconciliadoNao;
+    }
+
+    public void setReconciliadoNao(long reconciliadoNao) {
+        this.reconciliadoNao = reconciliadoNao;
+    }
 }
@@ -25,6 +25,10 @@ public class Voto {
     @Column(nullable = false)
     private Instant dataHora;
 
+    // Preenchido pelo banco no INSERT; é a referência da marca de reconciliação
+    @Column(name = "registrado_em", nullable = false, insertable = false, updatable = false)
+    private Instant registradoEm;
+
     @PrePersist
     public void prePersist() {
         if (dataHora == null) {
@@ -71,4 +75,8 @@ public class Voto {
     public void setDataHora(Instant dataHora) {
         this.dataHora = dataHora;
     }
+
+    public Instant getRegistradoEm() {
+        return registradoEm;
+    }
 }
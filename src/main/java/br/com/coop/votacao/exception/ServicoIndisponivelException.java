@@ -0,0 +1,17 @@
+package br.com.coop.votacao.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+import java.time.Instant;
+
+public class ServicoIndisponivelException extends ErrorResponseException {
+
+    public ServicoIndisponivelException(String detail, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, detail), cause);
+        getBody().setTitle("Serviço temporariamente indisponível");
+        getBody().setProperty("timestamp", Instant.now());
+        getBody().setProperty("message", detail);
+    }
+}
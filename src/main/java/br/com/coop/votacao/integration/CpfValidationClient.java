@@ -1,30 +1,38 @@
 package br.com.coop.votacao.integration;
 
 import br.com.coop.votacao.config.ApiProperties;
+import br.com.coop.votacao.config.CpfProperties;
 import br.com.coop.votacao.exception.BusinessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
-import static br.com.coop.votacao.integration.CpfStatus.ABLE_TO_VOTE;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Chamadas HTTP ao serviço de CPF. Cache, deduplicação e circuito ficam em {@link VerificadorCpf}.
+ * {@link BusinessException} significa CPF inválido; qualquer outra exceção é falha do serviço.
+ */
 @Component
 public class CpfValidationClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(CpfValidationClient.class);
 
     private final RestClient restClient;
     private final String baseUrl;
+    private final String urlLote;
 
-    public CpfValidationClient(RestClient cpfRestClient, ApiProperties apiProperties) {
+    public CpfValidationClient(RestClient cpfRestClient, ApiProperties apiProperties, CpfProperties cpfProperties) {
         this.restClient = cpfRestClient;
         this.baseUrl = apiProperties.cpfValidationUrl();
+        this.urlLote = cpfProperties.urlLote();
     }
 
-    @Cacheable(value = "cpf-status", key = "#cpf")
     public CpfStatus validarCpf(String cpf) {
         LOGGER.debug("Consultando serviço externo para CPF {}", cpf);
 
@@ -35,7 +43,7 @@ public class CpfValidationClient {
                     .body(CpfValidationResponse.class);
 
             if (response == null || response.getStatus() == null) {
-                throw new BusinessException("Resposta inválida do serviço de validação de CPF");
+                throw new IllegalStateException("Resposta inválida do serviço de validação de CPF");
             }
 
             return response.getStatus();
@@ -45,7 +53,34 @@ public class CpfValidationClient {
                 throw new BusinessException("CPF inválido");
             }
             LOGGER.error("Erro ao validar CPF {}: {}", cpf, e.getMessage());
-            throw new BusinessException("Falha ao validar CPF no serviço externo");
+            throw e;
         }
     }
+
+    /**
+     * Consulta vários CPFs em uma requisição ({@code POST votacao.cpf.url-lote} com a lista de CPFs).
+     * CPFs ausentes da resposta são CPFs inválidos.
+     */
+    public Map<String, CpfStatus> validarLote(List<String> cpfs) {
+        LOGGER.debug("Consultando serviço externo para {} CPFs", cpfs.size());
+
+        List<CpfValidationResponse> response = restClient.post()
+                .uri(urlLote)
+                .body(cpfs)
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<CpfValidationResponse>>() {
+                });
+
+        if (response == null) {
+            throw new IllegalStateException("Resposta inválida do serviço de validação de CPF");
+        }
+
+        Map<String, CpfStatus> status = new HashMap<>();
+        for (CpfValidationResponse item : response) {
+            if (item.getCpf() != null && item.getStatus() != null) {
+                status.put(item.getCpf(), item.getStatus());
+            }
+        }
+        return status;
+    }
 }
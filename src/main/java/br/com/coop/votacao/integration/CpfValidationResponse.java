@@ -2,8 +2,17 @@ package br.com.coop.votacao.integration;
 
 public class CpfValidationResponse {
 
+    private String cpf;
     private CpfStatus status;
 
+    public String getCpf() {
+        return cpf;
+    }
+
+    public void setCpf(String cpf) {
+        this.cpf = cpf;
+    }
+
     public CpfStatus getStatus() {
         return status;
     }
@@ -0,0 +1,390 @@
+package br.com.coop.votacao.integration;
+
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.exception.ServicoIndisponivelException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Habilitação do associado para votar, protegendo o caminho do voto do serviço externo de CPF:
+ * <ul>
+ *     <li>cache local limitado com os dois resultados (habilitado e não habilitado), com TTLs próprios,
+ *     na frente do cache compartilhado {@code cpf-status} no Redis;</li>
+ *     <li>uma única consulta em andamento por CPF: chamadores concorrentes aguardam o mesmo future;</li>
+ *     <li>com {@code votacao.cpf.url-lote}, as consultas que chegam dentro da janela vão em uma requisição só;</li>
+ *     <li>circuito que abre após falhas seguidas; enquanto aberto, ou quando a consulta falha, vale
+ *     {@code votacao.cpf.politica-falha}.</li>
+ * </ul>
+ */
+@Component
+public class VerificadorCpf implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VerificadorCpf.class);
+    static final String CACHE_COMPARTILHADO = "cpf-status";
+    private static final long ESPERA_FILA_MS = 100L;
+
+    private final CpfValidationClient cpfValidationClient;
+    private final CacheManager cacheManager;
+    private final CpfProperties cpfProperties;
+    private final Cache<String, CpfStatus> local;
+    private final Map<String, CompletableFuture<CpfStatus>> emAndamento = new ConcurrentHashMap<>();
+    private final Circuito circuito;
+    private final Counter consultasServico;
+    private final Counter consultasCompartilhadas;
+    private final Counter falhas;
+    private final DistributionSummary tamanhoLote;
+
+    private final BlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public VerificadorCpf(CpfValidationClient cpfValidationClient,
+                          CacheManager cacheManager,
+                          CpfProperties cpfProperties,
+                          MeterRegistry meterRegistry) {
+        this.cpfValidationClient = cpfValidationClient;
+        this.cacheManager = cacheManager;
+        this.cpfProperties = cpfProperties;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(cpfProperties.tamanhoCacheLocal())
+                .expireAfter(new Expiry<String, CpfStatus>() {
+                    @Override
+                    public long expireAfterCreate(String cpf, CpfStatus status, long agora) {
+                        return cpfProperties.ttlResultado(status == CpfStatus.ABLE_TO_VOTE).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String cpf, CpfStatus status, long agora, long restante) {
+                        return expireAfterCreate(cpf, status, agora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String cpf, CpfStatus status, long agora, long restante) {
+                        return restante;
+                    }
+                })
+                .build();
+        this.circuito = new Circuito(cpfProperties.falhasParaAbrir(), cpfProperties.tempoCircuitoAberto().toNanos());
+
+        this.consultasServico = Counter.builder("votacao.cpf.consultas").tag("origem", "servico").register(meterRegistry);
+        this.consultasCompartilhadas = Counter.builder("votacao.cpf.consultas").tag("origem", "em-andamento").register(meterRegistry);
+        this.falhas = Counter.builder("votacao.cpf.falhas")
+                .description("Consultas de CPF resolvidas pela política de falha")
+                .register(meterRegistry);
+        this.tamanhoLote = DistributionSummary.builder("votacao.cpf.lote.tamanho").register(meterRegistry);
+        Gauge.builder("votacao.cpf.cache.tamanho", local, Cache::estimatedSize).register(meterRegistry);
+        Gauge.builder("votacao.cpf.circuito.aberto", circuito, c -> c.isAberto() ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * @throws BusinessException se o CPF for inválido, ou se o associado não puder votar
+     * @throws ServicoIndisponivelException se o serviço falhar e a política for {@code BLOQUEAR}
+     */
+    public void exigirHabilitado(String cpf) {
+        exigir(cpf, iniciar(cpf));
+    }
+
+    /**
+     * Verifica vários CPFs de uma vez (todas as consultas partem antes da primeira espera, então
+     * entram no mesmo lote quando ele está ligado) e devolve o motivo da recusa de cada CPF recusado.
+     */
+    public Map<String, String> recusados(Collection<String> cpfs) {
+        Map<String, CompletableFuture<CpfStatus>> consultas = new LinkedHashMap<>();
+        cpfs.forEach(cpf -> consultas.computeIfAbsent(cpf, this::iniciar));
+
+        Map<String, String> recusados = new LinkedHashMap<>();
+        consultas.forEach((cpf, consulta) -> {
+            try {
+                exigir(cpf, consulta);
+            } catch (BusinessException | ServicoIndisponivelException e) {
+                recusados.put(cpf, e.getBody().getDetail());
+            }
+        });
+        return recusados;
+    }
+
+    private void exigir(String cpf, CompletableFuture<CpfStatus> consulta) {
+        if (resolver(cpf, consulta) == CpfStatus.UNABLE_TO_VOTE) {
+            throw new BusinessException("Associado não está habilitado para votar");
+        }
+    }
+
+    CompletableFuture<CpfStatus> iniciar(String cpf) {
+        CpfStatus conhecido = local.getIfPresent(cpf);
+        if (conhecido == null) {
+            conhecido = buscarCompartilhado(cpf);
+        }
+        if (conhecido != null) {
+            return CompletableFuture.completedFuture(conhecido);
+        }
+
+        CompletableFuture<CpfStatus> nova = new CompletableFuture<>();
+        CompletableFuture<CpfStatus> existente = emAndamento.putIfAbsent(cpf, nova);
+        if (existente != null) {
+            consultasCompartilhadas.increment();
+            return existente;
+        }
+
+        if (!circuito.permitir()) {
+            concluir(cpf, nova, null, new IllegalStateException("Circuito do serviço de CPF aberto"));
+        } else if (running) {
+            fila.add(new Pedido(cpf, nova, System.nanoTime()));
+        } else {
+            consultar(cpf, nova);
+        }
+        return nova;
+    }
+
+    private CpfStatus resolver(String cpf, CompletableFuture<CpfStatus> consulta) {
+        try {
+            return consulta.get(cpfProperties.timeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return aplicarPolitica(cpf, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException invalido) {
+                throw invalido;
+            }
+            return aplicarPolitica(cpf, e.getCause());
+        } catch (TimeoutException e) {
+            return aplicarPolitica(cpf, e);
+        }
+    }
+
+    private CpfStatus aplicarPolitica(String cpf, Throwable causa) {
+        falhas.increment();
+        if (cpfProperties.politicaFalha() == CpfProperties.PoliticaFalha.BLOQUEAR) {
+            throw new ServicoIndisponivelException("Serviço de validação de CPF indisponível", causa);
+        }
+        LOGGER.debug("Serviço de CPF indisponível ({}) - voto do CPF {} aceito pela política PERMITIR",
+                causa.getMessage(), cpf);
+        return CpfStatus.ABLE_TO_VOTE;
+    }
+
+    private void consultar(String cpf, CompletableFuture<CpfStatus> consulta) {
+        consultasServico.increment();
+        try {
+            concluir(cpf, consulta, cpfValidationClient.validarCpf(cpf), null);
+        } catch (BusinessException invalido) {
+            circuito.sucesso();
+            concluir(cpf, consulta, null, invalido);
+        } catch (RuntimeException e) {
+            circuito.falha();
+            LOGGER.warn("Erro ao consultar o serviço de CPF: {}", e.getMessage());
+            concluir(cpf, consulta, null, e);
+        }
+    }
+
+    private void consultarLote(List<Pedido> lote) {
+        tamanhoLote.record(lote.size());
+        consultasServico.increment();
+
+        Map<String, CpfStatus> respostas;
+        try {
+            respostas = cpfValidationClient.validarLote(lote.stream().map(Pedido::cpf).toList());
+            circuito.sucesso();
+        } catch (RuntimeException e) {
+            circuito.falha();
+            LOGGER.warn("Erro ao consultar o serviço de CPF para {} CPFs: {}", lote.size(), e.getMessage());
+            lote.forEach(pedido -> concluir(pedido.cpf(), pedido.consulta(), null, e));
+            return;
+        }
+
+        for (Pedido pedido : lote) {
+            CpfStatus status = respostas.get(pedido.cpf());
+            concluir(pedido.cpf(), pedido.consulta(), status, status == null ? new BusinessException("CPF inválido") : null);
+        }
+    }
+
+    private void concluir(String cpf, CompletableFuture<CpfStatus> consulta, CpfStatus status, RuntimeException erro) {
+        if (status != null) {
+            circuito.sucesso();
+            local.put(cpf, status);
+            guardarCompartilhado(cpf, status);
+        }
+        // Sai do mapa antes de completar: quem chegar depois já encontra o cache preenchido
+        emAndamento.remove(cpf, consulta);
+        if (status != null) {
+            consulta.complete(status);
+        } else {
+            consulta.completeExceptionally(erro);
+        }
+    }
+
+    private CpfStatus buscarCompartilhado(String cpf) {
+        try {
+            org.springframework.cache.Cache compartilhado = cacheManager.getCache(CACHE_COMPARTILHADO);
+            String valor = compartilhado == null ? null : compartilhado.get(cpf, String.class);
+            if (valor == null) {
+                return null;
+            }
+            CpfStatus status = CpfStatus.valueOf(valor);
+            // O não habilitado lido do Redis não volta ao cache local: somaria mais um ttl-inabilitado ao que resta lá
+            if (status == CpfStatus.ABLE_TO_VOTE) {
+                local.put(cpf, status);
+            }
+            return status;
+        } catch (RuntimeException e) {
+            LOGGER.debug("Cache {} indisponível: {}", CACHE_COMPARTILHADO, e.getMessage());
+            return null;
+        }
+    }
+
+    private void guardarCompartilhado(String cpf, CpfStatus status) {
+        try {
+            org.springframework.cache.Cache compartilhado = cacheManager.getCache(CACHE_COMPARTILHADO);
+            if (compartilhado != null) {
+                compartilhado.put(cpf, status.name());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Erro ao gravar CPF no cache {}: {}", CACHE_COMPARTILHADO, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!cpfProperties.isLote()) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::executar, "cpf-lote");
+        worker.setDaemon(true);
+        worker.start();
+        LOGGER.info("Consultas de CPF em lote ligadas (janela {}, até {} CPFs)",
+                cpfProperties.janelaLote(), cpfProperties.tamanhoMaximoLote());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(ESPERA_FILA_MS * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pedido> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            consultarLote(restantes);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void executar() {
+        int maximo = cpfProperties.tamanhoMaximoLote();
+        long janela = cpfProperties.janelaLote().toNanos();
+
+        while (running) {
+            try {
+                Pedido primeiro = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+
+                List<Pedido> lote = new ArrayList<>(maximo);
+                lote.add(primeiro);
+                long limite = primeiro.chegada() + janela;
+
+                while (lote.size() < maximo) {
+                    fila.drainTo(lote, maximo - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= maximo || restante <= 0) {
+                        break;
+                    }
+                    Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+
+                consultarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private record Pedido(String cpf, CompletableFuture<CpfStatus> consulta, long chegada) {
+    }
+
+    /**
+     * Fechado até {@code falhasParaAbrir} falhas seguidas; aberto durante {@code tempoAberto}; depois
+     * deixa passar uma única consulta de teste, que fecha o circuito se der certo ou o reabre se falhar.
+     */
+    static final class Circuito {
+        private final int falhasParaAbrir;
+        private final long tempoAberto;
+        private final AtomicInteger falhasSeguidas = new AtomicInteger();
+        private final AtomicBoolean testando = new AtomicBoolean();
+        private volatile long abertoAte;
+
+        Circuito(int falhasParaAbrir, long tempoAbertoNanos) {
+            this.falhasParaAbrir = falhasParaAbrir;
+            this.tempoAberto = tempoAbertoNanos;
+        }
+
+        boolean permitir() {
+            long ate = abertoAte;
+            if (ate == 0L) {
+                return true;
+            }
+            return System.nanoTime() - ate >= 0 && testando.compareAndSet(false, true);
+        }
+
+        void sucesso() {
+            falhasSeguidas.set(0);
+            if (abertoAte != 0L) {
+                abertoAte = 0L;
+                LOGGER.info("Circuito do serviço de CPF fechado");
+            }
+            testando.set(false);
+        }
+
+        void falha() {
+            if (testando.get() || falhasSeguidas.incrementAndGet() >= falhasParaAbrir) {
+                abertoAte = System.nanoTime() + tempoAberto;
+                falhasSeguidas.set(0);
+                testando.set(false);
+                LOGGER.warn("Circuito do serviço de CPF aberto por {}", Duration.ofNanos(tempoAberto));
+            }
+        }
+
+        boolean isAberto() {
+            return abertoAte != 0L;
+        }
+    }
+}
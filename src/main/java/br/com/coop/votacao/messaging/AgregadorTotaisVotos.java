@@ -0,0 +1,181 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.EventosVotoProperties;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Mantém os totais de cada sessão a partir do tópico de votos com semântica exactly-once: cada
+ * lote lido gera um registro de totais por pauta no tópico compactado de totais, e esses registros
+ * e os offsets consumidos são confirmados na mesma transação Kafka. O estado em memória é
+ * reconstruído a partir do tópico de totais sempre que uma partição é atribuída ao nó.
+ */
+@Component
+@ConditionalOnProperty(prefix = "votacao.eventos-voto", name = "habilitado", havingValue = "true")
+public class AgregadorTotaisVotos implements BatchMessageListener<String, VotoEvento>,
+        ConsumerAwareRebalanceListener, SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgregadorTotaisVotos.class);
+    private static final Duration TIMEOUT_RESTAURACAO = Duration.ofSeconds(60);
+    private static final Duration ESPERA_RESTAURACAO = Duration.ofMillis(500);
+
+    private final EventosVotoProperties eventosVotoProperties;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ConsumerFactory<String, TotaisSessaoEvento> restauracaoFactory;
+    private final ConcurrentMessageListenerContainer<String, VotoEvento> container;
+
+    private final Map<Long, Estado> porPauta = new ConcurrentHashMap<>();
+
+    public AgregadorTotaisVotos(EventosVotoProperties eventosVotoProperties, Fabricas fabricas) {
+        this.eventosVotoProperties = eventosVotoProperties;
+        this.kafkaTemplate = fabricas.kafkaTemplate();
+        this.restauracaoFactory = fabricas.restauracao();
+
+        KafkaTransactionManager<String, Object> transactionManager =
+                new KafkaTransactionManager<>(kafkaTemplate.getProducerFactory());
+        transactionManager.setTransactionSynchronization(AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+
+        ContainerProperties containerProperties = new ContainerProperties(eventosVotoProperties.topico());
+        containerProperties.setKafkaAwareTransactionManager(transactionManager);
+        containerProperties.setConsumerRebalanceListener(this);
+        containerProperties.setMessageListener(this);
+        this.container = new ConcurrentMessageListenerContainer<>(fabricas.votos(), containerProperties);
+        this.container.setBeanName("agregador-totais-votos");
+    }
+
+    @Override
+    public void onMessage(List<ConsumerRecord<String, VotoEvento>> registros) {
+        Map<Long, Estado> alterados = new LinkedHashMap<>();
+
+        for (ConsumerRecord<String, VotoEvento> registro : registros) {
+            VotoEvento voto = registro.value();
+            if (voto == null) {
+                LOGGER.error("Voto inválido no offset {} da partição {} descartado", registro.offset(), registro.partition());
+                continue;
+            }
+            Estado atual = alterados.containsKey(voto.pautaId()) ? alterados.get(voto.pautaId()) : porPauta.get(voto.pautaId());
+            TotaisSessaoEvento totais = atual != null ? atual.totais().somar(voto) : TotaisSessaoEvento.inicial(voto);
+            alterados.put(voto.pautaId(), new Estado(registro.partition(), totais));
+        }
+
+        // Um registro por pauta alterada no lote, na mesma partição do voto para que a restauração
+        // de uma partição de votos leia só a partição correspondente de totais
+        alterados.forEach((pautaId, estado) ->
+                kafkaTemplate.send(eventosVotoProperties.topicoTotais(), estado.particao(), String.valueOf(pautaId), estado.totais()));
+
+        // O estado em memória só avança se os totais e os offsets forem confirmados juntos;
+        // numa transação abortada o lote é relido a partir do estado anterior
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    porPauta.putAll(alterados);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!partitions.isEmpty()) {
+            restaurar(partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet()));
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        descartar(partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        descartar(partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet()));
+    }
+
+    @Override
+    public void start() {
+        container.start();
+        LOGGER.info("Agregador de totais iniciado: {} → {}", eventosVotoProperties.topico(), eventosVotoProperties.topicoTotais());
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+
+    private void restaurar(Set<Integer> particoes) {
+        descartar(particoes);
+
+        List<TopicPartition> totais = particoes.stream()
+                .map(particao -> new TopicPartition(eventosVotoProperties.topicoTotais(), particao))
+                .toList();
+        long limite = System.nanoTime() + TIMEOUT_RESTAURACAO.toNanos();
+        int restaurados = 0;
+
+        try (Consumer<String, TotaisSessaoEvento> leitor = restauracaoFactory.createConsumer()) {
+            leitor.assign(totais);
+            leitor.seekToBeginning(totais);
+            Map<TopicPartition, Long> fim = leitor.endOffsets(totais);
+
+            while (totais.stream().anyMatch(tp -> leitor.position(tp) < fim.get(tp))) {
+                if (System.nanoTime() - limite >= 0) {
+                    throw new IllegalStateException("Restauração dos totais das partições " + particoes
+                            + " não concluída após " + TIMEOUT_RESTAURACAO);
+                }
+                for (ConsumerRecord<String, TotaisSessaoEvento> registro : leitor.poll(ESPERA_RESTAURACAO)) {
+                    if (registro.value() != null) {
+                        porPauta.put(registro.value().pautaId(), new Estado(registro.partition(), registro.value()));
+                        restaurados++;
+                    }
+                }
+            }
+        }
+
+        LOGGER.info("Totais restaurados das partições {}: {} registros lidos", particoes, restaurados);
+    }
+
+    private void descartar(Set<Integer> particoes) {
+        porPauta.values().removeIf(estado -> particoes.contains(estado.particao()));
+    }
+
+    private record Estado(int particao, TotaisSessaoEvento totais) {
+    }
+
+    /**
+     * Produtor transacional e consumidores do agregador, criados em {@code KafkaConfig}. Ficam juntos
+     * em um só bean para não substituir o {@link KafkaTemplate} e as fábricas autoconfigurados da aplicação.
+     */
+    public record Fabricas(KafkaTemplate<String, Object> kafkaTemplate,
+                           ConsumerFactory<String, TotaisSessaoEvento> restauracao,
+                           ConsumerFactory<String, VotoEvento> votos) {
+    }
+}
@@ -0,0 +1,230 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.OutboxProperties;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Falha;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Novo;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Pendente;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.ResumoPendentes;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import net.javacrumbs.shedlock.core.DefaultLockingTaskExecutor;
+import net.javacrumbs.shedlock.core.LockConfiguration;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.LockingTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox dos eventos de resultado. O encerramento só grava o evento em {@code resultado_outbox}, na
+ * mesma transação que encerra a sessão; o relay (um nó por vez, via ShedLock) publica os pendentes em
+ * lotes e marca os confirmados. Uma falha reagenda o evento com espera exponencial, e um reenvio
+ * mantém a chave ({@code resultado:{sessaoId}}, no cabeçalho {@link ResultadoPautaProducer#HEADER_EVENTO_ID})
+ * para que o consumidor descarte a duplicata.
+ *
+ * <p>O lock é tomado dentro do método agendado, e não por {@code @SchedulerLock}, para que uma queda do
+ * Redis (lock) ou do banco vire uma linha de aviso por ciclo em vez de um stack trace do agendador a
+ * cada {@code votacao.outbox.intervalo-ms}.
+ */
+@Component
+public class OutboxResultados {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxResultados.class);
+    private static final Duration DURACAO_MAXIMA_CICLO = Duration.ofMinutes(1);
+    private static final Duration LOCK_PUBLICACAO = Duration.ofMinutes(2);
+    private static final Duration LOCK_LIMPEZA = Duration.ofMinutes(10);
+
+    private final ResultadoOutboxRepository resultadoOutboxRepository;
+    private final ResultadoPautaProducer resultadoPautaProducer;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties outboxProperties;
+    private final LockingTaskExecutor lockingTaskExecutor;
+
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicLong atrasoMs = new AtomicLong();
+    private final Timer publicacao;
+    private final Counter falhas;
+    private volatile boolean relayIndisponivel;
+
+    public OutboxResultados(ResultadoOutboxRepository resultadoOutboxRepository,
+                            ResultadoPautaProducer resultadoPautaProducer,
+                            ObjectMapper objectMapper,
+                            OutboxProperties outboxProperties,
+                            LockProvider lockProvider,
+                            MeterRegistry meterRegistry) {
+        this.resultadoOutboxRepository = resultadoOutboxRepository;
+        this.resultadoPautaProducer = resultadoPautaProducer;
+        this.objectMapper = objectMapper;
+        this.outboxProperties = outboxProperties;
+        this.lockingTaskExecutor = new DefaultLockingTaskExecutor(lockProvider);
+
+        Gauge.builder("votacao.outbox.pendentes", pendentes, AtomicLong::get)
+                .description("Eventos de resultado ainda não confirmados pelo Kafka")
+                .register(meterRegistry);
+        TimeGauge.builder("votacao.outbox.atraso", atrasoMs, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Idade do evento pendente mais antigo")
+                .register(meterRegistry);
+        this.publicacao = Timer.builder("votacao.outbox.publicacao")
+                .description("Tempo entre a gravação do evento no outbox e a confirmação do Kafka")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.falhas = Counter.builder("votacao.outbox.falhas")
+                .description("Envios ao Kafka que falharam e foram reagendados")
+                .register(meterRegistry);
+    }
+
+    public static String chave(ResultadoPautaEvent event) {
+        return "resultado:" + event.getSessaoId();
+    }
+
+    /**
+     * Grava os eventos na transação do chamador; a publicação fica para o relay.
+     */
+    public void registrar(List<ResultadoPautaEvent> eventos) {
+        Instant agora = Instant.now();
+        List<Novo> novos = new ArrayList<>(eventos.size());
+        for (ResultadoPautaEvent event : eventos) {
+            novos.add(new Novo(chave(event), event.getPautaId(), serializar(event), agora));
+        }
+        resultadoOutboxRepository.inserir(novos);
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.outbox.intervalo-ms:500}")
+    public void publicarPendentes() {
+        try {
+            lockingTaskExecutor.executeWithLock((Runnable) this::publicarAcumulados,
+                    new LockConfiguration(Instant.now(), "publicarResultados", LOCK_PUBLICACAO, Duration.ZERO));
+            if (relayIndisponivel) {
+                relayIndisponivel = false;
+                LOGGER.info("Relay do outbox de resultados restabelecido");
+            }
+        } catch (Exception e) {
+            // Avisa uma vez por indisponibilidade; os ciclos seguintes, enquanto ela dura, só em debug
+            if (!relayIndisponivel) {
+                relayIndisponivel = true;
+                LOGGER.warn("Relay do outbox de resultados indisponível - tentando a cada ciclo: {}", e.getMessage());
+            } else {
+                LOGGER.debug("Relay do outbox de resultados ainda indisponível: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void publicarAcumulados() {
+        // Lotes cheios indicam acúmulo: continua até esvaziar, dentro do lock
+        long limite = System.nanoTime() + DURACAO_MAXIMA_CICLO.toNanos();
+        while (publicarLote() == outboxProperties.tamanhoLote() && System.nanoTime() < limite) {
+            LOGGER.debug("Lote de resultados cheio - publicando o próximo");
+        }
+        atualizarMetricas();
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.outbox.limpeza-ms:3600000}")
+    public void removerPublicados() {
+        try {
+            lockingTaskExecutor.executeWithLock((Runnable) () -> {
+                int removidos = resultadoOutboxRepository.removerPublicadosAntesDe(Instant.now().minus(outboxProperties.retencao()));
+                if (removidos > 0) {
+                    LOGGER.info("{} eventos publicados removidos do outbox", removidos);
+                }
+            }, new LockConfiguration(Instant.now(), "limparOutboxResultados", LOCK_LIMPEZA, Duration.ZERO));
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível limpar o outbox de resultados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Envia um lote de pendentes de uma vez e aguarda as confirmações juntas.
+     *
+     * @return quantos eventos foram confirmados
+     */
+    int publicarLote() {
+        List<Pendente> lote = resultadoOutboxRepository.buscarPendentes(Instant.now(), outboxProperties.tamanhoLote());
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> envios = new ArrayList<>(lote.size());
+        for (Pendente pendente : lote) {
+            try {
+                ResultadoPautaEvent event = objectMapper.readValue(pendente.payload(), ResultadoPautaEvent.class);
+                envios.add(resultadoPautaProducer.enviar(event, pendente.chave()));
+            } catch (Exception e) {
+                envios.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        resultadoPautaProducer.descarregar();
+
+        long limite = System.nanoTime() + outboxProperties.timeoutEnvio().toNanos();
+        List<Long> confirmados = new ArrayList<>(lote.size());
+        List<Falha> falhasLote = new ArrayList<>();
+        for (int i = 0; i < lote.size(); i++) {
+            Pendente pendente = lote.get(i);
+            try {
+                envios.get(i).get(Math.max(0L, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+                confirmados.add(pendente.id());
+                publicacao.record(Duration.between(pendente.criadoEm(), Instant.now()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                falhasLote.add(reagendar(pendente, e));
+            } catch (ExecutionException | TimeoutException e) {
+                falhasLote.add(reagendar(pendente, e instanceof ExecutionException ? e.getCause() : e));
+            }
+        }
+
+        resultadoOutboxRepository.marcarPublicados(confirmados, Instant.now());
+        resultadoOutboxRepository.registrarFalhas(falhasLote);
+        if (!confirmados.isEmpty()) {
+            LOGGER.info("{} resultados publicados no tópico {}", confirmados.size(), resultadoPautaProducer.topico());
+        }
+        return confirmados.size();
+    }
+
+    private Falha reagendar(Pendente pendente, Throwable causa) {
+        falhas.increment();
+        Duration espera = espera(pendente.tentativas());
+        LOGGER.warn("Falha ao publicar {} (tentativa {}) - nova tentativa em {}: {}",
+                pendente.chave(), pendente.tentativas() + 1, espera, causa != null ? causa.getMessage() : null);
+        return new Falha(pendente.id(), Instant.now().plus(espera));
+    }
+
+    Duration espera(int tentativas) {
+        Duration espera = outboxProperties.tentativaInicial().multipliedBy(1L << Math.min(tentativas, 20));
+        return espera.compareTo(outboxProperties.tentativaMaxima()) > 0 ? outboxProperties.tentativaMaxima() : espera;
+    }
+
+    private void atualizarMetricas() {
+        try {
+            ResumoPendentes resumo = resultadoOutboxRepository.resumoPendentes();
+            pendentes.set(resumo.quantidade());
+            atrasoMs.set(resumo.maisAntigo() != null
+                    ? Math.max(0L, Duration.between(resumo.maisAntigo(), Instant.now()).toMillis())
+                    : 0L);
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível atualizar as métricas do outbox: {}", e.getMessage());
+        }
+    }
+
+    private String serializar(ResultadoPautaEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar resultado da pauta " + event.getPautaId(), e);
+        }
+    }
+}
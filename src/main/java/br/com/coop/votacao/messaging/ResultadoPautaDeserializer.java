@@ -0,0 +1,47 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.SerializadorBinario;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+/**
+ * Lê o tópico de resultados nos dois formatos: mensagens com o marcador do
+ * {@link SerializadorBinario} vão para o {@link ResultadoPautaEventCodec}; as demais são o JSON
+ * publicado antes da troca (ou com {@code api.voting-result-format=JSON}).
+ */
+public class ResultadoPautaDeserializer implements Deserializer<ResultadoPautaEvent> {
+
+    private final SerializadorBinario<ResultadoPautaEvent> binario =
+            new SerializadorBinario<>(new ResultadoPautaEventCodec(), 0);
+    private final JsonDeserializer<ResultadoPautaEvent> json =
+            new JsonDeserializer<>(ResultadoPautaEvent.class, false);
+
+    @Override
+    public ResultadoPautaEvent deserialize(String topic, byte[] data) {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        if (data[0] != SerializadorBinario.MARCADOR) {
+            return json.deserialize(topic, data);
+        }
+
+        ResultadoPautaEvent event;
+        try {
+            event = binario.deserialize(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Evento de resultado binário inválido no tópico " + topic, e);
+        }
+        if (event == null) {
+            // Ao contrário do cache, um evento não pode ser descartado em silêncio
+            throw new SerializationException("Versão " + Byte.toUnsignedInt(data[1])
+                    + " do evento de resultado não suportada no tópico " + topic);
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
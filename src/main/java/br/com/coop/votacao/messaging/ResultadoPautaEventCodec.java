@@ -0,0 +1,96 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.CodecBinario;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Formato binário do {@link ResultadoPautaEvent} no tópico de resultados. A versão vai no cabeçalho
+ * de cada mensagem ({@code SerializadorBinario}); ao mudar os campos, crie a versão seguinte e
+ * mantenha a leitura das anteriores enquanto houver mensagens retidas no tópico.
+ *
+ * <p>Versão 1: pautaId, sessaoId, totalSim, totalNao (long), resultado (texto), dataEncerramentoSessao
+ * e dataPublicacao (instante).
+ */
+public class ResultadoPautaEventCodec implements CodecBinario<ResultadoPautaEvent> {
+
+    @Override
+    public int versao() {
+        return 1;
+    }
+
+    @Override
+    public void escrever(ResultadoPautaEvent event, DataOutput out) throws IOException {
+        out.writeLong(Objects.requireNonNull(event.getPautaId(), "pautaId"));
+        out.writeLong(Objects.requireNonNull(event.getSessaoId(), "sessaoId"));
+        out.writeLong(event.getTotalSim());
+        out.writeLong(event.getTotalNao());
+        CodecBinario.escreverTexto(out, event.getResultado());
+        CodecBinario.escreverInstante(out, event.getDataEncerramentoSessao());
+        CodecBinario.escreverInstante(out, event.getDataPublicacao());
+    }
+
+    @Override
+    public ResultadoPautaEvent ler(int versao, DataInput in) throws IOException {
+        if (versao != 1) {
+            return null;
+        }
+        ResultadoPautaEvent event = new ResultadoPautaEvent();
+        event.setPautaId(in.readLong());
+        event.setSessaoId(in.readLong());
+        event.setTotalSim(in.readLong());
+        event.setTotalNao(in.readLong());
+        event.setResultado(CodecBinario.lerTexto(in));
+        event.setDataEncerramentoSessao(CodecBinario.lerInstante(in));
+        event.setDataPublicacao(CodecBinario.lerInstante(in));
+        return event;
+    }
+
+    /**
+     * Conferido na inicialização: um evento com todos os campos preenchidos precisa voltar igual
+     * depois de escrito e lido na versão atual.
+     */
+    public void validar() {
+        ResultadoPautaEvent exemplo = new ResultadoPautaEvent();
+        exemplo.setPautaId(Long.MAX_VALUE);
+        exemplo.setSessaoId(1L);
+        exemplo.setTotalSim(Long.MAX_VALUE);
+        exemplo.setTotalNao(0L);
+        exemplo.setResultado("APROVADA");
+        exemplo.setDataEncerramentoSessao(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+        exemplo.setDataPublicacao(Instant.ofEpochSecond(1_700_000_001L));
+
+        ResultadoPautaEvent lido;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            escrever(exemplo, new DataOutputStream(bytes));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            lido = ler(versao(), in);
+            if (in.available() > 0) {
+                throw new IllegalStateException("Codec de ResultadoPautaEvent v" + versao() + " não leu todos os bytes escritos");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (lido == null
+                || !Objects.equals(lido.getPautaId(), exemplo.getPautaId())
+                || !Objects.equals(lido.getSessaoId(), exemplo.getSessaoId())
+                || lido.getTotalSim() != exemplo.getTotalSim()
+                || lido.getTotalNao() != exemplo.getTotalNao()
+                || !Objects.equals(lido.getResultado(), exemplo.getResultado())
+                || !Objects.equals(lido.getDataEncerramentoSessao(), exemplo.getDataEncerramentoSessao())
+                || !Objects.equals(lido.getDataPublicacao(), exemplo.getDataPublicacao())) {
+            throw new IllegalStateException("Codec de ResultadoPautaEvent v" + versao() + " não preserva os campos do evento");
+        }
+    }
+}
@@ -1,48 +1,82 @@
 package br.com.coop.votacao.messaging;
 
 import br.com.coop.votacao.config.ApiProperties;
-import br.com.coop.votacao.exception.KafkaPublishException;
+import br.com.coop.votacao.config.ApiProperties.FormatoEvento;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.CompletionException;
-import java.util.concurrent.TimeUnit;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Envio dos eventos de resultado, usado só pelo relay do {@link OutboxResultados}. Cada registro leva
+ * no cabeçalho {@value #HEADER_EVENTO_ID} a chave do evento no outbox, que se repete em reenvios e
+ * permite ao consumidor descartar duplicatas.
+ *
+ * <p>O formato do valor vem de {@code api.voting-result-format}: JSON (padrão, compatível com os
+ * consumidores atuais) ou BINARIO ({@link ResultadoPautaSerializer}); {@link ResultadoPautaDeserializer}
+ * lê os dois.
+ */
 @Component
 public class ResultadoPautaProducer {
     private static final Logger LOGGER = LoggerFactory.getLogger(ResultadoPautaProducer.class);
-    private static final int SEND_TIMEOUT_SECONDS = 30;
+    public static final String HEADER_EVENTO_ID = "evento-id";
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DefaultKafkaProducerFactory<String, ResultadoPautaEvent> producerFactory;
+    private final KafkaTemplate<String, ResultadoPautaEvent> kafkaTemplate;
     private final String topic;
 
-    public ResultadoPautaProducer(KafkaTemplate<String, Object> kafkaTemplate,
+    public ResultadoPautaProducer(KafkaProperties kafkaProperties,
                                   ApiProperties apiProperties) {
-        this.kafkaTemplate = kafkaTemplate;
+        FormatoEvento formato = apiProperties.votingResultFormat() == null
+                ? FormatoEvento.JSON
+                : apiProperties.votingResultFormat();
+
+        // Falha na inicialização se o codec não preservar os campos do evento
+        new ResultadoPautaEventCodec().validar();
+
+        Serializer<ResultadoPautaEvent> valueSerializer = formato == FormatoEvento.BINARIO
+                ? new ResultadoPautaSerializer()
+                : new JsonSerializer<ResultadoPautaEvent>().noTypeInfo();
+
+        // Produtor próprio para fixar o serializador do valor; os demais ajustes vêm de spring.kafka.producer
+        this.producerFactory = new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null),
+                new StringSerializer(), valueSerializer);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
         this.topic = apiProperties.votingResultTopic();
+        LOGGER.info("Eventos de resultado publicados em {} no formato {}", topic, formato);
     }
 
-    public void publicar(ResultadoPautaEvent event) {
-        String key = String.valueOf(event.getPautaId());
+    public CompletableFuture<SendResult<String, ResultadoPautaEvent>> enviar(ResultadoPautaEvent event, String eventoId) {
+        ProducerRecord<String, ResultadoPautaEvent> registro =
+                new ProducerRecord<>(topic, String.valueOf(event.getPautaId()), event);
+        registro.headers().add(HEADER_EVENTO_ID, eventoId.getBytes(StandardCharsets.UTF_8));
+        return kafkaTemplate.send(registro);
+    }
 
-        try {
-            SendResult<String, Object> result = kafkaTemplate.send(topic, key, event)
-                    .orTimeout(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS)
-                    .join();
+    /**
+     * Envia imediatamente os registros acumulados pelo producer, sem esperar o {@code linger.ms}.
+     */
+    public void descarregar() {
+        kafkaTemplate.flush();
+    }
 
-            LOGGER.info("Resultado da pauta {} publicado no tópico {} - partition: {}, offset: {}",
-                    event.getPautaId(),
-                    topic,
-                    result.getRecordMetadata().partition(),
-                    result.getRecordMetadata().offset());
+    public String topico() {
+        return topic;
+    }
 
-        } catch (CompletionException e) {
-            LOGGER.error("Falha ao publicar resultado da pauta {} no Kafka", event.getPautaId(), e.getCause());
-            throw new KafkaPublishException(event.getPautaId(), e.getCause());
-        }
+    @PreDestroy
+    public void fechar() {
+        producerFactory.destroy();
     }
 }
-
@@ -0,0 +1,33 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.SerializadorBinario;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializa o {@link ResultadoPautaEvent} no formato do {@link ResultadoPautaEventCodec}, com o
+ * cabeçalho do {@link SerializadorBinario} (marcador e versão). Sem LZ4: o evento é pequeno e o
+ * producer já comprime o lote inteiro quando {@code compression.type} está configurado.
+ */
+public class ResultadoPautaSerializer implements Serializer<ResultadoPautaEvent> {
+    public static final String HEADER_FORMATO = "formato";
+
+    private final ResultadoPautaEventCodec codec = new ResultadoPautaEventCodec();
+    private final SerializadorBinario<ResultadoPautaEvent> serializador = new SerializadorBinario<>(codec, 0);
+    private final byte[] formato = ("binario-v" + codec.versao()).getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public byte[] serialize(String topic, ResultadoPautaEvent data) {
+        return data == null ? null : serializador.serialize(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, ResultadoPautaEvent data) {
+        if (data != null) {
+            headers.add(HEADER_FORMATO, formato);
+        }
+        return serialize(topic, data);
+    }
+}
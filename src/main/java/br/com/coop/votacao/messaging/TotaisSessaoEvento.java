@@ -0,0 +1,17 @@
+package br.com.coop.votacao.messaging;
+
+public record TotaisSessaoEvento(Long pautaId, Long sessaoId, long totalSim, long totalNao) {
+
+    TotaisSessaoEvento somar(VotoEvento voto) {
+        // Um voto de outra sessão da mesma pauta inicia uma nova contagem
+        TotaisSessaoEvento base = voto.sessaoId().equals(sessaoId) ? this : new TotaisSessaoEvento(pautaId, voto.sessaoId(), 0L, 0L);
+        return switch (voto.valor()) {
+            case SIM -> new TotaisSessaoEvento(pautaId, base.sessaoId, base.totalSim + 1, base.totalNao);
+            case NAO -> new TotaisSessaoEvento(pautaId, base.sessaoId, base.totalSim, base.totalNao + 1);
+        };
+    }
+
+    static TotaisSessaoEvento inicial(VotoEvento voto) {
+        return new TotaisSessaoEvento(voto.pautaId(), voto.sessaoId(), 0L, 0L).somar(voto);
+    }
+}
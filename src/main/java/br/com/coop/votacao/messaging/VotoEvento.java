@@ -0,0 +1,8 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.domain.VotoValor;
+
+import java.time.Instant;
+
+public record VotoEvento(Long pautaId, Long sessaoId, String associadoId, VotoValor valor, Instant dataHora) {
+}
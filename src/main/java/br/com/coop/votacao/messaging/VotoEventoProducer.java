@@ -0,0 +1,124 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.EventosVotoProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica cada voto aceito no tópico de votos (chave = pauta), alimentando o agregador de totais
+ * e consumidores externos. Sem {@code votacao.eventos-voto.habilitado} não faz nada. Um envio que
+ * falha é repetido até {@code tentativas-publicacao} vezes; o que ainda assim se perde é contado em
+ * {@code votacao.eventos-voto.falhas}, já que o agregador de totais ficará abaixo do banco.
+ */
+@Component
+public class VotoEventoProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VotoEventoProducer.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final EventosVotoProperties eventosVotoProperties;
+    private final ScheduledExecutorService retentativas;
+    private final Counter reenvios;
+    private final Counter falhas;
+
+    public VotoEventoProducer(KafkaTemplate<String, Object> kafkaTemplate,
+                              EventosVotoProperties eventosVotoProperties,
+                              MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.eventosVotoProperties = eventosVotoProperties;
+        this.retentativas = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "voto-evento-retentativa");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.reenvios = Counter.builder("votacao.eventos-voto.reenvios")
+                .description("Envios de eventos de voto repetidos após falha")
+                .register(meterRegistry);
+        this.falhas = Counter.builder("votacao.eventos-voto.falhas")
+                .description("Eventos de voto perdidos após esgotar as tentativas de publicação")
+                .register(meterRegistry);
+    }
+
+    public boolean isHabilitado() {
+        return eventosVotoProperties.habilitado();
+    }
+
+    /**
+     * Publica depois do commit da transação corrente (ou imediatamente, fora de transação), para
+     * que só votos gravados cheguem ao tópico.
+     */
+    public void publicarAposCommit(VotoEvento evento) {
+        if (!isHabilitado()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicar(evento);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publicar(evento);
+            }
+        });
+    }
+
+    public void publicar(VotoEvento evento) {
+        if (!isHabilitado()) {
+            return;
+        }
+
+        // O voto já está gravado: uma falha aqui não desfaz o voto, só é repetida e contada
+        enviar(evento, 1);
+    }
+
+    @PreDestroy
+    public void fechar() {
+        retentativas.shutdown();
+    }
+
+    private void enviar(VotoEvento evento, int tentativa) {
+        try {
+            kafkaTemplate.send(eventosVotoProperties.topico(), String.valueOf(evento.pautaId()), evento)
+                    .whenComplete((resultado, erro) -> {
+                        if (erro != null) {
+                            falhou(evento, tentativa, erro);
+                        }
+                    });
+        } catch (Exception kafkaEx) {
+            falhou(evento, tentativa, kafkaEx);
+        }
+    }
+
+    // Roda na thread do produtor Kafka: o reenvio vai para o executor próprio, nunca é feito aqui
+    private void falhou(VotoEvento evento, int tentativa, Throwable erro) {
+        if (tentativa < eventosVotoProperties.tentativasPublicacao()) {
+            long espera = eventosVotoProperties.esperaRetentativa().toMillis() * tentativa;
+            try {
+                retentativas.schedule(() -> enviar(evento, tentativa + 1), espera, TimeUnit.MILLISECONDS);
+                reenvios.increment();
+                LOGGER.warn("Falha ao publicar voto do associado {} na pauta {} (tentativa {}), nova tentativa em {}ms: {}",
+                        evento.associadoId(), evento.pautaId(), tentativa, espera, erro.getMessage());
+                return;
+            } catch (RejectedExecutionException encerrando) {
+                LOGGER.debug("Aplicação encerrando: voto do associado {} não será reenviado", evento.associadoId());
+            }
+        }
+
+        falhas.increment();
+        LOGGER.error("Voto do associado {} na pauta {} não publicado após {} tentativas: {}",
+                evento.associadoId(), evento.pautaId(), tentativa, erro.getMessage());
+    }
+}
@@ -0,0 +1,441 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.IngestaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository.VotoPendente;
+import br.com.coop.votacao.service.ContadorVotos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(prefix = "votacao.ingestao", name = "modo", havingValue = "STREAM")
+public class VotoStreamConsumer implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VotoStreamConsumer.class);
+    private static final long ESPERA_APOS_FALHA_MS = 1_000L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final VotoBatchRepository votoBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IngestaoProperties ingestaoProperties;
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final SessaoTallySlotRepository sessaoTallySlotRepository;
+    private final VotoEventoProducer votoEventoProducer;
+    private final Consumer consumer;
+    private final Counter descartados;
+
+    private volatile boolean running;
+    private volatile boolean reprocessarPendentes = true;
+    private volatile boolean isolarMensagens;
+    private volatile long ultimaReivindicacao;
+    private Thread worker;
+
+    public VotoStreamConsumer(StringRedisTemplate redisTemplate,
+                              VotoBatchRepository votoBatchRepository,
+                              TransactionTemplate transactionTemplate,
+                              IngestaoProperties ingestaoProperties,
+                              SessaoVotacaoRepository sessaoVotacaoRepository,
+                              SessaoTallySlotRepository sessaoTallySlotRepository,
+                              VotoEventoProducer votoEventoProducer,
+                              MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.votoBatchRepository = votoBatchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ingestaoProperties = ingestaoProperties;
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.sessaoTallySlotRepository = sessaoTallySlotRepository;
+        this.votoEventoProducer = votoEventoProducer;
+        this.consumer = Consumer.from(ingestaoProperties.consumerGroup(), nomeConsumidor());
+        this.descartados = Counter.builder("votacao.ingestao.stream.descartados")
+                .description("Mensagens movidas para o stream de descartados após esgotar as entregas")
+                .register(meterRegistry);
+
+        Gauge.builder("votacao.ingestao.stream.lag", this, VotoStreamConsumer::backlog)
+                .description("Votos enfileirados no stream ainda não gravados no banco")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::executar, "voto-stream-consumer");
+        worker.start();
+        LOGGER.info("Consumidor {} do stream {} iniciado", consumer.getName(), ingestaoProperties.streamKey());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(ingestaoProperties.bloqueioLeitura().toMillis() * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void executar() {
+        boolean grupoCriado = false;
+
+        while (running) {
+            try {
+                if (!grupoCriado) {
+                    criarGrupo();
+                    grupoCriado = true;
+                }
+                reivindicarMensagensOciosas();
+                List<MapRecord<String, Object, Object>> lote = lerLote();
+                if (lote == null || lote.isEmpty()) {
+                    reprocessarPendentes = false;
+                    isolarMensagens = false;
+                    continue;
+                }
+                if (reprocessarPendentes) {
+                    reprocessar(lote);
+                } else {
+                    processarLote(lote);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Erro ao processar lote do stream {}: {}", ingestaoProperties.streamKey(), e.getMessage(), e);
+                // Depois de uma falha as pendentes são regravadas uma a uma, para que só a mensagem
+                // problemática acumule entregas até ir para o stream de descartados
+                isolarMensagens = true;
+                reprocessarPendentes = true;
+                aguardar(ESPERA_APOS_FALHA_MS);
+            }
+        }
+    }
+
+    private List<MapRecord<String, Object, Object>> lerLote() {
+        StreamReadOptions opcoes = StreamReadOptions.empty().count(ingestaoProperties.tamanhoLote());
+        ReadOffset offset = ReadOffset.lastConsumed();
+
+        if (reprocessarPendentes) {
+            offset = ReadOffset.from("0");
+        } else {
+            opcoes = opcoes.block(ingestaoProperties.bloqueioLeitura());
+        }
+
+        return ler(opcoes, StreamOffset.create(ingestaoProperties.streamKey(), offset));
+    }
+
+    // Um único StreamOffset no varargs genérico: a criação do array é segura
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> ler(StreamReadOptions opcoes, StreamOffset<String> offset) {
+        return redisTemplate.opsForStream().read(consumer, opcoes, offset);
+    }
+
+    void reprocessar(List<MapRecord<String, Object, Object>> lote) {
+        Map<RecordId, Long> entregas = entregas(lote);
+        List<MapRecord<String, Object, Object>> esgotadas = new ArrayList<>();
+        List<MapRecord<String, Object, Object>> restantes = new ArrayList<>();
+
+        for (MapRecord<String, Object, Object> record : lote) {
+            if (entregas.getOrDefault(record.getId(), 0L) > ingestaoProperties.maximoEntregas()) {
+                esgotadas.add(record);
+            } else {
+                restantes.add(record);
+            }
+        }
+
+        if (!esgotadas.isEmpty()) {
+            descartar(esgotadas);
+        }
+        if (restantes.isEmpty()) {
+            return;
+        }
+        if (isolarMensagens) {
+            restantes.forEach(record -> processarLote(List.of(record)));
+        } else {
+            processarLote(restantes);
+        }
+    }
+
+    void processarLote(List<MapRecord<String, Object, Object>> lote) {
+        Map<LoteKey, List<VotoPendente>> grupos = new LinkedHashMap<>();
+        Map<String, Long> processadosPorSessao = new LinkedHashMap<>();
+        Set<String> associadosNoLote = new HashSet<>();
+        List<RecordId> ids = new ArrayList<>(lote.size());
+
+        for (MapRecord<String, Object, Object> record : lote) {
+            ids.add(record.getId());
+            Map<Object, Object> campos = record.getValue();
+
+            // O produtor incrementou o campo sessaoId como recebido: a baixa vale até para mensagem inválida,
+            // senão a drenagem do encerramento nunca chega a zero
+            contarProcessada(campos, processadosPorSessao);
+
+            try {
+                Long pautaId = Long.valueOf(campos.get("pautaId").toString());
+                Long sessaoId = Long.valueOf(campos.get("sessaoId").toString());
+                String associadoId = campos.get("associadoId").toString();
+                VotoValor valor = VotoValor.valueOf(campos.get("valor").toString());
+                Instant dataHora = Instant.ofEpochMilli(Long.parseLong(campos.get("dataHora").toString()));
+
+                if (associadosNoLote.add(pautaId + ":" + associadoId)) {
+                    grupos.computeIfAbsent(new LoteKey(pautaId, sessaoId, valor), k -> new ArrayList<>())
+                            .add(new VotoPendente(associadoId, valor, dataHora));
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Mensagem {} inválida no stream {} descartada: {}", record.getId(), ingestaoProperties.streamKey(), campos);
+            }
+        }
+
+        List<VotoEvento> eventos = new ArrayList<>();
+        Map<LoteKey, Integer> inseridos = transactionTemplate.execute(status -> {
+            Map<Long, SessaoVotacao> sessoes = sessoesAbertas(grupos.keySet());
+            Map<LoteKey, Integer> resultado = new LinkedHashMap<>();
+            grupos.forEach((chave, votos) -> {
+                if (sessoes.containsKey(chave.sessaoId())) {
+                    resultado.put(chave, inserir(chave, votos, eventos));
+                } else {
+                    LOGGER.warn("{} votos da sessão {} descartados: sessão não está mais aberta", votos.size(), chave.sessaoId());
+                }
+            });
+            somarSlots(grupos, resultado, sessoes);
+            return resultado;
+        });
+
+        confirmar(ids, inseridos, processadosPorSessao);
+        eventos.forEach(votoEventoProducer::publicar);
+
+        LOGGER.debug("Lote de {} mensagens gravado: {}", lote.size(), inseridos);
+    }
+
+    private int inserir(LoteKey chave, List<VotoPendente> votos, List<VotoEvento> eventos) {
+        if (!votoEventoProducer.isHabilitado()) {
+            return votoBatchRepository.inserirIgnorandoDuplicados(chave.pautaId(), votos);
+        }
+
+        // Com eventos de voto é preciso saber quais votos entraram, não só quantos: um INSERT por linha
+        int[] contagens = votoBatchRepository.inserirEmLote(chave.pautaId(), votos);
+        int total = 0;
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] > 0) {
+                VotoPendente voto = votos.get(i);
+                eventos.add(new VotoEvento(chave.pautaId(), chave.sessaoId(), voto.associadoId(), voto.valor(), voto.dataHora()));
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private Map<Long, SessaoVotacao> sessoesAbertas(Set<LoteKey> chaves) {
+        if (chaves.isEmpty()) {
+            return Map.of();
+        }
+        // Um voto validado antes do fim pode chegar depois da drenagem do encerramento: gravado agora,
+        // ficaria fora do resultado já apurado
+        Set<Long> ids = chaves.stream().map(LoteKey::sessaoId).collect(Collectors.toSet());
+        return sessaoVotacaoRepository.buscarParaGravacao(ids).stream()
+                .filter(sessao -> sessao.getStatus() == SessaoStatus.ABERTA)
+                .collect(Collectors.toMap(SessaoVotacao::getId, Function.identity()));
+    }
+
+    private void somarSlots(Map<LoteKey, List<VotoPendente>> grupos, Map<LoteKey, Integer> inseridos,
+                            Map<Long, SessaoVotacao> sessoes) {
+        Map<Long, Integer> slotsPorSessao = sessoes.values().stream()
+                .filter(sessao -> sessao.getSlotsContagem() > 0)
+                .collect(Collectors.toMap(SessaoVotacao::getId, SessaoVotacao::getSlotsContagem));
+        if (slotsPorSessao.isEmpty()) {
+            return;
+        }
+
+        // O INSERT IGNORE só informa quantos votos do grupo entraram: o grupo inteiro vai para o slot do
+        // primeiro associado. Slots em ordem crescente para não haver deadlock entre consumidores.
+        Map<Long, Map<Integer, TotaisVotos>> porSessao = new TreeMap<>();
+        inseridos.forEach((chave, quantidade) -> {
+            Integer slots = slotsPorSessao.get(chave.sessaoId());
+            if (slots != null && quantidade > 0) {
+                int slot = ContadorVotos.shard(grupos.get(chave).get(0).associadoId(), slots);
+                porSessao.computeIfAbsent(chave.sessaoId(), id -> new TreeMap<>())
+                        .merge(slot, TotaisVotos.de(chave.valor(), quantidade), TotaisVotos::somar);
+            }
+        });
+        porSessao.forEach((sessaoId, porSlot) ->
+                porSlot.forEach((slot, totais) -> sessaoTallySlotRepository.somar(sessaoId, slot, totais)));
+    }
+
+    private void confirmar(List<RecordId> ids, Map<LoteKey, Integer> inseridos, Map<String, Long> processadosPorSessao) {
+        String streamKey = ingestaoProperties.streamKey();
+        String pendentesKey = ingestaoProperties.pendentesKey();
+        long ttl = ContadorVotos.TTL_SEGUNDOS;
+        String[] rawIds = ids.stream().map(RecordId::getValue).toArray(String[]::new);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+
+            inseridos.forEach((chave, quantidade) -> {
+                if (quantidade > 0) {
+                    // Um único INCRBY por lote e sessão: o shard 0 basta, a leitura soma os demais
+                    String contador = ContadorVotos.chave(chave.sessaoId(), chave.valor());
+                    conn.incrBy(contador, quantidade);
+                    conn.expire(contador, ttl);
+                }
+            });
+
+            conn.xAck(streamKey, ingestaoProperties.consumerGroup(), rawIds);
+            conn.xDel(streamKey, rawIds);
+
+            processadosPorSessao.forEach((sessaoId, quantidade) -> conn.hIncrBy(pendentesKey, sessaoId, -quantidade));
+            return null;
+        });
+    }
+
+    private Map<RecordId, Long> entregas(List<MapRecord<String, Object, Object>> lote) {
+        PendingMessages pendentes = redisTemplate.opsForStream().pending(ingestaoProperties.streamKey(), consumer,
+                Range.closed(lote.get(0).getId().getValue(), lote.get(lote.size() - 1).getId().getValue()), lote.size());
+
+        Map<RecordId, Long> entregas = new LinkedHashMap<>();
+        pendentes.forEach(m -> entregas.put(m.getId(), m.getTotalDeliveryCount()));
+        return entregas;
+    }
+
+    private void descartar(List<MapRecord<String, Object, Object>> esgotadas) {
+        String streamKey = ingestaoProperties.streamKey();
+        String descartadosKey = ingestaoProperties.descartadosKey();
+        String pendentesKey = ingestaoProperties.pendentesKey();
+        Map<String, Long> processadosPorSessao = new LinkedHashMap<>();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+
+            for (MapRecord<String, Object, Object> record : esgotadas) {
+                Map<String, String> campos = new LinkedHashMap<>();
+                record.getValue().forEach((campo, valor) -> campos.put(campo.toString(), String.valueOf(valor)));
+                campos.put("idOriginal", record.getId().getValue());
+                conn.xAdd(StreamRecords.string(campos).withStreamKey(descartadosKey));
+
+                String rawId = record.getId().getValue();
+                conn.xAck(streamKey, ingestaoProperties.consumerGroup(), rawId);
+                conn.xDel(streamKey, rawId);
+                contarProcessada(record.getValue(), processadosPorSessao);
+            }
+
+            processadosPorSessao.forEach((sessaoId, quantidade) -> conn.hIncrBy(pendentesKey, sessaoId, -quantidade));
+            return null;
+        });
+
+        descartados.increment(esgotadas.size());
+        esgotadas.forEach(record -> LOGGER.error("Mensagem {} do stream {} movida para {} ao exceder {} entregas: {}",
+                record.getId(), streamKey, descartadosKey, ingestaoProperties.maximoEntregas(), record.getValue()));
+    }
+
+    private static void contarProcessada(Map<Object, Object> campos, Map<String, Long> processadosPorSessao) {
+        Object sessaoId = campos.get("sessaoId");
+        if (sessaoId != null) {
+            processadosPorSessao.merge(sessaoId.toString(), 1L, Long::sum);
+        }
+    }
+
+    private void reivindicarMensagensOciosas() {
+        long agora = System.currentTimeMillis();
+        if (agora - ultimaReivindicacao < ingestaoProperties.ociosidadeMaxima().toMillis()) {
+            return;
+        }
+        ultimaReivindicacao = agora;
+
+        PendingMessages pendentes = redisTemplate.opsForStream().pending(ingestaoProperties.streamKey(),
+                ingestaoProperties.consumerGroup(), Range.unbounded(), ingestaoProperties.tamanhoLote());
+
+        RecordId[] ociosas = pendentes.stream()
+                .filter(m -> !m.getConsumerName().equals(consumer.getName()))
+                .filter(m -> m.getElapsedTimeSinceLastDelivery().compareTo(ingestaoProperties.ociosidadeMaxima()) >= 0)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+
+        if (ociosas.length > 0) {
+            redisTemplate.opsForStream().claim(ingestaoProperties.streamKey(), ingestaoProperties.consumerGroup(),
+                    consumer.getName(), ingestaoProperties.ociosidadeMaxima(), ociosas);
+            reprocessarPendentes = true;
+            LOGGER.warn("{} mensagens ociosas do stream {} reivindicadas por {}", ociosas.length,
+                    ingestaoProperties.streamKey(), consumer.getName());
+        }
+    }
+
+    private void criarGrupo() {
+        try {
+            redisTemplate.opsForStream().createGroup(ingestaoProperties.streamKey(), ReadOffset.from("0"),
+                    ingestaoProperties.consumerGroup());
+        } catch (RedisSystemException e) {
+            String mensagem = e.getMostSpecificCause().getMessage();
+            if (mensagem == null || !mensagem.startsWith("BUSYGROUP")) {
+                throw e;
+            }
+            LOGGER.debug("Grupo {} já existe no stream {}", ingestaoProperties.consumerGroup(), ingestaoProperties.streamKey());
+        }
+    }
+
+    private double backlog() {
+        try {
+            Long tamanho = redisTemplate.opsForStream().size(ingestaoProperties.streamKey());
+            return tamanho != null ? tamanho : 0;
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String nomeConsumidor() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        } catch (Exception e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static void aguardar(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record LoteKey(Long pautaId, Long sessaoId, VotoValor valor) {
+    }
+}
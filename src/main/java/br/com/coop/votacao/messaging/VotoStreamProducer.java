@@ -0,0 +1,70 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.IngestaoProperties;
+import br.com.coop.votacao.domain.VotoValor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+@Component
+public class VotoStreamProducer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VotoStreamProducer.class);
+    private static final long INTERVALO_DRENAGEM_MS = 100L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<String> enfileirarVotoScript;
+    private final IngestaoProperties ingestaoProperties;
+
+    public VotoStreamProducer(StringRedisTemplate redisTemplate,
+                              DefaultRedisScript<String> enfileirarVotoScript,
+                              IngestaoProperties ingestaoProperties) {
+        this.redisTemplate = redisTemplate;
+        this.enfileirarVotoScript = enfileirarVotoScript;
+        this.ingestaoProperties = ingestaoProperties;
+    }
+
+    public String publicar(Long pautaId, Long sessaoId, String associadoId, VotoValor valor) {
+        String recordId = redisTemplate.execute(
+                enfileirarVotoScript,
+                List.of(ingestaoProperties.streamKey(), ingestaoProperties.pendentesKey()),
+                String.valueOf(pautaId),
+                String.valueOf(sessaoId),
+                associadoId,
+                valor.name(),
+                String.valueOf(Instant.now().toEpochMilli())
+        );
+
+        LOGGER.debug("Voto do associado {} na sessão {} enfileirado com id {}", associadoId, sessaoId, recordId);
+        return recordId;
+    }
+
+    public long pendentes(Long sessaoId) {
+        Object valor = redisTemplate.opsForHash().get(ingestaoProperties.pendentesKey(), String.valueOf(sessaoId));
+        return valor != null ? Long.parseLong(valor.toString()) : 0L;
+    }
+
+    public void aguardarDrenagem(Long sessaoId) {
+        long limite = System.nanoTime() + ingestaoProperties.timeoutDrenagem().toNanos();
+        long pendentes;
+
+        while ((pendentes = pendentes(sessaoId)) > 0) {
+            if (System.nanoTime() - limite >= 0) {
+                throw new IllegalStateException("Sessão " + sessaoId + " ainda possui " + pendentes
+                        + " votos pendentes de gravação após " + ingestaoProperties.timeoutDrenagem());
+            }
+            try {
+                Thread.sleep(INTERVALO_DRENAGEM_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrompido aguardando drenagem da sessão " + sessaoId, e);
+            }
+        }
+
+        redisTemplate.opsForHash().delete(ingestaoProperties.pendentesKey(), String.valueOf(sessaoId));
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.Pauta;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Listagem de pautas sem passar pelo contexto de persistência: paginação por chave (id decrescente,
+ * que acompanha data_criacao) e leitura com cursor somente-avanço para exportação.
+ */
+@Repository
+public class PautaConsultaRepository {
+
+    private static final String SELECT = "SELECT p.id, p.titulo, p.descricao, p.data_criacao FROM pauta p";
+    private static final String SESSAO_ABERTA =
+            "EXISTS (SELECT 1 FROM sessao_votacao s WHERE s.pauta_id = p.id AND s.status = '" + SessaoStatus.ABERTA + "')";
+    private static final int TAMANHO_LOTE_CURSOR = 500;
+
+    private static final RowMapper<Pauta> PAUTA = (rs, linha) -> pauta(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PautaConsultaRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Até {@code limite} pautas com id menor que {@code cursor} (ou as mais recentes, sem cursor).
+     */
+    public List<Pauta> buscarPagina(Filtro filtro, Long cursor, int limite) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(filtro, cursor, args) + " ORDER BY p.id DESC LIMIT ?";
+        args.add(limite);
+        return jdbcTemplate.query(sql, PAUTA, args.toArray());
+    }
+
+    /**
+     * Entrega as pautas uma a uma enquanto o ResultSet é lido, sem acumulá-las em memória.
+     */
+    public void percorrer(Filtro filtro, Consumer<Pauta> consumidor) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(filtro, null, args) + " ORDER BY p.id DESC";
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            try {
+                // Integer.MIN_VALUE liga o streaming linha a linha do Connector/J; outros drivers recusam o valor
+                ps.setFetchSize(Integer.MIN_VALUE);
+            } catch (SQLException e) {
+                ps.setFetchSize(TAMANHO_LOTE_CURSOR);
+            }
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> consumidor.accept(pauta(rs)));
+    }
+
+    private static String where(Filtro filtro, Long cursor, List<Object> args) {
+        List<String> condicoes = new ArrayList<>();
+        if (cursor != null) {
+            condicoes.add("p.id < ?");
+            args.add(cursor);
+        }
+        if (filtro.criadaDe() != null) {
+            condicoes.add("p.data_criacao >= ?");
+            args.add(Timestamp.from(filtro.criadaDe()));
+        }
+        if (filtro.criadaAte() != null) {
+            condicoes.add("p.data_criacao < ?");
+            args.add(Timestamp.from(filtro.criadaAte()));
+        }
+        if (filtro.sessaoAberta() != null) {
+            condicoes.add(filtro.sessaoAberta() ? SESSAO_ABERTA : "NOT " + SESSAO_ABERTA);
+        }
+        return condicoes.isEmpty() ? "" : " WHERE " + String.join(" AND ", condicoes);
+    }
+
+    private static Pauta pauta(ResultSet rs) throws SQLException {
+        Pauta pauta = new Pauta();
+        pauta.setId(rs.getLong("id"));
+        pauta.setTitulo(rs.getString("titulo"));
+        pauta.setDescricao(rs.getString("descricao"));
+        pauta.setDataCriacao(rs.getTimestamp("data_criacao").toInstant());
+        return pauta;
+    }
+
+    /**
+     * Filtros opcionais da listagem: período de criação [criadaDe, criadaAte) e existência de sessão aberta.
+     */
+    public record Filtro(Instant criadaDe, Instant criadaAte, Boolean sessaoAberta) {
+    }
+}
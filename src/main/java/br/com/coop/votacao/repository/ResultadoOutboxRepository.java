@@ -0,0 +1,108 @@
+package br.com.coop.votacao.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tabela {@code resultado_outbox}: eventos de resultado gravados na transação do encerramento e
+ * marcados como publicados pelo relay depois da confirmação do Kafka.
+ */
+@Repository
+public class ResultadoOutboxRepository {
+
+    private static final String INSERT =
+            "INSERT INTO resultado_outbox (chave, pauta_id, payload, criado_em, proxima_tentativa, tentativas) "
+                    + "VALUES (?, ?, ?, ?, ?, 0)";
+    private static final String PENDENTES =
+            "SELECT id, chave, payload, criado_em, tentativas FROM resultado_outbox "
+                    + "WHERE publicado_em IS NULL AND proxima_tentativa <= ? ORDER BY id LIMIT ?";
+    private static final String RESUMO_PENDENTES =
+            "SELECT COUNT(*), MIN(criado_em) FROM resultado_outbox WHERE publicado_em IS NULL";
+    private static final String FALHA =
+            "UPDATE resultado_outbox SET tentativas = tentativas + 1, proxima_tentativa = ? WHERE id = ?";
+    private static final String REMOVER_PUBLICADOS =
+            "DELETE FROM resultado_outbox WHERE publicado_em < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResultadoOutboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Deve ser chamado na transação que encerra as sessões.
+     */
+    public void inserir(List<Novo> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, eventos, eventos.size(), (ps, evento) -> {
+            Timestamp criadoEm = Timestamp.from(evento.criadoEm());
+            ps.setString(1, evento.chave());
+            ps.setLong(2, evento.pautaId());
+            ps.setString(3, evento.payload());
+            ps.setTimestamp(4, criadoEm);
+            ps.setTimestamp(5, criadoEm);
+        });
+    }
+
+    public List<Pendente> buscarPendentes(Instant agora, int limite) {
+        return jdbcTemplate.query(PENDENTES, (rs, linha) -> new Pendente(
+                rs.getLong(1), rs.getString(2), rs.getString(3), rs.getTimestamp(4).toInstant(), rs.getInt(5)),
+                Timestamp.from(agora), limite);
+    }
+
+    public ResumoPendentes resumoPendentes() {
+        return jdbcTemplate.queryForObject(RESUMO_PENDENTES, (rs, linha) -> {
+            Timestamp maisAntigo = rs.getTimestamp(2);
+            return new ResumoPendentes(rs.getLong(1), maisAntigo != null ? maisAntigo.toInstant() : null);
+        });
+    }
+
+    public void marcarPublicados(Collection<Long> ids, Instant publicadoEm) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE resultado_outbox SET publicado_em = ? WHERE id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = Timestamp.from(publicadoEm);
+        int i = 1;
+        for (Long id : ids) {
+            args[i++] = id;
+        }
+        jdbcTemplate.update(sql, args);
+    }
+
+    public void registrarFalhas(List<Falha> falhas) {
+        if (falhas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(FALHA, falhas, falhas.size(), (ps, falha) -> {
+            ps.setTimestamp(1, Timestamp.from(falha.proximaTentativa()));
+            ps.setLong(2, falha.id());
+        });
+    }
+
+    public int removerPublicadosAntesDe(Instant limite) {
+        return jdbcTemplate.update(REMOVER_PUBLICADOS, Timestamp.from(limite));
+    }
+
+    public record Novo(String chave, Long pautaId, String payload, Instant criadoEm) {
+    }
+
+    public record Pendente(long id, String chave, String payload, Instant criadoEm, int tentativas) {
+    }
+
+    public record Falha(long id, Instant proximaTentativa) {
+    }
+
+    public record ResumoPendentes(long quantidade, Instant maisAntigo) {
+    }
+}
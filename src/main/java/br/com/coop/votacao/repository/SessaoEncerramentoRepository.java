@@ -0,0 +1,77 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.entity.SessaoVotacao;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Encerramento de várias sessões em poucos comandos: um {@code SELECT ... FOR UPDATE} trava as que
+ * ainda estão abertas e um único {@code UPDATE} grava status, totais e marca de reconciliação de todas.
+ */
+@Repository
+public class SessaoEncerramentoRepository {
+
+    private static final List<Coluna> COLUNAS = List.of(
+            new Coluna("total_sim", SessaoVotacao::getTotalSim),
+            new Coluna("total_nao", SessaoVotacao::getTotalNao),
+            new Coluna("voto_id_reconciliado", SessaoVotacao::getVotoIdReconciliado),
+            new Coluna("reconciliado_sim", SessaoVotacao::getReconciliadoSim),
+            new Coluna("reconciliado_nao", SessaoVotacao::getReconciliadoNao));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessaoEncerramentoRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Trava as sessões ainda abertas entre {@code ids} até o fim da transação e devolve seus ids.
+     */
+    public List<Long> travarAbertas(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = "SELECT id FROM sessao_votacao WHERE status = 'ABERTA' AND id IN (" + marcadores(ids.size())
+                + ") ORDER BY id FOR UPDATE";
+        return jdbcTemplate.queryForList(sql, Long.class, ids.toArray());
+    }
+
+    /**
+     * Marca as sessões como encerradas com os totais e a marca de reconciliação de cada entidade.
+     * Deve ser chamado na transação que as travou com {@link #travarAbertas}.
+     */
+    public int encerrar(List<SessaoVotacao> sessoes) {
+        if (sessoes.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE sessao_votacao SET status = 'ENCERRADA'");
+        List<Object> args = new ArrayList<>(sessoes.size() * (COLUNAS.size() * 2 + 1));
+        for (Coluna coluna : COLUNAS) {
+            sql.append(", ").append(coluna.nome()).append(" = CASE id");
+            for (SessaoVotacao sessao : sessoes) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(sessao.getId());
+                args.add(coluna.valor().applyAsLong(sessao));
+            }
+            sql.append(" END");
+        }
+        sql.append(" WHERE status = 'ABERTA' AND id IN (").append(marcadores(sessoes.size())).append(')');
+        sessoes.forEach(sessao -> args.add(sessao.getId()));
+
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private static String marcadores(int quantidade) {
+        return String.join(", ", Collections.nCopies(quantidade, "?"));
+    }
+
+    private record Coluna(String nome, ToLongFunction<SessaoVotacao> valor) {
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.TotaisVotos;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Totais SIM/NAO de cada sessão divididos em K linhas (slots). Cada transação de voto soma no
+ * slot do seu associado, de modo que gravações concorrentes disputam K locks de linha em vez de
+ * um só; a leitura soma os slots.
+ */
+@Repository
+public class SessaoTallySlotRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO sessao_tally_slot (sessao_id, slot, total_sim, total_nao) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE total_sim = total_sim + VALUES(total_sim), total_nao = total_nao + VALUES(total_nao)";
+    private static final String SOMA =
+            "SELECT COALESCE(SUM(total_sim), 0), COALESCE(SUM(total_nao), 0) FROM sessao_tally_slot WHERE sessao_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SessaoTallySlotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Deve ser chamado na mesma transação que grava os votos.
+     */
+    public void somar(Long sessaoId, int slot, TotaisVotos totais) {
+        if (totais.isZero()) {
+            return;
+        }
+        jdbcTemplate.update(UPSERT, sessaoId, slot, totais.sim(), totais.nao());
+    }
+
+    public TotaisVotos totais(Long sessaoId) {
+        return jdbcTemplate.queryForObject(SOMA,
+                (rs, linha) -> new TotaisVotos(rs.getLong(1), rs.getLong(2)), sessaoId);
+    }
+}
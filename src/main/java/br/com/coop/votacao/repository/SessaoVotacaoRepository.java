@@ -2,14 +2,51 @@ package br.com.coop.votacao.repository;
 
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.SessaoVotacao;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface SessaoVotacaoRepository extends JpaRepository<SessaoVotacao, Long> {
     Optional<SessaoVotacao> findByPautaIdAndStatus(Long pautaId, SessaoStatus status);
 
+    Optional<SessaoVotacao> findFirstByPautaIdOrderByIdDesc(Long pautaId);
+
+    List<SessaoVotacao> findByStatus(SessaoStatus status);
+
     List<SessaoVotacao> findByStatusAndFimLessThanEqual(SessaoStatus status, Instant fimMaximo);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SessaoVotacao s where s.id = :id")
+    Optional<SessaoVotacao> buscarParaEncerramento(@Param("id") Long id);
+
+    /**
+     * Trava em modo compartilhado as sessões de um lote de votos: o encerramento, que trava as mesmas
+     * linhas para escrita, espera a gravação terminar ou é visto pelo lote já como ENCERRADA.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select s from SessaoVotacao s where s.id in :ids order by s.id")
+    List<SessaoVotacao> buscarParaGravacao(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update SessaoVotacao s
+               set s.votoIdReconciliado = :ate,
+                   s.reconciliadoSim = s.reconciliadoSim + :sim,
+                   s.reconciliadoNao = s.reconciliadoNao + :nao
+             where s.id = :sessaoId
+               and s.votoIdReconciliado = :de
+               and s.status = br.com.coop.votacao.domain.SessaoStatus.ABERTA
+            """)
+    int avancarReconciliacao(@Param("sessaoId") Long sessaoId, @Param("de") long de, @Param("ate") long ate,
+                             @Param("sim") long sim, @Param("nao") long nao);
 }
@@ -0,0 +1,110 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.VotoValor;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+@Repository
+public class VotoBatchRepository {
+
+    private static final String INSERT_IGNORE_PREFIX =
+            "INSERT IGNORE INTO voto (pauta_id, associado_id, valor, data_hora) VALUES ";
+    private static final String INSERT_IGNORE_LINHA = INSERT_IGNORE_PREFIX + "(?, ?, ?, ?)";
+    private static final int LINHAS_POR_INSERT = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VotoBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        exigirContagemPorLinha(jdbcTemplate.getDataSource());
+    }
+
+    /**
+     * Insere os votos de uma pauta em INSERTs multi-linha, descartando silenciosamente os
+     * associados que já votaram. Retorna quantas linhas foram de fato inseridas.
+     */
+    public int inserirIgnorandoDuplicados(Long pautaId, List<VotoPendente> votos) {
+        int inseridos = 0;
+
+        for (int inicio = 0; inicio < votos.size(); inicio += LINHAS_POR_INSERT) {
+            List<VotoPendente> bloco = votos.subList(inicio, Math.min(inicio + LINHAS_POR_INSERT, votos.size()));
+
+            String sql = INSERT_IGNORE_PREFIX + String.join(",", Collections.nCopies(bloco.size(), "(?, ?, ?, ?)"));
+            List<Object> args = new ArrayList<>(bloco.size() * 4);
+            for (VotoPendente voto : bloco) {
+                args.add(pautaId);
+                args.add(voto.associadoId());
+                args.add(voto.valor().name());
+                args.add(Timestamp.from(voto.dataHora()));
+            }
+
+            inseridos += jdbcTemplate.update(sql, args.toArray());
+        }
+
+        return inseridos;
+    }
+
+    /**
+     * Insere os votos em um batch JDBC com um INSERT por linha, devolvendo a contagem de cada
+     * item (1 = inserido, 0 = associado já havia votado).
+     */
+    public int[] inserirEmLote(Long pautaId, List<VotoPendente> votos) {
+        if (votos.isEmpty()) {
+            return new int[0];
+        }
+        int[] contagens = jdbcTemplate.batchUpdate(INSERT_IGNORE_LINHA, votos, votos.size(), (ps, voto) -> {
+            ps.setLong(1, pautaId);
+            ps.setString(2, voto.associadoId());
+            ps.setString(3, voto.valor().name());
+            ps.setTimestamp(4, Timestamp.from(voto.dataHora()));
+        })[0];
+
+        for (int contagem : contagens) {
+            if (contagem == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("Driver não informou a contagem de cada INSERT do lote: "
+                        + "desabilite rewriteBatchedStatements na conexão");
+            }
+        }
+        return contagens;
+    }
+
+    /**
+     * Com {@code rewriteBatchedStatements=true} o driver MySQL junta o batch em um único INSERT e devolve
+     * {@link Statement#SUCCESS_NO_INFO} para cada item, o que tornaria impossível separar votos novos de
+     * duplicados. A aplicação não sobe com essa configuração.
+     */
+    static void exigirContagemPorLinha(DataSource dataSource) {
+        if (dataSource == null) {
+            return;
+        }
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                return;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            String url = hikari.getJdbcUrl() != null ? hikari.getJdbcUrl().toLowerCase(Locale.ROOT) : "";
+            boolean reescrita = url.contains("rewritebatchedstatements=true")
+                    || "true".equalsIgnoreCase(hikari.getDataSourceProperties().getProperty("rewriteBatchedStatements"));
+            if (reescrita) {
+                throw new IllegalStateException("rewriteBatchedStatements=true não é suportado: "
+                        + "a gravação em lote precisa da contagem de cada INSERT");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Não foi possível inspecionar o DataSource", e);
+        }
+    }
+
+    public record VotoPendente(String associadoId, VotoValor valor, Instant dataHora) {
+    }
+}
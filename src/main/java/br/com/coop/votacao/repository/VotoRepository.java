@@ -3,7 +3,56 @@ package br.com.coop.votacao.repository;
 import br.com.coop.votacao.entity.Voto;
 import br.com.coop.votacao.domain.VotoValor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface VotoRepository extends JpaRepository<Voto, Long> {
     long countByPautaIdAndValor(Long id, VotoValor votoValor);
+
+    /**
+     * Maior id após {@code aPartirDe} entre os votos gravados há mais de {@code margemMicros}, pelo
+     * relógio do banco (o mesmo que preenche {@code registrado_em}), e não pelo horário do voto no cliente.
+     */
+    @Query(value = """
+            select max(v.id) from voto v
+             where v.pauta_id = :pautaId and v.id > :aPartirDe
+               and v.registrado_em < timestampadd(MICROSECOND, -:margemMicros, current_timestamp(6))
+            """, nativeQuery = true)
+    Long buscarMaiorIdConfirmado(@Param("pautaId") Long pautaId, @Param("aPartirDe") long aPartirDe,
+                                 @Param("margemMicros") long margemMicros);
+
+    @Query("""
+            select v.valor as valor, count(v) as total, max(v.id) as maiorId
+              from Voto v
+             where v.pauta.id = :pautaId and v.id > :aPartirDe and v.id <= :ate
+             group by v.valor
+            """)
+    List<ContagemPorValor> contarPorValorEntre(@Param("pautaId") Long pautaId, @Param("aPartirDe") long aPartirDe,
+                                               @Param("ate") long ate);
+
+    @Query("""
+            select v.valor as valor, count(v) as total, max(v.id) as maiorId
+              from Voto v
+             where v.pauta.id = :pautaId and v.id > :aPartirDe
+             group by v.valor
+            """)
+    List<ContagemPorValor> contarPorValorApos(@Param("pautaId") Long pautaId, @Param("aPartirDe") long aPartirDe);
+
+    @Query("""
+            select v.valor as valor, count(v) as total, max(v.id) as maiorId
+              from Voto v
+             where v.pauta.id = :pautaId
+             group by v.valor
+            """)
+    List<ContagemPorValor> contarPorValor(@Param("pautaId") Long pautaId);
+
+    interface ContagemPorValor {
+        VotoValor getValor();
+
+        long getTotal();
+
+        long getMaiorId();
+    }
 }
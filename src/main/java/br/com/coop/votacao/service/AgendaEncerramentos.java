@@ -0,0 +1,225 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sessões a encerrar, com o fim (epoch ms) como score, divididas em {@code votacao.encerramento.particoes}
+ * sorted sets {@value #PREFIXO}{particao}: cada nó só reivindica as partições que o
+ * {@link MembrosEncerramento} lhe atribui. Fica separada do {@link TemporizadorEncerramento} porque a
+ * abertura de sessão agenda aqui, e o temporizador depende do encerramento, que depende (via
+ * resultados parciais) da própria abertura.
+ */
+@Component
+public class AgendaEncerramentos {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgendaEncerramentos.class);
+    static final String PREFIXO = "votacao:sessoes:encerramento:";
+    // Agenda única de antes da divisão em partições
+    static final String CHAVE_ANTERIOR = "votacao:sessoes:encerramento";
+    private static final int LOTE_MIGRACAO = 100;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<List> reivindicarEncerramentosScript;
+    private final int particoes;
+
+    // Partição por onde a próxima reivindicação começa, para um lote cheio não deixar as últimas esperando
+    private final AtomicInteger inicioRodizio = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition agendamento = lock.newCondition();
+
+    public AgendaEncerramentos(StringRedisTemplate redisTemplate,
+                               DefaultRedisScript<List> reivindicarEncerramentosScript,
+                               EncerramentoProperties encerramentoProperties) {
+        this.redisTemplate = redisTemplate;
+        this.reivindicarEncerramentosScript = reivindicarEncerramentosScript;
+        this.particoes = encerramentoProperties.particoes();
+    }
+
+    /**
+     * Partição da sessão; o id é espalhado antes do módulo para sessões consecutivas não caírem em
+     * partições vizinhas do mesmo nó.
+     */
+    static int particao(long sessaoId, int particoes) {
+        long h = sessaoId * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) Math.floorMod(h, (long) particoes);
+    }
+
+    static String chave(int particao) {
+        return PREFIXO + particao;
+    }
+
+    public void agendarAposCommit(SessaoVotacao sessao) {
+        Long sessaoId = sessao.getId();
+        long fim = sessao.getFim().toEpochMilli();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            agendar(sessaoId, fim);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                agendar(sessaoId, fim);
+            }
+        });
+    }
+
+    /**
+     * Agenda as sessões sem alterar as já agendadas ({@code ZADD NX}).
+     */
+    void agendarAusentes(Collection<SessaoVotacao> sessoes) {
+        for (SessaoVotacao sessao : sessoes) {
+            redisTemplate.opsForZSet().addIfAbsent(chave(particao(sessao.getId(), particoes)),
+                    sessao.getId().toString(), sessao.getFim().toEpochMilli());
+        }
+        acordar();
+    }
+
+    /**
+     * Move para as partições as sessões que ainda estejam na agenda única anterior (gravadas por nós
+     * antigos durante a atualização), sem alterar as já agendadas. O Redis apaga a chave ao esvaziá-la.
+     * Uma sessão perdida entre o {@code ZPOPMIN} e o {@code ZADD} fica para a varredura do banco.
+     */
+    void migrarAgendaAnterior() {
+        int migradas = 0;
+        Set<TypedTuple<String>> lote;
+        do {
+            lote = redisTemplate.opsForZSet().popMin(CHAVE_ANTERIOR, LOTE_MIGRACAO);
+            if (lote == null) {
+                break;
+            }
+            for (TypedTuple<String> entrada : lote) {
+                if (entrada.getValue() == null || entrada.getScore() == null) {
+                    continue;
+                }
+                long sessaoId = Long.parseLong(entrada.getValue());
+                redisTemplate.opsForZSet().addIfAbsent(chave(particao(sessaoId, particoes)), entrada.getValue(), entrada.getScore());
+                migradas++;
+            }
+        } while (lote.size() == LOTE_MIGRACAO);
+
+        if (migradas > 0) {
+            LOGGER.info("{} sessões movidas da agenda de encerramento anterior para as partições", migradas);
+            acordar();
+        }
+    }
+
+    void reagendar(Long sessaoId, long instante) {
+        redisTemplate.opsForZSet().add(chave(particao(sessaoId, particoes)), sessaoId.toString(), instante);
+    }
+
+    /**
+     * Remove e devolve até {@code limite} sessões vencidas em {@code agora} nas partições informadas;
+     * como a remoção é atômica, cada sessão é entregue a um único nó mesmo durante um rebalanceamento.
+     * Só as partições cujo primeiro fim já venceu são consultadas pelo script.
+     */
+    List<Long> reivindicar(int[] particoesDoNo, long agora, int limite) {
+        if (particoesDoNo.length == 0) {
+            return List.of();
+        }
+
+        long[] inicios = inicios(particoesDoNo);
+        List<Long> reivindicadas = new ArrayList<>();
+        int rodizio = Math.floorMod(inicioRodizio.getAndIncrement(), particoesDoNo.length);
+        for (int i = 0; i < particoesDoNo.length && reivindicadas.size() < limite; i++) {
+            int indice = (rodizio + i) % particoesDoNo.length;
+            if (inicios[indice] > agora) {
+                continue;
+            }
+            List<?> ids = redisTemplate.execute(reivindicarEncerramentosScript, List.of(chave(particoesDoNo[indice])),
+                    String.valueOf(agora), String.valueOf(limite - reivindicadas.size()));
+            if (ids != null) {
+                ids.forEach(id -> reivindicadas.add(Long.valueOf(id.toString())));
+            }
+        }
+        return reivindicadas;
+    }
+
+    /**
+     * Fim (epoch ms) da próxima sessão agendada nas partições informadas, ou nulo quando não há nenhuma.
+     */
+    Long proximoFim(int[] particoesDoNo) {
+        if (particoesDoNo.length == 0) {
+            return null;
+        }
+        long proximo = Long.MAX_VALUE;
+        for (long inicio : inicios(particoesDoNo)) {
+            proximo = Math.min(proximo, inicio);
+        }
+        return proximo == Long.MAX_VALUE ? null : proximo;
+    }
+
+    /**
+     * Menor score de cada partição (ou {@link Long#MAX_VALUE} se vazia), lidos em um único pipeline.
+     */
+    private long[] inicios(int[] particoesDoNo) {
+        List<Object> respostas = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (int particao : particoesDoNo) {
+                conn.zRangeWithScores(chave(particao), 0, 0);
+            }
+            return null;
+        });
+
+        long[] inicios = new long[particoesDoNo.length];
+        for (int i = 0; i < inicios.length; i++) {
+            inicios[i] = Long.MAX_VALUE;
+            if (respostas.get(i) instanceof Collection<?> primeiro && !primeiro.isEmpty()
+                    && primeiro.iterator().next() instanceof TypedTuple<?> tupla && tupla.getScore() != null) {
+                inicios[i] = tupla.getScore().longValue();
+            }
+        }
+        return inicios;
+    }
+
+    /**
+     * Espera até {@code millis} ou até um novo agendamento neste nó.
+     */
+    void aguardar(long millis) throws InterruptedException {
+        lock.lock();
+        try {
+            agendamento.await(millis, TimeUnit.MILLISECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void acordar() {
+        lock.lock();
+        try {
+            agendamento.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void agendar(Long sessaoId, long fim) {
+        try {
+            reagendar(sessaoId, fim);
+        } catch (Exception e) {
+            LOGGER.warn("Erro ao agendar encerramento da sessão {} - fica para a varredura: {}", sessaoId, e.getMessage());
+        }
+        acordar();
+    }
+}
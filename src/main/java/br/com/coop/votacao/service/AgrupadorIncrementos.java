@@ -0,0 +1,187 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ContagemProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Agrupa os incrementos de contador que chegam dentro de uma janela curta (ou até um número
+ * máximo de operações) e os envia ao Redis em um único pipeline, completando cada
+ * chamador com a resposta correspondente do pipeline.
+ */
+@Component
+@ConditionalOnProperty(prefix = "votacao.contagem", name = "modo", havingValue = "AGRUPADO")
+public class AgrupadorIncrementos implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgrupadorIncrementos.class);
+    private static final long TIMEOUT_RESPOSTA_MS = 2_000L;
+    private static final long ESPERA_FILA_MS = 100L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> incrementWithTtlScript;
+    private final ContagemProperties contagemProperties;
+    private final DistributionSummary tamanhoLote;
+    private final Timer espera;
+
+    private final BlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+    private volatile boolean running;
+    private Thread worker;
+
+    public AgrupadorIncrementos(StringRedisTemplate redisTemplate,
+                                DefaultRedisScript<Long> incrementWithTtlScript,
+                                ContagemProperties contagemProperties,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.incrementWithTtlScript = incrementWithTtlScript;
+        this.contagemProperties = contagemProperties;
+        this.tamanhoLote = DistributionSummary.builder("votacao.contagem.agrupamento.tamanho")
+                .description("Incrementos enviados em cada pipeline")
+                .register(meterRegistry);
+        this.espera = Timer.builder("votacao.contagem.agrupamento.espera")
+                .description("Tempo entre a chegada do incremento e a resposta do pipeline")
+                .register(meterRegistry);
+    }
+
+    public Long incrementar(String chave, long ttlSegundos) {
+        if (!running) {
+            return redisTemplate.execute(incrementWithTtlScript, List.of(chave), String.valueOf(ttlSegundos));
+        }
+
+        Pedido pedido = new Pedido(chave, String.valueOf(ttlSegundos), System.nanoTime(), new CompletableFuture<>());
+        fila.add(pedido);
+
+        try {
+            return pedido.resposta().get(TIMEOUT_RESPOSTA_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando incremento de " + chave, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Sem resposta do Redis para o incremento de " + chave, e);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::executar, "contador-agrupado");
+        worker.setDaemon(true);
+        worker.start();
+        LOGGER.info("Agrupamento de incrementos iniciado (janela {}, até {} operações)",
+                contagemProperties.janelaAgrupamento(), contagemProperties.tamanhoMaximoAgrupamento());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                worker.join(ESPERA_FILA_MS * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Envia o que ficou na fila; novos pedidos já seguem pelo caminho direto
+        List<Pedido> restantes = new ArrayList<>();
+        fila.drainTo(restantes);
+        if (!restantes.isEmpty()) {
+            enviar(restantes);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void executar() {
+        int maximo = contagemProperties.tamanhoMaximoAgrupamento();
+        long janela = contagemProperties.janelaAgrupamento().toNanos();
+
+        while (running) {
+            try {
+                Pedido primeiro = fila.poll(ESPERA_FILA_MS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+
+                List<Pedido> lote = new ArrayList<>(maximo);
+                lote.add(primeiro);
+                long limite = primeiro.chegada() + janela;
+
+                while (lote.size() < maximo) {
+                    fila.drainTo(lote, maximo - lote.size());
+                    long restante = limite - System.nanoTime();
+                    if (lote.size() >= maximo || restante <= 0) {
+                        break;
+                    }
+                    Pedido proximo = fila.poll(restante, TimeUnit.NANOSECONDS);
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+
+                enviar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void enviar(List<Pedido> lote) {
+        tamanhoLote.record(lote.size());
+
+        List<Object> respostas;
+        try {
+            respostas = executarPipeline(lote);
+        } catch (Exception e) {
+            lote.forEach(pedido -> pedido.resposta().completeExceptionally(e));
+            return;
+        }
+
+        long agora = System.nanoTime();
+        for (int i = 0; i < lote.size(); i++) {
+            Pedido pedido = lote.get(i);
+            espera.record(agora - pedido.chegada(), TimeUnit.NANOSECONDS);
+            Object resposta = respostas.get(i);
+            pedido.resposta().complete(resposta instanceof Long valor ? valor : null);
+        }
+    }
+
+    private List<Object> executarPipeline(List<Pedido> lote) {
+        // EVAL com o texto do script (e não EVALSHA) para que um NOSCRIPT não falhe só parte do pipeline
+        String script = incrementWithTtlScript.getScriptAsString();
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Pedido pedido : lote) {
+                conn.eval(script, ReturnType.INTEGER, 1, pedido.chave(), pedido.ttl());
+            }
+            return null;
+        });
+    }
+
+    private record Pedido(String chave, String ttl, long chegada, CompletableFuture<Long> resposta) {
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ResultadosProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Resultado da última sessão de cada pauta, quando encerrada: primeiro em um mapa LRU local,
+ * depois no Redis ({@code votacao:resultado:{pautaId}}). A abertura de uma nova sessão grava no
+ * lugar uma marca com o id dela, e uma entrada só substitui outra de sessão igual ou mais nova, então
+ * o resultado de uma sessão anterior não volta a ser servido depois que a pauta é reaberta.
+ */
+@Component
+public class CacheResultados {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheResultados.class);
+    private static final String KEY_PREFIX = "votacao:resultado:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> registrarResultadoScript;
+    private final ResultadosProperties resultadosProperties;
+    private final Map<Long, Entrada> local;
+
+    public CacheResultados(StringRedisTemplate redisTemplate,
+                           DefaultRedisScript<Long> registrarResultadoScript,
+                           ResultadosProperties resultadosProperties) {
+        this.redisTemplate = redisTemplate;
+        this.registrarResultadoScript = registrarResultadoScript;
+        this.resultadosProperties = resultadosProperties;
+        this.local = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> eldest) {
+                return size() > resultadosProperties.tamanhoCacheLocal();
+            }
+        };
+    }
+
+    public static String chave(Long pautaId) {
+        return KEY_PREFIX + pautaId;
+    }
+
+    /**
+     * Resultado encerrado da última sessão da pauta; vazio também quando a última sessão está aberta.
+     */
+    public Optional<ResultadoEncerrado> buscar(Long pautaId) {
+        synchronized (local) {
+            Entrada entrada = local.get(pautaId);
+            if (entrada != null) {
+                return Optional.ofNullable(entrada.encerrado());
+            }
+        }
+
+        try {
+            String valor = redisTemplate.opsForValue().get(chave(pautaId));
+            if (valor == null) {
+                return Optional.empty();
+            }
+            Entrada entrada = Entrada.de(valor);
+            guardarLocal(pautaId, entrada);
+            return Optional.ofNullable(entrada.encerrado());
+        } catch (Exception redisEx) {
+            LOGGER.warn("Cache de resultados indisponível para pauta {}: {}", pautaId, redisEx.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void registrar(SessaoVotacao sessao) {
+        if (sessao.getStatus() != SessaoStatus.ENCERRADA) {
+            return;
+        }
+
+        ResultadoEncerrado resultado = new ResultadoEncerrado(sessao.getId(), sessao.getTotalSim(), sessao.getTotalNao());
+        guardar(sessao.getPauta().getId(), new Entrada(sessao.getId(), resultado));
+    }
+
+    /**
+     * Marca a pauta com a sessão recém-aberta, aqui e no Redis, descartando o resultado anterior.
+     */
+    public void registrarAbertura(Long pautaId, Long sessaoId) {
+        guardar(pautaId, new Entrada(sessaoId, null));
+    }
+
+    /**
+     * Marca a abertura só no mapa local; usado pelos nós que recebem o aviso de abertura.
+     */
+    public void marcarAbertura(Long pautaId, Long sessaoId) {
+        guardarLocal(pautaId, new Entrada(sessaoId, null));
+    }
+
+    private void guardar(Long pautaId, Entrada entrada) {
+        guardarLocal(pautaId, entrada);
+
+        try {
+            // Uma leitura lenta da sessão anterior não sobrescreve a marca ou o resultado de uma mais nova
+            redisTemplate.execute(registrarResultadoScript, List.of(chave(pautaId)), entrada.sessaoId().toString(),
+                    entrada.valor(), String.valueOf(resultadosProperties.ttlRedis().toMillis()));
+        } catch (Exception redisEx) {
+            LOGGER.warn("Erro ao guardar resultado da pauta {} no Redis: {}", pautaId, redisEx.getMessage());
+        }
+    }
+
+    private void guardarLocal(Long pautaId, Entrada entrada) {
+        synchronized (local) {
+            local.merge(pautaId, entrada, (atual, nova) -> atual.sessaoId() > nova.sessaoId() ? atual : nova);
+        }
+    }
+
+    /**
+     * Resultado ({@code encerrado}) ou marca de abertura ({@code encerrado} nulo) da última sessão conhecida.
+     */
+    private record Entrada(Long sessaoId, ResultadoEncerrado encerrado) {
+
+        static Entrada de(String valor) {
+            if (valor.indexOf(':') < 0) {
+                return new Entrada(Long.valueOf(valor), null);
+            }
+            ResultadoEncerrado encerrado = ResultadoEncerrado.de(valor);
+            return new Entrada(encerrado.sessaoId(), encerrado);
+        }
+
+        String valor() {
+            return encerrado != null ? encerrado.valor() : sessaoId.toString();
+        }
+    }
+
+    public record ResultadoEncerrado(Long sessaoId, long totalSim, long totalNao) {
+
+        static ResultadoEncerrado de(String valor) {
+            String[] partes = valor.split(":");
+            return new ResultadoEncerrado(Long.valueOf(partes[0]), Long.parseLong(partes[1]), Long.parseLong(partes[2]));
+        }
+
+        String valor() {
+            return sessaoId + ":" + totalSim + ":" + totalNao;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ContagemProperties;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores SIM/NAO por sessão em Redis. No modo ACUMULADO cada nó soma os votos em
+ * {@link LongAdder}s locais e descarrega com INCRBY em intervalos curtos, tirando o Redis
+ * do caminho de cada voto; o encerramento da sessão pede a descarga a todos os nós.
+ * <p>
+ * Cada valor pode ser dividido em vários shards ({@code :sim}, {@code :sim:1}, ...) para que uma
+ * sessão grande não concentre todos os incrementos em uma única chave (e em um único nó do
+ * Redis Cluster); o voto escolhe o shard pelo hash do associado e a leitura soma todos com um MGET.
+ */
+@Component
+public class ContadorVotos implements MessageListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContadorVotos.class);
+    private static final String KEY_PREFIX = "votacao:sessao:";
+    static final String CANAL_DESCARGA = "votacao:contagem:descarga";
+    private static final String CONFIRMACAO_PREFIX = "votacao:contagem:descarga:";
+    public static final long TTL_SEGUNDOS = 48 * 3600L;
+    private static final long INTERVALO_CONFIRMACAO_MS = 20L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> incrementWithTtlScript;
+    private final ContagemProperties contagemProperties;
+    private final AgrupadorIncrementos agrupadorIncrementos;
+
+    private final Map<Long, Parcial> parciais = new ConcurrentHashMap<>();
+
+    public ContadorVotos(StringRedisTemplate redisTemplate,
+                         DefaultRedisScript<Long> incrementWithTtlScript,
+                         ContagemProperties contagemProperties,
+                         RedisMessageListenerContainer redisMessageListenerContainer,
+                         Optional<AgrupadorIncrementos> agrupadorIncrementos) {
+        this.redisTemplate = redisTemplate;
+        this.incrementWithTtlScript = incrementWithTtlScript;
+        this.contagemProperties = contagemProperties;
+        this.agrupadorIncrementos = agrupadorIncrementos.orElse(null);
+        if (contagemProperties.isAcumulado()) {
+            redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CANAL_DESCARGA));
+        }
+    }
+
+    public static String chave(Long sessaoId, VotoValor valor) {
+        return chave(sessaoId, valor, 0);
+    }
+
+    public static String chave(Long sessaoId, VotoValor valor, int shard) {
+        String chave = KEY_PREFIX + sessaoId + (valor == VotoValor.SIM ? ":sim" : ":nao");
+        // O shard 0 mantém a chave original: sessões com um único shard não mudam de layout
+        return shard == 0 ? chave : chave + ":" + shard;
+    }
+
+    /**
+     * Todas as chaves de contador da sessão: os shards de SIM seguidos dos shards de NAO.
+     */
+    public static List<String> chaves(Long sessaoId, int shards) {
+        List<String> chaves = new ArrayList<>(shards * 2);
+        for (VotoValor valor : List.of(VotoValor.SIM, VotoValor.NAO)) {
+            for (int shard = 0; shard < shards; shard++) {
+                chaves.add(chave(sessaoId, valor, shard));
+            }
+        }
+        return chaves;
+    }
+
+    public static int shard(String associadoId, int shards) {
+        return shards <= 1 ? 0 : Math.floorMod(associadoId.hashCode(), shards);
+    }
+
+    public void incrementar(Long sessaoId, int shards, String associadoId, VotoValor valor) {
+        if (contagemProperties.isAcumulado()) {
+            Parcial parcial = parcial(sessaoId, shards);
+            parcial.de(valor).increment();
+            recolherSeFechada(sessaoId, parcial);
+            return;
+        }
+
+        String chave = chave(sessaoId, valor, shard(associadoId, shards));
+        try {
+            Long novoValor = agrupadorIncrementos != null
+                    ? agrupadorIncrementos.incrementar(chave, TTL_SEGUNDOS)
+                    : redisTemplate.execute(incrementWithTtlScript, Collections.singletonList(chave), String.valueOf(TTL_SEGUNDOS));
+            LOGGER.debug("Contador {} atualizado para {}", chave, novoValor);
+        } catch (Exception redisEx) {
+            LOGGER.error("Erro ao atualizar contador no Redis para sessão {}: {}",
+                    sessaoId, redisEx.getMessage(), redisEx);
+        }
+    }
+
+    public void adicionar(Long sessaoId, int shards, Map<VotoValor, Long> quantidades) {
+        if (quantidades.isEmpty()) {
+            return;
+        }
+
+        if (contagemProperties.isAcumulado()) {
+            Parcial parcial = parcial(sessaoId, shards);
+            quantidades.forEach((valor, quantidade) -> parcial.de(valor).add(quantidade));
+            recolherSeFechada(sessaoId, parcial);
+            return;
+        }
+
+        try {
+            incrementarNoRedis(sessaoId, shardAleatorio(shards), quantidades.getOrDefault(VotoValor.SIM, 0L),
+                    quantidades.getOrDefault(VotoValor.NAO, 0L));
+        } catch (Exception redisEx) {
+            LOGGER.error("Erro ao atualizar contadores no Redis para sessão {}: {}",
+                    sessaoId, redisEx.getMessage(), redisEx);
+        }
+    }
+
+    public TotaisVotos ler(Long sessaoId, int shards) {
+        return somar(redisTemplate.opsForValue().multiGet(chaves(sessaoId, shards)), shards);
+    }
+
+    /**
+     * Lê os contadores de várias sessões em um único pipeline (um {@code MGET} por sessão).
+     *
+     * @param shardsPorSessao shards do contador de cada sessão
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, TotaisVotos> lerTodos(Map<Long, Integer> shardsPorSessao) {
+        List<Long> sessoes = new ArrayList<>(shardsPorSessao.keySet());
+        List<Object> respostas = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long sessaoId : sessoes) {
+                conn.mGet(chaves(sessaoId, shardsPorSessao.get(sessaoId)).toArray(String[]::new));
+            }
+            return null;
+        });
+
+        Map<Long, TotaisVotos> totais = new HashMap<>();
+        for (int i = 0; i < sessoes.size(); i++) {
+            Long sessaoId = sessoes.get(i);
+            totais.put(sessaoId, somar((List<String>) respostas.get(i), shardsPorSessao.get(sessaoId)));
+        }
+        return totais;
+    }
+
+    private static TotaisVotos somar(List<String> valores, int shards) {
+        if (valores == null) {
+            return TotaisVotos.ZERO;
+        }
+
+        long sim = 0L;
+        long nao = 0L;
+        for (int i = 0; i < valores.size(); i++) {
+            long valor = valores.get(i) != null ? Long.parseLong(valores.get(i)) : 0L;
+            if (i < shards) {
+                sim += valor;
+            } else {
+                nao += valor;
+            }
+        }
+        return new TotaisVotos(sim, nao);
+    }
+
+    /**
+     * Aplica uma correção (positiva ou negativa) diretamente nos contadores do Redis. Como a
+     * leitura soma os shards, a correção vai inteira para o shard 0.
+     */
+    public void ajustar(Long sessaoId, TotaisVotos ajuste) {
+        if (!ajuste.isZero()) {
+            incrementarNoRedis(sessaoId, 0, ajuste.sim(), ajuste.nao());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.contagem.intervalo-descarga-ms:200}")
+    public void descarregar() {
+        parciais.forEach(this::descarregar);
+    }
+
+    @PreDestroy
+    public void descarregarAoDesligar() {
+        if (contagemProperties.isAcumulado()) {
+            descarregar();
+        }
+    }
+
+    /**
+     * Descarrega a sessão neste nó e pede, via pub/sub, que os demais façam o mesmo,
+     * aguardando a confirmação de cada assinante do canal ou o timeout configurado.
+     */
+    public void descarregarCluster(Long sessaoId) {
+        if (!contagemProperties.isAcumulado()) {
+            return;
+        }
+
+        descarregarSessao(sessaoId);
+
+        String pedido = UUID.randomUUID().toString();
+        try {
+            Long assinantes = redisTemplate.convertAndSend(CANAL_DESCARGA, pedido + ":" + sessaoId);
+            aguardarConfirmacoes(sessaoId, pedido, assinantes != null ? assinantes : 0L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrompido aguardando descarga dos contadores da sessão {}", sessaoId);
+        } catch (Exception redisEx) {
+            LOGGER.error("Erro ao solicitar descarga dos contadores da sessão {}: {}",
+                    sessaoId, redisEx.getMessage(), redisEx);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        String pedido = partes[0];
+        Long sessaoId = Long.valueOf(partes[1]);
+
+        descarregarSessao(sessaoId);
+
+        String confirmacao = CONFIRMACAO_PREFIX + pedido;
+        redisTemplate.opsForValue().increment(confirmacao);
+        redisTemplate.expire(confirmacao, contagemProperties.timeoutDescarga().multipliedBy(2));
+    }
+
+    private void descarregarSessao(Long sessaoId) {
+        // A sessão está encerrando: retira a parcial do mapa, fecha e descarrega o que restou nela.
+        // Quem já tinha a parcial em mãos e somar depois do fechamento recolhe a própria sobra
+        Parcial parcial = parciais.remove(sessaoId);
+        if (parcial != null) {
+            parcial.fechada = true;
+            descarregar(sessaoId, parcial);
+        }
+    }
+
+    /**
+     * Chamado depois de somar na parcial: se ela foi fechada por {@link #descarregarSessao} entre a
+     * busca no mapa e a soma, o valor pode ter ficado depois do {@code sumThenReset}. Como o fechamento
+     * é marcado antes do reset, quem lê {@code fechada == false} teve a soma incluída na descarga;
+     * quem lê {@code true} move o saldo da parcial fechada para a parcial atual da sessão.
+     */
+    private void recolherSeFechada(Long sessaoId, Parcial parcial) {
+        if (parcial.fechada) {
+            devolver(sessaoId, parcial.shards, parcial.sim.sumThenReset(), parcial.nao.sumThenReset());
+        }
+    }
+
+    private void devolver(Long sessaoId, int shards, long sim, long nao) {
+        while (sim != 0 || nao != 0) {
+            Parcial atual = parcial(sessaoId, shards);
+            atual.sim.add(sim);
+            atual.nao.add(nao);
+            if (!atual.fechada) {
+                return;
+            }
+            sim = atual.sim.sumThenReset();
+            nao = atual.nao.sumThenReset();
+        }
+    }
+
+    private void aguardarConfirmacoes(Long sessaoId, String pedido, long esperadas) throws InterruptedException {
+        String confirmacao = CONFIRMACAO_PREFIX + pedido;
+        long limite = System.nanoTime() + contagemProperties.timeoutDescarga().toNanos();
+
+        while (esperadas > 0) {
+            String valor = redisTemplate.opsForValue().get(confirmacao);
+            long recebidas = valor != null ? Long.parseLong(valor) : 0L;
+            if (recebidas >= esperadas) {
+                LOGGER.debug("Contadores da sessão {} descarregados por {} nós", sessaoId, recebidas);
+                return;
+            }
+            if (System.nanoTime() - limite >= 0) {
+                LOGGER.warn("Descarga dos contadores da sessão {} confirmada por {} de {} nós após {}",
+                        sessaoId, recebidas, esperadas, contagemProperties.timeoutDescarga());
+                return;
+            }
+            Thread.sleep(INTERVALO_CONFIRMACAO_MS);
+        }
+    }
+
+    private void descarregar(Long sessaoId, Parcial parcial) {
+        long sim = parcial.sim.sumThenReset();
+        long nao = parcial.nao.sumThenReset();
+        if (sim == 0 && nao == 0) {
+            return;
+        }
+
+        try {
+            incrementarNoRedis(sessaoId, shardAleatorio(parcial.shards), sim, nao);
+            LOGGER.debug("Sessão {}: descarregados {} SIM e {} NAO", sessaoId, sim, nao);
+        } catch (Exception redisEx) {
+            // Devolve as parciais para a próxima descarga (a parcial fechada não volta para o mapa)
+            devolver(sessaoId, parcial.shards, sim, nao);
+            LOGGER.error("Erro ao descarregar contadores da sessão {}: {}", sessaoId, redisEx.getMessage());
+        }
+    }
+
+    private void incrementarNoRedis(Long sessaoId, int shard, long sim, long nao) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            if (sim != 0) {
+                conn.incrBy(chave(sessaoId, VotoValor.SIM, shard), sim);
+                conn.expire(chave(sessaoId, VotoValor.SIM, shard), TTL_SEGUNDOS);
+            }
+            if (nao != 0) {
+                conn.incrBy(chave(sessaoId, VotoValor.NAO, shard), nao);
+                conn.expire(chave(sessaoId, VotoValor.NAO, shard), TTL_SEGUNDOS);
+            }
+            return null;
+        });
+    }
+
+    // Incrementos agregados (lotes, descargas) não têm um associado: qualquer shard serve, pois a leitura soma todos
+    private static int shardAleatorio(int shards) {
+        return shards <= 1 ? 0 : ThreadLocalRandom.current().nextInt(shards);
+    }
+
+    private Parcial parcial(Long sessaoId, int shards) {
+        return parciais.computeIfAbsent(sessaoId, id -> new Parcial(shards));
+    }
+
+    private static final class Parcial {
+        private final int shards;
+        private final LongAdder sim = new LongAdder();
+        private final LongAdder nao = new LongAdder();
+        private volatile boolean fechada;
+
+        private Parcial(int shards) {
+            this.shards = shards;
+        }
+
+        private LongAdder de(VotoValor valor) {
+            return valor == VotoValor.SIM ? sim : nao;
+        }
+    }
+}
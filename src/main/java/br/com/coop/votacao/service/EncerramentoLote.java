@@ -0,0 +1,138 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Encerra muitas sessões de uma vez (acúmulo após uma queda, assembleia com centenas de pautas),
+ * em blocos de {@code votacao.encerramento.tamanho-lote} na ordem do {@code fim}. Em cada bloco a
+ * apuração roda em paralelo em {@code votacao.encerramento.paralelismo} threads, os contadores Redis
+ * de todas as sessões são lidos em um pipeline e o encerramento é uma transação só
+ * ({@link SessaoEncerramentoService#encerrarApuradas}). Se ela falhar, o bloco é encerrado sessão a sessão.
+ */
+@Component
+public class EncerramentoLote {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EncerramentoLote.class);
+
+    private final SessaoEncerramentoService sessaoEncerramentoService;
+    private final ReconciliadorContagem reconciliadorContagem;
+    private final ContadorVotos contadorVotos;
+    private final EncerramentoProperties encerramentoProperties;
+    private final ExecutorService executor;
+
+    public EncerramentoLote(SessaoEncerramentoService sessaoEncerramentoService,
+                            ReconciliadorContagem reconciliadorContagem,
+                            ContadorVotos contadorVotos,
+                            EncerramentoProperties encerramentoProperties) {
+        this.sessaoEncerramentoService = sessaoEncerramentoService;
+        this.reconciliadorContagem = reconciliadorContagem;
+        this.contadorVotos = contadorVotos;
+        this.encerramentoProperties = encerramentoProperties;
+
+        AtomicInteger sequencia = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, encerramentoProperties.paralelismo()), r -> {
+            Thread thread = new Thread(r, "encerramento-lote-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Encerra as sessões em ordem de {@code fim}. Nenhum bloco novo começa depois de {@code prazo}
+     * (nulo = sem prazo); as sessões restantes continuam abertas para a próxima execução.
+     *
+     * @return as sessões encerradas por esta chamada
+     */
+    public List<SessaoVotacao> encerrar(List<SessaoVotacao> sessoes, Instant prazo) {
+        List<SessaoVotacao> ordenadas = sessoes.stream()
+                .sorted(Comparator.comparing(SessaoVotacao::getFim))
+                .toList();
+        int tamanhoLote = Math.max(1, encerramentoProperties.tamanhoLote());
+
+        List<SessaoVotacao> encerradas = new ArrayList<>();
+        for (int inicio = 0; inicio < ordenadas.size(); inicio += tamanhoLote) {
+            if (prazo != null && Instant.now().isAfter(prazo)) {
+                LOGGER.warn("Prazo do encerramento esgotado - {} sessões ficam para a próxima execução",
+                        ordenadas.size() - inicio);
+                break;
+            }
+            encerradas.addAll(encerrarBloco(ordenadas.subList(inicio, Math.min(inicio + tamanhoLote, ordenadas.size()))));
+        }
+        return encerradas;
+    }
+
+    private List<SessaoVotacao> encerrarBloco(List<SessaoVotacao> bloco) {
+        List<CompletableFuture<SessaoVotacao>> apuracoes = bloco.stream()
+                .map(sessao -> CompletableFuture.supplyAsync(() -> {
+                    sessaoEncerramentoService.apurar(sessao);
+                    return sessao;
+                }, executor).exceptionally(e -> {
+                    LOGGER.error("Erro ao apurar sessão {}: {}", sessao.getId(), e.getMessage(), e);
+                    return null;
+                }))
+                .toList();
+        List<SessaoVotacao> apuradas = apuracoes.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+        if (apuradas.isEmpty()) {
+            return apuradas;
+        }
+
+        conferirContadores(apuradas);
+
+        try {
+            return sessaoEncerramentoService.encerrarApuradas(apuradas);
+        } catch (Exception e) {
+            LOGGER.error("Erro ao encerrar bloco de {} sessões - encerrando uma a uma: {}",
+                    apuradas.size(), e.getMessage(), e);
+            return encerrarIndividualmente(apuradas);
+        }
+    }
+
+    private void conferirContadores(List<SessaoVotacao> apuradas) {
+        try {
+            Map<Long, Integer> shards = new LinkedHashMap<>();
+            apuradas.forEach(sessao -> shards.put(sessao.getId(), sessao.getShardsContador()));
+            Map<Long, TotaisVotos> redis = contadorVotos.lerTodos(shards);
+            apuradas.forEach(sessao -> reconciliadorContagem.conferirFinal(sessao, redis.get(sessao.getId())));
+        } catch (Exception redisEx) {
+            LOGGER.warn("Não foi possível comparar os contadores Redis de {} sessões: {}",
+                    apuradas.size(), redisEx.getMessage());
+        }
+    }
+
+    private List<SessaoVotacao> encerrarIndividualmente(List<SessaoVotacao> sessoes) {
+        List<SessaoVotacao> encerradas = new ArrayList<>();
+        for (SessaoVotacao sessao : sessoes) {
+            try {
+                sessaoEncerramentoService.encerrarPorId(sessao.getId()).ifPresent(encerradas::add);
+            } catch (Exception e) {
+                LOGGER.error("Erro ao encerrar sessão {}: {}", sessao.getId(), e.getMessage(), e);
+            }
+        }
+        return encerradas;
+    }
+
+    @PreDestroy
+    public void desligar() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.coop.votacao.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+
+@Component
+public class FiltroVotoDuplicado {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FiltroVotoDuplicado.class);
+    private static final String KEY_PREFIX = "votacao:sessao:";
+    private static final int VOTANTES_TTL_HORAS = 48;
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> reservarVotanteScript;
+
+    public FiltroVotoDuplicado(StringRedisTemplate redisTemplate,
+                               DefaultRedisScript<Long> reservarVotanteScript) {
+        this.redisTemplate = redisTemplate;
+        this.reservarVotanteScript = reservarVotanteScript;
+    }
+
+    public static String chave(Long sessaoId) {
+        return KEY_PREFIX + sessaoId + ":votantes";
+    }
+
+    /**
+     * Reserva o associado no conjunto de votantes da sessão com um único SADD atômico.
+     * Retorna {@code false} apenas quando o associado já estava reservado; se o Redis
+     * estiver indisponível a reserva é liberada para que a constraint do banco decida.
+     */
+    public boolean reservar(Long sessaoId, String associadoId) {
+        try {
+            Long novo = redisTemplate.execute(
+                    reservarVotanteScript,
+                    Collections.singletonList(chave(sessaoId)),
+                    associadoId,
+                    String.valueOf(VOTANTES_TTL_HORAS * 3600)
+            );
+            return novo == null || novo == 1L;
+        } catch (Exception redisEx) {
+            LOGGER.warn("Filtro de votos duplicados indisponível para sessão {}: {}", sessaoId, redisEx.getMessage());
+            return true;
+        }
+    }
+
+    public void liberar(Long sessaoId, String associadoId) {
+        try {
+            redisTemplate.opsForSet().remove(chave(sessaoId), associadoId);
+            LOGGER.debug("Reserva do associado {} na sessão {} liberada", associadoId, sessaoId);
+        } catch (Exception redisEx) {
+            LOGGER.warn("Erro ao liberar reserva do associado {} na sessão {}: {}",
+                    associadoId, sessaoId, redisEx.getMessage());
+        }
+    }
+
+    public void liberarSeTransacaoDesfeita(Long sessaoId, String associadoId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    liberar(sessaoId, associadoId);
+                }
+            }
+        });
+    }
+}
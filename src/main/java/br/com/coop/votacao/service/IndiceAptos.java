@@ -0,0 +1,147 @@
+package br.com.coop.votacao.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lista de CPFs aptos de uma pauta em um arquivo mapeado em memória: cabeçalho de {@value #CABECALHO}
+ * bytes seguido dos CPFs como {@code long} ordenados e sem repetição. A consulta é uma busca binária
+ * direto no mapeamento, sem alocação, com um filtro de Bloom opcional no heap na frente.
+ */
+final class IndiceAptos {
+    static final long MARCADOR = 0x4150544F53303031L; // "APTOS001"
+    static final int CABECALHO = 16;
+
+    private final LongBuffer cpfs;
+    private final int total;
+    private final long[] bloom;
+    private final int funcoesBloom;
+
+    private IndiceAptos(LongBuffer cpfs, int bitsBloomPorCpf) {
+        this.cpfs = cpfs;
+        this.total = cpfs.limit();
+        if (bitsBloomPorCpf > 0 && total > 0) {
+            long bits = Math.max(64L, (long) total * bitsBloomPorCpf);
+            this.bloom = new long[(int) ((bits + 63) / 64)];
+            this.funcoesBloom = Math.max(1, Math.min(16, (int) Math.round(bitsBloomPorCpf * Math.log(2))));
+            for (int i = 0; i < total; i++) {
+                marcar(cpfs.get(i));
+            }
+        } else {
+            this.bloom = null;
+            this.funcoesBloom = 0;
+        }
+    }
+
+    /**
+     * Grava o índice de {@code cpfs} (já ordenados e sem repetição) em {@code arquivo}.
+     */
+    static void gravar(Path arquivo, long[] cpfs, int total) throws IOException {
+        try (OutputStream saida = Files.newOutputStream(arquivo);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(saida, 64 * 1024))) {
+            out.writeLong(MARCADOR);
+            out.writeLong(total);
+            for (int i = 0; i < total; i++) {
+                out.writeLong(cpfs[i]);
+            }
+        }
+    }
+
+    static IndiceAptos abrir(Path arquivo, int bitsBloomPorCpf) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois de fechar o canal
+            ByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (mapeado.limit() < CABECALHO || mapeado.getLong(0) != MARCADOR) {
+                throw new IOException("Arquivo de aptos inválido: " + arquivo);
+            }
+            long total = mapeado.getLong(8);
+            if (total < 0 || CABECALHO + total * Long.BYTES != mapeado.limit()) {
+                throw new IOException("Arquivo de aptos truncado: " + arquivo);
+            }
+            LongBuffer cpfs = mapeado.slice(CABECALHO, (int) (total * Long.BYTES)).asLongBuffer();
+            return new IndiceAptos(cpfs, bitsBloomPorCpf);
+        }
+    }
+
+    boolean contem(long cpf) {
+        if (bloom != null && !talvezContenha(cpf)) {
+            return false;
+        }
+        int inicio = 0;
+        int fim = total - 1;
+        while (inicio <= fim) {
+            int meio = (inicio + fim) >>> 1;
+            long valor = cpfs.get(meio);
+            if (valor < cpf) {
+                inicio = meio + 1;
+            } else if (valor > cpf) {
+                fim = meio - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int total() {
+        return total;
+    }
+
+    /**
+     * CPF com 11 dígitos (pontuação ignorada) como {@code long}, ou -1 se não for um CPF.
+     */
+    static long converter(CharSequence cpf) {
+        long valor = 0L;
+        int digitos = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digitos > 11) {
+                    return -1L;
+                }
+                valor = valor * 10 + (c - '0');
+            } else if (c != '.' && c != '-' && c != ' ') {
+                return -1L;
+            }
+        }
+        return digitos == 11 ? valor : -1L;
+    }
+
+    private void marcar(long cpf) {
+        long h1 = misturar(cpf);
+        long h2 = misturar(h1) | 1L;
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < funcoesBloom; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            bloom[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private boolean talvezContenha(long cpf) {
+        long h1 = misturar(cpf);
+        long h2 = misturar(h1) | 1L;
+        long bits = (long) bloom.length * 64;
+        for (int i = 0; i < funcoesBloom; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Finalizador do SplitMix64
+    private static long misturar(long x) {
+        x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+        x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+        return x ^ (x >>> 31);
+    }
+}
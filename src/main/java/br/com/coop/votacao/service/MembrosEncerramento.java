@@ -0,0 +1,218 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Divide o encerramento de sessões entre os nós vivos. Cada nó renova um lease no sorted set
+ * {@value #CHAVE} (score = validade em epoch ms pelo relógio do Redis) e remove os vencidos; as
+ * partições da {@link AgendaEncerramentos} são atribuídas aos membros por rendezvous hashing, então
+ * a entrada ou saída de um nó só move as partições dele.
+ *
+ * <p>A renovação roda a cada {@code lease / 3} e grava validade de {@code lease - renovação}: um nó
+ * derrubado vence no máximo 2/3 do lease depois da última renovação e os demais percebem na
+ * renovação seguinte, então suas partições mudam de dono dentro de {@code votacao.encerramento.lease}.
+ *
+ * <p>Antes do primeiro registro, ou com o Redis fora, o nó mantém a última divisão conhecida (no
+ * início, todas as partições). Uma sobreposição temporária só gera trabalho repetido: a reivindicação
+ * na agenda é atômica e o encerramento trava as sessões no banco.
+ */
+@Component
+public class MembrosEncerramento implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MembrosEncerramento.class);
+    static final String CHAVE = "votacao:encerramento:membros";
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<List> renovarMembroEncerramentoScript;
+    private final AgendaEncerramentos agendaEncerramentos;
+    private final EncerramentoProperties encerramentoProperties;
+    private final Duration renovacao;
+    private final String membro = nomeMembro();
+
+    private volatile Divisao divisao;
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    private record Divisao(List<String> membros, int[] particoes, Set<Integer> possuidas) {
+    }
+
+    public MembrosEncerramento(StringRedisTemplate redisTemplate,
+                               DefaultRedisScript<List> renovarMembroEncerramentoScript,
+                               AgendaEncerramentos agendaEncerramentos,
+                               EncerramentoProperties encerramentoProperties,
+                               MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.renovarMembroEncerramentoScript = renovarMembroEncerramentoScript;
+        this.agendaEncerramentos = agendaEncerramentos;
+        this.encerramentoProperties = encerramentoProperties;
+        this.renovacao = encerramentoProperties.lease().dividedBy(3);
+        if (renovacao.toMillis() == 0) {
+            throw new IllegalArgumentException("votacao.encerramento.lease deve ser de pelo menos 3 ms");
+        }
+
+        int[] todas = IntStream.range(0, encerramentoProperties.particoes()).toArray();
+        this.divisao = new Divisao(List.of(), todas, Set.copyOf(IntStream.of(todas).boxed().toList()));
+
+        Gauge.builder("votacao.encerramento.particoes", this, m -> m.divisao.particoes().length)
+                .description("Partições da agenda de encerramento atribuídas a este nó")
+                .register(meterRegistry);
+        Gauge.builder("votacao.encerramento.membros", this, m -> m.divisao.membros().size())
+                .description("Nós com lease válido na divisão do encerramento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Partições da agenda que este nó deve reivindicar.
+     */
+    public int[] particoes() {
+        return divisao.particoes();
+    }
+
+    /**
+     * Se a sessão cai em uma partição deste nó; usado pela varredura do banco.
+     */
+    public boolean responsavel(long sessaoId) {
+        return divisao.possuidas().contains(AgendaEncerramentos.particao(sessaoId, encerramentoProperties.particoes()));
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "membros-encerramento");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::renovar, 0L, renovacao.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        sair();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void renovar() {
+        List<String> vivos;
+        try {
+            // Validade de lease - renovação: quem parar de renovar vence antes de o lease inteiro passar
+            long validade = encerramentoProperties.lease().minus(renovacao).toMillis();
+            List<?> membros = redisTemplate.execute(renovarMembroEncerramentoScript, List.of(CHAVE),
+                    membro, String.valueOf(validade));
+            vivos = membros == null ? List.of(membro) : membros.stream().map(Object::toString).sorted().toList();
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível renovar o lease de encerramento de {}: {}", membro, e.getMessage());
+            return;
+        }
+        dividir(vivos);
+    }
+
+    private void sair() {
+        try {
+            // Os demais nós assumem as partições na próxima renovação, sem esperar o lease vencer
+            redisTemplate.opsForZSet().remove(CHAVE, membro);
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível remover {} da divisão do encerramento: {}", membro, e.getMessage());
+        }
+    }
+
+    void dividir(List<String> vivos) {
+        Divisao atual = divisao;
+        if (vivos.equals(atual.membros())) {
+            return;
+        }
+
+        List<Integer> possuidas = new ArrayList<>();
+        for (int particao = 0; particao < encerramentoProperties.particoes(); particao++) {
+            if (membro.equals(dono(vivos, particao))) {
+                possuidas.add(particao);
+            }
+        }
+        Divisao nova = new Divisao(vivos, possuidas.stream().mapToInt(Integer::intValue).toArray(), Set.copyOf(possuidas));
+        divisao = nova;
+        LOGGER.info("Divisão do encerramento: {} nós, {} de {} partições com {}",
+                vivos.size(), possuidas.size(), encerramentoProperties.particoes(), membro);
+
+        if (!atual.possuidas().containsAll(nova.possuidas())) {
+            // Partições recebidas podem ter sessões já vencidas
+            agendaEncerramentos.acordar();
+        }
+    }
+
+    String membro() {
+        return membro;
+    }
+
+    Duration renovacao() {
+        return renovacao;
+    }
+
+    /**
+     * Membro de maior peso para a partição (rendezvous hashing); empates, improváveis, vão para o menor nome.
+     */
+    static String dono(List<String> membros, int particao) {
+        String dono = null;
+        long maiorPeso = Long.MIN_VALUE;
+        for (String candidato : membros) {
+            long peso = misturar(hash(candidato) ^ misturar(particao));
+            if (dono == null || peso > maiorPeso || (peso == maiorPeso && candidato.compareTo(dono) < 0)) {
+                dono = candidato;
+                maiorPeso = peso;
+            }
+        }
+        return dono;
+    }
+
+    // FNV-1a de 64 bits
+    private static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // Finalizador do SplitMix64
+    private static long misturar(long valor) {
+        long z = valor + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String nomeMembro() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        } catch (Exception e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+}
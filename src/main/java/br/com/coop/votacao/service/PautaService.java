@@ -4,6 +4,8 @@ import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.exception.NotFoundException;
 import br.com.coop.votacao.messaging.ResultadoPautaEvent;
+import br.com.coop.votacao.repository.PautaConsultaRepository;
+import br.com.coop.votacao.repository.PautaConsultaRepository.Filtro;
 import br.com.coop.votacao.repository.PautaRepository;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.lang.NonNull;
@@ -12,14 +14,17 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class PautaService {
 
     private final PautaRepository pautaRepository;
+    private final PautaConsultaRepository pautaConsultaRepository;
 
-    public PautaService(PautaRepository pautaRepository) {
+    public PautaService(PautaRepository pautaRepository, PautaConsultaRepository pautaConsultaRepository) {
         this.pautaRepository = pautaRepository;
+        this.pautaConsultaRepository = pautaConsultaRepository;
     }
 
     @Transactional(propagation = Propagation.REQUIRED)
@@ -34,9 +39,24 @@ public class PautaService {
                 .orElseThrow(() -> new NotFoundException("Pauta não encontrada: " + id));
     }
 
+    public Pauta referencia(Long id) {
+        return pautaRepository.getReferenceById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public PaginaPautas listar(Filtro filtro, Long cursor, int limite) {
+        // Uma linha a mais indica se há próxima página sem um COUNT
+        List<Pauta> pautas = pautaConsultaRepository.buscarPagina(filtro, cursor, limite + 1);
+        if (pautas.size() <= limite) {
+            return new PaginaPautas(pautas, null);
+        }
+        List<Pauta> pagina = pautas.subList(0, limite);
+        return new PaginaPautas(pagina, pagina.get(limite - 1).getId());
+    }
+
     @Transactional(readOnly = true)
-    public List<Pauta> listar() {
-        return pautaRepository.findAll();
+    public void exportar(Filtro filtro, Consumer<Pauta> consumidor) {
+        pautaConsultaRepository.percorrer(filtro, consumidor);
     }
 
     @NonNull
@@ -57,4 +77,7 @@ public class PautaService {
         }
         return event;
     }
+
+    public record PaginaPautas(List<Pauta> itens, Long proximoCursor) {
+    }
 }
@@ -0,0 +1,202 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ReconciliacaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import br.com.coop.votacao.repository.VotoRepository;
+import br.com.coop.votacao.repository.VotoRepository.ContagemPorValor;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Confere os contadores do Redis com a tabela voto sem varrer a pauta inteira: cada sessão guarda
+ * o último voto.id já contado e os totais até ele, e cada execução conta só as linhas novas.
+ * Uma divergência só é corrigida quando se repete em duas execuções seguidas, para não
+ * "corrigir" votos ainda em trânsito entre o banco e o Redis.
+ *
+ * <p>O id é gerado no INSERT, não no commit: a marca só passa de votos gravados (pelo relógio do
+ * banco, em {@code registrado_em}) há mais de {@code votacao.reconciliacao.margem-confirmacao}. Uma
+ * transação aberta por mais que a margem ainda pode confirmar um id abaixo da marca, por isso o
+ * encerramento não confia na marca e conta a pauta inteira.
+ */
+@Component
+public class ReconciliadorContagem {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReconciliadorContagem.class);
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final VotoRepository votoRepository;
+    private final ContadorVotos contadorVotos;
+    private final ReconciliacaoProperties reconciliacaoProperties;
+    private final SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    private final Map<Long, TotaisVotos> divergenciasAnteriores = new ConcurrentHashMap<>();
+
+    public ReconciliadorContagem(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                 VotoRepository votoRepository,
+                                 ContadorVotos contadorVotos,
+                                 ReconciliacaoProperties reconciliacaoProperties,
+                                 SessaoTallySlotRepository sessaoTallySlotRepository) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.votoRepository = votoRepository;
+        this.contadorVotos = contadorVotos;
+        this.reconciliacaoProperties = reconciliacaoProperties;
+        this.sessaoTallySlotRepository = sessaoTallySlotRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.reconciliacao.intervalo-ms:60000}")
+    @SchedulerLock(
+            name = "reconciliarContagens",
+            lockAtMostFor = "5m",
+            lockAtLeastFor = "5s"
+    )
+    public void reconciliar() {
+        // Votos mais recentes que a margem podem pertencer a transações ainda não confirmadas
+        long margemMicros = TimeUnit.NANOSECONDS.toMicros(reconciliacaoProperties.margemConfirmacao().toNanos());
+        List<SessaoVotacao> abertas = sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA);
+
+        for (SessaoVotacao sessao : abertas) {
+            try {
+                reconciliar(sessao, margemMicros);
+            } catch (Exception e) {
+                LOGGER.error("Erro ao reconciliar contadores da sessão {}: {}", sessao.getId(), e.getMessage(), e);
+            }
+        }
+
+        Set<Long> ids = abertas.stream().map(SessaoVotacao::getId).collect(Collectors.toSet());
+        divergenciasAnteriores.keySet().retainAll(ids);
+    }
+
+    /**
+     * Última passada, executada no encerramento: conta todos os votos da pauta (ou soma os slots,
+     * quando a sessão os usa) e devolve os totais exatos, já gravados na sessão (que deve estar
+     * gerenciada pela transação do chamador).
+     */
+    public TotaisVotos reconciliarFinal(SessaoVotacao sessao) {
+        TotaisVotos exatos = apurarFinal(sessao);
+
+        try {
+            conferirFinal(sessao, contadorVotos.ler(sessao.getId(), sessao.getShardsContador()));
+        } catch (Exception redisEx) {
+            LOGGER.warn("Não foi possível comparar os contadores Redis da sessão {}: {}",
+                    sessao.getId(), redisEx.getMessage());
+        }
+
+        return exatos;
+    }
+
+    /**
+     * Como {@link #reconciliarFinal(SessaoVotacao)}, sem ler o Redis: no encerramento em lote os
+     * contadores de todas as sessões são lidos juntos e comparados com {@link #conferirFinal}.
+     */
+    public TotaisVotos apurarFinal(SessaoVotacao sessao) {
+        TotaisVotos exatos;
+        if (sessao.getSlotsContagem() > 0) {
+            exatos = sessaoTallySlotRepository.totais(sessao.getId());
+        } else {
+            // No encerramento a contagem é sempre completa, não incremental a partir da marca: um voto com id
+            // abaixo dela pode ter confirmado depois que a marca passou, e só o resultado final não tolera perdê-lo
+            List<ContagemPorValor> todos = votoRepository.contarPorValor(sessao.getPauta().getId());
+            exatos = totais(todos);
+            sessao.setVotoIdReconciliado(maiorId(todos, sessao.getVotoIdReconciliado()));
+        }
+        sessao.setReconciliadoSim(exatos.sim());
+        sessao.setReconciliadoNao(exatos.nao());
+        divergenciasAnteriores.remove(sessao.getId());
+        return exatos;
+    }
+
+    /**
+     * Registra a divergência entre os contadores Redis e os totais apurados, sem corrigir: a sessão
+     * está sendo encerrada e os contadores serão removidos.
+     */
+    public void conferirFinal(SessaoVotacao sessao, TotaisVotos redis) {
+        TotaisVotos exatos = reconciliados(sessao);
+        if (!redis.equals(exatos)) {
+            LOGGER.warn("Contadores Redis da sessão {} divergiam do banco no encerramento: Redis {} - banco {}",
+                    sessao.getId(), redis, exatos);
+        }
+    }
+
+    void reconciliar(SessaoVotacao sessao, long margemMicros) {
+        if (sessao.getSlotsContagem() > 0) {
+            // Os slots são atualizados na transação de cada voto: a soma já é o total confirmado
+            corrigirDivergencia(sessao, sessaoTallySlotRepository.totais(sessao.getId()));
+            return;
+        }
+
+        Long pautaId = sessao.getPauta().getId();
+        long marca = sessao.getVotoIdReconciliado();
+        TotaisVotos reconciliados = reconciliados(sessao);
+
+        Long novaMarca = votoRepository.buscarMaiorIdConfirmado(pautaId, marca, margemMicros);
+        if (novaMarca != null) {
+            TotaisVotos novos = totais(votoRepository.contarPorValorEntre(pautaId, marca, novaMarca));
+            int atualizadas = sessaoVotacaoRepository.avancarReconciliacao(
+                    sessao.getId(), marca, novaMarca, novos.sim(), novos.nao());
+            if (atualizadas == 0) {
+                // Sessão encerrada ou marca avançada por outra execução nesse meio-tempo
+                return;
+            }
+            marca = novaMarca;
+            reconciliados = reconciliados.somar(novos);
+        }
+
+        TotaisVotos banco = reconciliados.somar(totais(votoRepository.contarPorValorApos(pautaId, marca)));
+        corrigirDivergencia(sessao, banco);
+    }
+
+    private void corrigirDivergencia(SessaoVotacao sessao, TotaisVotos banco) {
+        Long sessaoId = sessao.getId();
+        TotaisVotos divergencia = banco.menos(contadorVotos.ler(sessaoId, sessao.getShardsContador()));
+
+        if (divergencia.isZero()) {
+            divergenciasAnteriores.remove(sessaoId);
+            return;
+        }
+
+        TotaisVotos anterior = divergenciasAnteriores.put(sessaoId, divergencia);
+        if (!divergencia.equals(anterior)) {
+            LOGGER.debug("Sessão {}: divergência {} entre banco e Redis - aguardando confirmação", sessaoId, divergencia);
+            return;
+        }
+
+        contadorVotos.ajustar(sessaoId, divergencia);
+        divergenciasAnteriores.remove(sessaoId);
+        LOGGER.warn("Contadores Redis da sessão {} corrigidos em {}", sessaoId, divergencia);
+    }
+
+    private static TotaisVotos reconciliados(SessaoVotacao sessao) {
+        return new TotaisVotos(sessao.getReconciliadoSim(), sessao.getReconciliadoNao());
+    }
+
+    private static TotaisVotos totais(List<ContagemPorValor> contagens) {
+        long sim = 0L;
+        long nao = 0L;
+        for (ContagemPorValor contagem : contagens) {
+            if (contagem.getValor() == VotoValor.SIM) {
+                sim += contagem.getTotal();
+            } else {
+                nao += contagem.getTotal();
+            }
+        }
+        return new TotaisVotos(sim, nao);
+    }
+
+    private static long maiorId(List<ContagemPorValor> contagens, long atual) {
+        return contagens.stream().mapToLong(ContagemPorValor::getMaiorId).reduce(atual, Math::max);
+    }
+}
@@ -0,0 +1,184 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.AptosProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Listas de aptos por pauta, carregadas antes da assembleia. Cada lista vira um arquivo
+ * {@code pauta-{id}.aptos} em {@code votacao.aptos.diretorio}, gravado por inteiro em um arquivo
+ * temporário e movido no lugar do anterior; cada nó mapeia o arquivo em memória e troca o índice
+ * sem reinício. Com o diretório compartilhado, os outros nós recebem a nova lista na próxima varredura.
+ */
+@Component
+public class RegistroAptos {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistroAptos.class);
+    private static final Pattern ARQUIVO = Pattern.compile("pauta-(\\d+)\\.aptos");
+
+    private final AptosProperties aptosProperties;
+    private final Path diretorio;
+    private final Map<Long, Carregado> porPauta = new ConcurrentHashMap<>();
+    // Serializa gravações e varreduras; consultas não passam por aqui
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public RegistroAptos(AptosProperties aptosProperties) {
+        this.aptosProperties = aptosProperties;
+        this.diretorio = Paths.get(aptosProperties.diretorio());
+    }
+
+    public Situacao consultar(Long pautaId, String cpf) {
+        Carregado carregado = porPauta.get(pautaId);
+        if (carregado == null) {
+            return Situacao.SEM_LISTA;
+        }
+        long valor = IndiceAptos.converter(cpf);
+        return valor >= 0 && carregado.indice().contem(valor) ? Situacao.APTO : Situacao.NAO_APTO;
+    }
+
+    /**
+     * Lê uma lista de CPFs (um por linha; linhas vazias ou iniciadas por # são ignoradas) e substitui
+     * a lista da pauta.
+     */
+    public Carga carregar(Long pautaId, InputStream conteudo) throws IOException {
+        long[] cpfs = new long[1024];
+        int total = 0;
+        int ignoradas = 0;
+
+        BufferedReader leitor = new BufferedReader(new InputStreamReader(conteudo, StandardCharsets.UTF_8));
+        String linha;
+        while ((linha = leitor.readLine()) != null) {
+            String texto = linha.strip();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            long cpf = IndiceAptos.converter(texto);
+            if (cpf < 0) {
+                ignoradas++;
+                continue;
+            }
+            if (total == cpfs.length) {
+                cpfs = Arrays.copyOf(cpfs, total * 2);
+            }
+            cpfs[total++] = cpf;
+        }
+
+        Arrays.sort(cpfs, 0, total);
+        int unicos = 0;
+        for (int i = 0; i < total; i++) {
+            if (unicos == 0 || cpfs[i] != cpfs[unicos - 1]) {
+                cpfs[unicos++] = cpfs[i];
+            }
+        }
+
+        lock.lock();
+        try {
+            Files.createDirectories(diretorio);
+            Path destino = arquivo(pautaId);
+            Path temporario = Files.createTempFile(diretorio, "pauta-" + pautaId + "-", ".tmp");
+            try {
+                IndiceAptos.gravar(temporario, cpfs, unicos);
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+            abrir(pautaId, destino);
+        } finally {
+            lock.unlock();
+        }
+
+        LOGGER.info("Lista de aptos da pauta {} carregada: {} CPFs, {} linhas ignoradas", pautaId, unicos, ignoradas);
+        return new Carga(unicos, ignoradas);
+    }
+
+    public boolean remover(Long pautaId) throws IOException {
+        lock.lock();
+        try {
+            porPauta.remove(pautaId);
+            return Files.deleteIfExists(arquivo(pautaId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${votacao.aptos.verificacao-ms:30000}")
+    public void varrer() {
+        if (!Files.isDirectory(diretorio)) {
+            return;
+        }
+
+        lock.lock();
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, "pauta-*.aptos")) {
+            Set<Long> encontradas = new HashSet<>();
+            for (Path arquivo : arquivos) {
+                Matcher matcher = ARQUIVO.matcher(arquivo.getFileName().toString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                Long pautaId = Long.valueOf(matcher.group(1));
+                encontradas.add(pautaId);
+                Carregado atual = porPauta.get(pautaId);
+                if (atual == null || !atual.modificadoEm().equals(Files.getLastModifiedTime(arquivo))) {
+                    try {
+                        abrir(pautaId, arquivo);
+                    } catch (IOException e) {
+                        LOGGER.error("Erro ao carregar lista de aptos {}: {}", arquivo, e.getMessage());
+                    }
+                }
+            }
+            porPauta.keySet().retainAll(encontradas);
+        } catch (IOException e) {
+            LOGGER.error("Erro ao varrer o diretório de aptos {}: {}", diretorio, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void abrir(Long pautaId, Path arquivo) throws IOException {
+        FileTime modificadoEm = Files.getLastModifiedTime(arquivo);
+        IndiceAptos indice = IndiceAptos.abrir(arquivo, aptosProperties.bitsBloomPorCpf());
+        // O mapeamento anterior é liberado pelo GC quando a última consulta em andamento terminar
+        porPauta.put(pautaId, new Carregado(indice, modificadoEm));
+        LOGGER.debug("Índice de aptos da pauta {} mapeado ({} CPFs)", pautaId, indice.total());
+    }
+
+    private Path arquivo(Long pautaId) {
+        return diretorio.resolve("pauta-" + pautaId + ".aptos");
+    }
+
+    public enum Situacao {
+        SEM_LISTA,
+        APTO,
+        NAO_APTO
+    }
+
+    public record Carga(int total, int ignoradas) {
+    }
+
+    private record Carregado(IndiceAptos indice, FileTime modificadoEm) {
+    }
+}
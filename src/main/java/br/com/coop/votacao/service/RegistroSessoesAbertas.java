@@ -0,0 +1,244 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cópia em memória das sessões abertas (pautaId → sessão) mantida em cada nó, para que a
+ * admissão de um voto não precise consultar Redis nem MySQL. Alterações são publicadas via
+ * Redis pub/sub com uma versão global; ao detectar uma lacuna de versão o nó recarrega tudo do banco.
+ */
+@Component
+public class RegistroSessoesAbertas implements MessageListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegistroSessoesAbertas.class);
+    static final String CANAL = "votacao:sessoes:eventos";
+    static final String VERSAO_KEY = "votacao:sessoes:versao";
+
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> publicarVersionadoScript;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CacheResultados cacheResultados;
+
+    private final Map<Long, SessaoAberta> porPauta = new ConcurrentHashMap<>();
+    // ReentrantLock em vez de synchronized: a recarga faz I/O no banco e não deve fixar a thread
+    // portadora quando executada em virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private long versao = -1L;
+
+    public RegistroSessoesAbertas(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                  StringRedisTemplate redisTemplate,
+                                  DefaultRedisScript<Long> publicarVersionadoScript,
+                                  RedisMessageListenerContainer redisMessageListenerContainer,
+                                  CacheResultados cacheResultados) {
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.redisTemplate = redisTemplate;
+        this.publicarVersionadoScript = publicarVersionadoScript;
+        this.redisMessageListenerContainer = redisMessageListenerContainer;
+        this.cacheResultados = cacheResultados;
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CANAL));
+    }
+
+    public Optional<SessaoAberta> buscar(Long pautaId) {
+        return Optional.ofNullable(porPauta.get(pautaId));
+    }
+
+    public void registrarAbertura(SessaoVotacao sessao) {
+        SessaoAberta aberta = SessaoAberta.de(sessao);
+        aposCommit(() -> {
+            porPauta.put(aberta.pautaId(), aberta);
+            cacheResultados.registrarAbertura(aberta.pautaId(), aberta.sessaoId());
+            publicar("A:" + aberta.pautaId() + ":" + aberta.sessaoId() + ":"
+                    + aberta.inicio().toEpochMilli() + ":" + aberta.fim().toEpochMilli() + ":" + aberta.shardsContador()
+                    + ":" + aberta.slotsContagem());
+        });
+    }
+
+    public void registrarEncerramento(SessaoVotacao sessao) {
+        Long pautaId = sessao.getPauta().getId();
+        Long sessaoId = sessao.getId();
+        aposCommit(() -> {
+            remover(pautaId, sessaoId);
+            publicar("E:" + pautaId + ":" + sessaoId);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        assinar();
+        ressincronizar();
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.sessoes.verificacao-versao-ms:30000}")
+    public void verificarVersao() {
+        if (!redisMessageListenerContainer.isListening()) {
+            assinar();
+        }
+        long versaoRemota = versaoRemota();
+        if (versaoRemota >= 0 && versaoRemota != versaoLocal()) {
+            LOGGER.info("Versão local {} difere da versão {} no Redis - recarregando sessões abertas",
+                    versaoLocal(), versaoRemota);
+            ressincronizar();
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] partes = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+
+        try {
+            long versaoMensagem = Long.parseLong(partes[0]);
+            lock.lock();
+            try {
+                if (versaoMensagem <= versao) {
+                    return;
+                }
+                if (versaoMensagem != versao + 1) {
+                    LOGGER.warn("Lacuna de versão nas sessões abertas (local {}, recebida {})", versao, versaoMensagem);
+                    ressincronizar();
+                    return;
+                }
+                aplicar(partes);
+                versao = versaoMensagem;
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Mensagem de sessão inválida: {}", new String(message.getBody(), StandardCharsets.UTF_8), e);
+            ressincronizar();
+        }
+    }
+
+    public void ressincronizar() {
+        lock.lock();
+        try {
+            long versaoRemota = versaoRemota();
+
+            Map<Long, SessaoAberta> abertas = sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA).stream()
+                    .map(SessaoAberta::de)
+                    .collect(Collectors.toMap(SessaoAberta::pautaId, Function.identity(), (a, b) -> b));
+
+            porPauta.keySet().retainAll(abertas.keySet());
+            porPauta.putAll(abertas);
+            // Cobre aberturas cujo aviso se perdeu: o resultado anterior dessas pautas deixa de valer
+            abertas.values().forEach(aberta -> cacheResultados.marcarAbertura(aberta.pautaId(), aberta.sessaoId()));
+            versao = versaoRemota;
+
+            LOGGER.info("{} sessões abertas carregadas (versão {})", abertas.size(), versaoRemota);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long versaoLocal() {
+        lock.lock();
+        try {
+            return versao;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void aplicar(String[] partes) {
+        Long pautaId = Long.valueOf(partes[2]);
+        Long sessaoId = Long.valueOf(partes[3]);
+
+        if ("A".equals(partes[1])) {
+            cacheResultados.marcarAbertura(pautaId, sessaoId);
+            if (partes.length < 8) {
+                // Mensagem de um nó de versão anterior, sem shards e slots: a sessão segue pelo caminho do banco
+                remover(pautaId, sessaoId);
+                return;
+            }
+            porPauta.put(pautaId, new SessaoAberta(sessaoId, pautaId,
+                    Instant.ofEpochMilli(Long.parseLong(partes[4])), Instant.ofEpochMilli(Long.parseLong(partes[5])),
+                    Integer.parseInt(partes[6]), Integer.parseInt(partes[7])));
+        } else {
+            remover(pautaId, sessaoId);
+        }
+    }
+
+    private void assinar() {
+        try {
+            redisMessageListenerContainer.start();
+        } catch (Exception redisEx) {
+            // Sem assinatura o registro segue atualizado apenas pela verificação periódica de versão
+            LOGGER.warn("Não foi possível assinar o canal {}: {}", CANAL, redisEx.getMessage());
+            redisMessageListenerContainer.stop();
+        }
+    }
+
+    private void remover(Long pautaId, Long sessaoId) {
+        porPauta.computeIfPresent(pautaId, (id, atual) -> atual.sessaoId().equals(sessaoId) ? null : atual);
+    }
+
+    private void publicar(String evento) {
+        try {
+            redisTemplate.execute(publicarVersionadoScript, List.of(VERSAO_KEY), CANAL, evento);
+        } catch (Exception redisEx) {
+            LOGGER.warn("Erro ao publicar alteração de sessão {}: {}", evento, redisEx.getMessage());
+        }
+    }
+
+    private long versaoRemota() {
+        try {
+            String valor = redisTemplate.opsForValue().get(VERSAO_KEY);
+            return valor != null ? Long.parseLong(valor) : 0L;
+        } catch (Exception redisEx) {
+            LOGGER.warn("Não foi possível ler a versão das sessões abertas no Redis: {}", redisEx.getMessage());
+            return -1L;
+        }
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    public record SessaoAberta(Long sessaoId, Long pautaId, Instant inicio, Instant fim,
+                               int shardsContador, int slotsContagem) {
+
+        static SessaoAberta de(SessaoVotacao sessao) {
+            return new SessaoAberta(sessao.getId(), sessao.getPauta().getId(), sessao.getInicio(), sessao.getFim(),
+                    sessao.getShardsContador(), sessao.getSlotsContagem());
+        }
+
+        public boolean abertaEm(Instant momento) {
+            return !momento.isBefore(inicio) && !momento.isAfter(fim);
+        }
+    }
+}
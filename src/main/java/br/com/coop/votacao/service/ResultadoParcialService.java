@@ -0,0 +1,147 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.api.dto.ResultadoParcialResponse;
+import br.com.coop.votacao.config.ResultadosProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.exception.ServicoIndisponivelException;
+import br.com.coop.votacao.service.CacheResultados.ResultadoEncerrado;
+import br.com.coop.votacao.service.RegistroSessoesAbertas.SessaoAberta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Totais parciais de uma sessão aberta lidos dos contadores Redis. Cada nó lê os contadores de
+ * uma sessão no máximo uma vez por {@code votacao.resultados.intervalo-parcial}, por mais
+ * requisições que cheguem; se o Redis falhar, a última leitura é servida enquanto for mais nova
+ * que {@code votacao.resultados.defasagem-maxima-parcial}.
+ */
+@Service
+public class ResultadoParcialService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultadoParcialService.class);
+
+    private final RegistroSessoesAbertas registroSessoesAbertas;
+    private final SessaoVotacaoService sessaoVotacaoService;
+    private final CacheResultados cacheResultados;
+    private final ContadorVotos contadorVotos;
+    private final ResultadosProperties resultadosProperties;
+
+    private final Map<Long, Controle> leituras = new ConcurrentHashMap<>();
+
+    public ResultadoParcialService(RegistroSessoesAbertas registroSessoesAbertas,
+                                   SessaoVotacaoService sessaoVotacaoService,
+                                   CacheResultados cacheResultados,
+                                   ContadorVotos contadorVotos,
+                                   ResultadosProperties resultadosProperties) {
+        this.registroSessoesAbertas = registroSessoesAbertas;
+        this.sessaoVotacaoService = sessaoVotacaoService;
+        this.cacheResultados = cacheResultados;
+        this.contadorVotos = contadorVotos;
+        this.resultadosProperties = resultadosProperties;
+    }
+
+    public Parcial parcial(Long pautaId) {
+        Optional<ResultadoEncerrado> encerrado = cacheResultados.buscar(pautaId);
+        if (encerrado.isPresent()) {
+            return definitivo(pautaId, encerrado.get());
+        }
+
+        SessaoAberta sessao = registroSessoesAbertas.buscar(pautaId).orElse(null);
+        if (sessao == null) {
+            SessaoVotacao registrada = sessaoVotacaoService.resultado(pautaId);
+            if (registrada.getStatus() == SessaoStatus.ENCERRADA) {
+                cacheResultados.registrar(registrada);
+                return definitivo(pautaId, new ResultadoEncerrado(registrada.getId(),
+                        registrada.getTotalSim(), registrada.getTotalNao()));
+            }
+            sessao = SessaoAberta.de(registrada);
+        }
+
+        Leitura leitura = ler(sessao);
+        return new Parcial(pautaId, sessao.sessaoId(), SessaoStatus.ABERTA, leitura.totais(), true, leitura.lidaEm());
+    }
+
+    private Leitura ler(SessaoAberta sessao) {
+        Controle controle = leituras.computeIfAbsent(sessao.sessaoId(), id -> new Controle());
+        Leitura atual = controle.leitura;
+        if (atual != null && recente(atual, resultadosProperties.intervaloParcial())) {
+            return atual;
+        }
+
+        // Uma leitura por sessão de cada vez: quem chega durante a leitura recebe o mesmo resultado
+        controle.lock.lock();
+        try {
+            atual = controle.leitura;
+            if (atual != null && recente(atual, resultadosProperties.intervaloParcial())) {
+                return atual;
+            }
+
+            try {
+                Leitura nova = new Leitura(contadorVotos.ler(sessao.sessaoId(), sessao.shardsContador()), Instant.now());
+                controle.leitura = nova;
+                return nova;
+            } catch (Exception redisEx) {
+                if (atual != null && recente(atual, resultadosProperties.defasagemMaximaParcial())) {
+                    LOGGER.warn("Contadores da sessão {} indisponíveis, servindo leitura de {}: {}",
+                            sessao.sessaoId(), atual.lidaEm(), redisEx.getMessage());
+                    return atual;
+                }
+                throw new ServicoIndisponivelException(
+                        "Resultado parcial da sessão " + sessao.sessaoId() + " temporariamente indisponível", redisEx);
+            }
+        } finally {
+            controle.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${votacao.resultados.limpeza-parcial-ms:60000}")
+    public void descartarLeiturasAntigas() {
+        // Sessões que ninguém consulta há mais que a defasagem máxima (em geral já encerradas)
+        leituras.values().removeIf(controle -> controle.leitura != null
+                && !recente(controle.leitura, resultadosProperties.defasagemMaximaParcial()));
+    }
+
+    private Parcial definitivo(Long pautaId, ResultadoEncerrado encerrado) {
+        leituras.remove(encerrado.sessaoId());
+        return new Parcial(pautaId, encerrado.sessaoId(), SessaoStatus.ENCERRADA,
+                new TotaisVotos(encerrado.totalSim(), encerrado.totalNao()), false, Instant.now());
+    }
+
+    private static boolean recente(Leitura leitura, Duration validade) {
+        return leitura.lidaEm().plus(validade).isAfter(Instant.now());
+    }
+
+    public record Parcial(Long pautaId, Long sessaoId, SessaoStatus status, TotaisVotos totais,
+                          boolean provisorio, Instant atualizadoEm) {
+
+        public ResultadoParcialResponse toResponse() {
+            ResultadoParcialResponse resp = new ResultadoParcialResponse();
+            resp.setPautaId(pautaId);
+            resp.setSessaoId(sessaoId);
+            resp.setStatus(status);
+            resp.setTotalSim(totais.sim());
+            resp.setTotalNao(totais.nao());
+            resp.setProvisorio(provisorio);
+            resp.setAtualizadoEm(atualizadoEm);
+            return resp;
+        }
+    }
+
+    private record Leitura(TotaisVotos totais, Instant lidaEm) {
+    }
+
+    private static final class Controle {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile Leitura leitura;
+    }
+}
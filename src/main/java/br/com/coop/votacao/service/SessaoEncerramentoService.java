@@ -1,90 +1,185 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.IngestaoProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
-import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.domain.TotaisVotos;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.messaging.ResultadoPautaEvent;
-import br.com.coop.votacao.messaging.ResultadoPautaProducer;
+import br.com.coop.votacao.messaging.OutboxResultados;
+import br.com.coop.votacao.messaging.VotoStreamProducer;
+import br.com.coop.votacao.repository.SessaoEncerramentoRepository;
 import br.com.coop.votacao.repository.SessaoVotacaoRepository;
-import br.com.coop.votacao.repository.VotoRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class SessaoEncerramentoService {
     private static final Logger LOGGER = LoggerFactory.getLogger(SessaoEncerramentoService.class);
-    private static final String KEY_PREFIX = "votacao:sessao:";
 
     private final SessaoVotacaoRepository sessaoVotacaoRepository;
-    private final VotoRepository votoRepository;
     private final StringRedisTemplate redisTemplate;
-    private final ResultadoPautaProducer resultadoPautaProducer;
+    private final OutboxResultados outboxResultados;
+    private final VotoStreamProducer votoStreamProducer;
+    private final IngestaoProperties ingestaoProperties;
+    private final RegistroSessoesAbertas registroSessoesAbertas;
+    private final ContadorVotos contadorVotos;
+    private final ReconciliadorContagem reconciliadorContagem;
+    private final TransmissaoResultados transmissaoResultados;
+    private final SessaoEncerramentoRepository sessaoEncerramentoRepository;
+    private final TransactionTemplate transactionTemplate;
 
     public SessaoEncerramentoService(SessaoVotacaoRepository sessaoVotacaoRepository,
-                                     VotoRepository votoRepository,
                                      StringRedisTemplate redisTemplate,
-                                     ResultadoPautaProducer resultadoPautaProducer) {
+                                     OutboxResultados outboxResultados,
+                                     VotoStreamProducer votoStreamProducer,
+                                     IngestaoProperties ingestaoProperties,
+                                     RegistroSessoesAbertas registroSessoesAbertas,
+                                     ContadorVotos contadorVotos,
+                                     ReconciliadorContagem reconciliadorContagem,
+                                     TransmissaoResultados transmissaoResultados,
+                                     SessaoEncerramentoRepository sessaoEncerramentoRepository,
+                                     TransactionTemplate transactionTemplate) {
         this.sessaoVotacaoRepository = sessaoVotacaoRepository;
-        this.votoRepository = votoRepository;
         this.redisTemplate = redisTemplate;
-        this.resultadoPautaProducer = resultadoPautaProducer;
+        this.outboxResultados = outboxResultados;
+        this.votoStreamProducer = votoStreamProducer;
+        this.ingestaoProperties = ingestaoProperties;
+        this.registroSessoesAbertas = registroSessoesAbertas;
+        this.contadorVotos = contadorVotos;
+        this.reconciliadorContagem = reconciliadorContagem;
+        this.transmissaoResultados = transmissaoResultados;
+        this.sessaoEncerramentoRepository = sessaoEncerramentoRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
-    public void encerrar(SessaoVotacao sessao) {
-        String simKey = KEY_PREFIX + sessao.getId() + ":sim";
-        String naoKey = KEY_PREFIX + sessao.getId() + ":nao";
-
-        long totalSim = 0L;
-        long totalNao = 0L;
-
-        try {
-            List<String> valores = redisTemplate.opsForValue().multiGet(List.of(simKey, naoKey));
+    /**
+     * Encerra a sessão se ela ainda estiver aberta. A linha fica travada até o commit, então o
+     * temporizador e a varredura de segurança, em nós diferentes, não encerram a mesma sessão duas vezes.
+     * A espera pelos votos em trânsito acontece antes da transação, sem ocupar conexão nem a trava.
+     *
+     * @return a sessão encerrada, ou vazio se ela não existe ou já estava encerrada
+     */
+    public Optional<SessaoVotacao> encerrarPorId(Long sessaoId) {
+        boolean aberta = sessaoVotacaoRepository.findById(sessaoId)
+                .filter(s -> s.getStatus() == SessaoStatus.ABERTA)
+                .isPresent();
+        if (!aberta) {
+            return Optional.empty();
+        }
 
-            if (valores != null) {
-                totalSim = valores.get(0) != null ? Long.parseLong(valores.get(0)) : 0L;
-                totalNao = valores.get(1) != null ? Long.parseLong(valores.get(1)) : 0L;
-                LOGGER.info("Contador Redis: totalSim {} - totalNao {}", totalSim, totalNao);
-            }
+        aguardarVotosPendentes(sessaoId);
 
-            if (totalSim == 0 && totalNao == 0) {
-                LOGGER.warn("Contadores zerados para sessão {} - verificando DB", sessao.getId());
-                totalSim = votoRepository.countByPautaIdAndValor(sessao.getPauta().getId(), VotoValor.SIM);
-                totalNao = votoRepository.countByPautaIdAndValor(sessao.getPauta().getId(), VotoValor.NAO);
-            }
+        return transactionTemplate.execute(status -> {
+            Optional<SessaoVotacao> sessao = sessaoVotacaoRepository.buscarParaEncerramento(sessaoId)
+                    .filter(s -> s.getStatus() == SessaoStatus.ABERTA);
+            sessao.ifPresent(this::fechar);
+            return sessao;
+        });
+    }
 
-        } catch (Exception redisEx) {
-            LOGGER.error("Erro ao buscar contadores do Redis para sessão {}: {}",
-                    sessao.getId(), redisEx.getMessage(), redisEx);
-
-            totalSim = votoRepository.countByPautaIdAndValor(sessao.getPauta().getId(), VotoValor.SIM);
-            totalNao = votoRepository.countByPautaIdAndValor(sessao.getPauta().getId(), VotoValor.NAO);
-        }
+    private void fechar(SessaoVotacao sessao) {
+        TotaisVotos totais = reconciliadorContagem.reconciliarFinal(sessao);
+        long totalSim = totais.sim();
+        long totalNao = totais.nao();
 
         sessao.setStatus(SessaoStatus.ENCERRADA);
         sessao.setTotalSim(totalSim);
         sessao.setTotalNao(totalNao);
 
         sessaoVotacaoRepository.save(sessao);
+        registroSessoesAbertas.registrarEncerramento(sessao);
+        transmissaoResultados.encerrarAposCommit(sessao);
 
         ResultadoPautaEvent event = PautaService.getResultadoPautaEvent(sessao, totalSim, totalNao);
 
-        resultadoPautaProducer.publicar(event);
+        outboxResultados.registrar(List.of(event));
 
-        try {
-            redisTemplate.delete(List.of(simKey, naoKey));
-            LOGGER.debug("Contadores da sessão {} removidos do Redis", sessao.getId());
-        } catch (Exception redisEx) {
-            LOGGER.warn("Erro ao remover contadores do Redis para sessão {}: {}",
-                    sessao.getId(), redisEx.getMessage());
-        }
+        removerChaves(List.of(sessao));
 
         LOGGER.info("Sessão {} da pauta {} encerrada. Sim: {}, Não: {}, Resultado: {}",
                 sessao.getId(), sessao.getPauta().getId(), totalSim, totalNao, event.getResultado());
     }
+
+    /**
+     * Primeira etapa do encerramento em lote, sem transação e sem travar a linha: aguarda os votos
+     * ainda em trânsito e grava na entidade os totais exatos. Pode rodar em paralelo para várias sessões.
+     */
+    public void apurar(SessaoVotacao sessao) {
+        aguardarVotosPendentes(sessao.getId());
+
+        TotaisVotos totais = reconciliadorContagem.apurarFinal(sessao);
+        sessao.setTotalSim(totais.sim());
+        sessao.setTotalNao(totais.nao());
+    }
+
+    /**
+     * Encerra, em uma transação, as sessões apuradas por {@link #apurar} que ainda estão abertas:
+     * trava as linhas, grava todas com um único UPDATE e registra os resultados no outbox.
+     * Sessões encerradas nesse meio-tempo por outro nó são ignoradas.
+     *
+     * @return as sessões encerradas por esta chamada
+     */
+    @Transactional
+    public List<SessaoVotacao> encerrarApuradas(List<SessaoVotacao> apuradas) {
+        Set<Long> abertas = new HashSet<>(sessaoEncerramentoRepository.travarAbertas(
+                apuradas.stream().map(SessaoVotacao::getId).toList()));
+        List<SessaoVotacao> encerradas = apuradas.stream()
+                .filter(sessao -> abertas.contains(sessao.getId()))
+                .toList();
+        if (encerradas.isEmpty()) {
+            return encerradas;
+        }
+
+        sessaoEncerramentoRepository.encerrar(encerradas);
+
+        List<ResultadoPautaEvent> eventos = new ArrayList<>(encerradas.size());
+        for (SessaoVotacao sessao : encerradas) {
+            sessao.setStatus(SessaoStatus.ENCERRADA);
+            registroSessoesAbertas.registrarEncerramento(sessao);
+            transmissaoResultados.encerrarAposCommit(sessao);
+            eventos.add(PautaService.getResultadoPautaEvent(sessao, sessao.getTotalSim(), sessao.getTotalNao()));
+        }
+        outboxResultados.registrar(eventos);
+
+        removerChaves(encerradas);
+
+        for (ResultadoPautaEvent event : eventos) {
+            LOGGER.info("Sessão {} da pauta {} encerrada. Sim: {}, Não: {}, Resultado: {}",
+                    event.getSessaoId(), event.getPautaId(), event.getTotalSim(), event.getTotalNao(), event.getResultado());
+        }
+        return encerradas;
+    }
+
+    private void aguardarVotosPendentes(Long sessaoId) {
+        if (ingestaoProperties.isStream()) {
+            votoStreamProducer.aguardarDrenagem(sessaoId);
+        }
+
+        contadorVotos.descarregarCluster(sessaoId);
+    }
+
+    private void removerChaves(List<SessaoVotacao> sessoes) {
+        try {
+            List<String> chaves = new ArrayList<>();
+            for (SessaoVotacao sessao : sessoes) {
+                chaves.addAll(ContadorVotos.chaves(sessao.getId(), sessao.getShardsContador()));
+                chaves.add(FiltroVotoDuplicado.chave(sessao.getId()));
+            }
+            redisTemplate.delete(chaves);
+            LOGGER.debug("Contadores de {} sessões removidos do Redis", sessoes.size());
+        } catch (Exception redisEx) {
+            LOGGER.warn("Erro ao remover contadores do Redis para sessões {}: {}",
+                    sessoes.stream().map(SessaoVotacao::getId).toList(), redisEx.getMessage());
+        }
+    }
 }
@@ -1,9 +1,11 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.EncerramentoProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.repository.SessaoVotacaoRepository;
-import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -13,43 +15,68 @@ import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * Rede de segurança do {@link TemporizadorEncerramento}: encerra as sessões vencidas que o
+ * temporizador perdeu (Redis fora no agendamento, nó derrubado no meio de um encerramento).
+ * Executa em todos os nós, cada um com as sessões das partições que o {@link MembrosEncerramento}
+ * lhe atribui, em vez de um único nó com o lock.
+ */
 @Component
 @EnableScheduling
 public class SessaoVotacaoScheduler {
     private static final Logger LOGGER = LoggerFactory.getLogger(SessaoVotacaoScheduler.class);
 
     private final SessaoVotacaoRepository sessaoVotacaoRepository;
-    private final SessaoEncerramentoService sessaoEncerramentoService;
+    private final EncerramentoLote encerramentoLote;
+    private final MembrosEncerramento membrosEncerramento;
+    private final AgendaEncerramentos agendaEncerramentos;
+    private final EncerramentoProperties encerramentoProperties;
+    private final Timer atraso;
 
     public SessaoVotacaoScheduler(SessaoVotacaoRepository sessaoVotacaoRepository,
-                                  SessaoEncerramentoService sessaoEncerramentoService) {
+                                  EncerramentoLote encerramentoLote,
+                                  MembrosEncerramento membrosEncerramento,
+                                  AgendaEncerramentos agendaEncerramentos,
+                                  EncerramentoProperties encerramentoProperties,
+                                  MeterRegistry meterRegistry) {
         this.sessaoVotacaoRepository = sessaoVotacaoRepository;
-        this.sessaoEncerramentoService = sessaoEncerramentoService;
+        this.encerramentoLote = encerramentoLote;
+        this.membrosEncerramento = membrosEncerramento;
+        this.agendaEncerramentos = agendaEncerramentos;
+        this.encerramentoProperties = encerramentoProperties;
+        this.atraso = TemporizadorEncerramento.atraso(meterRegistry, "varredura");
     }
 
-    @Scheduled(fixedDelay = 9_000)
-    @SchedulerLock(
-            name = "encerrarSessoesExpiradas",
-            lockAtMostFor = "2m",
-            lockAtLeastFor = "2s"
-    )
+    @Scheduled(fixedDelayString = "${votacao.encerramento.intervalo-varredura-ms:60000}")
     public void encerrarSessoesExpiradas() {
+        migrarAgendaAnterior();
+
         Instant agora = Instant.now();
         List<SessaoVotacao> expiradas = sessaoVotacaoRepository
-                .findByStatusAndFimLessThanEqual(SessaoStatus.ABERTA, agora);
+                .findByStatusAndFimLessThanEqual(SessaoStatus.ABERTA, agora).stream()
+                .filter(sessao -> membrosEncerramento.responsavel(sessao.getId()))
+                .toList();
 
         if (expiradas.isEmpty()) {
             return;
         }
 
-        LOGGER.info("Encerrando {} sessões expiradas", expiradas.size());
+        LOGGER.info("Encerrando {} sessões expiradas não encerradas pelo temporizador", expiradas.size());
+
+        // Nenhum bloco começa após o orçamento, para a varredura não se sobrepor à seguinte; o que
+        // sobrar fica para a próxima execução
+        Instant prazo = agora.plus(encerramentoProperties.orcamentoVarredura());
+        for (SessaoVotacao encerrada : encerramentoLote.encerrar(expiradas, prazo)) {
+            TemporizadorEncerramento.registrarAtraso(atraso, encerrada);
+        }
+    }
 
-        for (SessaoVotacao sessao : expiradas) {
-            try {
-                sessaoEncerramentoService.encerrar(sessao);
-            } catch (Exception e) {
-                LOGGER.error("Erro ao encerrar sessão {}: {}", sessao.getId(), e.getMessage(), e);
-            }
+    // Nós antigos ainda gravam na agenda única durante a atualização
+    private void migrarAgendaAnterior() {
+        try {
+            agendaEncerramentos.migrarAgendaAnterior();
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível migrar a agenda de encerramento anterior: {}", e.getMessage());
         }
     }
 }
@@ -1,5 +1,6 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.ContagemProperties;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.SessaoVotacao;
@@ -19,14 +20,24 @@ public class SessaoVotacaoService {
 
     private final SessaoVotacaoRepository sessaoVotacaoRepository;
     private final PautaService pautaService;
-
-    public SessaoVotacaoService(SessaoVotacaoRepository sessaoVotacaoRepository, PautaService pautaService) {
+    private final RegistroSessoesAbertas registroSessoesAbertas;
+    private final ContagemProperties contagemProperties;
+    private final AgendaEncerramentos agendaEncerramentos;
+
+    public SessaoVotacaoService(SessaoVotacaoRepository sessaoVotacaoRepository,
+                                PautaService pautaService,
+                                RegistroSessoesAbertas registroSessoesAbertas,
+                                ContagemProperties contagemProperties,
+                                AgendaEncerramentos agendaEncerramentos) {
         this.sessaoVotacaoRepository = sessaoVotacaoRepository;
         this.pautaService = pautaService;
+        this.registroSessoesAbertas = registroSessoesAbertas;
+        this.contagemProperties = contagemProperties;
+        this.agendaEncerramentos = agendaEncerramentos;
     }
 
     @Transactional
-    public SessaoVotacao abrirSessao(Long pautaId, Long duracaoSegundos) {
+    public SessaoVotacao abrirSessao(Long pautaId, Long duracaoSegundos, Integer shardsContador) {
         Pauta pauta = pautaService.buscarPorId(pautaId);
 
         sessaoVotacaoRepository.findByPautaIdAndStatus(pautaId, SessaoStatus.ABERTA)
@@ -46,8 +57,13 @@ public class SessaoVotacaoService {
         sessao.setInicio(inicio);
         sessao.setFim(fim);
         sessao.setStatus(SessaoStatus.ABERTA);
+        sessao.setShardsContador(shardsContador != null ? shardsContador : contagemProperties.shardsPadrao());
+        sessao.setSlotsContagem(contagemProperties.slotsTabela());
 
-        return sessaoVotacaoRepository.save(sessao);
+        SessaoVotacao salva = sessaoVotacaoRepository.save(sessao);
+        registroSessoesAbertas.registrarAbertura(salva);
+        agendaEncerramentos.agendarAposCommit(salva);
+        return salva;
     }
 
     @Transactional(readOnly = true)
@@ -69,10 +85,12 @@ public class SessaoVotacaoService {
                 .orElseThrow(() -> new NotFoundException("Sessão de votação não encontrada: " + id));
     }
 
+    /**
+     * Última sessão da pauta, aberta ou encerrada: uma pauta reaberta mostra a sessão nova.
+     */
     public SessaoVotacao resultado(Long pautaId){
         return sessaoVotacaoRepository
-                .findByPautaIdAndStatus(pautaId, SessaoStatus.ENCERRADA)
-                .or(() -> sessaoVotacaoRepository.findByPautaIdAndStatus(pautaId, SessaoStatus.ABERTA))
+                .findFirstByPautaIdOrderByIdDesc(pautaId)
                 .orElseThrow(() -> new NotFoundException("Nenhuma sessão de votação encontrada para a pauta " + pautaId));
     }
 
@@ -0,0 +1,182 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Encerra cada sessão no instante do seu {@code fim}: dorme até o próximo fim nas partições da
+ * {@link AgendaEncerramentos} atribuídas a este nó pelo {@link MembrosEncerramento} (ou até
+ * {@code votacao.encerramento.espera-maxima}, para perceber sessões agendadas por outros nós) e
+ * encerra as vencidas que reivindicar. A varredura do banco em {@link SessaoVotacaoScheduler} fica
+ * como rede de segurança.
+ */
+@Component
+public class TemporizadorEncerramento implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemporizadorEncerramento.class);
+
+    private final AgendaEncerramentos agendaEncerramentos;
+    private final MembrosEncerramento membrosEncerramento;
+    private final EncerramentoLote encerramentoLote;
+    private final SessaoVotacaoRepository sessaoVotacaoRepository;
+    private final EncerramentoProperties encerramentoProperties;
+    private final Timer atraso;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public TemporizadorEncerramento(AgendaEncerramentos agendaEncerramentos,
+                                    MembrosEncerramento membrosEncerramento,
+                                    EncerramentoLote encerramentoLote,
+                                    SessaoVotacaoRepository sessaoVotacaoRepository,
+                                    EncerramentoProperties encerramentoProperties,
+                                    MeterRegistry meterRegistry) {
+        this.agendaEncerramentos = agendaEncerramentos;
+        this.membrosEncerramento = membrosEncerramento;
+        this.encerramentoLote = encerramentoLote;
+        this.sessaoVotacaoRepository = sessaoVotacaoRepository;
+        this.encerramentoProperties = encerramentoProperties;
+        this.atraso = atraso(meterRegistry, "temporizador");
+    }
+
+    /**
+     * Atraso do encerramento (agora - fim), exportado com histograma; registrado também pela varredura.
+     */
+    static Timer atraso(MeterRegistry meterRegistry, String origem) {
+        return Timer.builder("votacao.encerramento.atraso")
+                .description("Tempo entre o fim da sessão e o seu encerramento")
+                .tag("origem", origem)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static void registrarAtraso(Timer timer, SessaoVotacao sessao) {
+        Duration atraso = Duration.between(sessao.getFim(), Instant.now());
+        timer.record(atraso.isNegative() ? Duration.ZERO : atraso);
+    }
+
+    /**
+     * Agenda as sessões abertas no banco que não estejam na agenda (abertas com o Redis fora, ou
+     * antes deste temporizador existir).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarAgendamentos() {
+        try {
+            agendaEncerramentos.migrarAgendaAnterior();
+            agendaEncerramentos.agendarAusentes(sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA));
+        } catch (Exception e) {
+            LOGGER.warn("Não foi possível recuperar os agendamentos de encerramento: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::executar, "encerramento-sessoes");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        agendaEncerramentos.acordar();
+        if (worker != null) {
+            try {
+                worker.join(1_000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void executar() {
+        while (running) {
+            long espera;
+            try {
+                espera = executarCiclo();
+            } catch (Exception e) {
+                LOGGER.warn("Erro no temporizador de encerramento: {}", e.getMessage());
+                espera = encerramentoProperties.esperaMaxima().toMillis();
+            }
+
+            if (espera > 0) {
+                try {
+                    agendaEncerramentos.aguardar(espera);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Encerra as sessões vencidas e devolve quantos milissegundos esperar até o próximo ciclo.
+     */
+    long executarCiclo() {
+        int tamanhoLote = encerramentoProperties.tamanhoLote();
+        int[] particoes = membrosEncerramento.particoes();
+        List<Long> vencidas = agendaEncerramentos.reivindicar(particoes, System.currentTimeMillis(), tamanhoLote);
+        if (!vencidas.isEmpty()) {
+            encerrar(vencidas);
+        }
+        if (vencidas.size() >= tamanhoLote) {
+            return 0L;
+        }
+
+        long esperaMaxima = encerramentoProperties.esperaMaxima().toMillis();
+        Long proximoFim = agendaEncerramentos.proximoFim(particoes);
+        if (proximoFim == null) {
+            return esperaMaxima;
+        }
+        return Math.max(0L, Math.min(esperaMaxima, proximoFim - System.currentTimeMillis()));
+    }
+
+    private void encerrar(List<Long> sessaoIds) {
+        Set<Long> pendentes = new HashSet<>(sessaoIds);
+        try {
+            List<SessaoVotacao> abertas = sessaoVotacaoRepository.findAllById(sessaoIds).stream()
+                    .filter(sessao -> sessao.getStatus() == SessaoStatus.ABERTA)
+                    .toList();
+            pendentes.retainAll(abertas.stream().map(SessaoVotacao::getId).toList());
+
+            for (SessaoVotacao encerrada : encerramentoLote.encerrar(abertas, null)) {
+                registrarAtraso(atraso, encerrada);
+                pendentes.remove(encerrada.getId());
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erro ao encerrar sessões {}: {}", sessaoIds, e.getMessage(), e);
+        }
+
+        // Falhas voltam para a agenda; se outro nó as encerrou nesse meio-tempo, a nova tentativa não faz nada
+        long novaTentativa = System.currentTimeMillis() + encerramentoProperties.novaTentativa().toMillis();
+        for (Long sessaoId : pendentes) {
+            try {
+                agendaEncerramentos.reagendar(sessaoId, novaTentativa);
+            } catch (Exception redisEx) {
+                LOGGER.warn("Erro ao reagendar encerramento da sessão {}: {}", sessaoId, redisEx.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.TransmissaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.service.ResultadoParcialService.Parcial;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transmite os totais parciais de cada pauta por Server-Sent Events. Uma única tarefa por nó lê os
+ * totais de cada pauta com assinantes no máximo {@code votacao.transmissao.eventos-por-segundo}
+ * vezes por segundo e, quando mudam, repassa o mesmo JSON já serializado a todos os assinantes.
+ * O encerramento da sessão gera um evento {@code encerrada} com os totais finais e fecha as conexões.
+ *
+ * <p>A escrita nas conexões fica em {@code votacao.transmissao.entregadores} threads, com no máximo
+ * uma tarefa por assinante: um cliente lento só recebe o último evento publicado enquanto escrevia,
+ * e um envio parado há mais de {@code votacao.transmissao.timeout-envio} tira o assinante da pauta.
+ * Assim a leitura dos totais e os demais assinantes não esperam por uma conexão presa.
+ */
+@Component
+public class TransmissaoResultados implements SmartLifecycle {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransmissaoResultados.class);
+    static final String EVENTO_PARCIAL = "parcial";
+    static final String EVENTO_ENCERRADA = "encerrada";
+
+    private final ResultadoParcialService resultadoParcialService;
+    private final ObjectMapper objectMapper;
+    private final TransmissaoProperties transmissaoProperties;
+    private final Timer difusao;
+    private final Counter descartados;
+    private final ExecutorService entrega;
+
+    private final Map<Long, Canal> canais = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService executor;
+
+    public TransmissaoResultados(ResultadoParcialService resultadoParcialService,
+                                 ObjectMapper objectMapper,
+                                 TransmissaoProperties transmissaoProperties,
+                                 MeterRegistry meterRegistry) {
+        this.resultadoParcialService = resultadoParcialService;
+        this.objectMapper = objectMapper;
+        this.transmissaoProperties = transmissaoProperties;
+
+        Gauge.builder("votacao.transmissao.assinantes", this, TransmissaoResultados::assinantes)
+                .description("Conexões SSE abertas neste nó")
+                .register(meterRegistry);
+        this.difusao = Timer.builder("votacao.transmissao.difusao")
+                .description("Tempo para repassar uma atualização a todos os assinantes de uma pauta")
+                .register(meterRegistry);
+        this.descartados = Counter.builder("votacao.transmissao.descartados")
+                .description("Assinantes descartados por um envio parado além do timeout")
+                .register(meterRegistry);
+
+        // A fila não cresce além do número de assinantes: cada um tem no máximo uma tarefa pendente
+        AtomicInteger sequencia = new AtomicInteger();
+        this.entrega = Executors.newFixedThreadPool(Math.max(1, transmissaoProperties.entregadores()), r -> {
+            Thread thread = new Thread(r, "transmissao-entrega-" + sequencia.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter assinar(Long pautaId) {
+        // Pauta sem sessão ou contadores indisponíveis falham aqui, antes de abrir o stream
+        Parcial parcial = resultadoParcialService.parcial(pautaId);
+        SseEmitter emitter = novoEmitter();
+
+        if (!parcial.provisorio()) {
+            enviar(emitter, EVENTO_ENCERRADA, serializar(parcial));
+            emitter.complete();
+            return emitter;
+        }
+
+        emitter.onCompletion(() -> remover(pautaId, emitter));
+        emitter.onTimeout(() -> remover(pautaId, emitter));
+        emitter.onError(erro -> remover(pautaId, emitter));
+
+        canais.compute(pautaId, (id, canal) -> {
+            Canal atual = canal != null ? canal : new Canal();
+            atual.assinantes.put(emitter, new Assinante(pautaId, emitter));
+            return atual;
+        });
+
+        // O emitter ainda não está ligado à resposta, então este envio só fica guardado nele
+        if (!enviar(emitter, EVENTO_PARCIAL, serializar(parcial))) {
+            remover(pautaId, emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Avisa os assinantes deste nó assim que a transação de encerramento é confirmada; nos demais
+     * nós o encerramento é percebido na próxima leitura dos totais.
+     */
+    public void encerrarAposCommit(SessaoVotacao sessao) {
+        Parcial finalizado = new Parcial(sessao.getPauta().getId(), sessao.getId(), SessaoStatus.ENCERRADA,
+                new TotaisVotos(sessao.getTotalSim(), sessao.getTotalNao()), false, Instant.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encerrar(finalizado);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encerrar(finalizado);
+            }
+        });
+    }
+
+    SseEmitter novoEmitter() {
+        return new SseEmitter(transmissaoProperties.timeoutConexao().toMillis());
+    }
+
+    void difundir() {
+        descartarLentos();
+
+        canais.forEach((pautaId, canal) -> {
+            Parcial parcial;
+            try {
+                parcial = resultadoParcialService.parcial(pautaId);
+            } catch (Exception e) {
+                LOGGER.warn("Não foi possível ler os totais da pauta {} para transmissão: {}", pautaId, e.getMessage());
+                return;
+            }
+
+            if (!parcial.provisorio()) {
+                encerrar(parcial);
+                return;
+            }
+            if (parcial.totais().equals(canal.ultimosTotais)) {
+                return;
+            }
+            canal.ultimosTotais = parcial.totais();
+
+            long inicio = System.nanoTime();
+            Evento evento = new Evento(EVENTO_PARCIAL, serializar(parcial), false);
+            canal.assinantes.values().forEach(assinante -> publicar(assinante, evento));
+            difusao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    /**
+     * Tira das pautas os assinantes com um envio parado além do timeout. O emitter não é fechado
+     * aqui, pois {@code complete} espera o envio em andamento: o entregador o fecha quando a escrita
+     * retornar, ou o container quando a conexão expirar.
+     */
+    private void descartarLentos() {
+        long limite = transmissaoProperties.timeoutEnvio().toNanos();
+        long agora = System.nanoTime();
+        canais.values().forEach(canal -> canal.assinantes.values().forEach(assinante -> {
+            if (assinante.enviando && agora - assinante.inicioEnvio > limite && !assinante.descartado) {
+                assinante.descartado = true;
+                remover(assinante.pautaId, assinante.emitter);
+                descartados.increment();
+                LOGGER.debug("Assinante da pauta {} descartado: envio parado há mais de {}",
+                        assinante.pautaId, transmissaoProperties.timeoutEnvio());
+            }
+        }));
+    }
+
+    private void publicar(Assinante assinante, Evento evento) {
+        // O evento final não é substituído por um parcial publicado depois dele
+        assinante.pendente.accumulateAndGet(evento, (atual, novo) -> atual != null && atual.ultimo() ? atual : novo);
+        if (assinante.agendado.compareAndSet(false, true)) {
+            try {
+                entrega.execute(() -> descarregar(assinante));
+            } catch (RejectedExecutionException e) {
+                assinante.agendado.set(false);
+            }
+        }
+    }
+
+    private void descarregar(Assinante assinante) {
+        while (true) {
+            Evento evento = assinante.pendente.getAndSet(null);
+            if (evento == null) {
+                assinante.agendado.set(false);
+                // Um evento publicado depois do getAndSet pode ter encontrado a tarefa ainda agendada
+                if (assinante.pendente.get() == null || !assinante.agendado.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (assinante.descartado) {
+                assinante.emitter.completeWithError(new IllegalStateException("Assinante lento descartado"));
+                return;
+            }
+
+            assinante.inicioEnvio = System.nanoTime();
+            assinante.enviando = true;
+            boolean enviado = enviar(assinante.emitter, evento.nome(), evento.payload());
+            assinante.enviando = false;
+
+            if (!enviado) {
+                remover(assinante.pautaId, assinante.emitter);
+                return;
+            }
+            if (assinante.descartado) {
+                assinante.emitter.completeWithError(new IllegalStateException("Assinante lento descartado"));
+                return;
+            }
+            if (evento.ultimo()) {
+                assinante.emitter.complete();
+                return;
+            }
+        }
+    }
+
+    private void encerrar(Parcial finalizado) {
+        Canal canal = canais.remove(finalizado.pautaId());
+        if (canal == null) {
+            return;
+        }
+
+        Evento evento = new Evento(EVENTO_ENCERRADA, serializar(finalizado), true);
+        canal.assinantes.values().forEach(assinante -> publicar(assinante, evento));
+        LOGGER.debug("Transmissão da pauta {} encerrada para {} assinantes", finalizado.pautaId(), canal.assinantes.size());
+    }
+
+    private void remover(Long pautaId, SseEmitter emitter) {
+        canais.computeIfPresent(pautaId, (id, canal) -> {
+            canal.assinantes.remove(emitter);
+            return canal.assinantes.isEmpty() ? null : canal;
+        });
+    }
+
+    private boolean enviar(SseEmitter emitter, String evento, String payload) {
+        try {
+            emitter.send(SseEmitter.event().name(evento).data(payload, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (Exception e) {
+            // Cliente desconectado: o emitter é descartado e a conexão encerrada pelo container
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private String serializar(Parcial parcial) {
+        try {
+            return objectMapper.writeValueAsString(parcial.toResponse());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar totais da pauta " + parcial.pautaId(), e);
+        }
+    }
+
+    private double assinantes() {
+        return canais.values().stream().mapToInt(canal -> canal.assinantes.size()).sum();
+    }
+
+    @Override
+    public void start() {
+        long periodo = Math.max(1L, 1000L / Math.max(1, transmissaoProperties.eventosPorSegundo()));
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "transmissao-resultados");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                difundir();
+            } catch (Exception e) {
+                LOGGER.error("Erro na transmissão de resultados: {}", e.getMessage(), e);
+            }
+        }, periodo, periodo, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        entrega.shutdownNow();
+        canais.values().forEach(canal -> canal.assinantes.keySet().forEach(SseEmitter::complete));
+        canais.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Canal {
+        private final Map<SseEmitter, Assinante> assinantes = new ConcurrentHashMap<>();
+        private volatile TotaisVotos ultimosTotais;
+    }
+
+    private static final class Assinante {
+        private final Long pautaId;
+        private final SseEmitter emitter;
+        // Último evento ainda não escrito; um cliente lento pula os parciais intermediários
+        private final AtomicReference<Evento> pendente = new AtomicReference<>();
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private volatile boolean enviando;
+        private volatile long inicioEnvio;
+        private volatile boolean descartado;
+
+        private Assinante(Long pautaId, SseEmitter emitter) {
+            this.pautaId = pautaId;
+            this.emitter = emitter;
+        }
+    }
+
+    private record Evento(String nome, String payload, boolean ultimo) {
+    }
+}
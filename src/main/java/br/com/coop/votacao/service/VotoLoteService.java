@@ -0,0 +1,291 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.api.dto.VotoLoteResultado;
+import br.com.coop.votacao.api.dto.VotoRequest;
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.domain.SituacaoVotoLote;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.integration.VerificadorCpf;
+import br.com.coop.votacao.messaging.VotoEvento;
+import br.com.coop.votacao.messaging.VotoEventoProducer;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository.VotoPendente;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class VotoLoteService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VotoLoteService.class);
+    private static final int TAMANHO_BLOCO = 500;
+
+    private final VotoBatchRepository votoBatchRepository;
+    private final PautaService pautaService;
+    private final SessaoVotacaoService sessaoVotacaoService;
+    private final StringRedisTemplate redisTemplate;
+    private final ContadorVotos contadorVotos;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final SessaoTallySlotRepository sessaoTallySlotRepository;
+    private final VotoEventoProducer votoEventoProducer;
+    private final VerificadorCpf verificadorCpf;
+    private final CpfProperties cpfProperties;
+    private final RegistroAptos registroAptos;
+
+    public VotoLoteService(VotoBatchRepository votoBatchRepository,
+                           PautaService pautaService,
+                           SessaoVotacaoService sessaoVotacaoService,
+                           StringRedisTemplate redisTemplate,
+                           ContadorVotos contadorVotos,
+                           TransactionTemplate transactionTemplate,
+                           ObjectMapper objectMapper,
+                           Validator validator,
+                           SessaoTallySlotRepository sessaoTallySlotRepository,
+                           VotoEventoProducer votoEventoProducer,
+                           VerificadorCpf verificadorCpf,
+                           CpfProperties cpfProperties,
+                           RegistroAptos registroAptos) {
+        this.votoBatchRepository = votoBatchRepository;
+        this.pautaService = pautaService;
+        this.sessaoVotacaoService = sessaoVotacaoService;
+        this.redisTemplate = redisTemplate;
+        this.contadorVotos = contadorVotos;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.sessaoTallySlotRepository = sessaoTallySlotRepository;
+        this.votoEventoProducer = votoEventoProducer;
+        this.verificadorCpf = verificadorCpf;
+        this.cpfProperties = cpfProperties;
+        this.registroAptos = registroAptos;
+    }
+
+    public void registrar(Long pautaId, InputStream corpo, Consumer<List<VotoLoteResultado>> saida) throws IOException {
+        pautaService.buscarPorId(pautaId);
+        SessaoVotacao sessao = sessaoVotacaoService.buscarSessaoAbertaPorPauta(pautaId);
+
+        if (!sessao.isAbertaEm(Instant.now())) {
+            throw new BusinessException("Sessão de votação da pauta " + pautaId + " está encerrada");
+        }
+
+        Set<String> associadosNoLote = new HashSet<>();
+        Bloco bloco = new Bloco();
+        int indice = 0;
+
+        try (MappingIterator<VotoRequest> itens = objectMapper.readerFor(VotoRequest.class).readValues(corpo)) {
+            while (true) {
+                VotoRequest request;
+                try {
+                    if (!itens.hasNextValue()) {
+                        break;
+                    }
+                    request = itens.nextValue();
+                } catch (JsonParseException e) {
+                    bloco.rejeitar(indice, null, "JSON malformado: " + e.getOriginalMessage());
+                    break;
+                } catch (DatabindException e) {
+                    bloco.rejeitar(indice++, null, "Item inválido: " + e.getOriginalMessage());
+                    continue;
+                }
+
+                String erro = validar(request);
+                if (erro != null) {
+                    bloco.rejeitar(indice, request.getCpf(), erro);
+                } else if (!associadosNoLote.add(request.getCpf())) {
+                    bloco.resultados.add(new VotoLoteResultado(indice, request.getCpf(), SituacaoVotoLote.DUPLICADO,
+                            "Associado repetido no lote"));
+                } else {
+                    bloco.adicionar(indice, request);
+                }
+                indice++;
+
+                if (bloco.resultados.size() >= TAMANHO_BLOCO) {
+                    gravar(sessao, bloco);
+                    saida.accept(bloco.resultados);
+                    bloco = new Bloco();
+                }
+            }
+        }
+
+        gravar(sessao, bloco);
+        saida.accept(bloco.resultados);
+    }
+
+    private String validar(VotoRequest request) {
+        if (request == null) {
+            return "Item vazio";
+        }
+        Set<ConstraintViolation<VotoRequest>> violacoes = validator.validate(request);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        return violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void gravar(SessaoVotacao sessao, Bloco bloco) {
+        if (bloco.votos.isEmpty()) {
+            return;
+        }
+
+        if (!sessao.isAbertaEm(Instant.now())) {
+            bloco.pendentes.forEach(r -> rejeitar(r, "Sessão de votação encerrada durante o lote"));
+            return;
+        }
+
+        removerCpfsRecusados(sessao.getPauta().getId(), bloco);
+        if (bloco.votos.isEmpty()) {
+            return;
+        }
+
+        int[] contagens;
+        try {
+            contagens = transactionTemplate.execute(status -> {
+                int[] inseridos = votoBatchRepository.inserirEmLote(sessao.getPauta().getId(), bloco.votos);
+                if (sessao.getSlotsContagem() > 0) {
+                    somarSlots(sessao, bloco.votos, inseridos);
+                }
+                return inseridos;
+            });
+        } catch (RuntimeException e) {
+            LOGGER.error("Erro ao gravar bloco de {} votos da sessão {}: {}", bloco.votos.size(), sessao.getId(), e.getMessage(), e);
+            bloco.pendentes.forEach(r -> rejeitar(r, "Falha ao gravar voto"));
+            return;
+        }
+
+        Map<VotoValor, Long> criados = new EnumMap<>(VotoValor.class);
+        List<String> votantes = new ArrayList<>(contagens.length);
+        for (int i = 0; i < contagens.length; i++) {
+            VotoLoteResultado resultado = bloco.pendentes.get(i);
+            // O repositório recusa rewriteBatchedStatements: cada item traz a contagem do seu INSERT IGNORE, 0 = já votou
+            if (contagens[i] <= 0) {
+                resultado.setSituacao(SituacaoVotoLote.DUPLICADO);
+                resultado.setMensagem("Associado já votou na pauta " + sessao.getPauta().getId());
+            } else {
+                VotoPendente voto = bloco.votos.get(i);
+                resultado.setSituacao(SituacaoVotoLote.CRIADO);
+                criados.merge(voto.valor(), 1L, Long::sum);
+                votantes.add(voto.associadoId());
+                votoEventoProducer.publicar(new VotoEvento(sessao.getPauta().getId(), sessao.getId(),
+                        voto.associadoId(), voto.valor(), voto.dataHora()));
+            }
+        }
+
+        atualizarRedis(sessao, criados, votantes);
+    }
+
+    private void removerCpfsRecusados(Long pautaId, Bloco bloco) {
+        Map<String, String> recusados = new HashMap<>();
+        List<String> semLista = new ArrayList<>();
+        for (VotoPendente voto : bloco.votos) {
+            switch (registroAptos.consultar(pautaId, voto.associadoId())) {
+                case APTO -> {
+                }
+                case NAO_APTO -> recusados.put(voto.associadoId(), "Associado não consta na lista de aptos da pauta " + pautaId);
+                case SEM_LISTA -> semLista.add(voto.associadoId());
+            }
+        }
+        if (cpfProperties.habilitado() && !semLista.isEmpty()) {
+            // Todos os CPFs do bloco são consultados juntos, o que permite ao verificador agrupá-los
+            recusados.putAll(verificadorCpf.recusados(semLista));
+        }
+        if (recusados.isEmpty()) {
+            return;
+        }
+
+        for (int i = bloco.votos.size() - 1; i >= 0; i--) {
+            String motivo = recusados.get(bloco.votos.get(i).associadoId());
+            if (motivo != null) {
+                rejeitar(bloco.pendentes.remove(i), motivo);
+                bloco.votos.remove(i);
+            }
+        }
+    }
+
+    private void somarSlots(SessaoVotacao sessao, List<VotoPendente> votos, int[] inseridos) {
+        // Slots em ordem crescente: transações concorrentes travam as linhas na mesma ordem e não entram em deadlock
+        Map<Integer, TotaisVotos> porSlot = new TreeMap<>();
+        for (int i = 0; i < inseridos.length; i++) {
+            if (inseridos[i] > 0) {
+                VotoPendente voto = votos.get(i);
+                porSlot.merge(ContadorVotos.shard(voto.associadoId(), sessao.getSlotsContagem()),
+                        TotaisVotos.de(voto.valor(), 1L), TotaisVotos::somar);
+            }
+        }
+        porSlot.forEach((slot, totais) -> sessaoTallySlotRepository.somar(sessao.getId(), slot, totais));
+    }
+
+    private void atualizarRedis(SessaoVotacao sessao, Map<VotoValor, Long> criados, List<String> votantes) {
+        if (criados.isEmpty()) {
+            return;
+        }
+
+        Long sessaoId = sessao.getId();
+        contadorVotos.adicionar(sessaoId, sessao.getShardsContador(), criados);
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                conn.sAdd(FiltroVotoDuplicado.chave(sessaoId), votantes.toArray(String[]::new));
+                conn.expire(FiltroVotoDuplicado.chave(sessaoId), ContadorVotos.TTL_SEGUNDOS);
+                return null;
+            });
+        } catch (Exception redisEx) {
+            LOGGER.error("Erro ao registrar votantes no Redis para sessão {}: {}",
+                    sessaoId, redisEx.getMessage(), redisEx);
+        }
+    }
+
+    private static void rejeitar(VotoLoteResultado resultado, String mensagem) {
+        resultado.setSituacao(SituacaoVotoLote.REJEITADO);
+        resultado.setMensagem(mensagem);
+    }
+
+    private static final class Bloco {
+        private final List<VotoLoteResultado> resultados = new ArrayList<>();
+        private final List<VotoLoteResultado> pendentes = new ArrayList<>();
+        private final List<VotoPendente> votos = new ArrayList<>();
+
+        private void adicionar(int indice, VotoRequest request) {
+            VotoLoteResultado resultado = new VotoLoteResultado(indice, request.getCpf(), null, null);
+            resultados.add(resultado);
+            pendentes.add(resultado);
+            votos.add(new VotoPendente(request.getCpf(), request.getVoto(), Instant.now()));
+        }
+
+        private void rejeitar(int indice, String cpf, String mensagem) {
+            resultados.add(new VotoLoteResultado(indice, cpf, SituacaoVotoLote.REJEITADO, mensagem));
+        }
+    }
+}
@@ -1,58 +1,129 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.config.IngestaoProperties;
+import br.com.coop.votacao.domain.TotaisVotos;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.entity.Voto;
 import br.com.coop.votacao.domain.VotoValor;
 import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.integration.VerificadorCpf;
+import br.com.coop.votacao.messaging.VotoEvento;
+import br.com.coop.votacao.messaging.VotoEventoProducer;
+import br.com.coop.votacao.messaging.VotoStreamProducer;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
 import br.com.coop.votacao.repository.VotoRepository;
+import br.com.coop.votacao.service.RegistroSessoesAbertas.SessaoAberta;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.Optional;
 
 @Service
 public class VotoService {
     private static final Logger LOGGER = LoggerFactory.getLogger(VotoService.class);
-    private static final String KEY_PREFIX = "votacao:sessao:";
-    private static final int CONTADOR_TTL_HORAS = 48;
     
     private final VotoRepository votoRepository;
     private final PautaService pautaService;
     private final SessaoVotacaoService sessaoVotacaoService;
-    private final StringRedisTemplate redisTemplate;
-    private final DefaultRedisScript<Long> incrementWithTtlScript;
+    private final ContadorVotos contadorVotos;
+    private final VotoStreamProducer votoStreamProducer;
+    private final IngestaoProperties ingestaoProperties;
+    private final FiltroVotoDuplicado filtroVotoDuplicado;
+    private final RegistroSessoesAbertas registroSessoesAbertas;
+    private final SessaoTallySlotRepository sessaoTallySlotRepository;
+    private final VotoEventoProducer votoEventoProducer;
+    private final VerificadorCpf verificadorCpf;
+    private final CpfProperties cpfProperties;
+    private final RegistroAptos registroAptos;
+    private final TransactionTemplate transactionTemplate;
 
     public VotoService(VotoRepository votoRepository,
                        PautaService pautaService,
                        SessaoVotacaoService sessaoVotacaoService,
-                       StringRedisTemplate redisTemplate,
-                       DefaultRedisScript<Long> incrementWithTtlScript) {
+                       ContadorVotos contadorVotos,
+                       VotoStreamProducer votoStreamProducer,
+                       IngestaoProperties ingestaoProperties,
+                       FiltroVotoDuplicado filtroVotoDuplicado,
+                       RegistroSessoesAbertas registroSessoesAbertas,
+                       SessaoTallySlotRepository sessaoTallySlotRepository,
+                       VotoEventoProducer votoEventoProducer,
+                       VerificadorCpf verificadorCpf,
+                       CpfProperties cpfProperties,
+                       RegistroAptos registroAptos,
+                       TransactionTemplate transactionTemplate) {
         this.votoRepository = votoRepository;
         this.pautaService = pautaService;
         this.sessaoVotacaoService = sessaoVotacaoService;
-        this.redisTemplate = redisTemplate;
-        this.incrementWithTtlScript = incrementWithTtlScript;
+        this.contadorVotos = contadorVotos;
+        this.votoStreamProducer = votoStreamProducer;
+        this.ingestaoProperties = ingestaoProperties;
+        this.filtroVotoDuplicado = filtroVotoDuplicado;
+        this.registroSessoesAbertas = registroSessoesAbertas;
+        this.sessaoTallySlotRepository = sessaoTallySlotRepository;
+        this.votoEventoProducer = votoEventoProducer;
+        this.verificadorCpf = verificadorCpf;
+        this.cpfProperties = cpfProperties;
+        this.registroAptos = registroAptos;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isIngestaoAssincrona() {
+        return ingestaoProperties.isStream();
+    }
+
+    public String enfileirarVoto(Long pautaId, String associadoId, VotoValor valor) {
+        Instant agora = Instant.now();
+        Long sessaoId = registroSessoesAbertas.buscar(pautaId)
+                .filter(sessao -> sessao.abertaEm(agora))
+                .map(SessaoAberta::sessaoId)
+                .orElseGet(() -> {
+                    pautaService.buscarPorId(pautaId);
+                    return buscarSessaoAberta(pautaId, agora).sessaoId();
+                });
+
+        exigirCpfHabilitado(pautaId, associadoId);
+
+        if (!filtroVotoDuplicado.reservar(sessaoId, associadoId)) {
+            throw new BusinessException("Associado " + associadoId + " já votou na pauta " + pautaId);
+        }
+
+        try {
+            return votoStreamProducer.publicar(pautaId, sessaoId, associadoId, valor);
+        } catch (RuntimeException e) {
+            filtroVotoDuplicado.liberar(sessaoId, associadoId);
+            throw e;
+        }
     }
 
-    @Transactional
     public Voto registrarVoto(Long pautaId, String associadoId, VotoValor valor) {
-        Pauta pauta = pautaService.buscarPorId(pautaId);
-        SessaoVotacao sessaoAberta = sessaoVotacaoService.buscarSessaoAbertaPorPauta(pautaId);
+        Instant agora = Instant.now();
+        Optional<SessaoAberta> registrada = registroSessoesAbertas.buscar(pautaId)
+                .filter(sessao -> sessao.abertaEm(agora));
 
-        if (!sessaoAberta.isAbertaEm(Instant.now())) {
-            throw new BusinessException("Sessão de votação da pauta " + pautaId + " está encerrada");
+        // Sessão conhecida pelo registro local: nenhuma consulta ao banco antes do INSERT
+        Pauta pauta;
+        SessaoAberta sessao;
+        if (registrada.isPresent()) {
+            pauta = pautaService.referencia(pautaId);
+            sessao = registrada.get();
+        } else {
+            pauta = pautaService.buscarPorId(pautaId);
+            sessao = buscarSessaoAberta(pautaId, agora);
         }
+        Long sessaoId = sessao.sessaoId();
+
+        // Fora da transação: a consulta ao serviço de CPF não segura conexão do pool
+        exigirCpfHabilitado(pautaId, associadoId);
 
-//        CpfStatus status = cpfValidationClient.validarCpf(associadoId);
-//        if (status == CpfStatus.UNABLE_TO_VOTE) {
-//            throw new BusinessException("Associado não está habilitado para votar");
-//        }
+        if (!filtroVotoDuplicado.reservar(sessaoId, associadoId)) {
+            throw new BusinessException("Associado " + associadoId + " já votou na pauta " + pautaId);
+        }
         
         Voto voto = new Voto();
         voto.setPauta(pauta);
@@ -60,29 +131,47 @@ public class VotoService {
         voto.setValor(valor);
 
         try {
-            Voto salvo = votoRepository.saveAndFlush(voto);
-
-            String chaveContador = valor == VotoValor.SIM ? 
-                KEY_PREFIX + sessaoAberta.getId() + ":sim" : 
-                KEY_PREFIX + sessaoAberta.getId() + ":nao";
-            
-            try {
-                Long novoValor = redisTemplate.execute(
-                    incrementWithTtlScript,
-                    java.util.Collections.singletonList(chaveContador),
-                    String.valueOf(CONTADOR_TTL_HORAS * 3600)
-                );
-                
-                LOGGER.debug("Contador {} atualizado para {}", chaveContador, novoValor);
-                
-            } catch (Exception redisEx) {
-                LOGGER.error("Erro ao atualizar contador no Redis para sessão {}: {}", 
-                    sessaoAberta.getId(), redisEx.getMessage(), redisEx);
-            }
+            return transactionTemplate.execute(status -> {
+                Voto salvo = votoRepository.saveAndFlush(voto);
+                if (sessao.slotsContagem() > 0) {
+                    sessaoTallySlotRepository.somar(sessaoId, ContadorVotos.shard(associadoId, sessao.slotsContagem()),
+                            TotaisVotos.de(valor, 1L));
+                }
+                filtroVotoDuplicado.liberarSeTransacaoDesfeita(sessaoId, associadoId);
 
-            return salvo;
+                contadorVotos.incrementar(sessaoId, sessao.shardsContador(), associadoId, valor);
+                votoEventoProducer.publicarAposCommit(new VotoEvento(pautaId, sessaoId, associadoId, valor, salvo.getDataHora()));
+
+                return salvo;
+            });
         } catch (DataIntegrityViolationException e) {
             throw new BusinessException("Associado " + associadoId + " já votou na pauta " + pautaId);
+        } catch (RuntimeException e) {
+            filtroVotoDuplicado.liberar(sessaoId, associadoId);
+            throw e;
+        }
+    }
+
+    private void exigirCpfHabilitado(Long pautaId, String associadoId) {
+        // Pauta com lista de aptos carregada não consulta o serviço externo
+        switch (registroAptos.consultar(pautaId, associadoId)) {
+            case APTO -> {
+            }
+            case NAO_APTO -> throw new BusinessException("Associado não consta na lista de aptos da pauta " + pautaId);
+            case SEM_LISTA -> {
+                if (cpfProperties.habilitado()) {
+                    verificadorCpf.exigirHabilitado(associadoId);
+                }
+            }
+        }
+    }
+
+    private SessaoAberta buscarSessaoAberta(Long pautaId, Instant agora) {
+        SessaoVotacao sessaoAberta = sessaoVotacaoService.buscarSessaoAbertaPorPauta(pautaId);
+
+        if (!sessaoAberta.isAbertaEm(agora)) {
+            throw new BusinessException("Sessão de votação da pauta " + pautaId + " está encerrada");
         }
+        return SessaoAberta.de(sessaoAberta);
     }
 }
@@ -2,7 +2,11 @@ package br.com.coop.votacao.api.controller;
 
 import br.com.coop.votacao.api.controller.v1.PautaController;
 import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.repository.PautaConsultaRepository.Filtro;
 import br.com.coop.votacao.service.PautaService;
+import br.com.coop.votacao.service.PautaService.PaginaPautas;
+import br.com.coop.votacao.service.RegistroAptos;
+import br.com.coop.votacao.service.RegistroAptos.Carga;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,9 +18,12 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +41,9 @@ class PautaControllerTest {
     @MockBean
     private PautaService pautaService;
 
+    @MockBean
+    private RegistroAptos registroAptos;
+
     @Test
     @DisplayName("POST /pautas - Deve criar pauta com sucesso")
     void deveCriarPautaComSucesso() throws Exception {
@@ -95,7 +105,7 @@ class PautaControllerTest {
     }
 
     @Test
-    @DisplayName("GET /pautas - Deve listar todas as pautas")
+    @DisplayName("GET /pautas - Deve listar uma página de pautas com o próximo cursor")
     void deveListarTodasAsPautas() throws Exception {
         Pauta pauta1 = new Pauta();
         pauta1.setId(1L);
@@ -105,12 +115,46 @@ class PautaControllerTest {
         pauta2.setId(2L);
         pauta2.setTitulo("Pauta 2");
 
-        when(pautaService.listar()).thenReturn(Arrays.asList(pauta1, pauta2));
+        when(pautaService.listar(new Filtro(null, null, true), 10L, 2))
+                .thenReturn(new PaginaPautas(Arrays.asList(pauta2, pauta1), 1L));
+
+        mockMvc.perform(get("/api/v1/pautas").param("cursor", "10").param("limite", "2").param("sessaoAberta", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens", hasSize(2)))
+                .andExpect(jsonPath("$.itens[0].titulo").value("Pauta 2"))
+                .andExpect(jsonPath("$.itens[1].titulo").value("Pauta 1"))
+                .andExpect(jsonPath("$.proximoCursor").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /pautas/exportar - Deve escrever todas as pautas em um array JSON")
+    void deveExportarPautasEmArrayJson() throws Exception {
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+        pauta.setTitulo("Pauta 1");
+
+        doAnswer(inv -> {
+            inv.<Consumer<Pauta>>getArgument(1).accept(pauta);
+            return null;
+        }).when(pautaService).exportar(eq(new Filtro(Instant.parse("2025-01-01T00:00:00Z"), null, null)), any());
+
+        mockMvc.perform(get("/api/v1/pautas/exportar").param("criadaDe", "2025-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].titulo").value("Pauta 1"));
+    }
+
+    @Test
+    @DisplayName("PUT /pautas/{id}/aptos - Deve carregar a lista de aptos da pauta")
+    void deveCarregarListaDeAptos() throws Exception {
+        when(registroAptos.carregar(eq(1L), any())).thenReturn(new Carga(2, 1));
 
-        mockMvc.perform(get("/api/v1/pautas"))
+        mockMvc.perform(put("/api/v1/pautas/1/aptos")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("12345678901\n123.456.789-02\ninvalido\n"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].titulo").value("Pauta 1"))
-                .andExpect(jsonPath("$[1].titulo").value("Pauta 2"));
+                .andExpect(jsonPath("$.pautaId").value(1))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.linhasIgnoradas").value(1));
     }
 }
@@ -2,27 +2,40 @@ package br.com.coop.votacao.api.controller;
 
 import br.com.coop.votacao.api.controller.v1.SessaoVotacaoController;
 import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.config.ResultadosProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
 import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.service.CacheResultados;
+import br.com.coop.votacao.service.CacheResultados.ResultadoEncerrado;
+import br.com.coop.votacao.service.ResultadoParcialService;
+import br.com.coop.votacao.service.ResultadoParcialService.Parcial;
 import br.com.coop.votacao.service.SessaoVotacaoService;
+import br.com.coop.votacao.service.TransmissaoResultados;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.Instant;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(SessaoVotacaoController.class)
+@EnableConfigurationProperties(ResultadosProperties.class)
 @DisplayName("Testes de API - SessaoVotacaoController")
 class SessaoVotacaoControllerTest {
 
@@ -35,6 +48,15 @@ class SessaoVotacaoControllerTest {
     @MockBean
     private SessaoVotacaoService sessaoVotacaoService;
 
+    @MockBean
+    private CacheResultados cacheResultados;
+
+    @MockBean
+    private ResultadoParcialService resultadoParcialService;
+
+    @MockBean
+    private TransmissaoResultados transmissaoResultados;
+
     @Test
     @DisplayName("POST /sessoes - Deve abrir sessão com duração padrão")
     void deveAbrirSessaoComDuracaoPadrao() throws Exception {
@@ -49,7 +71,7 @@ class SessaoVotacaoControllerTest {
         sessao.setFim(Instant.now().plusSeconds(60));
         sessao.setStatus(SessaoStatus.ABERTA);
 
-        when(sessaoVotacaoService.abrirSessao(eq(1L), any())).thenReturn(sessao);
+        when(sessaoVotacaoService.abrirSessao(eq(1L), any(), any())).thenReturn(sessao);
 
         String requestBody = "{}";
 
@@ -74,7 +96,7 @@ class SessaoVotacaoControllerTest {
         sessao.setFim(Instant.now().plusSeconds(120));
         sessao.setStatus(SessaoStatus.ABERTA);
 
-        when(sessaoVotacaoService.abrirSessao(1L, 120L)).thenReturn(sessao);
+        when(sessaoVotacaoService.abrirSessao(1L, 120L, null)).thenReturn(sessao);
 
         String requestBody = """
                 {
@@ -186,4 +208,74 @@ class SessaoVotacaoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.resultado").value("EMPATE"));
     }
+
+    @Test
+    @DisplayName("GET /resultado/{pautaId} - Deve guardar resultado encerrado e devolver ETag forte")
+    void deveGuardarResultadoEncerradoComEtagForte() throws Exception {
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setStatus(SessaoStatus.ENCERRADA);
+        sessao.setTotalSim(5);
+        sessao.setTotalNao(3);
+
+        when(sessaoVotacaoService.resultado(1L)).thenReturn(sessao);
+
+        mockMvc.perform(get("/api/v1/pautas/resultado/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"10-ENCERRADA\""));
+
+        verify(cacheResultados).registrar(sessao);
+    }
+
+    @Test
+    @DisplayName("GET /resultado/{pautaId} - Deve responder 304 pelo cache sem consultar o banco")
+    void deveResponderNaoModificadoPeloCache() throws Exception {
+        when(cacheResultados.buscar(1L)).thenReturn(Optional.of(new ResultadoEncerrado(10L, 5, 3)));
+
+        mockMvc.perform(get("/api/v1/pautas/resultado/1").header("If-None-Match", "\"10-ENCERRADA\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(sessaoVotacaoService);
+    }
+
+    @Test
+    @DisplayName("GET /resultado/{pautaId} - Deve devolver ETag fraca para sessão aberta")
+    void deveDevolverEtagFracaParaSessaoAberta() throws Exception {
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setStatus(SessaoStatus.ABERTA);
+
+        when(sessaoVotacaoService.resultado(1L)).thenReturn(sessao);
+
+        mockMvc.perform(get("/api/v1/pautas/resultado/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"10-ABERTA-0-0\""))
+                .andExpect(header().string("Cache-Control", "max-age=2"));
+
+        verify(cacheResultados, never()).registrar(sessao);
+    }
+
+    @Test
+    @DisplayName("GET /resultado/{pautaId}/parcial - Deve devolver totais provisórios com horário da leitura")
+    void deveDevolverResultadoParcialProvisorio() throws Exception {
+        Instant lidaEm = Instant.parse("2026-01-10T12:00:00Z");
+        when(resultadoParcialService.parcial(1L))
+                .thenReturn(new Parcial(1L, 10L, SessaoStatus.ABERTA, new TotaisVotos(42, 17), true, lidaEm));
+
+        mockMvc.perform(get("/api/v1/pautas/resultado/1/parcial"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalSim").value(42))
+                .andExpect(jsonPath("$.totalNao").value(17))
+                .andExpect(jsonPath("$.provisorio").value(true))
+                .andExpect(jsonPath("$.atualizadoEm").value("2026-01-10T12:00:00Z"))
+                .andExpect(header().string("Cache-Control", "max-age=1"));
+    }
 }
@@ -1,9 +1,12 @@
 package br.com.coop.votacao.api.controller;
 
 import br.com.coop.votacao.api.controller.v1.VotoController;
+import br.com.coop.votacao.api.dto.VotoLoteResultado;
+import br.com.coop.votacao.domain.SituacaoVotoLote;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.Voto;
 import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.service.VotoLoteService;
 import br.com.coop.votacao.service.VotoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -14,8 +17,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +42,9 @@ class VotoControllerTest {
     @MockBean
     private VotoService votoService;
 
+    @MockBean
+    private VotoLoteService votoLoteService;
+
     @Test
     @DisplayName("POST /votos - Deve registrar voto SIM com sucesso")
     void deveRegistrarVotoSimComSucesso() throws Exception {
@@ -136,4 +148,52 @@ class VotoControllerTest {
                         .content(requestBody))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @DisplayName("POST /votos - Deve retornar 202 quando ingestão é assíncrona")
+    void deveRetornar202QuandoIngestaoAssincrona() throws Exception {
+        when(votoService.isIngestaoAssincrona()).thenReturn(true);
+
+        String requestBody = """
+                {
+                    "cpf": "12345678901",
+                    "voto": "SIM"
+                }
+                """;
+
+        mockMvc.perform(post("/api/v1/pautas/votos/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("Location"));
+
+        verify(votoService).enfileirarVoto(1L, "12345678901", VotoValor.SIM);
+        verify(votoService, never()).registrarVoto(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("POST /votos/lote - Deve devolver um resultado NDJSON por item")
+    void deveDevolverResultadoNdjsonPorItem() throws Exception {
+        doAnswer(inv -> {
+            Consumer<List<VotoLoteResultado>> saida = inv.getArgument(2);
+            saida.accept(List.of(
+                    new VotoLoteResultado(0, "12345678901", SituacaoVotoLote.CRIADO, null),
+                    new VotoLoteResultado(1, "123", SituacaoVotoLote.REJEITADO, "cpf: inválido")));
+            return null;
+        }).when(votoLoteService).registrar(eq(1L), any(), any());
+
+        String requestBody = """
+                {"cpf": "12345678901", "voto": "SIM"}
+                {"cpf": "123", "voto": "NAO"}
+                """;
+
+        mockMvc.perform(post("/api/v1/pautas/votos/1/lote")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"indice\":0,\"cpf\":\"12345678901\",\"situacao\":\"CRIADO\"}\n"
+                                + "{\"indice\":1,\"cpf\":\"123\",\"situacao\":\"REJEITADO\",\"mensagem\":\"cpf: inválido\"}\n"));
+    }
 }
@@ -0,0 +1,81 @@
+package br.com.coop.votacao.benchmark;
+
+import br.com.coop.votacao.messaging.ResultadoPautaDeserializer;
+import br.com.coop.votacao.messaging.ResultadoPautaEvent;
+import br.com.coop.votacao.messaging.ResultadoPautaSerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o JSON sem cabeçalhos de tipo (formato atual do tópico de resultados) com o
+ * {@code ResultadoPautaEventCodec}. Os tamanhos serializados são impressos no início de cada formato;
+ * a desserialização usa o {@link ResultadoPautaDeserializer}, que lê os dois.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) br.com.coop.votacao.benchmark.ResultadoPautaEventBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultadoPautaEventBenchmark {
+    private static final String TOPICO = "pauta-resultados";
+
+    @Param({"json", "binario"})
+    public String formato;
+
+    private Serializer<ResultadoPautaEvent> serializador;
+    private ResultadoPautaDeserializer desserializador;
+    private ResultadoPautaEvent event;
+    private byte[] serializado;
+
+    @Setup
+    public void setUp() {
+        serializador = "json".equals(formato)
+                ? new JsonSerializer<ResultadoPautaEvent>().noTypeInfo()
+                : new ResultadoPautaSerializer();
+        desserializador = new ResultadoPautaDeserializer();
+
+        event = new ResultadoPautaEvent();
+        event.setPautaId(123456L);
+        event.setSessaoId(654321L);
+        event.setTotalSim(18_245L);
+        event.setTotalNao(9_731L);
+        event.setResultado("APROVADA");
+        event.setDataEncerramentoSessao(Instant.parse("2024-03-01T12:00:00.123456Z"));
+        event.setDataPublicacao(Instant.parse("2024-03-01T12:00:01.042Z"));
+        serializado = serializador.serialize(TOPICO, event);
+        System.out.printf("%n%s: %d bytes%n", formato, serializado.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializador.close();
+        desserializador.close();
+    }
+
+    @Benchmark
+    public byte[] serializar() {
+        return serializador.serialize(TOPICO, event);
+    }
+
+    @Benchmark
+    public ResultadoPautaEvent desserializar() {
+        return desserializador.deserialize(TOPICO, serializado);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResultadoPautaEventBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.coop.votacao.benchmark;
+
+import br.com.coop.votacao.config.PautaCodec;
+import br.com.coop.votacao.config.SerializadorBinario;
+import br.com.coop.votacao.entity.Pauta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o JSON com tipagem padrão (serializador anterior do cache "pautas") com o codec binário,
+ * sem e com LZ4. Os tamanhos serializados são impressos no início de cada combinação de parâmetros.
+ *
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) br.com.coop.votacao.benchmark.SerializadorCacheBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializadorCacheBenchmark {
+
+    @Param({"json", "binario", "binario-lz4"})
+    public String formato;
+
+    @Param({"40", "1000"})
+    public int tamanhoDescricao;
+
+    private RedisSerializer<Object> serializador;
+    private Pauta pauta;
+    private byte[] serializado;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        serializador = switch (formato) {
+            case "json" -> {
+                ObjectMapper objectMapper = new ObjectMapper();
+                objectMapper.registerModule(new JavaTimeModule());
+                objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL);
+                yield new GenericJackson2JsonRedisSerializer(objectMapper);
+            }
+            case "binario" -> (RedisSerializer<Object>) (RedisSerializer<?>) new SerializadorBinario<>(new PautaCodec(), 0);
+            default -> (RedisSerializer<Object>) (RedisSerializer<?>) new SerializadorBinario<>(new PautaCodec(), 512);
+        };
+
+        pauta = new Pauta();
+        pauta.setId(123456L);
+        pauta.setTitulo("Aprovação das contas do exercício e destinação das sobras");
+        pauta.setDescricao("Proposta da diretoria para deliberação em assembleia geral. ".repeat(tamanhoDescricao / 60 + 1)
+                .substring(0, tamanhoDescricao));
+        pauta.setDataCriacao(Instant.parse("2024-03-01T12:00:00Z"));
+        serializado = serializador.serialize(pauta);
+        System.out.printf("%n%s / descrição %d: %d bytes%n", formato, tamanhoDescricao, serializado.length);
+    }
+
+    @Benchmark
+    public byte[] serializar() {
+        return serializador.serialize(pauta);
+    }
+
+    @Benchmark
+    public Object desserializar() {
+        return serializador.deserialize(serializado);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SerializadorCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package br.com.coop.votacao.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - CacheManagerDoisNiveis")
+class CacheManagerDoisNiveisTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrentMapCacheManager redis = new ConcurrentMapCacheManager("pautas", "cpf-status");
+    private CacheManagerDoisNiveis cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new CacheManagerDoisNiveis(redis,
+                new CacheLocalProperties(Set.of("pautas"), 100, Duration.ofMinutes(5)), redisTemplate, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve servir do L1 depois da primeira leitura no Redis")
+    void deveServirDoL1AposPrimeiraLeitura() {
+        redis.getCache("pautas").put(1L, "pauta 1");
+        Cache cache = cacheManager.getCache("pautas");
+
+        assertThat(cache.get(1L).get()).isEqualTo("pauta 1");
+        redis.getCache("pautas").evict(1L);
+        assertThat(cache.get(1L).get()).isEqualTo("pauta 1");
+
+        assertThat(acessos("l1", "acerto")).isEqualTo(1);
+        assertThat(acessos("l1", "falha")).isEqualTo(1);
+        assertThat(acessos("l2", "acerto")).isEqualTo(1);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(acessos("l2", "falha")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve gravar nos dois níveis sem publicar invalidação ao preencher chave ausente")
+    void deveGravarNosDoisNiveisSemPublicarAoPreencher() {
+        Cache cache = cacheManager.getCache("pautas");
+
+        cache.put(1L, "pauta 1");
+        cache.put(1L, "pauta 1");
+
+        assertThat(redis.getCache("pautas").get(1L).get()).isEqualTo("pauta 1");
+        assertThat(cache.get(1L).get()).isEqualTo("pauta 1");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve publicar a invalidação ao substituir um valor diferente")
+    void devePublicarInvalidacaoAoSubstituirValor() {
+        redis.getCache("pautas").put(1L, "pauta 1");
+        Cache cache = cacheManager.getCache("pautas");
+
+        cache.put(1L, "pauta 1 alterada");
+
+        assertThat(redis.getCache("pautas").get(1L).get()).isEqualTo("pauta 1 alterada");
+        ArgumentCaptor<String> mensagem = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CacheManagerDoisNiveis.CANAL), mensagem.capture());
+        assertThat(mensagem.getValue()).endsWith("|pautas|1");
+    }
+
+    @Test
+    @DisplayName("Deve contar as remoções do L2 e publicar a invalidação")
+    void deveContarRemocoesDoL2() {
+        Cache cache = cacheManager.getCache("pautas");
+        cache.put(1L, "pauta 1");
+
+        cache.evict(1L);
+        cache.clear();
+
+        assertThat(redis.getCache("pautas").get(1L)).isNull();
+        assertThat(meterRegistry.get("votacao.cache.remocoes").tags("cache", "pautas", "nivel", "l2").counter().count())
+                .isEqualTo(2);
+        verify(redisTemplate, times(2)).convertAndSend(eq(CacheManagerDoisNiveis.CANAL), anyString());
+    }
+
+    @Test
+    @DisplayName("Deve descartar o L1 ao receber invalidação de outro nó e ignorar as próprias")
+    void deveDescartarL1AoReceberInvalidacaoDeOutroNo() {
+        Cache cache = cacheManager.getCache("pautas");
+        cache.put(1L, "pauta 0");
+        cache.put(1L, "pauta 1");
+        ArgumentCaptor<String> propria = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CacheManagerDoisNiveis.CANAL), propria.capture());
+        redis.getCache("pautas").put(1L, "pauta 1 alterada");
+
+        cacheManager.onMessage(mensagem(propria.getValue()), null);
+        assertThat(cache.get(1L).get()).isEqualTo("pauta 1");
+
+        cacheManager.onMessage(mensagem("outro-no|pautas|1"), null);
+        assertThat(cache.get(1L).get()).isEqualTo("pauta 1 alterada");
+    }
+
+    @Test
+    @DisplayName("Deve carregar o valor uma vez e guardá-lo nos dois níveis")
+    void deveCarregarValorNosDoisNiveis() {
+        Cache cache = cacheManager.getCache("pautas");
+
+        assertThat(cache.get(3L, () -> "pauta 3")).isEqualTo("pauta 3");
+        assertThat(cache.get(3L, () -> "não deveria carregar")).isEqualTo("pauta 3");
+        assertThat(redis.getCache("pautas").get(3L).get()).isEqualTo("pauta 3");
+    }
+
+    @Test
+    @DisplayName("Deve manter no Redis apenas os caches fora da lista")
+    void deveManterCachesForaDaListaSoNoRedis() {
+        assertThat(cacheManager.getCache("cpf-status")).isSameAs(redis.getCache("cpf-status"));
+        assertThat(cacheManager.getCache("pautas")).isInstanceOf(CacheDoisNiveis.class);
+    }
+
+    @Test
+    @DisplayName("Deve seguir funcionando quando a publicação da invalidação falha")
+    void deveTolerarFalhaNaPublicacao() {
+        doThrow(new RuntimeException("Redis unavailable")).when(redisTemplate).convertAndSend(anyString(), anyString());
+        Cache cache = cacheManager.getCache("pautas");
+
+        cache.put(1L, "pauta 1");
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    private double acessos(String nivel, String resultado) {
+        var busca = meterRegistry.find("votacao.cache.acessos").tags("cache", "pautas", "nivel", nivel, "resultado", resultado);
+        return busca.functionCounter() != null ? busca.functionCounter().count() : busca.counter().count();
+    }
+
+    private static DefaultMessage mensagem(String corpo) {
+        return new DefaultMessage(CacheManagerDoisNiveis.CANAL.getBytes(StandardCharsets.UTF_8),
+                corpo.getBytes(StandardCharsets.UTF_8));
+    }
+}
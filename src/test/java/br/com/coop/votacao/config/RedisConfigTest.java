@@ -0,0 +1,27 @@
+package br.com.coop.votacao.config;
+
+import br.com.coop.votacao.integration.CpfStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Testes Unitários - RedisConfig")
+class RedisConfigTest {
+
+    @Test
+    @DisplayName("Deve gravar cada entrada do cpf-status com o TTL do seu status")
+    void deveUsarTtlDoStatusNoCacheDeCpf() {
+        CpfProperties cpfProperties = new CpfProperties(true, CpfProperties.PoliticaFalha.PERMITIR, Duration.ofSeconds(1),
+                1000, Duration.ofHours(1), Duration.ofMinutes(10), null, 100, Duration.ofMillis(5),
+                5, Duration.ofSeconds(30));
+
+        RedisCacheWriter.TtlFunction ttl = RedisConfig.ttlCpfStatus(cpfProperties);
+
+        assertThat(ttl.getTimeToLive("12345678900", CpfStatus.ABLE_TO_VOTE.name())).isEqualTo(Duration.ofHours(1));
+        assertThat(ttl.getTimeToLive("12345678901", CpfStatus.UNABLE_TO_VOTE.name())).isEqualTo(Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.coop.votacao.config;
+
+import br.com.coop.votacao.entity.Pauta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Testes Unitários - SerializadorBinario")
+class SerializadorBinarioTest {
+
+    private final SerializadorBinario<Pauta> serializador = new SerializadorBinario<>(new PautaCodec(), 512);
+
+    @Test
+    @DisplayName("Deve ler de volta a pauta gravada, inclusive campos nulos")
+    void deveLerDeVoltaPautaGravada() {
+        Pauta pauta = pauta("Pauta Teste", null);
+
+        byte[] dados = serializador.serialize(pauta);
+        Pauta lida = serializador.deserialize(dados);
+
+        assertThat(dados[2] & SerializadorBinario.FLAG_LZ4).isZero();
+        assertThat(lida).usingRecursiveComparison().isEqualTo(pauta);
+    }
+
+    @Test
+    @DisplayName("Deve comprimir com LZ4 valores acima do limiar")
+    void deveComprimirAcimaDoLimiar() {
+        Pauta pauta = pauta("Pauta Teste", "Descrição repetida da pauta. ".repeat(40));
+
+        byte[] dados = serializador.serialize(pauta);
+
+        assertThat(dados[2] & SerializadorBinario.FLAG_LZ4).isNotZero();
+        assertThat(dados.length).isLessThan(pauta.getDescricao().getBytes(StandardCharsets.UTF_8).length);
+        assertThat(serializador.deserialize(dados)).usingRecursiveComparison().isEqualTo(pauta);
+    }
+
+    @Test
+    @DisplayName("Deve tratar como ausente o JSON gravado pelo serializador anterior")
+    void deveIgnorarFormatoDesconhecido() {
+        byte[] json = "[\"br.com.coop.votacao.entity.Pauta\",{\"id\":1}]".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(serializador.deserialize(json)).isNull();
+        assertThat(serializador.deserialize(new byte[0])).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve tratar como ausente uma versão que o codec não sabe ler")
+    void deveIgnorarVersaoDesconhecida() {
+        byte[] dados = serializador.serialize(pauta("Pauta Teste", null));
+        dados[1] = 9;
+
+        assertThat(serializador.deserialize(dados)).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve falhar com SerializationException para um valor truncado")
+    void deveFalharComValorTruncado() {
+        byte[] dados = serializador.serialize(pauta("Pauta Teste", "descrição"));
+
+        assertThatThrownBy(() -> serializador.deserialize(Arrays.copyOf(dados, dados.length - 5)))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    private static Pauta pauta(String titulo, String descricao) {
+        Pauta pauta = new Pauta();
+        pauta.setId(42L);
+        pauta.setTitulo(titulo);
+        pauta.setDescricao(descricao);
+        pauta.setDataCriacao(Instant.parse("2024-03-01T12:00:00.123456789Z"));
+        return pauta;
+    }
+}
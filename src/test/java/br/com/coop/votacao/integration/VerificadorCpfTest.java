@@ -0,0 +1,137 @@
+package br.com.coop.votacao.integration;
+
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.config.CpfProperties.PoliticaFalha;
+import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.exception.ServicoIndisponivelException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - VerificadorCpf")
+class VerificadorCpfTest {
+
+    @Mock
+    private CpfValidationClient cpfValidationClient;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(VerificadorCpf.CACHE_COMPARTILHADO);
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private VerificadorCpf verificador;
+
+    @AfterEach
+    void tearDown() {
+        if (verificador != null && verificador.isRunning()) {
+            verificador.stop();
+        }
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve fazer uma única consulta para chamadores concorrentes do mesmo CPF")
+    void deveCompartilharConsultaEmAndamento() throws Exception {
+        verificador = verificador(PoliticaFalha.PERMITIR, null);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(cpfValidationClient.validarCpf("12345678901")).thenAnswer(inv -> {
+            liberar.await(2, TimeUnit.SECONDS);
+            return CpfStatus.ABLE_TO_VOTE;
+        });
+
+        List<CompletableFuture<Void>> chamadas = IntStream.range(0, 8)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> verificador.exigirHabilitado("12345678901"), executor))
+                .toList();
+        Thread.sleep(200);
+        liberar.countDown();
+
+        CompletableFuture.allOf(chamadas.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        verify(cpfValidationClient, times(1)).validarCpf("12345678901");
+    }
+
+    @Test
+    @DisplayName("Deve guardar localmente e no cache compartilhado também o resultado não habilitado")
+    void deveGuardarResultadoNaoHabilitado() {
+        verificador = verificador(PoliticaFalha.PERMITIR, null);
+        when(cpfValidationClient.validarCpf("12345678901")).thenReturn(CpfStatus.UNABLE_TO_VOTE);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> verificador.exigirHabilitado("12345678901"))
+                    .isInstanceOf(BusinessException.class)
+                    .hasMessageContaining("não está habilitado");
+        }
+
+        verify(cpfValidationClient, times(1)).validarCpf("12345678901");
+        assertThat(cacheManager.getCache(VerificadorCpf.CACHE_COMPARTILHADO).get("12345678901", String.class))
+                .isEqualTo("UNABLE_TO_VOTE");
+    }
+
+    @Test
+    @DisplayName("Deve abrir o circuito após falhas seguidas e aceitar o voto com a política PERMITIR")
+    void deveAbrirCircuitoEPermitir() {
+        verificador = verificador(PoliticaFalha.PERMITIR, null);
+        when(cpfValidationClient.validarCpf(anyString())).thenThrow(new ResourceAccessException("timeout"));
+
+        for (int i = 0; i < 5; i++) {
+            String cpf = "1234567890" + i;
+            assertThatCode(() -> verificador.exigirHabilitado(cpf)).doesNotThrowAnyException();
+        }
+
+        verify(cpfValidationClient, times(3)).validarCpf(anyString());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o voto com a política BLOQUEAR quando o serviço falha")
+    void deveBloquearQuandoServicoFalha() {
+        verificador = verificador(PoliticaFalha.BLOQUEAR, null);
+        when(cpfValidationClient.validarCpf("12345678901")).thenThrow(new ResourceAccessException("timeout"));
+
+        assertThatThrownBy(() -> verificador.exigirHabilitado("12345678901"))
+                .isInstanceOf(ServicoIndisponivelException.class);
+    }
+
+    @Test
+    @DisplayName("Deve consultar em uma requisição os CPFs verificados juntos quando o lote está ligado")
+    void deveAgruparConsultasEmLote() {
+        verificador = verificador(PoliticaFalha.PERMITIR, "http://localhost:8888/users/lote");
+        verificador.start();
+        when(cpfValidationClient.validarLote(anyList())).thenReturn(Map.of(
+                "12345678901", CpfStatus.ABLE_TO_VOTE,
+                "12345678902", CpfStatus.UNABLE_TO_VOTE));
+
+        Map<String, String> recusados = verificador.recusados(List.of("12345678901", "12345678902", "12345678903"));
+
+        assertThat(recusados).containsOnlyKeys("12345678902", "12345678903");
+        assertThat(recusados.get("12345678903")).isEqualTo("CPF inválido");
+        verify(cpfValidationClient, times(1)).validarLote(anyList());
+        verify(cpfValidationClient, never()).validarCpf(anyString());
+    }
+
+    private VerificadorCpf verificador(PoliticaFalha politica, String urlLote) {
+        CpfProperties properties = new CpfProperties(true, politica, Duration.ofSeconds(1), 1000,
+                Duration.ofHours(1), Duration.ofMinutes(10), urlLote, 100, Duration.ofMillis(50),
+                3, Duration.ofSeconds(30));
+        return new VerificadorCpf(cpfValidationClient, cacheManager, properties, new SimpleMeterRegistry());
+    }
+}
@@ -20,10 +20,12 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -60,7 +62,7 @@ class VotacaoE2ETest extends AbstractIntegrationTest {
 
         redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
 
-        doNothing().when(resultadoPautaProducer).publicar(any());
+        when(resultadoPautaProducer.enviar(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @AfterEach
@@ -202,10 +204,11 @@ class VotacaoE2ETest extends AbstractIntegrationTest {
 
         mockMvc.perform(get("/api/v1/pautas"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(3)))
-                .andExpect(jsonPath("$[0].titulo").exists())
-                .andExpect(jsonPath("$[1].titulo").exists())
-                .andExpect(jsonPath("$[2].titulo").exists());
+                .andExpect(jsonPath("$.itens", hasSize(3)))
+                .andExpect(jsonPath("$.itens[0].titulo").value("Pauta 3"))
+                .andExpect(jsonPath("$.itens[1].titulo").exists())
+                .andExpect(jsonPath("$.itens[2].titulo").exists())
+                .andExpect(jsonPath("$.proximoCursor").doesNotExist());
     }
 
     @Test
@@ -0,0 +1,138 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.EventosVotoProperties;
+import br.com.coop.votacao.domain.VotoValor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - AgregadorTotaisVotos")
+class AgregadorTotaisVotosTest {
+    private static final TopicPartition VOTOS_0 = new TopicPartition("votos", 0);
+    private static final TopicPartition TOTAIS_0 = new TopicPartition("votos-totais", 0);
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private ProducerFactory<String, Object> producerFactory;
+
+    @Mock
+    private ConsumerFactory<String, TotaisSessaoEvento> restauracaoFactory;
+
+    @Mock
+    private ConsumerFactory<String, VotoEvento> consumerFactory;
+
+    @Mock
+    private Consumer<String, TotaisSessaoEvento> leitor;
+
+    private AgregadorTotaisVotos agregador;
+
+    @BeforeEach
+    void setUp() {
+        when(producerFactory.transactionCapable()).thenReturn(true);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        agregador = new AgregadorTotaisVotos(
+                new EventosVotoProperties(true, "votos", "votos-totais", "votacao-agregador-totais", 12, 1,
+                        3, Duration.ofMillis(500)),
+                new AgregadorTotaisVotos.Fabricas(kafkaTemplate, restauracaoFactory, consumerFactory));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    @DisplayName("Deve publicar os totais do lote e somar o lote seguinte após o commit")
+    void deveAvancarEstadoSoAposCommit() {
+        agregador.onMessage(List.of(registro(0, 0L, VotoValor.SIM), registro(0, 1L, VotoValor.NAO), registro(0, 2L, VotoValor.SIM)));
+
+        verify(kafkaTemplate).send("votos-totais", 0, "1", new TotaisSessaoEvento(1L, 10L, 2L, 1L));
+
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+        agregador.onMessage(List.of(registro(0, 3L, VotoValor.SIM)));
+
+        verify(kafkaTemplate).send("votos-totais", 0, "1", new TotaisSessaoEvento(1L, 10L, 3L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve descartar os totais do lote quando a transação é abortada")
+    void deveDescartarEstadoNoRollback() {
+        agregador.onMessage(List.of(registro(0, 0L, VotoValor.SIM)));
+
+        concluir(TransactionSynchronization.STATUS_ROLLED_BACK);
+        agregador.onMessage(List.of(registro(0, 0L, VotoValor.SIM)));
+
+        verify(kafkaTemplate, times(2)).send("votos-totais", 0, "1", new TotaisSessaoEvento(1L, 10L, 1L, 0L));
+    }
+
+    @Test
+    @DisplayName("Deve restaurar os totais da partição atribuída e descartá-los na revogação")
+    void deveRestaurarNaAtribuicaoEDescartarNaRevogacao() {
+        when(restauracaoFactory.createConsumer()).thenReturn(leitor);
+        when(leitor.endOffsets(List.of(TOTAIS_0))).thenReturn(Map.of(TOTAIS_0, 1L));
+        when(leitor.position(TOTAIS_0)).thenReturn(0L, 1L);
+        when(leitor.poll(any(Duration.class))).thenReturn(new ConsumerRecords<>(Map.of(TOTAIS_0,
+                List.of(new ConsumerRecord<>("votos-totais", 0, 0L, "1", new TotaisSessaoEvento(1L, 10L, 5L, 2L))))));
+
+        agregador.onPartitionsAssigned(mock(Consumer.class), List.of(VOTOS_0));
+
+        verify(leitor).assign(List.of(TOTAIS_0));
+        verify(leitor).seekToBeginning(List.of(TOTAIS_0));
+        verify(leitor).close();
+
+        agregador.onPartitionsRevokedAfterCommit(mock(Consumer.class), List.of(VOTOS_0));
+        agregador.onMessage(List.of(registro(0, 7L, VotoValor.NAO)));
+
+        verify(kafkaTemplate).send("votos-totais", 0, "1", new TotaisSessaoEvento(1L, 10L, 0L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve continuar a contagem a partir do estado restaurado")
+    void deveSomarAoEstadoRestaurado() {
+        when(restauracaoFactory.createConsumer()).thenReturn(leitor);
+        when(leitor.endOffsets(List.of(TOTAIS_0))).thenReturn(Map.of(TOTAIS_0, 1L));
+        when(leitor.position(TOTAIS_0)).thenReturn(0L, 1L);
+        when(leitor.poll(any(Duration.class))).thenReturn(new ConsumerRecords<>(Map.of(TOTAIS_0,
+                List.of(new ConsumerRecord<>("votos-totais", 0, 0L, "1", new TotaisSessaoEvento(1L, 10L, 5L, 2L))))));
+        agregador.onPartitionsAssigned(mock(Consumer.class), List.of(VOTOS_0));
+
+        agregador.onMessage(List.of(registro(0, 7L, VotoValor.NAO)));
+        concluir(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(kafkaTemplate).send("votos-totais", 0, "1", new TotaisSessaoEvento(1L, 10L, 5L, 3L));
+    }
+
+    private static ConsumerRecord<String, VotoEvento> registro(int particao, long offset, VotoValor valor) {
+        return new ConsumerRecord<>("votos", particao, offset, "1",
+                new VotoEvento(1L, 10L, "1234567890" + offset, valor, Instant.now()));
+    }
+
+    private static void concluir(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sincronizacao -> sincronizacao.afterCompletion(status));
+    }
+}
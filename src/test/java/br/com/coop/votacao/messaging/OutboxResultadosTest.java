@@ -0,0 +1,137 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.OutboxProperties;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Falha;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Novo;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Pendente;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javacrumbs.shedlock.core.LockProvider;
+import net.javacrumbs.shedlock.core.SimpleLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - OutboxResultados")
+class OutboxResultadosTest {
+
+    @Mock
+    private ResultadoOutboxRepository resultadoOutboxRepository;
+
+    @Mock
+    private ResultadoPautaProducer resultadoPautaProducer;
+
+    @Mock
+    private LockProvider lockProvider;
+
+    @Captor
+    private ArgumentCaptor<List<Novo>> novosCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Falha>> falhasCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OutboxResultados outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new OutboxResultados(resultadoOutboxRepository, resultadoPautaProducer, objectMapper,
+                new OutboxProperties(100, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofDays(7)),
+                lockProvider, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve gravar o evento no outbox com a chave da sessão")
+    void deveGravarEventoComChaveDaSessao() throws Exception {
+        outbox.registrar(List.of(evento(1L, 10L)));
+
+        verify(resultadoOutboxRepository).inserir(novosCaptor.capture());
+        Novo novo = novosCaptor.getValue().get(0);
+        assertThat(novo.chave()).isEqualTo("resultado:10");
+        assertThat(novo.pautaId()).isEqualTo(1L);
+        assertThat(objectMapper.readValue(novo.payload(), ResultadoPautaEvent.class).getTotalSim()).isEqualTo(3);
+        verifyNoInteractions(resultadoPautaProducer);
+    }
+
+    @Test
+    @DisplayName("Deve marcar os confirmados e reagendar as falhas com espera exponencial")
+    void deveMarcarConfirmadosEReagendarFalhas() throws Exception {
+        Instant criadoEm = Instant.now().minusSeconds(2);
+        when(resultadoOutboxRepository.buscarPendentes(any(), eq(100))).thenReturn(List.of(
+                new Pendente(1L, "resultado:10", objectMapper.writeValueAsString(evento(1L, 10L)), criadoEm, 0),
+                new Pendente(2L, "resultado:20", objectMapper.writeValueAsString(evento(2L, 20L)), criadoEm, 3)));
+        when(resultadoPautaProducer.enviar(any(), eq("resultado:10"))).thenReturn(CompletableFuture.completedFuture(null));
+        when(resultadoPautaProducer.enviar(any(), eq("resultado:20")))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Broker indisponível")));
+
+        assertThat(outbox.publicarLote()).isEqualTo(1);
+
+        verify(resultadoPautaProducer).enviar(argThat(e -> e.getPautaId().equals(1L)), eq("resultado:10"));
+        verify(resultadoPautaProducer).descarregar();
+        verify(resultadoOutboxRepository).marcarPublicados(eq(List.of(1L)), any());
+        verify(resultadoOutboxRepository).registrarFalhas(falhasCaptor.capture());
+        Falha falha = falhasCaptor.getValue().get(0);
+        assertThat(falha.id()).isEqualTo(2L);
+        assertThat(falha.proximaTentativa()).isAfter(Instant.now().plusSeconds(7));
+        assertThat(meterRegistry.counter("votacao.outbox.falhas").count()).isEqualTo(1);
+        assertThat(meterRegistry.timer("votacao.outbox.publicacao").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve limitar a espera entre tentativas")
+    void deveLimitarEsperaEntreTentativas() {
+        assertThat(outbox.espera(0)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(outbox.espera(2)).isEqualTo(Duration.ofSeconds(4));
+        assertThat(outbox.espera(30)).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    private static ResultadoPautaEvent evento(Long pautaId, Long sessaoId) {
+        ResultadoPautaEvent event = new ResultadoPautaEvent();
+        event.setPautaId(pautaId);
+        event.setSessaoId(sessaoId);
+        event.setTotalSim(3);
+        event.setTotalNao(1);
+        event.setResultado("APROVADA");
+        event.setDataEncerramentoSessao(Instant.now());
+        return event;
+    }
+
+    @Test
+    @DisplayName("Deve publicar com o lock e não propagar a falha do lock nem do banco")
+    void naoDevePropagarFalhaDoRelay() {
+        SimpleLock lock = mock(SimpleLock.class);
+        when(lockProvider.lock(argThat(config -> config.getName().equals("publicarResultados"))))
+                .thenThrow(new RuntimeException("Redis unavailable"))
+                .thenReturn(Optional.of(lock));
+        when(resultadoOutboxRepository.buscarPendentes(any(Instant.class), eq(100)))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        assertThatCode(() -> outbox.publicarPendentes()).doesNotThrowAnyException();
+        verifyNoInteractions(resultadoOutboxRepository);
+
+        assertThatCode(() -> outbox.publicarPendentes()).doesNotThrowAnyException();
+        verify(lock).unlock();
+    }
+}
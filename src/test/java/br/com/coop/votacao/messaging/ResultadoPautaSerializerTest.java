@@ -0,0 +1,83 @@
+package br.com.coop.votacao.messaging;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Testes Unitários - ResultadoPautaSerializer")
+class ResultadoPautaSerializerTest {
+    private static final String TOPICO = "pauta-resultados-test";
+
+    private final ResultadoPautaSerializer serializer = new ResultadoPautaSerializer();
+    private final ResultadoPautaDeserializer deserializer = new ResultadoPautaDeserializer();
+
+    @Test
+    @DisplayName("Deve ler de volta o evento binário com o cabeçalho de formato")
+    void deveLerDeVoltaEventoBinario() {
+        ResultadoPautaEvent event = evento();
+        RecordHeaders headers = new RecordHeaders();
+
+        byte[] dados = serializer.serialize(TOPICO, headers, event);
+
+        assertThat(new String(headers.lastHeader(ResultadoPautaSerializer.HEADER_FORMATO).value(), StandardCharsets.UTF_8))
+                .isEqualTo("binario-v1");
+        assertThat(deserializer.deserialize(TOPICO, dados)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Deve ser menor que o JSON atual")
+    void deveSerMenorQueJson() {
+        ResultadoPautaEvent event = evento();
+
+        byte[] json = new JsonSerializer<ResultadoPautaEvent>().noTypeInfo().serialize(TOPICO, event);
+
+        assertThat(serializer.serialize(TOPICO, event).length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    @DisplayName("Deve ler o JSON publicado antes da troca de formato")
+    void deveLerJsonAnterior() {
+        ResultadoPautaEvent event = evento();
+        byte[] json = new JsonSerializer<ResultadoPautaEvent>().noTypeInfo().serialize(TOPICO, event);
+
+        assertThat(deserializer.deserialize(TOPICO, json)).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("Deve falhar em uma versão binária desconhecida em vez de descartar o evento")
+    void deveFalharEmVersaoDesconhecida() {
+        byte[] dados = serializer.serialize(TOPICO, evento());
+        dados[1] = 9;
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPICO, dados))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("Versão 9");
+    }
+
+    @Test
+    @DisplayName("Deve validar o codec atual na inicialização")
+    void deveValidarCodec() {
+        assertThatCode(() -> new ResultadoPautaEventCodec().validar()).doesNotThrowAnyException();
+    }
+
+    private static ResultadoPautaEvent evento() {
+        ResultadoPautaEvent event = new ResultadoPautaEvent();
+        event.setPautaId(1L);
+        event.setSessaoId(10L);
+        event.setTotalSim(7L);
+        event.setTotalNao(3L);
+        event.setResultado("APROVADA");
+        event.setDataEncerramentoSessao(Instant.parse("2024-03-01T12:00:00.123456Z"));
+        event.setDataPublicacao(Instant.parse("2024-03-01T12:00:01Z"));
+        return event;
+    }
+}
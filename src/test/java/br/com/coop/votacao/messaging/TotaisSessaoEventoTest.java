@@ -0,0 +1,35 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.domain.VotoValor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Testes Unitários - TotaisSessaoEvento")
+class TotaisSessaoEventoTest {
+
+    @Test
+    @DisplayName("Deve somar os votos da mesma sessão")
+    void deveSomarVotosDaMesmaSessao() {
+        TotaisSessaoEvento totais = TotaisSessaoEvento.inicial(voto(10L, VotoValor.SIM))
+                .somar(voto(10L, VotoValor.NAO))
+                .somar(voto(10L, VotoValor.SIM));
+
+        assertThat(totais).isEqualTo(new TotaisSessaoEvento(1L, 10L, 2L, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve reiniciar a contagem quando chega voto de uma nova sessão da pauta")
+    void deveReiniciarContagemEmNovaSessao() {
+        TotaisSessaoEvento totais = new TotaisSessaoEvento(1L, 10L, 7L, 3L).somar(voto(11L, VotoValor.NAO));
+
+        assertThat(totais).isEqualTo(new TotaisSessaoEvento(1L, 11L, 0L, 1L));
+    }
+
+    private static VotoEvento voto(Long sessaoId, VotoValor valor) {
+        return new VotoEvento(1L, sessaoId, "12345678901", valor, Instant.now());
+    }
+}
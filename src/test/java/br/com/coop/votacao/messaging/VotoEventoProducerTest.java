@@ -0,0 +1,120 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.EventosVotoProperties;
+import br.com.coop.votacao.domain.VotoValor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - VotoEventoProducer")
+class VotoEventoProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final VotoEvento evento = new VotoEvento(1L, 10L, "12345678901", VotoValor.SIM, Instant.now());
+
+    @Test
+    @DisplayName("Deve publicar o voto com a pauta como chave")
+    void devePublicarComPautaComoChave() {
+        when(kafkaTemplate.send("votos", "1", evento)).thenReturn(CompletableFuture.completedFuture(null));
+
+        producer(true).publicar(evento);
+
+        verify(kafkaTemplate).send("votos", "1", evento);
+    }
+
+    @Test
+    @DisplayName("Deve publicar só após o commit da transação corrente")
+    void devePublicarAposCommit() {
+        when(kafkaTemplate.send("votos", "1", evento)).thenReturn(CompletableFuture.completedFuture(null));
+        VotoEventoProducer producer = producer(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            producer.publicarAposCommit(evento);
+            verifyNoInteractions(kafkaTemplate);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(kafkaTemplate).send("votos", "1", evento);
+    }
+
+    @Test
+    @DisplayName("Não deve publicar quando os eventos de voto estão desabilitados")
+    void naoDevePublicarDesabilitado() {
+        VotoEventoProducer producer = producer(false);
+
+        producer.publicarAposCommit(evento);
+        producer.publicar(evento);
+
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    @DisplayName("Não deve propagar falha do Kafka, pois o voto já está gravado")
+    void naoDevePropagarFalhaDoKafka() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenThrow(new RuntimeException("Kafka unavailable"));
+
+        assertThatCode(() -> producer(true).publicar(evento)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Deve reenviar o evento cujo envio falhou")
+    void deveReenviarEventoQueFalhou() {
+        when(kafkaTemplate.send("votos", "1", evento))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka unavailable")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        producer(true).publicar(evento);
+
+        verify(kafkaTemplate, timeout(1_000).times(2)).send("votos", "1", evento);
+        assertThat(meterRegistry.get("votacao.eventos-voto.reenvios").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("votacao.eventos-voto.falhas").counter().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve contar o evento perdido após esgotar as tentativas")
+    void deveContarEventoPerdidoAposTentativas() {
+        when(kafkaTemplate.send(anyString(), anyString(), any())).thenThrow(new RuntimeException("Kafka unavailable"));
+
+        producer(true).publicar(evento);
+
+        verify(kafkaTemplate, timeout(1_000).times(3)).send("votos", "1", evento);
+        long limite = System.currentTimeMillis() + 1_000;
+        while (meterRegistry.get("votacao.eventos-voto.falhas").counter().count() == 0 && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+        }
+        assertThat(meterRegistry.get("votacao.eventos-voto.falhas").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("votacao.eventos-voto.reenvios").counter().count()).isEqualTo(2);
+    }
+
+    private VotoEventoProducer producer(boolean habilitado) {
+        return new VotoEventoProducer(kafkaTemplate,
+                new EventosVotoProperties(habilitado, "votos", "votos-totais", "votacao-agregador-totais", 12, 1,
+                        3, Duration.ofMillis(10)),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,229 @@
+package br.com.coop.votacao.messaging;
+
+import br.com.coop.votacao.config.IngestaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository.VotoPendente;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - VotoStreamConsumer")
+class VotoStreamConsumerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private VotoBatchRepository votoBatchRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Mock
+    private SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    @Mock
+    private VotoEventoProducer votoEventoProducer;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    private VotoStreamConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        IngestaoProperties properties = new IngestaoProperties(IngestaoProperties.Modo.STREAM, "votacao:ingestao:votos",
+                "votacao-ingestao", 500, Duration.ofSeconds(1), Duration.ofSeconds(60), Duration.ofSeconds(30), 5);
+        consumer = new VotoStreamConsumer(redisTemplate, votoBatchRepository, transactionTemplate, properties,
+                sessaoVotacaoRepository, sessaoTallySlotRepository, votoEventoProducer, new SimpleMeterRegistry());
+
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(sessaoVotacaoRepository.buscarParaGravacao(any())).thenReturn(List.of(sessao(SessaoStatus.ABERTA)));
+    }
+
+    @Test
+    @DisplayName("Deve agrupar lote por pauta e valor descartando repetições do mesmo associado")
+    void deveAgruparLotePorPautaEValor() {
+        when(votoBatchRepository.inserirIgnorandoDuplicados(eq(1L), anyList())).thenReturn(2, 1);
+
+        consumer.processarLote(List.of(
+                registro("1-0", "12345678901", "SIM"),
+                registro("2-0", "12345678902", "SIM"),
+                registro("3-0", "12345678901", "NAO"),
+                registro("4-0", "12345678903", "NAO")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VotoPendente>> grupos = ArgumentCaptor.forClass(List.class);
+        verify(votoBatchRepository, times(2)).inserirIgnorandoDuplicados(eq(1L), grupos.capture());
+
+        assertThat(grupos.getAllValues().get(0))
+                .extracting(VotoPendente::associadoId, VotoPendente::valor)
+                .containsExactly(tuple("12345678901", VotoValor.SIM), tuple("12345678902", VotoValor.SIM));
+        assertThat(grupos.getAllValues().get(1))
+                .extracting(VotoPendente::associadoId, VotoPendente::valor)
+                .containsExactly(tuple("12345678903", VotoValor.NAO));
+
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("Deve publicar eventos só dos votos efetivamente inseridos")
+    void devePublicarEventosSoDosVotosInseridos() {
+        when(votoEventoProducer.isHabilitado()).thenReturn(true);
+        when(votoBatchRepository.inserirEmLote(eq(1L), anyList())).thenReturn(new int[]{1, 0});
+
+        consumer.processarLote(List.of(
+                registro("1-0", "12345678901", "SIM"),
+                registro("2-0", "12345678902", "SIM")));
+
+        ArgumentCaptor<VotoEvento> eventos = ArgumentCaptor.forClass(VotoEvento.class);
+        verify(votoEventoProducer).publicar(eventos.capture());
+        assertThat(eventos.getValue().associadoId()).isEqualTo("12345678901");
+        assertThat(eventos.getValue().sessaoId()).isEqualTo(10L);
+        verify(votoBatchRepository, never()).inserirIgnorandoDuplicados(any(), anyList());
+    }
+
+    @Test
+    @DisplayName("Não deve confirmar lote quando gravação no banco falha")
+    void naoDeveConfirmarLoteQuandoBancoFalha() {
+        when(votoBatchRepository.inserirIgnorandoDuplicados(any(), anyList()))
+                .thenThrow(new RuntimeException("DB indisponível"));
+
+        assertThatThrownBy(() -> consumer.processarLote(List.of(registro("1-0", "12345678901", "SIM"))))
+                .hasMessageContaining("DB indisponível");
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("Deve baixar dos pendentes da sessão também a mensagem inválida descartada")
+    void deveBaixarPendentesDaMensagemInvalida() {
+        executarPipelines();
+        when(votoBatchRepository.inserirIgnorandoDuplicados(eq(1L), anyList())).thenReturn(1);
+
+        consumer.processarLote(List.of(
+                registro("1-0", "12345678901", "SIM"),
+                registro("2-0", "12345678902", "TALVEZ")));
+
+        verify(votoBatchRepository).inserirIgnorandoDuplicados(eq(1L), anyList());
+        verify(connection).xAck("votacao:ingestao:votos", "votacao-ingestao", "1-0", "2-0");
+        verify(connection).hIncrBy("votacao:ingestao:votos:pendentes", "10", -2L);
+    }
+
+    @Test
+    @DisplayName("Deve mover para o stream de descartados a mensagem que esgotou as entregas")
+    void deveMoverMensagemEsgotadaParaDescartados() {
+        executarPipelines();
+        when(redisTemplate.<Object, Object>opsForStream()).thenReturn(streamOperations);
+        Consumer dono = Consumer.from("votacao-ingestao", "no-1");
+        when(streamOperations.pending(eq("votacao:ingestao:votos"), any(Consumer.class), any(Range.class), eq(2L)))
+                .thenReturn(new PendingMessages("votacao-ingestao", List.of(
+                        new PendingMessage(RecordId.of("1-0"), dono, Duration.ZERO, 6),
+                        new PendingMessage(RecordId.of("2-0"), dono, Duration.ZERO, 2))));
+        when(votoBatchRepository.inserirIgnorandoDuplicados(eq(1L), anyList())).thenReturn(1);
+
+        consumer.reprocessar(List.of(
+                registro("1-0", "12345678901", "SIM"),
+                registro("2-0", "12345678902", "SIM")));
+
+        ArgumentCaptor<StringRecord> descartado = ArgumentCaptor.forClass(StringRecord.class);
+        verify(connection).xAdd(descartado.capture());
+        assertThat(descartado.getValue().getStream()).isEqualTo("votacao:ingestao:votos:descartados");
+        assertThat(descartado.getValue().getValue())
+                .containsEntry("associadoId", "12345678901")
+                .containsEntry("idOriginal", "1-0");
+        verify(connection).xAck("votacao:ingestao:votos", "votacao-ingestao", "1-0");
+        verify(connection).xAck("votacao:ingestao:votos", "votacao-ingestao", "2-0");
+        verify(connection, times(2)).hIncrBy("votacao:ingestao:votos:pendentes", "10", -1L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<VotoPendente>> gravados = ArgumentCaptor.forClass(List.class);
+        verify(votoBatchRepository).inserirIgnorandoDuplicados(eq(1L), gravados.capture());
+        assertThat(gravados.getValue()).extracting(VotoPendente::associadoId).containsExactly("12345678902");
+    }
+
+    @Test
+    @DisplayName("Deve descartar votos de sessão já encerrada e ainda assim confirmar as mensagens")
+    void deveDescartarVotosDeSessaoEncerrada() {
+        executarPipelines();
+        when(sessaoVotacaoRepository.buscarParaGravacao(any())).thenReturn(List.of(sessao(SessaoStatus.ENCERRADA)));
+
+        consumer.processarLote(List.of(registro("1-0", "12345678901", "SIM")));
+
+        verify(votoBatchRepository, never()).inserirIgnorandoDuplicados(any(), anyList());
+        verify(connection).xAck("votacao:ingestao:votos", "votacao-ingestao", "1-0");
+        verify(connection).hIncrBy("votacao:ingestao:votos:pendentes", "10", -1L);
+        verify(connection, never()).incrBy(any(String.class), anyLong());
+    }
+
+    private static SessaoVotacao sessao(SessaoStatus status) {
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setStatus(status);
+        return sessao;
+    }
+
+    private void executarPipelines() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            inv.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+    }
+
+    private MapRecord<String, Object, Object> registro(String id, String associadoId, String valor) {
+        Map<Object, Object> campos = Map.of(
+                "pautaId", "1",
+                "sessaoId", "10",
+                "associadoId", associadoId,
+                "valor", valor,
+                "dataHora", String.valueOf(System.currentTimeMillis()));
+        return StreamRecords.<String, Object, Object>mapBacked(campos)
+                .withStreamKey("votacao:ingestao:votos")
+                .withId(RecordId.of(id));
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.PautaConsultaRepository.Filtro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(PautaConsultaRepository.class)
+@DisplayName("Testes de Integração - PautaConsultaRepository")
+class PautaConsultaRepositoryTest {
+
+    private static final Instant BASE = Instant.parse("2025-03-01T12:00:00Z");
+
+    @Autowired
+    private PautaConsultaRepository pautaConsultaRepository;
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    private final List<Pauta> pautas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Pauta pauta = new Pauta();
+            pauta.setTitulo("Pauta " + i);
+            pauta.setDataCriacao(BASE.plus(i, ChronoUnit.DAYS));
+            pautas.add(pautaRepository.saveAndFlush(pauta));
+        }
+
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setPauta(pautas.get(3));
+        sessao.setInicio(Instant.now());
+        sessao.setFim(Instant.now().plusSeconds(60));
+        sessao.setStatus(SessaoStatus.ABERTA);
+        sessaoVotacaoRepository.saveAndFlush(sessao);
+    }
+
+    @Test
+    @DisplayName("Deve paginar por id decrescente a partir do cursor")
+    void devePaginarPorCursor() {
+        Filtro semFiltro = new Filtro(null, null, null);
+
+        List<Pauta> primeira = pautaConsultaRepository.buscarPagina(semFiltro, null, 2);
+        List<Pauta> segunda = pautaConsultaRepository.buscarPagina(semFiltro, primeira.get(1).getId(), 2);
+
+        assertThat(primeira).extracting(Pauta::getTitulo).containsExactly("Pauta 4", "Pauta 3");
+        assertThat(segunda).extracting(Pauta::getTitulo).containsExactly("Pauta 2", "Pauta 1");
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por período de criação e sessão aberta")
+    void deveFiltrarPorPeriodoESessaoAberta() {
+        Filtro periodo = new Filtro(BASE.plus(1, ChronoUnit.DAYS), BASE.plus(4, ChronoUnit.DAYS), null);
+
+        assertThat(pautaConsultaRepository.buscarPagina(periodo, null, 10))
+                .extracting(Pauta::getTitulo).containsExactly("Pauta 3", "Pauta 2", "Pauta 1");
+        assertThat(pautaConsultaRepository.buscarPagina(new Filtro(null, null, true), null, 10))
+                .extracting(Pauta::getTitulo).containsExactly("Pauta 3");
+        assertThat(pautaConsultaRepository.buscarPagina(new Filtro(null, null, false), null, 10))
+                .hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todas as pautas do filtro")
+    void devePercorrerTodasAsPautas() {
+        List<String> titulos = new ArrayList<>();
+
+        pautaConsultaRepository.percorrer(new Filtro(BASE.plus(3, ChronoUnit.DAYS), null, null),
+                pauta -> titulos.add(pauta.getTitulo()));
+
+        assertThat(titulos).containsExactly("Pauta 4", "Pauta 3");
+    }
+}
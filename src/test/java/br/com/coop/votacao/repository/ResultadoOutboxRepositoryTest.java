@@ -0,0 +1,64 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Falha;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Novo;
+import br.com.coop.votacao.repository.ResultadoOutboxRepository.Pendente;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(ResultadoOutboxRepository.class)
+@DisplayName("Testes de Integração - ResultadoOutboxRepository")
+class ResultadoOutboxRepositoryTest {
+
+    @Autowired
+    private ResultadoOutboxRepository resultadoOutboxRepository;
+
+    @Test
+    @DisplayName("Deve devolver só os pendentes vencidos, na ordem de gravação")
+    void deveDevolverPendentesVencidos() {
+        Instant criadoEm = Instant.now().minusSeconds(10);
+        resultadoOutboxRepository.inserir(List.of(
+                new Novo("resultado:1", 1L, "{\"sessaoId\":1}", criadoEm),
+                new Novo("resultado:2", 2L, "{\"sessaoId\":2}", criadoEm),
+                new Novo("resultado:3", 3L, "{\"sessaoId\":3}", criadoEm)));
+
+        List<Pendente> pendentes = resultadoOutboxRepository.buscarPendentes(Instant.now(), 10);
+        assertThat(pendentes).extracting(Pendente::chave).containsExactly("resultado:1", "resultado:2", "resultado:3");
+        assertThat(pendentes.get(0).payload()).isEqualTo("{\"sessaoId\":1}");
+
+        resultadoOutboxRepository.marcarPublicados(List.of(pendentes.get(0).id()), Instant.now());
+        resultadoOutboxRepository.registrarFalhas(List.of(new Falha(pendentes.get(1).id(), Instant.now().plusSeconds(60))));
+
+        List<Pendente> restantes = resultadoOutboxRepository.buscarPendentes(Instant.now(), 10);
+        assertThat(restantes).extracting(Pendente::chave).containsExactly("resultado:3");
+        assertThat(resultadoOutboxRepository.resumoPendentes().quantidade()).isEqualTo(2);
+        assertThat(resultadoOutboxRepository.buscarPendentes(Instant.now().plusSeconds(120), 10))
+                .extracting(Pendente::tentativas).containsExactly(1, 0);
+    }
+
+    @Test
+    @DisplayName("Deve remover só os publicados antes do limite")
+    void deveRemoverPublicadosAntigos() {
+        resultadoOutboxRepository.inserir(List.of(
+                new Novo("resultado:1", 1L, "{}", Instant.now()),
+                new Novo("resultado:2", 2L, "{}", Instant.now())));
+        Pendente primeiro = resultadoOutboxRepository.buscarPendentes(Instant.now(), 1).get(0);
+        resultadoOutboxRepository.marcarPublicados(List.of(primeiro.id()), Instant.now().minusSeconds(3600));
+
+        assertThat(resultadoOutboxRepository.removerPublicadosAntesDe(Instant.now().minusSeconds(60))).isEqualTo(1);
+        assertThat(resultadoOutboxRepository.resumoPendentes().quantidade()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(SessaoEncerramentoRepository.class)
+@DisplayName("Testes de Integração - SessaoEncerramentoRepository")
+class SessaoEncerramentoRepositoryTest {
+
+    @Autowired
+    private SessaoEncerramentoRepository sessaoEncerramentoRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private SessaoVotacao aberta1;
+    private SessaoVotacao aberta2;
+    private SessaoVotacao encerrada;
+
+    @BeforeEach
+    void setUp() {
+        aberta1 = sessao(SessaoStatus.ABERTA);
+        aberta2 = sessao(SessaoStatus.ABERTA);
+        encerrada = sessao(SessaoStatus.ENCERRADA);
+    }
+
+    @Test
+    @DisplayName("Deve travar só as sessões abertas")
+    void deveTravarSoAsAbertas() {
+        assertThat(sessaoEncerramentoRepository.travarAbertas(List.of(aberta1.getId(), aberta2.getId(), encerrada.getId())))
+                .containsExactlyInAnyOrder(aberta1.getId(), aberta2.getId());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar várias sessões com os totais de cada uma em um único UPDATE")
+    void deveEncerrarComTotaisDeCada() {
+        aberta1.setTotalSim(7);
+        aberta1.setTotalNao(3);
+        aberta1.setVotoIdReconciliado(42L);
+        aberta1.setReconciliadoSim(7);
+        aberta1.setReconciliadoNao(3);
+        aberta2.setTotalSim(1);
+        encerrada.setTotalSim(99);
+
+        int atualizadas = sessaoEncerramentoRepository.encerrar(List.of(aberta1, aberta2, encerrada));
+        entityManager.clear();
+
+        assertThat(atualizadas).isEqualTo(2);
+        SessaoVotacao s1 = sessaoVotacaoRepository.findById(aberta1.getId()).orElseThrow();
+        assertThat(s1.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
+        assertThat(s1.getTotalSim()).isEqualTo(7);
+        assertThat(s1.getTotalNao()).isEqualTo(3);
+        assertThat(s1.getVotoIdReconciliado()).isEqualTo(42L);
+        assertThat(sessaoVotacaoRepository.findById(aberta2.getId()).orElseThrow().getTotalSim()).isEqualTo(1);
+        assertThat(sessaoVotacaoRepository.findById(encerrada.getId()).orElseThrow().getTotalSim()).isZero();
+    }
+
+    private SessaoVotacao sessao(SessaoStatus status) {
+        Pauta pauta = new Pauta();
+        pauta.setTitulo("Pauta Teste");
+        pauta = pautaRepository.saveAndFlush(pauta);
+
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setPauta(pauta);
+        sessao.setInicio(Instant.now().minusSeconds(120));
+        sessao.setFim(Instant.now().minusSeconds(60));
+        sessao.setStatus(status);
+        return sessaoVotacaoRepository.saveAndFlush(sessao);
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(SessaoTallySlotRepository.class)
+@DisplayName("Testes de Integração - SessaoTallySlotRepository")
+class SessaoTallySlotRepositoryTest {
+
+    @Autowired
+    private SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    @Autowired
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    private SessaoVotacao sessao;
+
+    @BeforeEach
+    void setUp() {
+        Pauta pauta = new Pauta();
+        pauta.setTitulo("Pauta Teste");
+        pauta = pautaRepository.saveAndFlush(pauta);
+
+        sessao = new SessaoVotacao();
+        sessao.setPauta(pauta);
+        sessao.setInicio(Instant.now());
+        sessao.setFim(Instant.now().plusSeconds(60));
+        sessao.setStatus(SessaoStatus.ABERTA);
+        sessao.setSlotsContagem(4);
+        sessao = sessaoVotacaoRepository.saveAndFlush(sessao);
+    }
+
+    @Test
+    @DisplayName("Deve acumular os votos nos slots e somá-los na leitura")
+    void deveAcumularESomarSlots() {
+        sessaoTallySlotRepository.somar(sessao.getId(), 0, new TotaisVotos(1, 0));
+        sessaoTallySlotRepository.somar(sessao.getId(), 3, new TotaisVotos(0, 2));
+        sessaoTallySlotRepository.somar(sessao.getId(), 0, new TotaisVotos(4, 1));
+
+        assertThat(sessaoTallySlotRepository.totais(sessao.getId())).isEqualTo(new TotaisVotos(5, 3));
+    }
+
+    @Test
+    @DisplayName("Deve devolver zero para sessão sem slots")
+    void deveDevolverZeroSemSlots() {
+        assertThat(sessaoTallySlotRepository.totais(sessao.getId())).isEqualTo(TotaisVotos.ZERO);
+    }
+}
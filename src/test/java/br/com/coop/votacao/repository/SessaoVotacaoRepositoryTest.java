@@ -107,6 +107,30 @@ class SessaoVotacaoRepositoryTest {
         assertThat(expiradas.get(0).getId()).isEqualTo(expirada1.getId());
     }
 
+    @Test
+    @DisplayName("Deve buscar sessões do lote para gravação ordenadas por ID")
+    void deveBuscarSessoesParaGravacao() {
+        SessaoVotacao aberta = new SessaoVotacao();
+        aberta.setPauta(pauta);
+        aberta.setInicio(Instant.now());
+        aberta.setFim(Instant.now().plusSeconds(600));
+        aberta = sessaoVotacaoRepository.save(aberta);
+
+        SessaoVotacao encerrada = new SessaoVotacao();
+        encerrada.setPauta(pauta);
+        encerrada.setInicio(Instant.now().minusSeconds(1200));
+        encerrada.setFim(Instant.now().minusSeconds(600));
+        encerrada.setStatus(SessaoStatus.ENCERRADA);
+        encerrada = sessaoVotacaoRepository.save(encerrada);
+
+        List<SessaoVotacao> sessoes = sessaoVotacaoRepository
+                .buscarParaGravacao(List.of(encerrada.getId(), aberta.getId()));
+
+        assertThat(sessoes).extracting(SessaoVotacao::getId).containsExactly(aberta.getId(), encerrada.getId());
+        assertThat(sessoes).extracting(SessaoVotacao::getStatus)
+                .containsExactly(SessaoStatus.ABERTA, SessaoStatus.ENCERRADA);
+    }
+
     @Test
     @DisplayName("Deve atualizar contadores de votos")
     void deveAtualizarContadoresDeVotos() {
@@ -127,4 +151,27 @@ class SessaoVotacaoRepositoryTest {
         assertThat(atualizada.getTotalSim()).isEqualTo(10);
         assertThat(atualizada.getTotalNao()).isEqualTo(5);
     }
+
+    @Test
+    @DisplayName("Deve buscar a última sessão da pauta, mesmo com sessões anteriores encerradas")
+    void deveBuscarUltimaSessaoDaPauta() {
+        SessaoVotacao anterior = new SessaoVotacao();
+        anterior.setPauta(pauta);
+        anterior.setInicio(Instant.now().minusSeconds(1200));
+        anterior.setFim(Instant.now().minusSeconds(600));
+        anterior.setStatus(SessaoStatus.ENCERRADA);
+        sessaoVotacaoRepository.save(anterior);
+
+        SessaoVotacao atual = new SessaoVotacao();
+        atual.setPauta(pauta);
+        atual.setInicio(Instant.now());
+        atual.setFim(Instant.now().plusSeconds(600));
+        atual.setStatus(SessaoStatus.ABERTA);
+        atual = sessaoVotacaoRepository.save(atual);
+
+        Optional<SessaoVotacao> resultado = sessaoVotacaoRepository.findFirstByPautaIdOrderByIdDesc(pauta.getId());
+
+        assertThat(resultado).isPresent();
+        assertThat(resultado.get().getId()).isEqualTo(atual.getId());
+    }
 }
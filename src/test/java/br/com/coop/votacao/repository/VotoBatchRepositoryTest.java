@@ -0,0 +1,97 @@
+package br.com.coop.votacao.repository;
+
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.repository.VotoBatchRepository.VotoPendente;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(VotoBatchRepository.class)
+@DisplayName("Testes de Integração - VotoBatchRepository")
+class VotoBatchRepositoryTest {
+
+    @Autowired
+    private VotoBatchRepository votoBatchRepository;
+
+    @Autowired
+    private VotoRepository votoRepository;
+
+    @Autowired
+    private PautaRepository pautaRepository;
+
+    private Pauta pauta;
+
+    @BeforeEach
+    void setUp() {
+        pauta = new Pauta();
+        pauta.setTitulo("Pauta Teste");
+        pauta = pautaRepository.saveAndFlush(pauta);
+    }
+
+    @Test
+    @DisplayName("Deve inserir lote multi-linha e contar apenas votos novos")
+    void deveInserirLoteIgnorandoDuplicados() {
+        Instant agora = Instant.now();
+
+        int primeiroLote = votoBatchRepository.inserirIgnorandoDuplicados(pauta.getId(), List.of(
+                new VotoPendente("12345678901", VotoValor.SIM, agora),
+                new VotoPendente("12345678902", VotoValor.SIM, agora)));
+
+        int segundoLote = votoBatchRepository.inserirIgnorandoDuplicados(pauta.getId(), List.of(
+                new VotoPendente("12345678902", VotoValor.NAO, agora),
+                new VotoPendente("12345678903", VotoValor.NAO, agora)));
+
+        assertThat(primeiroLote).isEqualTo(2);
+        assertThat(segundoLote).isEqualTo(1);
+        assertThat(votoRepository.countByPautaIdAndValor(pauta.getId(), VotoValor.SIM)).isEqualTo(2);
+        assertThat(votoRepository.countByPautaIdAndValor(pauta.getId(), VotoValor.NAO)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve devolver contagem por item no batch JDBC")
+    void deveDevolverContagemPorItemNoBatch() {
+        Instant agora = Instant.now();
+        votoBatchRepository.inserirEmLote(pauta.getId(), List.of(new VotoPendente("12345678901", VotoValor.SIM, agora)));
+
+        int[] contagens = votoBatchRepository.inserirEmLote(pauta.getId(), List.of(
+                new VotoPendente("12345678901", VotoValor.NAO, agora),
+                new VotoPendente("12345678902", VotoValor.NAO, agora)));
+
+        assertThat(contagens).containsExactly(0, 1);
+        assertThat(votoRepository.countByPautaIdAndValor(pauta.getId(), VotoValor.SIM)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve recusar conexão com rewriteBatchedStatements habilitado")
+    void deveRecusarReescritaDeBatch() {
+        try (HikariDataSource pelaUrl = new HikariDataSource(); HikariDataSource pelasPropriedades = new HikariDataSource()) {
+            pelaUrl.setJdbcUrl("jdbc:mysql://localhost:3306/coop_votacao?rewriteBatchedStatements=true");
+            pelasPropriedades.setJdbcUrl("jdbc:mysql://localhost:3306/coop_votacao");
+            pelasPropriedades.addDataSourceProperty("rewriteBatchedStatements", "true");
+
+            assertThatThrownBy(() -> new VotoBatchRepository(new JdbcTemplate(pelaUrl)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("rewriteBatchedStatements");
+            assertThatThrownBy(() -> new VotoBatchRepository(new JdbcTemplate(pelasPropriedades)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("rewriteBatchedStatements");
+        }
+    }
+}
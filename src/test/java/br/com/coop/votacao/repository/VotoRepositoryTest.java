@@ -3,6 +3,7 @@ package br.com.coop.votacao.repository;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.Voto;
 import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.repository.VotoRepository.ContagemPorValor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +14,10 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -86,6 +91,51 @@ class VotoRepositoryTest {
         assertThat(totalNao).isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("Deve contar votos por valor em uma única consulta agrupada")
+    void deveContarVotosPorValorAgrupados() {
+        long primeiroId = 0L;
+        for (int i = 0; i < 6; i++) {
+            Voto voto = new Voto();
+            voto.setPauta(pauta);
+            voto.setAssociadoId("1234567890" + i);
+            voto.setValor(i % 3 == 0 ? VotoValor.NAO : VotoValor.SIM);
+            Voto salvo = votoRepository.save(voto);
+            if (i == 0) {
+                primeiroId = salvo.getId();
+            }
+        }
+
+        Map<VotoValor, Long> todos = votoRepository.contarPorValorApos(pauta.getId(), 0L).stream()
+                .collect(Collectors.toMap(ContagemPorValor::getValor, ContagemPorValor::getTotal));
+        Map<VotoValor, Long> intervalo = votoRepository.contarPorValorEntre(pauta.getId(), primeiroId, primeiroId + 3).stream()
+                .collect(Collectors.toMap(ContagemPorValor::getValor, ContagemPorValor::getTotal));
+
+        assertThat(todos).containsEntry(VotoValor.SIM, 4L).containsEntry(VotoValor.NAO, 2L);
+        assertThat(intervalo).containsEntry(VotoValor.SIM, 2L).containsEntry(VotoValor.NAO, 1L);
+    }
+
+    @Test
+    @DisplayName("Deve avançar a marca só até os votos gravados antes da margem pelo relógio do banco")
+    void deveBuscarMaiorIdConfirmadoPeloRelogioDoBanco() {
+        long ultimoId = 0L;
+        for (int i = 0; i < 3; i++) {
+            Voto voto = new Voto();
+            voto.setPauta(pauta);
+            voto.setAssociadoId("1234567890" + i);
+            voto.setValor(VotoValor.SIM);
+            // Horário do cliente muito antigo não deve tornar o voto elegível para a marca
+            voto.setDataHora(Instant.parse("2000-01-01T00:00:00Z"));
+            ultimoId = votoRepository.saveAndFlush(voto).getId();
+        }
+
+        assertThat(votoRepository.buscarMaiorIdConfirmado(pauta.getId(), 0L, 3_600_000_000L)).isNull();
+        assertThat(votoRepository.buscarMaiorIdConfirmado(pauta.getId(), 0L, -1_000_000L)).isEqualTo(ultimoId);
+        assertThat(votoRepository.contarPorValor(pauta.getId()))
+                .singleElement()
+                .satisfies(contagem -> assertThat(contagem.getTotal()).isEqualTo(3L));
+    }
+
     @Test
     @DisplayName("Deve garantir unique constraint pauta + associado")
     void deveGarantirUniqueConstraintPautaAssociado() {
@@ -0,0 +1,88 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ContagemProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - AgrupadorIncrementos")
+class AgrupadorIncrementosTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private AgrupadorIncrementos agrupador;
+
+    @BeforeEach
+    void setUp() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>("return redis.call('INCR', KEYS[1])", Long.class);
+        agrupador = new AgrupadorIncrementos(redisTemplate, script,
+                new ContagemProperties(ContagemProperties.Modo.AGRUPADO, Duration.ofSeconds(5), Duration.ofMillis(500), 4, 1, 0),
+                meterRegistry);
+        agrupador.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        agrupador.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve enviar incrementos concorrentes em um único pipeline e responder cada chamador")
+    void deveAgruparIncrementosConcorrentes() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            inv.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return LongStream.rangeClosed(1, 4).boxed().map(Object.class::cast).toList();
+        });
+
+        List<CompletableFuture<Long>> respostas = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> agrupador.incrementar("votacao:sessao:10:sim", 60), executor))
+                .toList();
+
+        assertThat(respostas.stream().map(CompletableFuture::join).toList()).containsExactlyInAnyOrder(1L, 2L, 3L, 4L);
+        verify(connection, times(4)).eval(anyString(), eq(ReturnType.INTEGER), eq(1), eq("votacao:sessao:10:sim"), eq("60"));
+        assertThat(meterRegistry.summary("votacao.contagem.agrupamento.tamanho").count()).isEqualTo(1);
+        assertThat(meterRegistry.summary("votacao.contagem.agrupamento.tamanho").totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha do pipeline ao chamador")
+    void devePropagarFalhaDoPipeline() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("Redis unavailable"));
+
+        assertThatThrownBy(() -> agrupador.incrementar("votacao:sessao:10:nao", 60))
+                .hasMessageContaining("Redis unavailable");
+    }
+}
@@ -0,0 +1,121 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ResultadosProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.service.CacheResultados.ResultadoEncerrado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - CacheResultados")
+class CacheResultadosTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final DefaultRedisScript<Long> registrarScript = new DefaultRedisScript<>("return 1", Long.class);
+    private CacheResultados cacheResultados;
+
+    @BeforeEach
+    void setUp() {
+        cacheResultados = new CacheResultados(redisTemplate, registrarScript,
+                new ResultadosProperties(2, Duration.ofDays(7), Duration.ofSeconds(60), Duration.ofSeconds(2),
+                        Duration.ofSeconds(1), Duration.ofSeconds(30)));
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o Redis só na primeira leitura")
+    void deveGuardarLocalmenteResultadoLidoDoRedis() {
+        when(valueOperations.get("votacao:resultado:1")).thenReturn("10:5:3");
+
+        assertThat(cacheResultados.buscar(1L)).contains(new ResultadoEncerrado(10L, 5, 3));
+        assertThat(cacheResultados.buscar(1L)).contains(new ResultadoEncerrado(10L, 5, 3));
+
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Não deve guardar resultado de sessão aberta")
+    void naoDeveGuardarSessaoAberta() {
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(new Pauta());
+        sessao.setStatus(SessaoStatus.ABERTA);
+
+        cacheResultados.registrar(sessao);
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve seguir sem cache quando o Redis está indisponível")
+    void deveSeguirSemCacheQuandoRedisIndisponivel() {
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Redis unavailable"));
+
+        assertThat(cacheResultados.buscar(1L)).isEmpty();
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("Não deve servir o resultado da sessão anterior depois que a pauta é reaberta")
+    void naoDeveServirResultadoAnteriorAposReabertura() {
+        cacheResultados.registrar(encerrada(10L));
+        assertThat(cacheResultados.buscar(1L)).contains(new ResultadoEncerrado(10L, 5, 3));
+
+        cacheResultados.registrarAbertura(1L, 11L);
+        assertThat(cacheResultados.buscar(1L)).isEmpty();
+
+        // Leitura atrasada da sessão anterior não traz o resultado antigo de volta
+        cacheResultados.registrar(encerrada(10L));
+        assertThat(cacheResultados.buscar(1L)).isEmpty();
+
+        verify(redisTemplate).execute(eq(registrarScript), eq(List.of("votacao:resultado:1")), eq("11"), eq("11"),
+                eq(String.valueOf(Duration.ofDays(7).toMillis())));
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    @DisplayName("Deve tratar a marca de abertura lida do Redis como ausência de resultado")
+    void deveTratarMarcaDeAberturaDoRedisComoAusencia() {
+        when(valueOperations.get("votacao:resultado:1")).thenReturn("11");
+
+        assertThat(cacheResultados.buscar(1L)).isEmpty();
+        assertThat(cacheResultados.buscar(1L)).isEmpty();
+
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    private static SessaoVotacao encerrada(Long sessaoId) {
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(sessaoId);
+        sessao.setPauta(pauta);
+        sessao.setStatus(SessaoStatus.ENCERRADA);
+        sessao.setTotalSim(5);
+        sessao.setTotalNao(3);
+        return sessao;
+    }
+}
@@ -0,0 +1,191 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ContagemProperties;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - ContadorVotos")
+class ContadorVotosTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private DefaultRedisScript<Long> incrementWithTtlScript;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Mock
+    private StringRedisConnection connection;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ContadorVotos contador(ContagemProperties.Modo modo) {
+        return new ContadorVotos(redisTemplate, incrementWithTtlScript,
+                new ContagemProperties(modo, Duration.ofMillis(200), Duration.ofMillis(1), 64, 1, 0),
+                redisMessageListenerContainer, Optional.empty());
+    }
+
+    @Test
+    @DisplayName("Deve incrementar o Redis a cada voto no modo direto")
+    void deveIncrementarRedisNoModoDireto() {
+        contador(ContagemProperties.Modo.DIRETO).incrementar(10L, 1, "12345678901", VotoValor.SIM);
+
+        verify(redisTemplate).execute(eq(incrementWithTtlScript), eq(List.of("votacao:sessao:10:sim")), anyString());
+        verifyNoInteractions(redisMessageListenerContainer);
+    }
+
+    @Test
+    @DisplayName("Deve incrementar o shard escolhido pelo hash do associado")
+    void deveIncrementarShardDoAssociado() {
+        int shard = ContadorVotos.shard("12345678901", 4);
+
+        contador(ContagemProperties.Modo.DIRETO).incrementar(10L, 4, "12345678901", VotoValor.NAO);
+
+        verify(redisTemplate).execute(eq(incrementWithTtlScript),
+                eq(List.of(ContadorVotos.chave(10L, VotoValor.NAO, shard))), anyString());
+        assertThat(ContadorVotos.shard("12345678901", 4)).isEqualTo(shard).isBetween(0, 3);
+    }
+
+    @Test
+    @DisplayName("Deve somar todos os shards com um único MGET")
+    void deveSomarShardsNaLeitura() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of(
+                "votacao:sessao:10:sim", "votacao:sessao:10:sim:1", "votacao:sessao:10:sim:2",
+                "votacao:sessao:10:nao", "votacao:sessao:10:nao:1", "votacao:sessao:10:nao:2")))
+                .thenReturn(Arrays.asList("4", null, "3", "1", "2", null));
+
+        TotaisVotos totais = contador(ContagemProperties.Modo.DIRETO).ler(10L, 3);
+
+        assertThat(totais).isEqualTo(new TotaisVotos(7, 3));
+        verify(valueOperations, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve acumular votos em memória e descarregar com um INCRBY por contador")
+    void deveAcumularEDescarregar() {
+        executarPipelines();
+        ContadorVotos contador = contador(ContagemProperties.Modo.ACUMULADO);
+
+        contador.incrementar(10L, 1, "12345678901", VotoValor.SIM);
+        contador.incrementar(10L, 1, "12345678901", VotoValor.SIM);
+        contador.adicionar(10L, 1, Map.of(VotoValor.NAO, 3L));
+        verifyNoInteractions(redisTemplate);
+
+        contador.descarregar();
+        contador.descarregar();
+
+        verify(connection).incrBy("votacao:sessao:10:sim", 2L);
+        verify(connection).incrBy("votacao:sessao:10:nao", 3L);
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @DisplayName("Deve manter as parciais quando a descarga falha")
+    void deveManterParciaisQuandoDescargaFalha() {
+        ContadorVotos contador = contador(ContagemProperties.Modo.ACUMULADO);
+        contador.incrementar(10L, 1, "12345678901", VotoValor.NAO);
+
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenThrow(new RuntimeException("Redis unavailable"));
+        contador.descarregar();
+
+        executarPipelines();
+        contador.descarregar();
+
+        verify(connection).incrBy("votacao:sessao:10:nao", 1L);
+    }
+
+    @Test
+    @DisplayName("Deve descarregar a sessão e aguardar a confirmação dos nós no encerramento")
+    void deveDescarregarClusterNoEncerramento() {
+        executarPipelines();
+        when(redisTemplate.convertAndSend(eq(ContadorVotos.CANAL_DESCARGA), anyString())).thenReturn(2L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn("1", "2");
+        ContadorVotos contador = contador(ContagemProperties.Modo.ACUMULADO);
+        contador.incrementar(10L, 1, "12345678901", VotoValor.SIM);
+
+        contador.descarregarCluster(10L);
+
+        verify(connection).incrBy("votacao:sessao:10:sim", 1L);
+        verify(valueOperations, times(2)).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Não deve perder votos somados durante a descarga de encerramento")
+    void naoDevePerderVotosDuranteDescargaDeEncerramento() throws Exception {
+        AtomicLong descarregados = new AtomicLong();
+        lenient().when(connection.incrBy(anyString(), anyLong())).thenAnswer(inv -> {
+            descarregados.addAndGet(inv.<Long>getArgument(1));
+            return null;
+        });
+        executarPipelines();
+        ContadorVotos contador = contador(ContagemProperties.Modo.ACUMULADO);
+
+        int threads = 4;
+        int votosPorThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> votantes = IntStream.range(0, threads)
+                    .mapToObj(t -> executor.submit(() -> {
+                        for (int i = 0; i < votosPorThread; i++) {
+                            contador.incrementar(10L, 1, "12345678901", VotoValor.SIM);
+                        }
+                    }))
+                    .collect(Collectors.toList());
+            while (votantes.stream().anyMatch(votante -> !votante.isDone())) {
+                contador.descarregarCluster(10L);
+            }
+            for (Future<?> votante : votantes) {
+                votante.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        contador.descarregar();
+
+        assertThat(descarregados.get()).isEqualTo((long) threads * votosPorThread);
+    }
+
+    private void executarPipelines() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(inv -> {
+            inv.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - EncerramentoLote")
+class EncerramentoLoteTest {
+
+    @Mock
+    private SessaoEncerramentoService sessaoEncerramentoService;
+
+    @Mock
+    private ReconciliadorContagem reconciliadorContagem;
+
+    @Mock
+    private ContadorVotos contadorVotos;
+
+    private EncerramentoLote encerramentoLote;
+
+    @BeforeEach
+    void setUp() {
+        encerramentoLote = new EncerramentoLote(sessaoEncerramentoService, reconciliadorContagem, contadorVotos,
+                new EncerramentoProperties(Duration.ofSeconds(5), 2, Duration.ofSeconds(5), 4, Duration.ofSeconds(60), 64, Duration.ofSeconds(15)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        encerramentoLote.desligar();
+    }
+
+    @Test
+    @DisplayName("Deve encerrar em blocos na ordem do fim com uma leitura do Redis por bloco")
+    void deveEncerrarEmBlocosOrdenadosPorFim() {
+        SessaoVotacao s1 = sessao(1L, 10);
+        SessaoVotacao s2 = sessao(2L, 30);
+        SessaoVotacao s3 = sessao(3L, 20);
+        when(contadorVotos.lerTodos(any())).thenReturn(Map.of(1L, TotaisVotos.ZERO, 2L, TotaisVotos.ZERO, 3L, TotaisVotos.ZERO));
+        when(sessaoEncerramentoService.encerrarApuradas(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<SessaoVotacao> encerradas = encerramentoLote.encerrar(List.of(s1, s2, s3), null);
+
+        assertThat(encerradas).containsExactly(s2, s3, s1);
+        verify(sessaoEncerramentoService).encerrarApuradas(List.of(s2, s3));
+        verify(sessaoEncerramentoService).encerrarApuradas(List.of(s1));
+        verify(sessaoEncerramentoService, times(3)).apurar(any());
+        verify(contadorVotos, times(2)).lerTodos(any());
+    }
+
+    @Test
+    @DisplayName("Deve deixar de fora a sessão cuja apuração falha")
+    void deveIgnorarSessaoComFalhaNaApuracao() {
+        SessaoVotacao s1 = sessao(1L, 20);
+        SessaoVotacao s2 = sessao(2L, 10);
+        lenient().doThrow(new RuntimeException("Timeout da drenagem")).when(sessaoEncerramentoService).apurar(s2);
+        when(sessaoEncerramentoService.encerrarApuradas(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(encerramentoLote.encerrar(List.of(s1, s2), null)).containsExactly(s1);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar uma a uma quando a transação do bloco falha")
+    void deveEncerrarIndividualmenteQuandoBlocoFalha() {
+        SessaoVotacao s1 = sessao(1L, 20);
+        SessaoVotacao s2 = sessao(2L, 10);
+        when(sessaoEncerramentoService.encerrarApuradas(anyList())).thenThrow(new RuntimeException("Kafka indisponível"));
+        when(sessaoEncerramentoService.encerrarPorId(2L)).thenReturn(Optional.of(s2));
+        when(sessaoEncerramentoService.encerrarPorId(1L)).thenThrow(new RuntimeException("Kafka indisponível"));
+
+        assertThat(encerramentoLote.encerrar(List.of(s1, s2), null)).containsExactly(s2);
+    }
+
+    @Test
+    @DisplayName("Não deve começar bloco após o prazo")
+    void naoDeveComecarBlocoAposPrazo() {
+        assertThat(encerramentoLote.encerrar(List.of(sessao(1L, 10)), Instant.now().minusSeconds(1))).isEmpty();
+
+        verifyNoInteractions(sessaoEncerramentoService, contadorVotos, reconciliadorContagem);
+    }
+
+    private static SessaoVotacao sessao(Long id, long segundosAposFim) {
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(id);
+        sessao.setFim(Instant.now().minusSeconds(segundosAposFim));
+        sessao.setStatus(SessaoStatus.ABERTA);
+        return sessao;
+    }
+}
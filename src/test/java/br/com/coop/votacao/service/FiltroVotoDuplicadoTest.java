@@ -0,0 +1,58 @@
+package br.com.coop.votacao.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - FiltroVotoDuplicado")
+class FiltroVotoDuplicadoTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private DefaultRedisScript<Long> reservarVotanteScript;
+
+    @InjectMocks
+    private FiltroVotoDuplicado filtroVotoDuplicado;
+
+    @Test
+    @DisplayName("Deve reservar associado ainda não registrado na sessão")
+    void deveReservarAssociadoNovo() {
+        when(redisTemplate.execute(any(), eq(List.of("votacao:sessao:10:votantes")), eq("12345678901"), anyString()))
+                .thenReturn(1L);
+
+        assertThat(filtroVotoDuplicado.reservar(10L, "12345678901")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve recusar associado já registrado na sessão")
+    void deveRecusarAssociadoJaRegistrado() {
+        when(redisTemplate.execute(any(), any(), anyString(), anyString())).thenReturn(0L);
+
+        assertThat(filtroVotoDuplicado.reservar(10L, "12345678901")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deve deixar a decisão para o banco quando Redis falha")
+    void deveDeixarDecisaoParaBancoQuandoRedisFalha() {
+        when(redisTemplate.execute(any(), any(), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Redis unavailable"));
+
+        assertThat(filtroVotoDuplicado.reservar(10L, "12345678901")).isTrue();
+    }
+}
@@ -0,0 +1,136 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - MembrosEncerramento")
+class MembrosEncerramentoTest {
+    private static final int PARTICOES = 64;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private AgendaEncerramentos agendaEncerramentos;
+
+    private final DefaultRedisScript<List> renovarScript = new DefaultRedisScript<>("return {}", List.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MembrosEncerramento membros;
+
+    @BeforeEach
+    void setUp() {
+        membros = new MembrosEncerramento(redisTemplate, renovarScript, agendaEncerramentos,
+                propriedades(Duration.ofSeconds(15)), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve renovar a cada terço do lease")
+    void deveRenovarACadaTercoDoLease() {
+        assertThat(membros.renovacao()).isEqualTo(Duration.ofSeconds(5));
+        assertThatThrownBy(() -> new MembrosEncerramento(redisTemplate, renovarScript, agendaEncerramentos,
+                propriedades(Duration.ofMillis(2)), meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Deve ficar com todas as partições antes do primeiro registro")
+    void deveFicarComTodasAntesDoRegistro() {
+        assertThat(membros.particoes()).hasSize(PARTICOES);
+        assertThat(membros.responsavel(123L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve dividir as partições entre os nós e mover só as do nó que saiu")
+    void deveMoverSoParticoesDoNoQueSaiu() {
+        List<String> quatro = List.of("no-a", "no-b", "no-c", "no-d");
+        Map<Integer, String> antes = donos(quatro);
+        Map<String, Long> porNo = antes.values().stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertThat(porNo).hasSize(4);
+        assertThat(porNo.values()).allMatch(quantidade -> quantidade >= 8 && quantidade <= 24);
+
+        Map<Integer, String> depois = donos(List.of("no-a", "no-b", "no-d"));
+        antes.forEach((particao, dono) -> {
+            if (!dono.equals("no-c")) {
+                assertThat(depois.get(particao)).isEqualTo(dono);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Deve renovar o lease pelo relógio do Redis e acordar o temporizador ao receber partições")
+    void deveRenovarLeaseEAssumirParticoesDoNoVencido() {
+        // Validade de lease - renovação (15s - 5s), aplicada sobre o TIME do Redis pelo script
+        when(redisTemplate.execute(eq(renovarScript), eq(List.of(MembrosEncerramento.CHAVE)), eq(membros.membro()), eq("10000")))
+                .thenReturn(List.of(membros.membro(), "outro-no"))
+                .thenReturn(List.of(membros.membro()));
+
+        membros.renovar();
+
+        assertThat(membros.particoes().length).isBetween(1, PARTICOES - 1);
+        verify(agendaEncerramentos, never()).acordar();
+
+        membros.renovar();
+
+        assertThat(membros.particoes()).hasSize(PARTICOES);
+        verify(agendaEncerramentos).acordar();
+        assertThat(meterRegistry.get("votacao.encerramento.membros").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve manter a divisão anterior quando o Redis falha")
+    void deveManterDivisaoQuandoRedisFalha() {
+        when(redisTemplate.execute(eq(renovarScript), eq(List.of(MembrosEncerramento.CHAVE)), eq(membros.membro()), any())).thenThrow(new RuntimeException("Redis unavailable"));
+
+        membros.renovar();
+
+        assertThat(membros.particoes()).hasSize(PARTICOES);
+        verifyNoInteractions(agendaEncerramentos);
+    }
+
+    @Test
+    @DisplayName("Deve sair da divisão ao parar")
+    void deveSairDaDivisaoAoParar() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+
+        membros.stop();
+
+        verify(zSetOperations).remove(MembrosEncerramento.CHAVE, membros.membro());
+        assertThat(membros.isRunning()).isFalse();
+    }
+
+    private static EncerramentoProperties propriedades(Duration lease) {
+        return new EncerramentoProperties(Duration.ofSeconds(5), 100, Duration.ofSeconds(5), 8, Duration.ofSeconds(60),
+                PARTICOES, lease);
+    }
+
+    private static Map<Integer, String> donos(List<String> nos) {
+        return IntStream.range(0, PARTICOES).boxed()
+                .collect(Collectors.toMap(Function.identity(), particao -> MembrosEncerramento.dono(nos, particao)));
+    }
+}
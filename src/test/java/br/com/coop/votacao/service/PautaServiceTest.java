@@ -2,7 +2,10 @@ package br.com.coop.votacao.service;
 
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.exception.NotFoundException;
+import br.com.coop.votacao.repository.PautaConsultaRepository;
+import br.com.coop.votacao.repository.PautaConsultaRepository.Filtro;
 import br.com.coop.votacao.repository.PautaRepository;
+import br.com.coop.votacao.service.PautaService.PaginaPautas;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -27,6 +30,9 @@ class PautaServiceTest {
     @Mock
     private PautaRepository pautaRepository;
 
+    @Mock
+    private PautaConsultaRepository pautaConsultaRepository;
+
     @InjectMocks
     private PautaService pautaService;
 
@@ -80,19 +86,24 @@ class PautaServiceTest {
     }
 
     @Test
-    @DisplayName("Deve listar todas as pautas")
-    void deveListarTodasAsPautas() {
+    @DisplayName("Deve devolver a página com o cursor da última pauta quando há mais linhas")
+    void deveDevolverPaginaComProximoCursor() {
         Pauta pauta2 = new Pauta();
         pauta2.setId(2L);
         pauta2.setTitulo("Aprovação de Orçamento");
-        
-        when(pautaRepository.findAll()).thenReturn(Arrays.asList(pautaExemplo, pauta2));
+        Filtro filtro = new Filtro(null, null, null);
+
+        when(pautaConsultaRepository.buscarPagina(filtro, null, 2))
+                .thenReturn(Arrays.asList(pauta2, pautaExemplo));
+        when(pautaConsultaRepository.buscarPagina(filtro, 2L, 2))
+                .thenReturn(List.of(pautaExemplo));
 
-        List<Pauta> resultado = pautaService.listar();
+        PaginaPautas primeira = pautaService.listar(filtro, null, 1);
+        PaginaPautas ultima = pautaService.listar(filtro, 2L, 1);
 
-        assertThat(resultado).hasSize(2);
-        assertThat(resultado).extracting(Pauta::getTitulo)
-                .containsExactly("Construção de Nova Sede", "Aprovação de Orçamento");
-        verify(pautaRepository, times(1)).findAll();
+        assertThat(primeira.itens()).extracting(Pauta::getTitulo).containsExactly("Aprovação de Orçamento");
+        assertThat(primeira.proximoCursor()).isEqualTo(2L);
+        assertThat(ultima.itens()).hasSize(1);
+        assertThat(ultima.proximoCursor()).isNull();
     }
 }
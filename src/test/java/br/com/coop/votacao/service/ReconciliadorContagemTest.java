@@ -0,0 +1,172 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ReconciliacaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import br.com.coop.votacao.repository.VotoRepository;
+import br.com.coop.votacao.repository.VotoRepository.ContagemPorValor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - ReconciliadorContagem")
+class ReconciliadorContagemTest {
+
+    @Mock
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Mock
+    private VotoRepository votoRepository;
+
+    @Mock
+    private ContadorVotos contadorVotos;
+
+    @Mock
+    private SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    private ReconciliadorContagem reconciliador;
+    private SessaoVotacao sessao;
+
+    @BeforeEach
+    void setUp() {
+        reconciliador = new ReconciliadorContagem(sessaoVotacaoRepository, votoRepository, contadorVotos,
+                new ReconciliacaoProperties(Duration.ofSeconds(10)), sessaoTallySlotRepository);
+
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+
+        sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setStatus(SessaoStatus.ABERTA);
+        sessao.setVotoIdReconciliado(100L);
+        sessao.setReconciliadoSim(5L);
+        sessao.setReconciliadoNao(2L);
+    }
+
+    @Test
+    @DisplayName("Deve contar só o intervalo após a marca e avançá-la")
+    void deveAvancarMarcaContandoSoLinhasNovas() {
+        when(votoRepository.buscarMaiorIdConfirmado(eq(1L), eq(100L), anyLong())).thenReturn(150L);
+        when(votoRepository.contarPorValorEntre(1L, 100L, 150L))
+                .thenReturn(List.of(contagem(VotoValor.SIM, 3, 140L), contagem(VotoValor.NAO, 1, 150L)));
+        when(sessaoVotacaoRepository.avancarReconciliacao(10L, 100L, 150L, 3L, 1L)).thenReturn(1);
+        when(votoRepository.contarPorValorApos(1L, 150L)).thenReturn(List.of());
+        when(contadorVotos.ler(10L, 1)).thenReturn(new TotaisVotos(8, 3));
+
+        reconciliador.reconciliar(sessao, 10_000_000L);
+
+        verify(sessaoVotacaoRepository).avancarReconciliacao(10L, 100L, 150L, 3L, 1L);
+        verify(contadorVotos, never()).ajustar(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Deve corrigir o Redis só quando a mesma divergência se repete")
+    void deveCorrigirSomenteDivergenciaRepetida() {
+        when(votoRepository.buscarMaiorIdConfirmado(eq(1L), eq(100L), anyLong())).thenReturn(null);
+        when(votoRepository.contarPorValorApos(1L, 100L)).thenReturn(List.of(contagem(VotoValor.SIM, 1, 101L)));
+        when(contadorVotos.ler(10L, 1)).thenReturn(new TotaisVotos(4, 2));
+
+        reconciliador.reconciliar(sessao, 10_000_000L);
+        verify(contadorVotos, never()).ajustar(anyLong(), any());
+
+        reconciliador.reconciliar(sessao, 10_000_000L);
+        verify(contadorVotos).ajustar(10L, new TotaisVotos(2, 0));
+        verify(sessaoVotacaoRepository, never()).avancarReconciliacao(anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Não deve corrigir quando a marca foi avançada por outra execução")
+    void naoDeveCorrigirQuandoMarcaMudou() {
+        when(votoRepository.buscarMaiorIdConfirmado(eq(1L), eq(100L), anyLong())).thenReturn(120L);
+        when(votoRepository.contarPorValorEntre(1L, 100L, 120L)).thenReturn(List.of(contagem(VotoValor.SIM, 2, 120L)));
+        when(sessaoVotacaoRepository.avancarReconciliacao(10L, 100L, 120L, 2L, 0L)).thenReturn(0);
+
+        reconciliador.reconciliar(sessao, 10_000_000L);
+
+        verify(votoRepository, never()).contarPorValorApos(anyLong(), anyLong());
+        verifyNoInteractions(contadorVotos);
+    }
+
+    @Test
+    @DisplayName("Deve devolver os totais exatos e gravar a marca no encerramento")
+    void deveDevolverTotaisExatosNoEncerramento() {
+        when(votoRepository.contarPorValor(1L))
+                .thenReturn(List.of(contagem(VotoValor.SIM, 7, 180L), contagem(VotoValor.NAO, 6, 175L)));
+        when(contadorVotos.ler(10L, 1)).thenThrow(new RuntimeException("Redis unavailable"));
+
+        TotaisVotos totais = reconciliador.reconciliarFinal(sessao);
+
+        assertThat(totais).isEqualTo(new TotaisVotos(7, 6));
+        assertThat(sessao.getVotoIdReconciliado()).isEqualTo(180L);
+        assertThat(sessao.getReconciliadoSim()).isEqualTo(7L);
+        assertThat(sessao.getReconciliadoNao()).isEqualTo(6L);
+        verify(contadorVotos, never()).ajustar(anyLong(), any());
+        verify(votoRepository, never()).contarPorValorApos(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve encerrar com a contagem completa quando um voto confirmou abaixo da marca")
+    void deveEncerrarComContagemCompletaQuandoMarcaPulouVoto() {
+        // Voto de id < 100 confirmado depois que a marca passou por ele
+        when(votoRepository.contarPorValor(1L))
+                .thenReturn(List.of(contagem(VotoValor.SIM, 7, 130L), contagem(VotoValor.NAO, 2, 99L)));
+        when(contadorVotos.ler(10L, 1)).thenReturn(new TotaisVotos(7, 2));
+
+        TotaisVotos totais = reconciliador.reconciliarFinal(sessao);
+
+        assertThat(totais).isEqualTo(new TotaisVotos(7, 2));
+        assertThat(sessao.getVotoIdReconciliado()).isEqualTo(130L);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar com a soma dos slots sem contar a tabela voto")
+    void deveEncerrarComSomaDosSlots() {
+        sessao.setSlotsContagem(8);
+        when(sessaoTallySlotRepository.totais(10L)).thenReturn(new TotaisVotos(40, 12));
+        when(contadorVotos.ler(10L, 1)).thenReturn(new TotaisVotos(40, 12));
+
+        TotaisVotos totais = reconciliador.reconciliarFinal(sessao);
+
+        assertThat(totais).isEqualTo(new TotaisVotos(40, 12));
+        assertThat(sessao.getReconciliadoSim()).isEqualTo(40L);
+        verifyNoInteractions(votoRepository);
+    }
+
+    private static ContagemPorValor contagem(VotoValor valor, long total, long maiorId) {
+        return new ContagemPorValor() {
+            @Override
+            public VotoValor getValor() {
+                return valor;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+
+            @Override
+            public long getMaiorId() {
+                return maiorId;
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.AptosProperties;
+import br.com.coop.votacao.service.RegistroAptos.Carga;
+import br.com.coop.votacao.service.RegistroAptos.Situacao;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Testes Unitários - RegistroAptos")
+class RegistroAptosTest {
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    @DisplayName("Deve responder apto só para CPFs da lista, ignorando linhas inválidas e repetidas")
+    void deveConsultarListaCarregada() throws Exception {
+        RegistroAptos registro = registro(10);
+
+        Carga carga = registro.carregar(1L, texto("""
+                # lista da assembleia
+                12345678901
+                123.456.789-02
+                12345678901
+                invalido
+                """));
+
+        assertThat(carga).isEqualTo(new Carga(2, 1));
+        assertThat(registro.consultar(1L, "12345678901")).isEqualTo(Situacao.APTO);
+        assertThat(registro.consultar(1L, "12345678902")).isEqualTo(Situacao.APTO);
+        assertThat(registro.consultar(1L, "12345678903")).isEqualTo(Situacao.NAO_APTO);
+        assertThat(registro.consultar(1L, "123")).isEqualTo(Situacao.NAO_APTO);
+        assertThat(registro.consultar(2L, "12345678901")).isEqualTo(Situacao.SEM_LISTA);
+    }
+
+    @Test
+    @DisplayName("Deve encontrar todos os CPFs de uma lista grande com e sem filtro de Bloom")
+    void deveEncontrarTodosOsCpfsDeListaGrande() throws Exception {
+        StringBuilder lista = new StringBuilder();
+        LongStream.range(0, 50_000).map(i -> 10_000_000_000L + i * 7).forEach(cpf -> lista.append(cpf).append('\n'));
+
+        for (int bits : new int[]{0, 10}) {
+            RegistroAptos registro = registro(bits);
+            registro.carregar(1L, texto(lista.toString()));
+
+            assertThat(LongStream.range(0, 50_000).allMatch(i ->
+                    registro.consultar(1L, String.valueOf(10_000_000_000L + i * 7)) == Situacao.APTO)).isTrue();
+            assertThat(LongStream.range(0, 50_000).noneMatch(i ->
+                    registro.consultar(1L, String.valueOf(10_000_000_001L + i * 7)) == Situacao.APTO)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve trocar a lista de outro nó na varredura, sem reinício, e esquecer listas removidas")
+    void deveTrocarListaNaVarredura() throws Exception {
+        RegistroAptos outroNo = registro(10);
+        outroNo.carregar(1L, texto("12345678901\n"));
+
+        RegistroAptos registro = registro(10);
+        registro.varrer();
+        assertThat(registro.consultar(1L, "12345678901")).isEqualTo(Situacao.APTO);
+
+        Path arquivo = diretorio.resolve("pauta-1.aptos");
+        outroNo.carregar(1L, texto("12345678902\n"));
+        // Garante uma data de modificação diferente mesmo em sistemas de arquivos com resolução de segundos
+        Files.setLastModifiedTime(arquivo, FileTime.from(Instant.now().plusSeconds(5)));
+        registro.varrer();
+        assertThat(registro.consultar(1L, "12345678901")).isEqualTo(Situacao.NAO_APTO);
+        assertThat(registro.consultar(1L, "12345678902")).isEqualTo(Situacao.APTO);
+
+        outroNo.remover(1L);
+        registro.varrer();
+        assertThat(registro.consultar(1L, "12345678902")).isEqualTo(Situacao.SEM_LISTA);
+    }
+
+    private RegistroAptos registro(int bitsBloom) {
+        return new RegistroAptos(new AptosProperties(diretorio.toString(), bitsBloom));
+    }
+
+    private static ByteArrayInputStream texto(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,139 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - RegistroSessoesAbertas")
+class RegistroSessoesAbertasTest {
+
+    @Mock
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private DefaultRedisScript<Long> publicarVersionadoScript;
+
+    @Mock
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Mock
+    private CacheResultados cacheResultados;
+
+    @InjectMocks
+    private RegistroSessoesAbertas registro;
+
+    private SessaoVotacao sessao;
+
+    @BeforeEach
+    void setUp() {
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+
+        sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setInicio(Instant.now().minusSeconds(60));
+        sessao.setFim(Instant.now().plusSeconds(300));
+        sessao.setStatus(SessaoStatus.ABERTA);
+
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("Deve carregar sessões abertas do banco com a versão do Redis")
+    void deveCarregarSessoesAbertas() {
+        when(valueOperations.get(RegistroSessoesAbertas.VERSAO_KEY)).thenReturn("5");
+        when(sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA)).thenReturn(List.of(sessao));
+
+        registro.ressincronizar();
+
+        assertThat(registro.versaoLocal()).isEqualTo(5L);
+        assertThat(registro.buscar(1L)).hasValueSatisfying(aberta -> {
+            assertThat(aberta.sessaoId()).isEqualTo(10L);
+            assertThat(aberta.abertaEm(Instant.now())).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("Deve atualizar o mapa local e publicar ao abrir e encerrar sessão")
+    void deveAtualizarMapaEPublicar() {
+        registro.registrarAbertura(sessao);
+        assertThat(registro.buscar(1L)).isPresent();
+
+        registro.registrarEncerramento(sessao);
+        assertThat(registro.buscar(1L)).isEmpty();
+
+        verify(redisTemplate, times(2)).execute(eq(publicarVersionadoScript),
+                eq(List.of(RegistroSessoesAbertas.VERSAO_KEY)), eq(RegistroSessoesAbertas.CANAL), anyString());
+        verify(cacheResultados).registrarAbertura(1L, 10L);
+    }
+
+    @Test
+    @DisplayName("Deve aplicar eventos em sequência e ignorar versões antigas")
+    void deveAplicarEventosEmSequencia() {
+        when(valueOperations.get(RegistroSessoesAbertas.VERSAO_KEY)).thenReturn("3");
+        when(sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA)).thenReturn(List.of());
+        registro.ressincronizar();
+
+        registro.onMessage(mensagem("4:A:2:20:" + Instant.now().minusSeconds(1).toEpochMilli()
+                + ":" + Instant.now().plusSeconds(60).toEpochMilli() + ":4:8"), null);
+        registro.onMessage(mensagem("3:E:2:20"), null);
+
+        assertThat(registro.versaoLocal()).isEqualTo(4L);
+        assertThat(registro.buscar(2L)).hasValueSatisfying(aberta -> {
+            assertThat(aberta.sessaoId()).isEqualTo(20L);
+            assertThat(aberta.shardsContador()).isEqualTo(4);
+            assertThat(aberta.slotsContagem()).isEqualTo(8);
+        });
+        verify(cacheResultados).marcarAbertura(2L, 20L);
+        verify(sessaoVotacaoRepository, times(1)).findByStatus(any());
+    }
+
+    @Test
+    @DisplayName("Deve recarregar do banco ao detectar lacuna de versão")
+    void deveRecarregarAoDetectarLacuna() {
+        when(valueOperations.get(RegistroSessoesAbertas.VERSAO_KEY)).thenReturn("3", "7");
+        when(sessaoVotacaoRepository.findByStatus(SessaoStatus.ABERTA)).thenReturn(List.of()).thenReturn(List.of(sessao));
+        registro.ressincronizar();
+
+        registro.onMessage(mensagem("7:E:9:90"), null);
+
+        assertThat(registro.versaoLocal()).isEqualTo(7L);
+        assertThat(registro.buscar(1L)).isPresent();
+    }
+
+    private static DefaultMessage mensagem(String corpo) {
+        return new DefaultMessage(RegistroSessoesAbertas.CANAL.getBytes(StandardCharsets.UTF_8),
+                corpo.getBytes(StandardCharsets.UTF_8));
+    }
+}
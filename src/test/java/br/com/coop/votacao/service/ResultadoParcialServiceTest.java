@@ -0,0 +1,91 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.ResultadosProperties;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.exception.ServicoIndisponivelException;
+import br.com.coop.votacao.service.RegistroSessoesAbertas.SessaoAberta;
+import br.com.coop.votacao.service.ResultadoParcialService.Parcial;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - ResultadoParcialService")
+class ResultadoParcialServiceTest {
+
+    @Mock
+    private RegistroSessoesAbertas registroSessoesAbertas;
+
+    @Mock
+    private SessaoVotacaoService sessaoVotacaoService;
+
+    @Mock
+    private CacheResultados cacheResultados;
+
+    @Mock
+    private ContadorVotos contadorVotos;
+
+    private SessaoAberta sessao;
+
+    @BeforeEach
+    void setUp() {
+        sessao = new SessaoAberta(10L, 1L, Instant.now().minusSeconds(60), Instant.now().plusSeconds(60), 4, 0);
+        when(cacheResultados.buscar(1L)).thenReturn(Optional.empty());
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(sessao));
+    }
+
+    @Test
+    @DisplayName("Deve ler os contadores uma única vez dentro do intervalo")
+    void deveLerContadoresUmaVezPorIntervalo() {
+        ResultadoParcialService service = service(Duration.ofMinutes(1), Duration.ofMinutes(5));
+        when(contadorVotos.ler(10L, 4)).thenReturn(new TotaisVotos(42, 17));
+
+        Parcial primeira = service.parcial(1L);
+        Parcial segunda = service.parcial(1L);
+
+        assertThat(primeira.totais()).isEqualTo(new TotaisVotos(42, 17));
+        assertThat(primeira.provisorio()).isTrue();
+        assertThat(segunda.atualizadoEm()).isEqualTo(primeira.atualizadoEm());
+        verify(contadorVotos, times(1)).ler(10L, 4);
+        verifyNoInteractions(sessaoVotacaoService);
+    }
+
+    @Test
+    @DisplayName("Deve servir a última leitura quando o Redis falha dentro da defasagem máxima")
+    void deveServirUltimaLeituraQuandoRedisFalha() {
+        ResultadoParcialService service = service(Duration.ZERO, Duration.ofMinutes(5));
+        when(contadorVotos.ler(10L, 4))
+                .thenReturn(new TotaisVotos(5, 1))
+                .thenThrow(new RuntimeException("Redis unavailable"));
+
+        service.parcial(1L);
+
+        assertThat(service.parcial(1L).totais()).isEqualTo(new TotaisVotos(5, 1));
+    }
+
+    @Test
+    @DisplayName("Deve falhar com 503 quando não há leitura recente")
+    void deveFalharSemLeituraRecente() {
+        ResultadoParcialService service = service(Duration.ZERO, Duration.ZERO);
+        when(contadorVotos.ler(10L, 4)).thenThrow(new RuntimeException("Redis unavailable"));
+
+        assertThatThrownBy(() -> service.parcial(1L)).isInstanceOf(ServicoIndisponivelException.class);
+    }
+
+    private ResultadoParcialService service(Duration intervalo, Duration defasagemMaxima) {
+        return new ResultadoParcialService(registroSessoesAbertas, sessaoVotacaoService, cacheResultados, contadorVotos,
+                new ResultadosProperties(10000, Duration.ofDays(7), Duration.ofSeconds(60), Duration.ofSeconds(2),
+                        intervalo, defasagemMaxima));
+    }
+}
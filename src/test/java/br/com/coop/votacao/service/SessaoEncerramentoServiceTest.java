@@ -1,31 +1,37 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.IngestaoProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
-import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.domain.TotaisVotos;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.messaging.ResultadoPautaEvent;
-import br.com.coop.votacao.messaging.ResultadoPautaProducer;
+import br.com.coop.votacao.messaging.OutboxResultados;
+import br.com.coop.votacao.messaging.VotoStreamProducer;
+import br.com.coop.votacao.repository.SessaoEncerramentoRepository;
 import br.com.coop.votacao.repository.SessaoVotacaoRepository;
-import br.com.coop.votacao.repository.VotoRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,19 +42,37 @@ class SessaoEncerramentoServiceTest {
     private SessaoVotacaoRepository sessaoVotacaoRepository;
 
     @Mock
-    private VotoRepository votoRepository;
+    private StringRedisTemplate redisTemplate;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private OutboxResultados outboxResultados;
+
+    @Mock
+    private VotoStreamProducer votoStreamProducer;
+
+    @Mock
+    private IngestaoProperties ingestaoProperties;
 
     @Mock
-    private ValueOperations<String, String> valueOperations;
+    private RegistroSessoesAbertas registroSessoesAbertas;
 
     @Mock
-    private ResultadoPautaProducer resultadoPautaProducer;
+    private ContadorVotos contadorVotos;
+
+    @Mock
+    private ReconciliadorContagem reconciliadorContagem;
+
+    @Mock
+    private TransmissaoResultados transmissaoResultados;
+
+    @Mock
+    private SessaoEncerramentoRepository sessaoEncerramentoRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @Captor
-    private ArgumentCaptor<ResultadoPautaEvent> eventCaptor;
+    private ArgumentCaptor<List<ResultadoPautaEvent>> eventosCaptor;
 
     @InjectMocks
     private SessaoEncerramentoService sessaoEncerramentoService;
@@ -70,85 +94,66 @@ class SessaoEncerramentoServiceTest {
         sessao.setStatus(SessaoStatus.ABERTA);
         sessao.setTotalSim(0);
         sessao.setTotalNao(0);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
-    @DisplayName("Deve encerrar sessão com contadores do Redis")
-    void deveEncerrarSessaoComContadoresDoRedis() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.multiGet(anyList())).thenReturn(List.of("7", "3"));
-        when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
-        doNothing().when(resultadoPautaProducer).publicar(any());
+    @DisplayName("Deve encerrar sessão com os totais da reconciliação final")
+    void deveEncerrarSessaoComTotaisDaReconciliacaoFinal() {
+        when(reconciliadorContagem.reconciliarFinal(sessao)).thenReturn(new TotaisVotos(7, 3));
 
-        sessaoEncerramentoService.encerrar(sessao);
+        assertThat(encerrarPorId()).contains(sessao);
 
         assertThat(sessao.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
         assertThat(sessao.getTotalSim()).isEqualTo(7);
         assertThat(sessao.getTotalNao()).isEqualTo(3);
 
         verify(sessaoVotacaoRepository).save(sessao);
-        verify(resultadoPautaProducer).publicar(eventCaptor.capture());
+        verify(outboxResultados).registrar(eventosCaptor.capture());
 
-        ResultadoPautaEvent event = eventCaptor.getValue();
+        ResultadoPautaEvent event = eventosCaptor.getValue().get(0);
         assertThat(event.getPautaId()).isEqualTo(1L);
         assertThat(event.getTotalSim()).isEqualTo(7);
         assertThat(event.getTotalNao()).isEqualTo(3);
         assertThat(event.getResultado()).isEqualTo("APROVADA");
 
         verify(redisTemplate).delete(anyList());
+        verify(registroSessoesAbertas).registrarEncerramento(sessao);
+        verify(transmissaoResultados).encerrarAposCommit(sessao);
+
+        InOrder ordem = inOrder(contadorVotos, reconciliadorContagem);
+        ordem.verify(contadorVotos).descarregarCluster(10L);
+        ordem.verify(reconciliadorContagem).reconciliarFinal(sessao);
     }
 
     @Test
-    @DisplayName("Deve usar fallback do banco quando contadores Redis são zero")
-    void deveUsarFallbackDoBancoQuandoRedisZerado() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.multiGet(anyList())).thenReturn(List.of("0", "0"));
-        when(votoRepository.countByPautaIdAndValor(1L, VotoValor.SIM)).thenReturn(4L);
-        when(votoRepository.countByPautaIdAndValor(1L, VotoValor.NAO)).thenReturn(4L);
-        when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
-        doNothing().when(resultadoPautaProducer).publicar(any());
+    @DisplayName("Deve calcular empate quando os totais são iguais")
+    void deveCalcularEmpate() {
+        when(reconciliadorContagem.apurarFinal(sessao)).thenReturn(new TotaisVotos(4, 4));
+        when(sessaoEncerramentoRepository.travarAbertas(List.of(10L))).thenReturn(List.of(10L));
 
-        sessaoEncerramentoService.encerrar(sessao);
+        sessaoEncerramentoService.apurar(sessao);
+        sessaoEncerramentoService.encerrarApuradas(List.of(sessao));
 
         assertThat(sessao.getTotalSim()).isEqualTo(4);
         assertThat(sessao.getTotalNao()).isEqualTo(4);
 
-        verify(resultadoPautaProducer).publicar(eventCaptor.capture());
-        assertThat(eventCaptor.getValue().getResultado()).isEqualTo("EMPATE");
-    }
-
-    @Test
-    @DisplayName("Deve usar fallback do banco quando Redis falha")
-    void deveUsarFallbackDoBancoQuandoRedisFalha() {
-        when(redisTemplate.opsForValue()).thenThrow(new RuntimeException("Redis unavailable"));
-        when(votoRepository.countByPautaIdAndValor(1L, VotoValor.SIM)).thenReturn(2L);
-        when(votoRepository.countByPautaIdAndValor(1L, VotoValor.NAO)).thenReturn(5L);
-        when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
-        doNothing().when(resultadoPautaProducer).publicar(any());
-
-        sessaoEncerramentoService.encerrar(sessao);
-
-        assertThat(sessao.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
-        assertThat(sessao.getTotalSim()).isEqualTo(2);
-        assertThat(sessao.getTotalNao()).isEqualTo(5);
-
-        verify(resultadoPautaProducer).publicar(eventCaptor.capture());
-        assertThat(eventCaptor.getValue().getResultado()).isEqualTo("REPROVADA");
+        verify(outboxResultados).registrar(eventosCaptor.capture());
+        assertThat(eventosCaptor.getValue().get(0).getResultado()).isEqualTo("EMPATE");
     }
 
     @Test
-    @DisplayName("Deve publicar evento Kafka ao encerrar sessão")
-    void devePublicarEventoKafkaAoEncerrar() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.multiGet(anyList())).thenReturn(List.of("10", "0"));
-        when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
-        doNothing().when(resultadoPautaProducer).publicar(any());
+    @DisplayName("Deve registrar o evento de resultado no outbox ao encerrar sessão")
+    void deveRegistrarEventoNoOutboxAoEncerrar() {
+        when(reconciliadorContagem.reconciliarFinal(sessao)).thenReturn(new TotaisVotos(10, 0));
 
-        sessaoEncerramentoService.encerrar(sessao);
+        encerrarPorId();
 
-        verify(resultadoPautaProducer, times(1)).publicar(eventCaptor.capture());
+        verify(outboxResultados, times(1)).registrar(eventosCaptor.capture());
 
-        ResultadoPautaEvent event = eventCaptor.getValue();
+        ResultadoPautaEvent event = eventosCaptor.getValue().get(0);
         assertThat(event.getPautaId()).isEqualTo(1L);
         assertThat(event.getSessaoId()).isEqualTo(10L);
         assertThat(event.getResultado()).isEqualTo("APROVADA");
@@ -158,16 +163,87 @@ class SessaoEncerramentoServiceTest {
     @Test
     @DisplayName("Deve continuar mesmo quando falha ao limpar Redis")
     void deveContinuarQuandoFalhaAoLimparRedis() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.multiGet(anyList())).thenReturn(List.of("3", "2"));
-        when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
-        doNothing().when(resultadoPautaProducer).publicar(any());
+        when(sessaoEncerramentoRepository.travarAbertas(List.of(10L))).thenReturn(List.of(10L));
         when(redisTemplate.delete(anyList())).thenThrow(new RuntimeException("Redis delete failed"));
 
-        sessaoEncerramentoService.encerrar(sessao);
+        assertThat(sessaoEncerramentoService.encerrarApuradas(List.of(sessao))).containsExactly(sessao);
 
         assertThat(sessao.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
-        verify(sessaoVotacaoRepository).save(sessao);
-        verify(resultadoPautaProducer).publicar(any());
+        verify(sessaoEncerramentoRepository).encerrar(List.of(sessao));
+        verify(outboxResultados).registrar(anyList());
+    }
+
+    @Test
+    @DisplayName("Deve aguardar drenagem do stream antes de apurar os totais")
+    void deveAguardarDrenagemDoStreamAntesDeApurar() {
+        when(ingestaoProperties.isStream()).thenReturn(true);
+        when(reconciliadorContagem.apurarFinal(sessao)).thenReturn(new TotaisVotos(1, 0));
+
+        sessaoEncerramentoService.apurar(sessao);
+
+        InOrder ordem = inOrder(votoStreamProducer, contadorVotos, reconciliadorContagem);
+        ordem.verify(votoStreamProducer).aguardarDrenagem(10L);
+        ordem.verify(contadorVotos).descarregarCluster(10L);
+        ordem.verify(reconciliadorContagem).apurarFinal(sessao);
+        // A apuração em lote não abre transação: a trava só é tomada em encerrarApuradas
+        verifyNoInteractions(transactionTemplate);
+        assertThat(sessao.getTotalSim()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve aguardar os votos pendentes antes de travar a sessão ao encerrar por id")
+    void deveAguardarVotosAntesDeTravarAoEncerrarPorId() {
+        when(ingestaoProperties.isStream()).thenReturn(true);
+        when(sessaoVotacaoRepository.findById(10L)).thenReturn(Optional.of(sessao));
+        when(sessaoVotacaoRepository.buscarParaEncerramento(10L)).thenReturn(Optional.of(sessao));
+        when(reconciliadorContagem.reconciliarFinal(sessao)).thenReturn(new TotaisVotos(1, 0));
+
+        assertThat(sessaoEncerramentoService.encerrarPorId(10L)).contains(sessao);
+
+        InOrder ordem = inOrder(votoStreamProducer, contadorVotos, transactionTemplate, sessaoVotacaoRepository);
+        ordem.verify(votoStreamProducer).aguardarDrenagem(10L);
+        ordem.verify(contadorVotos).descarregarCluster(10L);
+        ordem.verify(transactionTemplate).execute(any());
+        ordem.verify(sessaoVotacaoRepository).buscarParaEncerramento(10L);
+        assertThat(sessao.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
+    }
+
+    @Test
+    @DisplayName("Não deve aguardar votos nem abrir transação para sessão já encerrada")
+    void naoDeveEncerrarPorIdSessaoJaEncerrada() {
+        sessao.setStatus(SessaoStatus.ENCERRADA);
+        when(sessaoVotacaoRepository.findById(10L)).thenReturn(Optional.of(sessao));
+
+        assertThat(sessaoEncerramentoService.encerrarPorId(10L)).isEmpty();
+
+        verifyNoInteractions(votoStreamProducer, contadorVotos, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar em lote só as sessões que continuam abertas")
+    void deveEncerrarApuradasQueContinuamAbertas() {
+        SessaoVotacao outra = new SessaoVotacao();
+        outra.setId(20L);
+        outra.setPauta(pauta);
+        outra.setFim(Instant.now().minusSeconds(1));
+        outra.setStatus(SessaoStatus.ABERTA);
+        sessao.setTotalSim(2);
+        when(sessaoEncerramentoRepository.travarAbertas(List.of(10L, 20L))).thenReturn(List.of(10L));
+
+        List<SessaoVotacao> encerradas = sessaoEncerramentoService.encerrarApuradas(List.of(sessao, outra));
+
+        assertThat(encerradas).containsExactly(sessao);
+        assertThat(sessao.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
+        verify(sessaoEncerramentoRepository).encerrar(List.of(sessao));
+        verify(outboxResultados).registrar(argThat(eventos ->
+                eventos.size() == 1 && eventos.get(0).getSessaoId().equals(10L) && eventos.get(0).getTotalSim() == 2));
+        verify(registroSessoesAbertas, never()).registrarEncerramento(outra);
+        verify(sessaoVotacaoRepository, never()).save(any());
+    }
+
+    private Optional<SessaoVotacao> encerrarPorId() {
+        when(sessaoVotacaoRepository.findById(10L)).thenReturn(Optional.of(sessao));
+        when(sessaoVotacaoRepository.buscarParaEncerramento(10L)).thenReturn(Optional.of(sessao));
+        return sessaoEncerramentoService.encerrarPorId(10L);
     }
 }
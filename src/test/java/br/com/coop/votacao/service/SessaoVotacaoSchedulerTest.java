@@ -1,21 +1,26 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.EncerramentoProperties;
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -27,13 +32,26 @@ class SessaoVotacaoSchedulerTest {
     private SessaoVotacaoRepository sessaoVotacaoRepository;
 
     @Mock
-    private SessaoEncerramentoService sessaoEncerramentoService;
+    private EncerramentoLote encerramentoLote;
 
-    @InjectMocks
+    @Mock
+    private MembrosEncerramento membrosEncerramento;
+
+    @Mock
+    private AgendaEncerramentos agendaEncerramentos;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private SessaoVotacaoScheduler sessaoVotacaoScheduler;
 
+    @BeforeEach
+    void setUp() {
+        sessaoVotacaoScheduler = new SessaoVotacaoScheduler(sessaoVotacaoRepository, encerramentoLote, membrosEncerramento, agendaEncerramentos,
+                new EncerramentoProperties(Duration.ofSeconds(5), 100, Duration.ofSeconds(5), 8, Duration.ofSeconds(60), 64, Duration.ofSeconds(15)),
+                meterRegistry);
+    }
+
     @Test
-    @DisplayName("Deve encerrar sessões expiradas")
+    @DisplayName("Deve encerrar sessões expiradas em lote dentro do orçamento")
     void deveEncerrarSessoesExpiradas() {
         Pauta pauta = new Pauta();
         pauta.setId(1L);
@@ -47,47 +65,66 @@ class SessaoVotacaoSchedulerTest {
 
         when(sessaoVotacaoRepository.findByStatusAndFimLessThanEqual(eq(SessaoStatus.ABERTA), any(Instant.class)))
                 .thenReturn(List.of(sessaoExpirada));
+        when(membrosEncerramento.responsavel(10L)).thenReturn(true);
+        when(encerramentoLote.encerrar(eq(List.of(sessaoExpirada)), any(Instant.class)))
+                .thenReturn(List.of(sessaoExpirada));
 
         sessaoVotacaoScheduler.encerrarSessoesExpiradas();
 
-        verify(sessaoEncerramentoService, times(1)).encerrar(sessaoExpirada);
+        verify(encerramentoLote).encerrar(eq(List.of(sessaoExpirada)),
+                argThat(prazo -> prazo.isAfter(Instant.now().plusSeconds(50))));
+        assertThat(meterRegistry.get("votacao.encerramento.atraso").tag("origem", "varredura").timer().count())
+                .isEqualTo(1);
     }
 
     @Test
-    @DisplayName("Não deve encerrar quando não há sessões expiradas")
-    void naoDeveEncerrarQuandoNaoHaSessoesExpiradas() {
+    @DisplayName("Deve encerrar só as sessões das partições deste nó")
+    void deveEncerrarSoSessoesDoNo() {
+        SessaoVotacao propria = sessao(10L);
+        SessaoVotacao deOutroNo = sessao(20L);
         when(sessaoVotacaoRepository.findByStatusAndFimLessThanEqual(eq(SessaoStatus.ABERTA), any(Instant.class)))
-                .thenReturn(Collections.emptyList());
+                .thenReturn(List.of(propria, deOutroNo));
+        when(membrosEncerramento.responsavel(10L)).thenReturn(true);
+        when(membrosEncerramento.responsavel(20L)).thenReturn(false);
+        when(encerramentoLote.encerrar(eq(List.of(propria)), any(Instant.class))).thenReturn(List.of(propria));
 
         sessaoVotacaoScheduler.encerrarSessoesExpiradas();
 
-        verify(sessaoEncerramentoService, never()).encerrar(any());
+        verify(encerramentoLote).encerrar(eq(List.of(propria)), any(Instant.class));
     }
 
     @Test
-    @DisplayName("Deve continuar encerrando demais sessões mesmo com erro em uma")
-    void deveContinuarEncerrandoMesmoComErro() {
-        Pauta pauta = new Pauta();
-        pauta.setId(1L);
+    @DisplayName("Não deve encerrar quando não há sessões expiradas")
+    void naoDeveEncerrarQuandoNaoHaSessoesExpiradas() {
+        when(sessaoVotacaoRepository.findByStatusAndFimLessThanEqual(eq(SessaoStatus.ABERTA), any(Instant.class)))
+                .thenReturn(Collections.emptyList());
 
-        SessaoVotacao sessao1 = new SessaoVotacao();
-        sessao1.setId(10L);
-        sessao1.setPauta(pauta);
-        sessao1.setStatus(SessaoStatus.ABERTA);
+        sessaoVotacaoScheduler.encerrarSessoesExpiradas();
 
-        SessaoVotacao sessao2 = new SessaoVotacao();
-        sessao2.setId(20L);
-        sessao2.setPauta(pauta);
-        sessao2.setStatus(SessaoStatus.ABERTA);
+        verifyNoInteractions(encerramentoLote);
+    }
 
+    @Test
+    @DisplayName("Deve migrar a agenda anterior e seguir a varredura quando a migração falha")
+    void deveSeguirVarreduraQuandoMigracaoFalha() {
+        SessaoVotacao propria = sessao(10L);
+        doThrow(new RuntimeException("Redis unavailable")).when(agendaEncerramentos).migrarAgendaAnterior();
         when(sessaoVotacaoRepository.findByStatusAndFimLessThanEqual(eq(SessaoStatus.ABERTA), any(Instant.class)))
-                .thenReturn(List.of(sessao1, sessao2));
-        doThrow(new RuntimeException("Erro inesperado")).when(sessaoEncerramentoService).encerrar(sessao1);
-        doNothing().when(sessaoEncerramentoService).encerrar(sessao2);
+                .thenReturn(List.of(propria));
+        when(membrosEncerramento.responsavel(10L)).thenReturn(true);
+        when(encerramentoLote.encerrar(eq(List.of(propria)), any(Instant.class))).thenReturn(List.of(propria));
 
         sessaoVotacaoScheduler.encerrarSessoesExpiradas();
 
-        verify(sessaoEncerramentoService).encerrar(sessao1);
-        verify(sessaoEncerramentoService).encerrar(sessao2);
+        verify(agendaEncerramentos).migrarAgendaAnterior();
+        verify(encerramentoLote).encerrar(eq(List.of(propria)), any(Instant.class));
+    }
+
+    private static SessaoVotacao sessao(Long id) {
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(id);
+        sessao.setFim(Instant.now().minusSeconds(600));
+        sessao.setStatus(SessaoStatus.ABERTA);
+        return sessao;
     }
 }
@@ -1,5 +1,6 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.ContagemProperties;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.domain.SessaoStatus;
 import br.com.coop.votacao.entity.SessaoVotacao;
@@ -32,6 +33,15 @@ class SessaoVotacaoServiceTest {
     @Mock
     private PautaService pautaService;
 
+    @Mock
+    private RegistroSessoesAbertas registroSessoesAbertas;
+
+    @Mock
+    private ContagemProperties contagemProperties;
+
+    @Mock
+    private AgendaEncerramentos agendaEncerramentos;
+
     @InjectMocks
     private SessaoVotacaoService sessaoVotacaoService;
 
@@ -59,12 +69,15 @@ class SessaoVotacaoServiceTest {
         when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ABERTA))
                 .thenReturn(Optional.empty());
         when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
+        when(contagemProperties.shardsPadrao()).thenReturn(1);
 
-        SessaoVotacao resultado = sessaoVotacaoService.abrirSessao(1L, null);
+        SessaoVotacao resultado = sessaoVotacaoService.abrirSessao(1L, null, null);
 
         assertThat(resultado).isNotNull();
         assertThat(resultado.getStatus()).isEqualTo(SessaoStatus.ABERTA);
-        verify(sessaoVotacaoRepository, times(1)).save(any(SessaoVotacao.class));
+        verify(sessaoVotacaoRepository, times(1)).save(argThat(s -> s.getShardsContador() == 1));
+        verify(registroSessoesAbertas).registrarAbertura(sessao);
+        verify(agendaEncerramentos).agendarAposCommit(sessao);
     }
 
     @Test
@@ -75,10 +88,11 @@ class SessaoVotacaoServiceTest {
                 .thenReturn(Optional.empty());
         when(sessaoVotacaoRepository.save(any(SessaoVotacao.class))).thenReturn(sessao);
 
-        SessaoVotacao resultado = sessaoVotacaoService.abrirSessao(1L, 120L);
+        SessaoVotacao resultado = sessaoVotacaoService.abrirSessao(1L, 120L, 8);
 
         assertThat(resultado).isNotNull();
-        verify(sessaoVotacaoRepository, times(1)).save(any(SessaoVotacao.class));
+        verify(sessaoVotacaoRepository, times(1)).save(argThat(s -> s.getShardsContador() == 8));
+        verify(contagemProperties, never()).shardsPadrao();
     }
 
     @Test
@@ -88,7 +102,7 @@ class SessaoVotacaoServiceTest {
         when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ABERTA))
                 .thenReturn(Optional.of(sessao));
 
-        assertThatThrownBy(() -> sessaoVotacaoService.abrirSessao(1L, 60L))
+        assertThatThrownBy(() -> sessaoVotacaoService.abrirSessao(1L, 60L, null))
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("Já existe sessão de votação aberta");
 
@@ -144,37 +158,30 @@ class SessaoVotacaoServiceTest {
     @DisplayName("Deve retornar sessão encerrada ao consultar resultado")
     void deveRetornarSessaoEncerradaAoConsultarResultado() {
         sessao.setStatus(SessaoStatus.ENCERRADA);
-        when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ENCERRADA))
-                .thenReturn(Optional.of(sessao));
+        when(sessaoVotacaoRepository.findFirstByPautaIdOrderByIdDesc(1L)).thenReturn(Optional.of(sessao));
 
         SessaoVotacao resultado = sessaoVotacaoService.resultado(1L);
 
         assertThat(resultado).isNotNull();
         assertThat(resultado.getStatus()).isEqualTo(SessaoStatus.ENCERRADA);
-        verify(sessaoVotacaoRepository, never()).findByPautaIdAndStatus(1L, SessaoStatus.ABERTA);
     }
 
     @Test
-    @DisplayName("Deve retornar sessão aberta quando não há encerrada ao consultar resultado")
-    void deveRetornarSessaoAbertaQuandoNaoHaEncerrada() {
-        when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ENCERRADA))
-                .thenReturn(Optional.empty());
-        when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ABERTA))
-                .thenReturn(Optional.of(sessao));
+    @DisplayName("Deve retornar a sessão aberta mais nova ao consultar resultado de pauta reaberta")
+    void deveRetornarSessaoAbertaDePautaReaberta() {
+        when(sessaoVotacaoRepository.findFirstByPautaIdOrderByIdDesc(1L)).thenReturn(Optional.of(sessao));
 
         SessaoVotacao resultado = sessaoVotacaoService.resultado(1L);
 
         assertThat(resultado).isNotNull();
         assertThat(resultado.getStatus()).isEqualTo(SessaoStatus.ABERTA);
+        verify(sessaoVotacaoRepository, never()).findByPautaIdAndStatus(1L, SessaoStatus.ENCERRADA);
     }
 
     @Test
     @DisplayName("Deve lançar exceção quando nenhuma sessão encontrada ao consultar resultado")
     void deveLancarExcecaoQuandoNenhumaSessaoEncontrada() {
-        when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ENCERRADA))
-                .thenReturn(Optional.empty());
-        when(sessaoVotacaoRepository.findByPautaIdAndStatus(1L, SessaoStatus.ABERTA))
-                .thenReturn(Optional.empty());
+        when(sessaoVotacaoRepository.findFirstByPautaIdOrderByIdDesc(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> sessaoVotacaoService.resultado(1L))
                 .isInstanceOf(NotFoundException.class)
@@ -0,0 +1,107 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.EncerramentoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.repository.SessaoVotacaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - TemporizadorEncerramento")
+class TemporizadorEncerramentoTest {
+
+    @Mock
+    private AgendaEncerramentos agendaEncerramentos;
+
+    @Mock
+    private MembrosEncerramento membrosEncerramento;
+
+    @Mock
+    private EncerramentoLote encerramentoLote;
+
+    @Mock
+    private SessaoVotacaoRepository sessaoVotacaoRepository;
+
+    private static final int[] PARTICOES = {1, 5, 9};
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TemporizadorEncerramento temporizador;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(membrosEncerramento.particoes()).thenReturn(PARTICOES);
+        temporizador = new TemporizadorEncerramento(agendaEncerramentos, membrosEncerramento, encerramentoLote, sessaoVotacaoRepository,
+                new EncerramentoProperties(Duration.ofSeconds(5), 100, Duration.ofSeconds(5), 8, Duration.ofSeconds(60), 64, Duration.ofSeconds(15)),
+                meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve encerrar as sessões reivindicadas e registrar o atraso")
+    void deveEncerrarSessoesReivindicadas() {
+        SessaoVotacao sessao = sessao(10L);
+        when(agendaEncerramentos.reivindicar(eq(PARTICOES), anyLong(), eq(100))).thenReturn(List.of(10L));
+        when(sessaoVotacaoRepository.findAllById(List.of(10L))).thenReturn(List.of(sessao));
+        when(encerramentoLote.encerrar(eq(List.of(sessao)), isNull())).thenReturn(List.of(sessao));
+
+        temporizador.executarCiclo();
+
+        assertThat(meterRegistry.get("votacao.encerramento.atraso").tag("origem", "temporizador").timer().count())
+                .isEqualTo(1);
+        verify(agendaEncerramentos, never()).reagendar(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve reagendar só as sessões abertas que não foram encerradas")
+    void deveReagendarQuandoEncerramentoFalha() {
+        SessaoVotacao encerrada = sessao(10L);
+        SessaoVotacao falhou = sessao(20L);
+        SessaoVotacao jaEncerrada = sessao(30L);
+        jaEncerrada.setStatus(SessaoStatus.ENCERRADA);
+        when(agendaEncerramentos.reivindicar(eq(PARTICOES), anyLong(), anyInt())).thenReturn(List.of(10L, 20L, 30L));
+        when(sessaoVotacaoRepository.findAllById(List.of(10L, 20L, 30L))).thenReturn(List.of(encerrada, falhou, jaEncerrada));
+        when(encerramentoLote.encerrar(eq(List.of(encerrada, falhou)), isNull())).thenReturn(List.of(encerrada));
+
+        temporizador.executarCiclo();
+
+        verify(agendaEncerramentos).reagendar(eq(20L), anyLong());
+        verify(agendaEncerramentos, times(1)).reagendar(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Deve dormir até o fim da próxima sessão, limitado à espera máxima")
+    void deveDormirAteProximoFim() {
+        when(agendaEncerramentos.reivindicar(eq(PARTICOES), anyLong(), anyInt())).thenReturn(List.of());
+        when(agendaEncerramentos.proximoFim(PARTICOES))
+                .thenReturn(System.currentTimeMillis() + 1_000)
+                .thenReturn(null);
+
+        assertThat(temporizador.executarCiclo()).isBetween(1L, 1_000L);
+        assertThat(temporizador.executarCiclo()).isEqualTo(5_000L);
+        verifyNoInteractions(encerramentoLote);
+    }
+
+    private static SessaoVotacao sessao(Long id) {
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(id);
+        sessao.setFim(Instant.now().minusMillis(200));
+        sessao.setStatus(SessaoStatus.ABERTA);
+        return sessao;
+    }
+}
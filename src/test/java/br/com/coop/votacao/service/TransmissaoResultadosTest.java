@@ -0,0 +1,172 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.config.TransmissaoProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.service.ResultadoParcialService.Parcial;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - TransmissaoResultados")
+class TransmissaoResultadosTest {
+
+    @Mock
+    private ResultadoParcialService resultadoParcialService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransmissaoResultados transmissao;
+
+    @BeforeEach
+    void setUp() {
+        transmissao = new TransmissaoResultados(resultadoParcialService, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new TransmissaoProperties(2, Duration.ofMinutes(1), 2, Duration.ofSeconds(5)), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve difundir só quando os totais mudam")
+    void deveDifundirSoQuandoTotaisMudam() {
+        when(resultadoParcialService.parcial(1L)).thenReturn(
+                parcial(new TotaisVotos(1, 0), true),
+                parcial(new TotaisVotos(3, 1), true),
+                parcial(new TotaisVotos(3, 1), true));
+
+        transmissao.assinar(1L);
+        transmissao.difundir();
+        transmissao.difundir();
+
+        assertThat(meterRegistry.get("votacao.transmissao.assinantes").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("votacao.transmissao.difusao").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve fechar as conexões quando a sessão é encerrada")
+    void deveFecharConexoesNoEncerramento() {
+        when(resultadoParcialService.parcial(1L)).thenReturn(parcial(new TotaisVotos(1, 0), true));
+        transmissao.assinar(1L);
+
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+        SessaoVotacao sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setTotalSim(7);
+        transmissao.encerrarAposCommit(sessao);
+
+        assertThat(meterRegistry.get("votacao.transmissao.assinantes").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Não deve registrar assinante para sessão já encerrada")
+    void naoDeveRegistrarAssinanteDeSessaoEncerrada() {
+        when(resultadoParcialService.parcial(1L)).thenReturn(parcial(new TotaisVotos(7, 3), false));
+
+        transmissao.assinar(1L);
+        transmissao.difundir();
+
+        assertThat(meterRegistry.get("votacao.transmissao.assinantes").gauge().value()).isZero();
+        verify(resultadoParcialService, times(1)).parcial(1L);
+    }
+
+    @Test
+    @DisplayName("Deve descartar o assinante com envio parado sem atrasar os demais")
+    void deveDescartarAssinanteLentoSemAtrasarOsDemais() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        EmitterTeste lento = new EmitterTeste(liberar);
+        EmitterTeste rapido = new EmitterTeste(null);
+        Iterator<SseEmitter> emitters = List.<SseEmitter>of(lento, rapido).iterator();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        transmissao = new TransmissaoResultados(resultadoParcialService, new ObjectMapper().registerModule(new JavaTimeModule()),
+                new TransmissaoProperties(2, Duration.ofMinutes(1), 2, Duration.ofMillis(50)), registry) {
+            @Override
+            SseEmitter novoEmitter() {
+                return emitters.next();
+            }
+        };
+        when(resultadoParcialService.parcial(1L)).thenReturn(
+                parcial(new TotaisVotos(1, 0), true),
+                parcial(new TotaisVotos(1, 0), true),
+                parcial(new TotaisVotos(2, 0), true),
+                parcial(new TotaisVotos(3, 0), true));
+
+        try {
+            transmissao.assinar(1L);
+            transmissao.assinar(1L);
+
+            transmissao.difundir();
+            assertThat(lento.bloqueado.await(2, TimeUnit.SECONDS)).isTrue();
+
+            Thread.sleep(100);
+            transmissao.difundir();
+
+            assertThat(rapido.recebidos.await(2, TimeUnit.SECONDS)).isTrue();
+            assertThat(registry.get("votacao.transmissao.descartados").counter().count()).isEqualTo(1);
+            assertThat(registry.get("votacao.transmissao.assinantes").gauge().value()).isEqualTo(1);
+        } finally {
+            liberar.countDown();
+        }
+        assertThat(lento.encerradoComErro.await(2, TimeUnit.SECONDS)).isTrue();
+        transmissao.stop();
+    }
+
+    /**
+     * Emitter que, com {@code liberar}, trava a partir do segundo envio como uma conexão que parou de ler.
+     */
+    private static final class EmitterTeste extends SseEmitter {
+        private final CountDownLatch liberar;
+        private final AtomicInteger envios = new AtomicInteger();
+        private final CountDownLatch bloqueado = new CountDownLatch(1);
+        private final CountDownLatch recebidos = new CountDownLatch(3);
+        private final CountDownLatch encerradoComErro = new CountDownLatch(1);
+
+        private EmitterTeste(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (envios.incrementAndGet() > 1 && liberar != null) {
+                bloqueado.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.send(builder);
+            recebidos.countDown();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            encerradoComErro.countDown();
+            super.completeWithError(ex);
+        }
+    }
+
+    private static Parcial parcial(TotaisVotos totais, boolean provisorio) {
+        return new Parcial(1L, 10L, provisorio ? SessaoStatus.ABERTA : SessaoStatus.ENCERRADA, totais, provisorio, Instant.now());
+    }
+}
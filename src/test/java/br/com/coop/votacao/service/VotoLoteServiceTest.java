@@ -0,0 +1,202 @@
+package br.com.coop.votacao.service;
+
+import br.com.coop.votacao.api.dto.VotoLoteResultado;
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.SituacaoVotoLote;
+import br.com.coop.votacao.domain.VotoValor;
+import br.com.coop.votacao.entity.Pauta;
+import br.com.coop.votacao.entity.SessaoVotacao;
+import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.integration.VerificadorCpf;
+import br.com.coop.votacao.messaging.VotoEventoProducer;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
+import br.com.coop.votacao.repository.VotoBatchRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Testes Unitários - VotoLoteService")
+class VotoLoteServiceTest {
+
+    @Mock
+    private VotoBatchRepository votoBatchRepository;
+
+    @Mock
+    private PautaService pautaService;
+
+    @Mock
+    private SessaoVotacaoService sessaoVotacaoService;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ContadorVotos contadorVotos;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    @Mock
+    private VotoEventoProducer votoEventoProducer;
+
+    @Mock
+    private VerificadorCpf verificadorCpf;
+
+    @Mock
+    private CpfProperties cpfProperties;
+
+    @Mock
+    private RegistroAptos registroAptos;
+
+    private VotoLoteService votoLoteService;
+
+    private SessaoVotacao sessao;
+
+    @BeforeEach
+    void setUp() {
+        votoLoteService = new VotoLoteService(votoBatchRepository, pautaService, sessaoVotacaoService, redisTemplate,
+                contadorVotos, transactionTemplate, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(),
+                sessaoTallySlotRepository, votoEventoProducer, verificadorCpf, cpfProperties, registroAptos);
+
+        Pauta pauta = new Pauta();
+        pauta.setId(1L);
+
+        sessao = new SessaoVotacao();
+        sessao.setId(10L);
+        sessao.setPauta(pauta);
+        sessao.setInicio(Instant.now().minusSeconds(300));
+        sessao.setFim(Instant.now().plusSeconds(300));
+        sessao.setStatus(SessaoStatus.ABERTA);
+
+        lenient().when(registroAptos.consultar(anyLong(), anyString())).thenReturn(RegistroAptos.Situacao.SEM_LISTA);
+    }
+
+    @Test
+    @DisplayName("Deve classificar itens do lote JSON array em criado, duplicado e rejeitado")
+    void deveClassificarItensDoLote() throws Exception {
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(votoBatchRepository.inserirEmLote(eq(1L), anyList())).thenReturn(new int[]{1, 0});
+
+        String corpo = """
+                [
+                  {"cpf": "12345678901", "voto": "SIM"},
+                  {"cpf": "12345678902", "voto": "NAO"},
+                  {"cpf": "123", "voto": "SIM"},
+                  {"cpf": "12345678901", "voto": "NAO"},
+                  {"cpf": "12345678903", "voto": "TALVEZ"}
+                ]
+                """;
+
+        List<VotoLoteResultado> resultados = new ArrayList<>();
+        votoLoteService.registrar(1L, new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8)), resultados::addAll);
+
+        assertThat(resultados)
+                .extracting(VotoLoteResultado::getIndice, VotoLoteResultado::getSituacao)
+                .containsExactly(
+                        tuple(0, SituacaoVotoLote.CRIADO),
+                        tuple(1, SituacaoVotoLote.DUPLICADO),
+                        tuple(2, SituacaoVotoLote.REJEITADO),
+                        tuple(3, SituacaoVotoLote.DUPLICADO),
+                        tuple(4, SituacaoVotoLote.REJEITADO));
+
+        verify(votoBatchRepository, times(1)).inserirEmLote(eq(1L), anyList());
+        verify(contadorVotos).adicionar(10L, 1, Map.of(VotoValor.SIM, 1L));
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+        verify(votoEventoProducer, times(1)).publicar(any());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar corpo NDJSON")
+    void deveAceitarCorpoNdjson() throws Exception {
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(votoBatchRepository.inserirEmLote(eq(1L), anyList())).thenReturn(new int[]{1, 1});
+
+        String corpo = """
+                {"cpf": "12345678901", "voto": "SIM"}
+                {"cpf": "12345678902", "voto": "SIM"}
+                """;
+
+        List<VotoLoteResultado> resultados = new ArrayList<>();
+        votoLoteService.registrar(1L, new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8)), resultados::addAll);
+
+        assertThat(resultados).extracting(VotoLoteResultado::getSituacao)
+                .containsOnly(SituacaoVotoLote.CRIADO)
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar os CPFs recusados pelo verificador sem gravá-los")
+    void deveRejeitarCpfsRecusados() throws Exception {
+        when(cpfProperties.habilitado()).thenReturn(true);
+        when(verificadorCpf.recusados(List.of("12345678901", "12345678902")))
+                .thenReturn(Map.of("12345678902", "Associado não está habilitado para votar"));
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(votoBatchRepository.inserirEmLote(eq(1L), anyList())).thenReturn(new int[]{1});
+
+        String corpo = """
+                {"cpf": "12345678901", "voto": "SIM"}
+                {"cpf": "12345678902", "voto": "NAO"}
+                """;
+
+        List<VotoLoteResultado> resultados = new ArrayList<>();
+        votoLoteService.registrar(1L, new ByteArrayInputStream(corpo.getBytes(StandardCharsets.UTF_8)), resultados::addAll);
+
+        assertThat(resultados)
+                .extracting(VotoLoteResultado::getIndice, VotoLoteResultado::getSituacao, VotoLoteResultado::getMensagem)
+                .containsExactly(
+                        tuple(0, SituacaoVotoLote.CRIADO, null),
+                        tuple(1, SituacaoVotoLote.REJEITADO, "Associado não está habilitado para votar"));
+        verify(votoBatchRepository).inserirEmLote(eq(1L), argThat(votos -> votos.size() == 1));
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar lote quando sessão está encerrada")
+    void deveRejeitarLoteQuandoSessaoEncerrada() {
+        sessao.setFim(Instant.now().minusSeconds(1));
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+
+        assertThatThrownBy(() -> votoLoteService.registrar(1L, new ByteArrayInputStream(new byte[0]), r -> { }))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("está encerrada");
+
+        verifyNoInteractions(votoBatchRepository);
+    }
+}
@@ -1,12 +1,21 @@
 package br.com.coop.votacao.service;
 
+import br.com.coop.votacao.config.CpfProperties;
+import br.com.coop.votacao.config.IngestaoProperties;
 import br.com.coop.votacao.entity.Pauta;
 import br.com.coop.votacao.domain.SessaoStatus;
+import br.com.coop.votacao.domain.TotaisVotos;
 import br.com.coop.votacao.entity.SessaoVotacao;
 import br.com.coop.votacao.entity.Voto;
 import br.com.coop.votacao.domain.VotoValor;
 import br.com.coop.votacao.exception.BusinessException;
+import br.com.coop.votacao.integration.VerificadorCpf;
+import br.com.coop.votacao.messaging.VotoEvento;
+import br.com.coop.votacao.messaging.VotoEventoProducer;
+import br.com.coop.votacao.messaging.VotoStreamProducer;
+import br.com.coop.votacao.repository.SessaoTallySlotRepository;
 import br.com.coop.votacao.repository.VotoRepository;
+import br.com.coop.votacao.service.RegistroSessoesAbertas.SessaoAberta;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,10 +24,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,10 +48,37 @@ class VotoServiceTest {
     private SessaoVotacaoService sessaoVotacaoService;
 
     @Mock
-    private StringRedisTemplate redisTemplate;
+    private ContadorVotos contadorVotos;
 
     @Mock
-    private DefaultRedisScript<Long> incrementWithTtlScript;
+    private VotoStreamProducer votoStreamProducer;
+
+    @Mock
+    private IngestaoProperties ingestaoProperties;
+
+    @Mock
+    private FiltroVotoDuplicado filtroVotoDuplicado;
+
+    @Mock
+    private RegistroSessoesAbertas registroSessoesAbertas;
+
+    @Mock
+    private SessaoTallySlotRepository sessaoTallySlotRepository;
+
+    @Mock
+    private VotoEventoProducer votoEventoProducer;
+
+    @Mock
+    private VerificadorCpf verificadorCpf;
+
+    @Mock
+    private CpfProperties cpfProperties;
+
+    @Mock
+    private RegistroAptos registroAptos;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private VotoService votoService;
@@ -68,6 +105,11 @@ class VotoServiceTest {
         voto.setPauta(pauta);
         voto.setAssociadoId("12345678901");
         voto.setValor(VotoValor.SIM);
+
+        lenient().when(filtroVotoDuplicado.reservar(anyLong(), anyString())).thenReturn(true);
+        lenient().when(registroAptos.consultar(anyLong(), anyString())).thenReturn(RegistroAptos.Situacao.SEM_LISTA);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 
     @Test
@@ -76,13 +118,15 @@ class VotoServiceTest {
         when(pautaService.buscarPorId(1L)).thenReturn(pauta);
         when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
         when(votoRepository.saveAndFlush(any(Voto.class))).thenReturn(voto);
-        when(redisTemplate.execute(any(), anyList(), anyString())).thenReturn(1L);
 
         Voto resultado = votoService.registrarVoto(1L, "12345678901", VotoValor.SIM);
 
         assertThat(resultado).isNotNull();
         assertThat(resultado.getValor()).isEqualTo(VotoValor.SIM);
         verify(votoRepository, times(1)).saveAndFlush(any(Voto.class));
+        verify(contadorVotos).incrementar(10L, 1, "12345678901", VotoValor.SIM);
+        verify(votoEventoProducer).publicarAposCommit(
+                new VotoEvento(1L, 10L, "12345678901", VotoValor.SIM, voto.getDataHora()));
     }
 
     @Test
@@ -92,12 +136,12 @@ class VotoServiceTest {
         when(pautaService.buscarPorId(1L)).thenReturn(pauta);
         when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
         when(votoRepository.saveAndFlush(any(Voto.class))).thenReturn(voto);
-        when(redisTemplate.execute(any(), anyList(), anyString())).thenReturn(1L);
 
         Voto resultado = votoService.registrarVoto(1L, "12345678901", VotoValor.NAO);
 
         assertThat(resultado).isNotNull();
         assertThat(resultado.getValor()).isEqualTo(VotoValor.NAO);
+        verify(contadorVotos).incrementar(10L, 1, "12345678901", VotoValor.NAO);
     }
 
     @Test
@@ -126,4 +170,165 @@ class VotoServiceTest {
                 .isInstanceOf(BusinessException.class)
                 .hasMessageContaining("já votou");
     }
+
+    @Test
+    @DisplayName("Deve registrar voto sem consultar pauta e sessão quando a sessão está no registro local")
+    void deveRegistrarVotoUsandoRegistroLocal() {
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 0)));
+        when(pautaService.referencia(1L)).thenReturn(pauta);
+        when(votoRepository.saveAndFlush(any(Voto.class))).thenReturn(voto);
+
+        Voto resultado = votoService.registrarVoto(1L, "12345678901", VotoValor.SIM);
+
+        assertThat(resultado).isNotNull();
+        verify(filtroVotoDuplicado).reservar(10L, "12345678901");
+        verify(pautaService, never()).buscarPorId(any());
+        verify(sessaoVotacaoService, never()).buscarSessaoAbertaPorPauta(any());
+    }
+
+    @Test
+    @DisplayName("Deve somar o voto no slot do associado quando a sessão usa a tabela de slots")
+    void deveSomarVotoNoSlotDaSessao() {
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 8)));
+        when(pautaService.referencia(1L)).thenReturn(pauta);
+        when(votoRepository.saveAndFlush(any(Voto.class))).thenReturn(voto);
+
+        votoService.registrarVoto(1L, "12345678901", VotoValor.NAO);
+
+        verify(sessaoTallySlotRepository).somar(10L, ContadorVotos.shard("12345678901", 8), new TotaisVotos(0, 1));
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco quando a sessão do registro local já expirou")
+    void deveConsultarBancoQuandoSessaoDoRegistroExpirou() {
+        sessao.setFim(Instant.now().minusSeconds(60));
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 0)));
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("está encerrada");
+
+        verify(votoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Deve enfileirar voto no stream sem gravar no banco")
+    void deveEnfileirarVotoNoStream() {
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(votoStreamProducer.publicar(1L, 10L, "12345678901", VotoValor.SIM)).thenReturn("1-0");
+
+        String recordId = votoService.enfileirarVoto(1L, "12345678901", VotoValor.SIM);
+
+        assertThat(recordId).isEqualTo("1-0");
+        verify(votoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Não deve enfileirar voto quando sessão está encerrada")
+    void naoDeveEnfileirarVotoQuandoSessaoEncerrada() {
+        sessao.setFim(Instant.now().minusSeconds(60));
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+
+        assertThatThrownBy(() -> votoService.enfileirarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("está encerrada");
+
+        verify(votoStreamProducer, never()).publicar(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar voto repetido no filtro Redis sem tentar gravar no banco")
+    void deveRejeitarVotoRepetidoNoFiltroRedis() {
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(filtroVotoDuplicado.reservar(10L, "12345678901")).thenReturn(false);
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("já votou");
+
+        verify(votoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Deve liberar reserva do votante quando gravação falha por erro inesperado")
+    void deveLiberarReservaQuandoGravacaoFalha() {
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(votoRepository.saveAndFlush(any(Voto.class))).thenThrow(new IllegalStateException("DB indisponível"));
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(filtroVotoDuplicado).liberar(10L, "12345678901");
+    }
+
+    @Test
+    @DisplayName("Deve manter reserva quando banco confirma voto duplicado")
+    void deveManterReservaQuandoBancoConfirmaDuplicado() {
+        when(pautaService.buscarPorId(1L)).thenReturn(pauta);
+        when(sessaoVotacaoService.buscarSessaoAbertaPorPauta(1L)).thenReturn(sessao);
+        when(votoRepository.saveAndFlush(any(Voto.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class);
+
+        verify(filtroVotoDuplicado, never()).liberar(any(), any());
+    }
+
+    @Test
+    @DisplayName("Deve recusar o voto de associado não habilitado antes de reservar e gravar")
+    void deveRecusarAssociadoNaoHabilitado() {
+        when(cpfProperties.habilitado()).thenReturn(true);
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 0)));
+        doThrow(new BusinessException("Associado não está habilitado para votar"))
+                .when(verificadorCpf).exigirHabilitado("12345678901");
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("não está habilitado");
+
+        verify(filtroVotoDuplicado, never()).reservar(anyLong(), anyString());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("Deve consultar o CPF antes de abrir a transação de gravação")
+    void deveConsultarCpfAntesDaTransacao() {
+        when(cpfProperties.habilitado()).thenReturn(true);
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 0)));
+        when(votoRepository.saveAndFlush(any(Voto.class))).thenReturn(voto);
+
+        votoService.registrarVoto(1L, "12345678901", VotoValor.SIM);
+
+        var ordem = inOrder(verificadorCpf, transactionTemplate, votoRepository);
+        ordem.verify(verificadorCpf).exigirHabilitado("12345678901");
+        ordem.verify(transactionTemplate).execute(any());
+        ordem.verify(votoRepository).saveAndFlush(any(Voto.class));
+    }
+
+    @Test
+    @DisplayName("Deve recusar pela lista de aptos da pauta sem consultar o serviço de CPF")
+    void deveRecusarPelaListaDeAptos() {
+        when(registroAptos.consultar(1L, "12345678901")).thenReturn(RegistroAptos.Situacao.NAO_APTO);
+        when(registroSessoesAbertas.buscar(1L)).thenReturn(Optional.of(new SessaoAberta(
+                10L, 1L, sessao.getInicio(), sessao.getFim(), 1, 0)));
+
+        assertThatThrownBy(() -> votoService.registrarVoto(1L, "12345678901", VotoValor.SIM))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("lista de aptos");
+
+        verifyNoInteractions(verificadorCpf);
+        verify(votoRepository, never()).saveAndFlush(any());
+    }
 }